@@ -0,0 +1,23 @@
+package com.aws.datagen.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Reports the bytes written by a benchmark alongside its row throughput, JMH turns this into bytes/sec
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class ByteCounter
+{
+    public long bytes;
+
+    @Setup(Level.Iteration)
+    public void reset()
+    {
+        bytes = 0L;
+    }
+}
@@ -0,0 +1,77 @@
+package com.aws.datagen.benchmarks;
+
+import com.aws.datagen.CustomerTable;
+import com.aws.datagen.DataGenerator;
+import com.aws.datagen.model.Customer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-row work of the contribution loop without any output, reported in rows/sec.
+ *
+ * Run from the repository root so the name files under data/ can be found.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContributionBenchmark
+{
+    private static final int CUSTOMERS = 100000;
+
+    private DataGenerator generator;
+    private CustomerTable customers;
+    private CustomerTable tabulatedCustomers;
+    private int payYear = 2002;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        generator = new DataGenerator(42L);
+        customers = new CustomerTable(0L, CUSTOMERS);
+
+        tabulatedCustomers = new CustomerTable(0L, CUSTOMERS);
+
+        for (Customer customer: generator.createCustomers(CUSTOMERS))
+        {
+            customers.add(customer);
+            tabulatedCustomers.add(customer);
+        }
+
+        generator.tabulateContributionCents(tabulatedCustomers, 2002, 2011);
+    }
+
+    /**
+     * Amounts computed from the salary model for every row
+     */
+    @Benchmark
+    @OperationsPerInvocation(CUSTOMERS)
+    public void contributionRow(Blackhole blackhole)
+    {
+        payYear = payYear == 2011 ? 2002 : payYear + 1;
+
+        for (int i = 0; i < CUSTOMERS; i++)
+        {
+            blackhole.consume(generator.getContributionCents(customers, i, payYear));
+        }
+    }
+
+    /**
+     * Amounts looked up in the table computed once per customer and year, as the contribution loop does
+     */
+    @Benchmark
+    @OperationsPerInvocation(CUSTOMERS)
+    public void contributionRowTabulated(Blackhole blackhole)
+    {
+        payYear = payYear == 2011 ? 2002 : payYear + 1;
+
+        for (int i = 0; i < CUSTOMERS; i++)
+        {
+            blackhole.consume(generator.getContributionCents(tabulatedCustomers, i, payYear));
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.aws.datagen.benchmarks;
+
+import com.aws.datagen.DataGenerator;
+import com.aws.datagen.model.Customer;
+import com.aws.datagen.sink.CustomerBatch;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.QuoteMode;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Customer generation, CSV encoding and the salary model, reported in customers/sec.
+ *
+ * Run from the repository root so the name files under data/ can be found.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerBenchmark
+{
+    private static final int CUSTOMERS = 10000;
+
+    private static final CSVFormat FORMAT = CSVFormat.EXCEL.withQuote('"').withQuoteMode(QuoteMode.NON_NUMERIC);
+
+    private DataGenerator generator;
+    private List<Customer> customers;
+    private List<Map<Integer, Double>> yearlyVariances;
+    private long nextCustomerId = 0L;
+    private final byte[] csv = new byte[64 * 1024];
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        generator = new DataGenerator(42L);
+        customers = generator.createCustomers(CUSTOMERS);
+        yearlyVariances = new ArrayList<>();
+
+        for (int i = 0; i < CUSTOMERS; i++)
+        {
+            yearlyVariances.add(new HashMap<>());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CUSTOMERS)
+    public void createCustomers(Blackhole blackhole) throws Exception
+    {
+        for (int i = 0; i < CUSTOMERS; i++)
+        {
+            blackhole.consume(generator.createCustomer(nextCustomerId++));
+        }
+    }
+
+    /**
+     * Customers encoded as the CSV sinks used to, formatting and encoding every name again
+     */
+    @Benchmark
+    @OperationsPerInvocation(CUSTOMERS)
+    public byte[] csvPrinter() throws IOException
+    {
+        StringBuilder csv = new StringBuilder(CUSTOMERS * 64);
+        CSVPrinter printer = new CSVPrinter(csv, FORMAT);
+
+        for (Customer customer: customers)
+        {
+            printer.printRecord(customer.getCustomerId(), customer.getTitle(), customer.getFirstName(),
+                    customer.getLastName(), customer.getGenderString(), LocalDate.ofEpochDay(customer.getJoinEpochDay()).toString());
+        }
+
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Customers encoded as the CSV sinks do, copying the bytes each dictionary name encoded once
+     */
+    @Benchmark
+    @OperationsPerInvocation(CUSTOMERS)
+    public byte[] csvEncoder()
+    {
+        CustomerBatch batch = new CustomerBatch(CUSTOMERS);
+
+        for (Customer customer: customers)
+        {
+            batch.add(customer);
+        }
+
+        int length = 0;
+
+        for (int row = 0; row < batch.size(); row++)
+        {
+            if (length + batch.getMaxCsvRowLength(row) > csv.length)
+            {
+                length = 0;
+            }
+
+            length = batch.encodeCsvRow(row, csv, length);
+        }
+
+        return csv;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CUSTOMERS)
+    public void getSalary(Blackhole blackhole)
+    {
+        for (Customer customer: customers)
+        {
+            blackhole.consume(customer.getSalary(2002, 2007, 36000.0, 0.1355));
+        }
+    }
+
+    /**
+     * Salaries memoised as Customer used to, in a synchronized map of boxed years and variances per customer
+     */
+    @Benchmark
+    @OperationsPerInvocation(CUSTOMERS)
+    public void getSalaryBoxedMap(Blackhole blackhole)
+    {
+        for (int i = 0; i < CUSTOMERS; i++)
+        {
+            Customer customer = customers.get(i);
+            Map<Integer, Double> yearlyVariance = yearlyVariances.get(i);
+
+            synchronized (customer)
+            {
+                if (!yearlyVariance.containsKey(2007))
+                {
+                    yearlyVariance.put(2007, customer.getSalaryVariance() + Customer.getYearlyKick(customer.getRandomSeed(), 2007));
+                }
+
+                blackhole.consume(Customer.getSalary(yearlyVariance.get(2007), 2002, 2007, 36000.0, 0.1355));
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.aws.datagen.benchmarks;
+
+import com.aws.datagen.CustomerTable;
+import com.aws.datagen.DataGenerator;
+import com.aws.datagen.model.Contribution;
+import com.aws.datagen.model.Customer;
+import com.aws.datagen.sink.ParquetOptions;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.avro.AvroParquetWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contribution Parquet write throughput against file size across writer settings.
+ *
+ * Rows/sec is the primary score and the bytes counter is file bytes/sec, so bytes per row is
+ * the bytes score divided by the primary score.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParquetBenchmark
+{
+    private static final int ROWS = 100000;
+
+    @Param({"SNAPPY", "GZIP", "UNCOMPRESSED"})
+    public String codec;
+
+    @Param({"true", "false"})
+    public boolean dictionary;
+
+    @Param({"1048576"})
+    public int pageSize;
+
+    private final long[] customerIds = new long[ROWS];
+    private final long[] amountCents = new long[ROWS];
+
+    private ParquetOptions options;
+    private File parquetFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        DataGenerator generator = new DataGenerator(42L);
+        CustomerTable customers = new CustomerTable(0L, ROWS);
+
+        for (Customer customer: generator.createCustomers(ROWS))
+        {
+            customers.add(customer);
+        }
+
+        for (int i = 0; i < ROWS; i++)
+        {
+            customerIds[i] = customers.getCustomerId(i);
+            amountCents[i] = generator.getContributionCents(customers, i, 2007);
+        }
+
+        options = new ParquetOptions();
+        options.set("codec", codec);
+        options.setDictionaryEncoding(dictionary);
+        options.setPageSize(pageSize);
+
+        parquetFile = File.createTempFile("contributions", options.getFileExtension());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        parquetFile.delete();
+        new File(parquetFile.getParentFile(), "." + parquetFile.getName() + ".crc").delete();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void writeContributions(ByteCounter counter) throws IOException
+    {
+        Contribution contribution = new Contribution(0L, 0L);
+
+        try (ParquetWriter<Contribution> writer = options.apply(AvroParquetWriter.<Contribution>builder(new Path(parquetFile.getAbsolutePath()))
+                .withSchema(Contribution.SCHEMA))
+                .build())
+        {
+            for (int i = 0; i < ROWS; i++)
+            {
+                /*
+                 * Spread the rows over a month of pay dates as in a real partition
+                 */
+                if (i % 3300 == 0)
+                {
+                    contribution.setContributionDate(new Date(1180000000000L + i / 3300 * 86400000L));
+                }
+
+                contribution.setContributionId(i);
+                contribution.setCustomerId(customerIds[i]);
+                contribution.setAmount(amountCents[i] / 100.0);
+                writer.write(contribution);
+            }
+        }
+
+        counter.bytes += Files.size(parquetFile.toPath());
+    }
+}
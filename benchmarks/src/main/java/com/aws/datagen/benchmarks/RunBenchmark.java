@@ -0,0 +1,77 @@
+package com.aws.datagen.benchmarks;
+
+import com.aws.datagen.DataGeneratorCli;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole runs of the generator through its command line, one run per measurement, for scaling sweeps.
+ *
+ * Every parameter can be swept from the JMH command line, e.g.
+ * -p customers=100000,1000000 -p threads=1,2,4 -p config=sweep.yaml, where the config file holds any
+ * other settings. Output is written to a temporary directory and deleted after each run.
+ *
+ * Run from the repository root so the name files under data/ can be found.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class RunBenchmark
+{
+    @Param("100000")
+    public String customers;
+
+    @Param("4")
+    public String threads;
+
+    @Param("csv")
+    public String formats;
+
+    @Param("1000000")
+    public String chunkSize;
+
+    /**
+     * A properties or YAML config file of further settings, empty for none
+     */
+    @Param("")
+    public String config;
+
+    private File outputRoot;
+
+    @Setup(Level.Invocation)
+    public void setUp() throws Exception
+    {
+        outputRoot = Files.createTempDirectory("datagen-run").toFile();
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() throws Exception
+    {
+        FileUtils.deleteDirectory(outputRoot);
+    }
+
+    @Benchmark
+    public void run() throws Exception
+    {
+        List<String> args = new ArrayList<>(Arrays.asList("--seed", "42", "--customers", customers, "--threads", threads,
+                "--formats", formats, "--chunk-size", chunkSize, "--output-root", outputRoot.getPath(), "--metrics-interval", "0"));
+
+        if (!config.isEmpty())
+        {
+            args.add("--config");
+            args.add(config);
+        }
+
+        DataGeneratorCli.main(args.toArray(new String[0]));
+    }
+}
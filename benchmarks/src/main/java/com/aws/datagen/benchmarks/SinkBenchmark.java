@@ -0,0 +1,322 @@
+package com.aws.datagen.benchmarks;
+
+import com.aws.datagen.sink.ChannelOutputStream;
+import com.aws.datagen.sink.ContributionArrowSink;
+import com.aws.datagen.sink.ContributionBatch;
+import com.aws.datagen.sink.ContributionCsvEncoder;
+import com.aws.datagen.sink.ContributionOrcSink;
+import com.aws.datagen.sink.CsvSink;
+import com.aws.datagen.sink.ParallelGzipOutputStream;
+import com.aws.datagen.sink.Sink;
+import com.aws.datagen.CustomerTable;
+import com.aws.datagen.DataGenerator;
+import com.aws.datagen.metrics.RunMetrics;
+import com.aws.datagen.model.Contribution;
+import com.aws.datagen.model.Customer;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.QuoteMode;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.avro.AvroParquetWriter;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Each contribution output format on its own, fed the same pre-generated rows.
+ *
+ * Reported in rows/sec with the bytes counter giving bytes/sec of output. CSV output is
+ * discarded after counting, except in the *File benchmarks which compare ways of writing CSV
+ * to a temporary file. Parquet, ORC and Arrow are written to temporary files, the columnar formats
+ * through the generator's own sinks a batch at a time.
+ *
+ * Forks open java.nio to Arrow, which Java 8 ignores.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-XX:+IgnoreUnrecognizedVMOptions", "--add-opens=java.base/java.nio=ALL-UNNAMED"})
+public class SinkBenchmark
+{
+    private static final int ROWS = 100000;
+
+    private static final int BATCH_SIZE = 8192;
+
+    private static final int COMPRESSION_THREADS = Runtime.getRuntime().availableProcessors();
+
+    private static final CSVFormat FORMAT = CSVFormat.EXCEL.withQuote('"').withQuoteMode(QuoteMode.NON_NUMERIC)
+            .withHeader("ContributionId", "CustomerId", "ContributionDate", "Amount");
+
+    private final long[] customerIds = new long[ROWS];
+    private final long[] amountCents = new long[ROWS];
+
+    private final Date payDate = new Date();
+    private final String payDateString = "2007-06-15";
+    private final byte[] quotedPayDate = ContributionCsvEncoder.quote(payDateString);
+    private final int payEpochDay = (int) LocalDate.parse(payDateString).toEpochDay();
+
+    private File csvFile;
+    private File parquetFile;
+    private File orcFile;
+    private File arrowFile;
+    private ExecutorService compressionExecutor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        DataGenerator generator = new DataGenerator(42L);
+        CustomerTable customers = new CustomerTable(0L, ROWS);
+
+        for (Customer customer: generator.createCustomers(ROWS))
+        {
+            customers.add(customer);
+        }
+
+        for (int i = 0; i < ROWS; i++)
+        {
+            customerIds[i] = customers.getCustomerId(i);
+            amountCents[i] = generator.getContributionCents(customers, i, 2007);
+        }
+
+        csvFile = File.createTempFile("contributions", ".csv");
+        parquetFile = File.createTempFile("contributions", ".snappy.parquet");
+        orcFile = File.createTempFile("contributions", ".orc");
+        arrowFile = File.createTempFile("contributions", ".arrow");
+        compressionExecutor = Executors.newFixedThreadPool(COMPRESSION_THREADS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        compressionExecutor.shutdown();
+        csvFile.delete();
+        parquetFile.delete();
+        new File(parquetFile.getParentFile(), "." + parquetFile.getName() + ".crc").delete();
+        orcFile.delete();
+        arrowFile.delete();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void csvPrinter(ByteCounter counter) throws IOException
+    {
+        CountingOutputStream output = new CountingOutputStream(NullOutputStream.NULL_OUTPUT_STREAM);
+
+        try (CSVPrinter printer = new CSVPrinter(new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8)), FORMAT))
+        {
+            for (int i = 0; i < ROWS; i++)
+            {
+                printer.printRecord((long) i, customerIds[i], payDateString, amountCents[i] / 100.0);
+            }
+        }
+
+        counter.bytes += output.getByteCount();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void csvEncoder(ByteCounter counter) throws IOException
+    {
+        CountingOutputStream output = new CountingOutputStream(NullOutputStream.NULL_OUTPUT_STREAM);
+        ContributionCsvEncoder encoder = new ContributionCsvEncoder();
+
+        try (OutputStream stream = new BufferedOutputStream(output, 64 * 1024))
+        {
+            stream.write(ContributionCsvEncoder.HEADER_BYTES);
+
+            for (int i = 0; i < ROWS; i++)
+            {
+                int length = encoder.encode(i, customerIds[i], quotedPayDate, amountCents[i]);
+                stream.write(encoder.getBuffer(), 0, length);
+            }
+        }
+
+        counter.bytes += output.getByteCount();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void csvPrinterFile(ByteCounter counter) throws IOException
+    {
+        try (CSVPrinter printer = new CSVPrinter(Files.newBufferedWriter(csvFile.toPath(), StandardCharsets.UTF_8), FORMAT))
+        {
+            for (int i = 0; i < ROWS; i++)
+            {
+                printer.printRecord((long) i, customerIds[i], payDateString, amountCents[i] / 100.0);
+            }
+        }
+
+        counter.bytes += csvFile.length();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void csvEncoderFile(ByteCounter counter) throws IOException
+    {
+        ContributionCsvEncoder encoder = new ContributionCsvEncoder();
+
+        try (OutputStream stream = new BufferedOutputStream(new FileOutputStream(csvFile), 64 * 1024))
+        {
+            stream.write(ContributionCsvEncoder.HEADER_BYTES);
+
+            for (int i = 0; i < ROWS; i++)
+            {
+                int length = encoder.encode(i, customerIds[i], quotedPayDate, amountCents[i]);
+                stream.write(encoder.getBuffer(), 0, length);
+            }
+        }
+
+        counter.bytes += csvFile.length();
+    }
+
+    /**
+     * The path the CSV sinks take: rows encoded into an array reused by the thread, copied once into a
+     * pooled direct buffer and written through a FileChannel
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void csvChannelFile(ByteCounter counter) throws IOException
+    {
+        try (Sink<ContributionBatch> sink = new CsvSink<>(new ChannelOutputStream(csvFile), ContributionBatch.CSV_HEADER, new RunMetrics()))
+        {
+            writeBatches(sink);
+        }
+
+        counter.bytes += csvFile.length();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void gzipCsv(ByteCounter counter) throws IOException
+    {
+        CountingOutputStream output = new CountingOutputStream(NullOutputStream.NULL_OUTPUT_STREAM);
+
+        try (CSVPrinter printer = new CSVPrinter(new OutputStreamWriter(new GZIPOutputStream(output), StandardCharsets.UTF_8), FORMAT))
+        {
+            for (int i = 0; i < ROWS; i++)
+            {
+                printer.printRecord((long) i, customerIds[i], payDateString, amountCents[i] / 100.0);
+            }
+        }
+
+        counter.bytes += output.getByteCount();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void parallelGzipCsv(ByteCounter counter) throws IOException
+    {
+        CountingOutputStream output = new CountingOutputStream(NullOutputStream.NULL_OUTPUT_STREAM);
+        ContributionCsvEncoder encoder = new ContributionCsvEncoder();
+
+        try (OutputStream stream = new ParallelGzipOutputStream(output, compressionExecutor, Deflater.DEFAULT_COMPRESSION,
+                1024 * 1024, COMPRESSION_THREADS))
+        {
+            stream.write(ContributionCsvEncoder.HEADER_BYTES);
+
+            for (int i = 0; i < ROWS; i++)
+            {
+                int length = encoder.encode(i, customerIds[i], quotedPayDate, amountCents[i]);
+                stream.write(encoder.getBuffer(), 0, length);
+            }
+        }
+
+        counter.bytes += output.getByteCount();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void snappyParquet(ByteCounter counter) throws IOException
+    {
+        Contribution contribution = new Contribution(0L, 0L);
+        contribution.setContributionDate(payDate);
+
+        try (ParquetWriter<Contribution> writer = AvroParquetWriter.<Contribution>builder(new Path(parquetFile.getAbsolutePath()))
+                .withSchema(Contribution.SCHEMA)
+                .withCompressionCodec(CompressionCodecName.SNAPPY)
+                .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+                .build())
+        {
+            for (int i = 0; i < ROWS; i++)
+            {
+                contribution.setContributionId(i);
+                contribution.setCustomerId(customerIds[i]);
+                contribution.setAmount(amountCents[i] / 100.0);
+                writer.write(contribution);
+            }
+        }
+
+        counter.bytes += Files.size(parquetFile.toPath());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void zlibOrc(ByteCounter counter) throws IOException
+    {
+        try (Sink<ContributionBatch> sink = new ContributionOrcSink(orcFile))
+        {
+            writeBatches(sink);
+        }
+
+        counter.bytes += orcFile.length();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void arrowIpcFile(ByteCounter counter) throws IOException
+    {
+        try (Sink<ContributionBatch> sink = new ContributionArrowSink(arrowFile, false))
+        {
+            writeBatches(sink);
+        }
+
+        counter.bytes += arrowFile.length();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void arrowIpcStream(ByteCounter counter) throws IOException
+    {
+        try (Sink<ContributionBatch> sink = new ContributionArrowSink(arrowFile, true))
+        {
+            writeBatches(sink);
+        }
+
+        counter.bytes += arrowFile.length();
+    }
+
+    /**
+     * Hands the rows to a sink in batches as the generator does
+     */
+    private void writeBatches(Sink<ContributionBatch> sink) throws IOException
+    {
+        ContributionBatch batch = new ContributionBatch(BATCH_SIZE);
+
+        for (int i = 0; i < ROWS; i++)
+        {
+            batch.add(i, customerIds[i], payEpochDay, amountCents[i]);
+
+            if (batch.isFull() || i == ROWS - 1)
+            {
+                sink.write(batch);
+                batch = new ContributionBatch(BATCH_SIZE);
+            }
+        }
+    }
+}
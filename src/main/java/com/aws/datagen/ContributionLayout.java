@@ -0,0 +1,131 @@
+package com.aws.datagen;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The order rows are written in within each contributions file.
+ *
+ * Contribution ids are allocated in the order rows are written, so under every layout each file holds the
+ * same customers, amounts and dates and the same range of ids. Only which id goes with which row differs.
+ * Customers are put in order once per chunk, so ordering costs a few bytes per customer and nothing per row.
+ */
+public enum ContributionLayout
+{
+    /**
+     * By pay day then customer id, the order contributions are made in
+     */
+    DATE
+    {
+        @Override
+        int[][] order(CustomerTable customers)
+        {
+            return customers.indexByPayDay();
+        }
+    },
+
+    /**
+     * By customer id, so each row group holds a narrow range of customers and lookups by customer can skip
+     * the rest
+     */
+    CUSTOMER
+    {
+        @Override
+        int[][] order(CustomerTable customers)
+        {
+            int[] indexes = new int[customers.size()];
+
+            for (int i = 0; i < indexes.length; i++)
+            {
+                indexes[i] = i;
+            }
+
+            return new int[][] {indexes};
+        }
+    },
+
+    /**
+     * By the Z-order of customer id and pay day, so each row group holds a range of both that is narrower
+     * than the whole file, at the cost of wider customer ranges than CUSTOMER
+     */
+    ZORDER
+    {
+        @Override
+        int[][] order(CustomerTable customers)
+        {
+            int size = customers.size();
+            long[] keys = new long[size];
+
+            for (int i = 0; i < size; i++)
+            {
+                /*
+                 * Both dimensions are scaled to 16 bits so neither dominates the interleaving
+                 */
+                long customer = (long) i * 65536L / Math.max(size, 1);
+                long day = (customers.getPayDay(i) - 1L) * 65536L / 31L;
+
+                keys[i] = interleave(customer, day) << 31 | i;
+            }
+
+            Arrays.sort(keys);
+
+            int[] indexes = new int[size];
+
+            for (int i = 0; i < size; i++)
+            {
+                indexes[i] = (int) (keys[i] & Integer.MAX_VALUE);
+            }
+
+            return new int[][] {indexes};
+        }
+    };
+
+    /**
+     * Puts a chunk's customers in the order their rows are written. Each customer's rows in a partition are
+     * written together, as they are all paid on the same day.
+     * @param customers the customers in the chunk
+     * @return groups of customer indexes, written one group after another
+     */
+    abstract int[][] order(CustomerTable customers);
+
+    /**
+     * Interleaves the bits of two 16 bit values, x taking the higher bit of each pair
+     */
+    private static long interleave(long x, long y)
+    {
+        long z = 0L;
+
+        for (int bit = 15; bit >= 0; bit--)
+        {
+            z = (z << 2) | ((x >>> bit) & 1L) << 1 | ((y >>> bit) & 1L);
+        }
+
+        return z;
+    }
+
+    /**
+     * @return the layout's name as given on the command line
+     */
+    public String getName()
+    {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Finds a layout by name
+     * @param name date, customer or zorder
+     * @return the layout
+     */
+    public static ContributionLayout forName(String name)
+    {
+        for (ContributionLayout layout: values())
+        {
+            if (layout.getName().equals(name.trim().toLowerCase(Locale.ROOT)))
+            {
+                return layout;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown layout: " + name + ", expected date, customer or zorder");
+    }
+}
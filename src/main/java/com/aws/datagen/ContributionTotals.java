@@ -0,0 +1,101 @@
+package com.aws.datagen;
+
+import java.util.Arrays;
+
+/**
+ * The count, sum, min and max of contribution amounts in primitive arrays, one slot per group, so
+ * accumulating does not allocate and memory only grows with the number of groups
+ */
+class ContributionTotals
+{
+    private final long[] counts;
+    private final long[] sums;
+    private final long[] mins;
+    private final long[] maxes;
+
+    /**
+     * @param slots the number of groups
+     */
+    ContributionTotals(int slots)
+    {
+        counts = new long[slots];
+        sums = new long[slots];
+        mins = new long[slots];
+        maxes = new long[slots];
+
+        Arrays.fill(mins, Long.MAX_VALUE);
+        Arrays.fill(maxes, Long.MIN_VALUE);
+    }
+
+    /**
+     * The slot of a gender within a group
+     */
+    static int genderSlot(boolean male)
+    {
+        return male ? 1 : 0;
+    }
+
+    /**
+     * Adds a customer's monthly amount, split across their contributions as SkewModel.splitCents does
+     * @param slot the group
+     * @param cents the monthly amount
+     * @param activity the number of contributions it is split across
+     */
+    void addSplit(int slot, long cents, int activity)
+    {
+        long min = Math.floorDiv(cents, activity);
+        long max = Math.floorMod(cents, activity) > 0L ? min + 1L : min;
+
+        add(slot, activity, cents, min, max);
+    }
+
+    /**
+     * Adds the totals of some contributions
+     */
+    void add(int slot, long count, long sum, long min, long max)
+    {
+        counts[slot] += count;
+        sums[slot] += sum;
+        mins[slot] = Math.min(mins[slot], min);
+        maxes[slot] = Math.max(maxes[slot], max);
+    }
+
+    /**
+     * Adds every slot of other totals to this one's slots from an offset
+     */
+    void addAll(ContributionTotals other, int offset)
+    {
+        for (int i = 0; i < other.size(); i++)
+        {
+            if (other.counts[i] > 0L)
+            {
+                add(offset + i, other.counts[i], other.sums[i], other.mins[i], other.maxes[i]);
+            }
+        }
+    }
+
+    int size()
+    {
+        return counts.length;
+    }
+
+    long getCount(int slot)
+    {
+        return counts[slot];
+    }
+
+    long getSum(int slot)
+    {
+        return sums[slot];
+    }
+
+    long getMin(int slot)
+    {
+        return mins[slot];
+    }
+
+    long getMax(int slot)
+    {
+        return maxes[slot];
+    }
+}
@@ -0,0 +1,194 @@
+package com.aws.datagen;
+
+import com.aws.datagen.model.Customer;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A struct-of-arrays view of a contiguous range of customers holding only the columns
+ * needed to generate contributions.
+ *
+ * Customer ids are implied by position, so each customer costs roughly 22 bytes here
+ * compared with several hundred as a Customer object, plus 4 bytes for each year of
+ * tabulated contribution amounts.
+ */
+public class CustomerTable
+{
+    /**
+     * Returned for amounts that have not been tabulated, or do not fit an int
+     */
+    public static final int NOT_TABULATED = Integer.MIN_VALUE;
+
+    private final long firstCustomerId;
+    private final int[] joinEpochDays;
+    private final double[] salaryVariances;
+    private final long[] randomSeeds;
+    private final BitSet male;
+    private final byte[] activities;
+    private final byte[] payDays;
+
+    /**
+     * Monthly contribution cents by customer then year, from firstCentsYear
+     */
+    private int[] contributionCents = null;
+    private int firstCentsYear = 0;
+    private int centsYears = 0;
+
+    private int size = 0;
+
+    public CustomerTable(long firstCustomerId, int capacity)
+    {
+        this.firstCustomerId = firstCustomerId;
+        this.joinEpochDays = new int[capacity];
+        this.salaryVariances = new double[capacity];
+        this.randomSeeds = new long[capacity];
+        this.male = new BitSet(capacity);
+        this.activities = new byte[capacity];
+        this.payDays = new byte[capacity];
+    }
+
+    /**
+     * Appends a customer, customers must be added in id order
+     * @param customer the customer to add
+     */
+    public void add(Customer customer)
+    {
+        if (customer.getCustomerId() != firstCustomerId + size)
+        {
+            throw new IllegalArgumentException("Expected customer: " + (firstCustomerId + size)
+                    + " but was: " + customer.getCustomerId());
+        }
+
+        joinEpochDays[size] = customer.getJoinEpochDay();
+        salaryVariances[size] = customer.getSalaryVariance();
+        randomSeeds[size] = customer.getRandomSeed();
+        male.set(size, customer.getMale());
+        activities[size] = (byte) customer.getActivity();
+        payDays[size] = (byte) LocalDate.ofEpochDay(customer.getJoinEpochDay()).getDayOfMonth();
+        size++;
+    }
+
+    /**
+     * Buckets customers by the day of the month they are paid, which is the day of the month they joined
+     * @return customer indexes in id order, indexed by pay day 1-31
+     */
+    public int[][] indexByPayDay()
+    {
+        int[] counts = new int[32];
+
+        for (int i = 0; i < size; i++)
+        {
+            counts[payDays[i]]++;
+        }
+
+        int[][] customersPerPayDay = new int[32][];
+
+        for (int i = 0; i < 32; i++)
+        {
+            customersPerPayDay[i] = new int[counts[i]];
+        }
+
+        Arrays.fill(counts, 0);
+
+        for (int i = 0; i < size; i++)
+        {
+            customersPerPayDay[payDays[i]][counts[payDays[i]]++] = i;
+        }
+
+        return customersPerPayDay;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public long getFirstCustomerId()
+    {
+        return firstCustomerId;
+    }
+
+    public long getCustomerId(int index)
+    {
+        return firstCustomerId + index;
+    }
+
+    public int getJoinEpochDay(int index)
+    {
+        return joinEpochDays[index];
+    }
+
+    public double getSalaryVariance(int index)
+    {
+        return salaryVariances[index];
+    }
+
+    public long getRandomSeed(int index)
+    {
+        return randomSeeds[index];
+    }
+
+    public boolean isMale(int index)
+    {
+        return male.get(index);
+    }
+
+    /**
+     * @return the day of the month the customer is paid on, 1-31
+     */
+    public int getPayDay(int index)
+    {
+        return payDays[index];
+    }
+
+    /**
+     * @return the contributions the customer makes per pay day
+     */
+    public int getActivity(int index)
+    {
+        return activities[index];
+    }
+
+    /**
+     * Holds the monthly contribution amounts of every customer for a range of years, replacing any held before
+     * @param firstYear the first year
+     * @param years the number of years
+     * @param cents the amounts in cents, customer by customer with a year at a time, or NOT_TABULATED
+     */
+    public void setContributionCents(int firstYear, int years, int[] cents)
+    {
+        if (cents.length != size * years)
+        {
+            throw new IllegalArgumentException("Expected " + size * years + " amounts but was: " + cents.length);
+        }
+
+        this.firstCentsYear = firstYear;
+        this.centsYears = years;
+        this.contributionCents = cents;
+    }
+
+    /**
+     * @return the customer's monthly contribution in cents, or NOT_TABULATED
+     */
+    public int getContributionCents(int index, int year)
+    {
+        int offset = year - firstCentsYear;
+
+        if (contributionCents == null || offset < 0 || offset >= centsYears)
+        {
+            return NOT_TABULATED;
+        }
+
+        return contributionCents[index * centsYears + offset];
+    }
+
+    /**
+     * @return the activity of every customer, indexed like the join days
+     */
+    public byte[] getActivities()
+    {
+        return Arrays.copyOf(activities, size);
+    }
+}
@@ -1,29 +1,25 @@
 package com.aws.datagen;
 
-import com.aws.datagen.model.Contribution;
 import com.aws.datagen.model.Customer;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVPrinter;
-import org.apache.commons.csv.QuoteMode;
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.lang3.time.FastDateFormat;
-import org.apache.commons.math3.random.RandomDataGenerator;
-import org.apache.commons.text.WordUtils;
-import org.apache.hadoop.fs.Path;
-import org.apache.parquet.avro.AvroParquetWriter;
-import org.apache.parquet.hadoop.ParquetFileWriter;
+import com.aws.datagen.model.CustomerYearTotal;
+import com.aws.datagen.model.LogicalValues;
+import com.aws.datagen.model.MonthlyTotal;
+import com.aws.datagen.model.Name;
+import com.aws.datagen.metrics.MetricsReporter;
+import com.aws.datagen.metrics.RunMetrics;
+import com.aws.datagen.sink.*;
 import org.apache.parquet.hadoop.ParquetWriter;
-import org.apache.parquet.hadoop.metadata.CompressionCodecName;
 
 import java.io.*;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.text.ParseException;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.zip.GZIPOutputStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class DataGenerator
 {
@@ -31,27 +27,103 @@ public class DataGenerator
     private static String femaleFirstNamesLocation = "data/female_names.txt";
     private static String lastNamesLocation = "data/last_names.txt";
 
-    private FastDateFormat dateFormat = FastDateFormat.getInstance("yyyy-MM-dd");
-
-    private final Date minDate;
-    private final Date maxDate;
+    /**
+     * The range customers join in
+     */
+    private Date minDate;
+    private long maxDays;
 
-    private final long maxDays;
+    private final RandomStreams randomStreams;
 
-    private final RandomDataGenerator  dataGenerator = new RandomDataGenerator();
-    private final Random random = new Random();
+    private NameDictionary femaleNames = null;
+    private NameDictionary maleNames = null;
+    private NameDictionary lastNames = null;
     private final long ONE_DAY = 1000L * 60L * 60L * 24L;
 
+    private static final String CUSTOMERS_ENTRY = SinkContext.CUSTOMERS;
+
+    /**
+     * The number of partitions to generate concurrently
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The number of customers held in memory at once
+     */
+    private int chunkSize = 1000000;
+
+    /**
+     * The output formats to write
+     */
+    private List<SinkProvider> formats = SinkProviders.defaults();
+
+    /**
+     * Settings shared by all sinks
+     */
+    private final SinkContext sinkContext = new SinkContext();
+
+    /**
+     * The number of rows handed to the sinks at a time
+     */
+    private int batchSize = 8192;
+
+    /**
+     * Contribution batches shared by every partition worker, returned once every sink has written them
+     */
+    private final ContributionBatchPool contributionBatches = new ContributionBatchPool(batchSize);
+
+    /**
+     * The number of batches that can be queued for each sink's writer, 0 writes on the generating thread
+     */
+    private int writerQueueDepth = 4;
+
+    /**
+     * Seconds between progress log lines, 0 only logs when the run finishes
+     */
+    private int metricsInterval = 10;
+
+    /**
+     * Where to write the JSON metrics summary at the end of a run, null to skip it
+     */
+    private File metricsFile = new File("output_metrics/metrics.json");
+
+    /**
+     * The salary and contribution model parameters that can be set by name, with their descriptions
+     */
+    public static final Map<String, String> MODEL_PARAMETERS = modelParameterDescriptions();
+
+    /**
+     * The order rows are written in within each contributions file
+     */
+    private ContributionLayout layout = ContributionLayout.DATE;
+
+    /**
+     * The partition directories contributions are written to and the size files are split at
+     */
+    private final PartitionScheme partitionScheme = new PartitionScheme();
+
     /**
-     * 100MB default row group size
+     * Whether runs also write the Parquet rollup tables of contribution totals
      */
-    private int rowGroupSize = 1024 * 1024 * 100;
+    private boolean rollups = false;
 
     /**
-     * The range of data to simulate
+     * The run's totals by month and gender while a run with rollups is generating, otherwise null
+     */
+    private MonthlyTotals monthlyTotals = null;
+
+    /**
+     * The shard of the customer chunks this generator writes, and how many shards the run is split into
+     */
+    private int shard = 0;
+    private int shards = 1;
+
+    /**
+     * The range of data to simulate, customers join up to joinEndYear and contribute up to endYear
      */
     private int startYear = 2002;
     private int endYear = 2011;
+    private int joinEndYear = 2011;
 
     /**
      * Min average salaries in the start year
@@ -76,327 +148,1604 @@ public class DataGenerator
     private double yearlyContrib = 0.09;
     private double monthlyContrib = yearlyContrib / 12.0;
 
-    public DataGenerator() throws ParseException
+    /**
+     * Skew in joins, activity and pay days, off by default
+     */
+    private final SkewModel skewModel = new SkewModel();
+
+    public DataGenerator()
     {
-        minDate = dateFormat.parse(String.format("%d-01-01", startYear));
-        maxDate = dateFormat.parse(String.format("%d-12-31", endYear));
-        maxDays = ChronoUnit.DAYS.between(minDate.toInstant(), maxDate.toInstant());
+        this(new SplittableRandom().nextLong());
     }
 
-    public void createContributions(List<Customer> customers) throws IOException
+    /**
+     * Creates a generator whose output is fully determined by the seed
+     * @param seed the run seed
+     */
+    public DataGenerator(long seed)
+    {
+        randomStreams = new RandomStreams(seed);
+        setYears(startYear, endYear);
+    }
+
+    /**
+     * Generates customers and their contributions, streaming customers through in chunks
+     * so memory use is bounded by the chunk size rather than the customer count.
+     * Starts a new manifest, replacing the record of any previous run
+     * @param customerCount the total number of customers to generate
+     */
+    public void generate(long customerCount) throws IOException
+    {
+        try (Manifest manifest = Manifest.create(Manifest.shardDirectory(getManifestDirectory(), shard, shards),
+                randomStreams.getSeed(), customerCount, chunkSize, startYear, joinEndYear))
+        {
+            manifest.setModelParameters(getModelParameters());
+            manifest.setLayout(layout.getName());
+            manifest.setPartitionScheme(partitionScheme);
+
+            if (shards > 1)
+            {
+                manifest.setShard(shard, shards);
+            }
+
+            manifest.addSegment(new Manifest.Segment(startYear, endYear, 0L));
+            generate(manifest);
+        }
+    }
+
+    /**
+     * Resumes the run recorded in a manifest, regenerating only the files that are missing or corrupt
+     * @param manifest the manifest of the run
+     */
+    public void resume(Manifest manifest) throws IOException
+    {
+        adopt(manifest);
+        generate(manifest);
+    }
+
+    /**
+     * Extends a finished run to a later end year without rewriting the years already generated.
+     * Existing customers carry on contributing, no new customers join after the original range
+     * @param manifest the manifest of the run
+     * @param endYear the new last year of contributions
+     */
+    public void append(Manifest manifest, int endYear) throws IOException
     {
-        System.out.println("Creating contributions");
+        int previousEndYear = manifest.getEndYear();
+
+        if (endYear <= previousEndYear)
+        {
+            throw new IllegalArgumentException("The run already ends in " + previousEndYear + ", append must extend it: " + endYear);
+        }
 
-        String outputCSVPath = "";
-        String outputCompressedCSVPath = "";
-        String outputParquetPath = "";
+        long nextContributionId = manifest.getNextContributionId();
 
-        FastDateFormat yearFormat = FastDateFormat.getInstance("yyyy");
-        FastDateFormat yearMonthFormat = FastDateFormat.getInstance("yyyy-MM");
+        adopt(manifest);
+        manifest.addSegment(new Manifest.Segment(previousEndYear + 1, endYear, nextContributionId));
+        this.endYear = endYear;
 
-        List<List<Customer>> customersPerPayDate = new ArrayList<>();
+        generate(manifest);
+    }
 
-        for (int i = 0; i < 32; i++)
+    /**
+     * Takes on the settings of a previous run so its output is reproduced exactly
+     */
+    private void adopt(Manifest manifest)
+    {
+        if (manifest.getSeed() != randomStreams.getSeed())
         {
-            customersPerPayDate.add(new ArrayList<>());
+            throw new IllegalArgumentException("The manifest was written with seed " + manifest.getSeed()
+                    + " but this generator uses seed " + randomStreams.getSeed());
         }
 
-        for (Customer customer: customers)
+        setChunkSize(manifest.getChunkSize());
+        setShard(manifest.getShard(), manifest.getShards());
+        setLayout(ContributionLayout.forName(manifest.getLayout()));
+        partitionScheme.setKeys(manifest.getPartitionBy());
+        partitionScheme.setBuckets(manifest.getBuckets());
+        partitionScheme.setPartSize(manifest.getPartSize());
+
+        for (Map.Entry<String, Double> parameter: manifest.getModelParameters().entrySet())
         {
-            LocalDate localPayDate = customer.getJoinDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-            int day = localPayDate.getDayOfMonth();
-            customersPerPayDate.get(day).add(customer);
+            setModelParameter(parameter.getKey(), parameter.getValue());
         }
 
-        Date payDate = minDate;
+        setYears(manifest.getStartYear(), manifest.getJoinEndYear());
+        endYear = manifest.getEndYear();
+    }
+
+    /**
+     * Generates every file of a run that the manifest does not already hold
+     * @param manifest the manifest of the run
+     */
+    private void generate(Manifest manifest) throws IOException
+    {
+        RunMetrics metrics = sinkContext.getMetrics();
 
-        long contributionId = 0L;
+        MetricsReporter reporter = new MetricsReporter(metrics, metricsInterval);
 
-        BufferedWriter writer = null;
-        CSVPrinter csvPrinter = null;
-        OutputStreamWriter compressedWriter = null;
-        CSVPrinter compressedCSVPrinter = null;
-        GZIPOutputStream gzipStream = null;
-        ParquetWriter<Contribution> parquetWriter = null;
+        try
+        {
+            generateChunks(manifest);
+            metrics.finishRun();
+        }
+        finally
+        {
+            reporter.close();
+        }
 
-        while (payDate.getTime() <= maxDate.getTime())
+        if (metricsFile != null)
         {
-            LocalDate localPayDate = payDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+            MetricsReporter.writeSummary(metrics, sinkContext.resolve(metricsFile.getPath()));
+        }
+    }
 
-            int payDay = localPayDate.getDayOfMonth();
-            int payYear = localPayDate.getYear();
+    /**
+     * Generates the customers and contributions of a run, or of this generator's shard of it, a chunk of
+     * customers at a time
+     * @param manifest the manifest of the run
+     */
+    private void generateChunks(Manifest manifest) throws IOException
+    {
+        long customerCount = manifest.getCustomers();
+        int chunks = (int) ((customerCount + chunkSize - 1) / chunkSize);
 
-            String csvPath = String.format("output_csv/contributions/contributionYear=%s/contributionMonth=%s/contributions_%s.csv",
-                    yearFormat.format(payDate), yearMonthFormat.format(payDate),
-                    yearMonthFormat.format(payDate));
+        if (shards > chunks)
+        {
+            throw new IllegalArgumentException("Cannot split " + chunks + " chunks of customers into " + shards
+                    + " shards, lower the chunk size");
+        }
 
-            String compressedCSVPath = String.format("output_compressed/contributions/contributionYear=%s/contributionMonth=%s/contributions_%s.csv.gz",
-                    yearFormat.format(payDate), yearMonthFormat.format(payDate),
-                    yearMonthFormat.format(payDate));
+        /*
+         * Each shard writes a contiguous range of chunks
+         */
+        int firstChunk = (int) ((long) chunks * shard / shards);
+        int endChunk = (int) ((long) chunks * (shard + 1) / shards);
+        long shardFirstCustomerId = (long) firstChunk * chunkSize;
+        long shardCustomers = Math.min((long) endChunk * chunkSize, customerCount) - shardFirstCustomerId;
 
-            String parquetPath = String.format("output_parquet/contributions/contributionYear=%s/contributionMonth=%s/contributions_%s.snappy.parquet",
-                    yearFormat.format(payDate), yearMonthFormat.format(payDate),
-                    yearMonthFormat.format(payDate));
+        sinkContext.getMetrics().startRun(shardCustomers);
 
-            if (!parquetPath.equals(outputParquetPath))
-            {
-                if (parquetWriter != null)
-                {
-                    parquetWriter.close();
-                }
+        List<Manifest.Segment> segments = manifest.getSegments();
+        long[] contributionIds = new long[segments.size()];
 
-                File outputFile = new File(parquetPath);
-                outputFile.getParentFile().mkdirs();
+        for (int i = 0; i < segments.size(); i++)
+        {
+            contributionIds[i] = segments.get(i).getFirstContributionId();
+        }
 
-                parquetWriter = AvroParquetWriter.<Contribution>builder(new Path(parquetPath))
-                                .withSchema(Contribution.SCHEMA)
-                                .withCompressionCodec(CompressionCodecName.SNAPPY)
-                                .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
-                                .withRowGroupSize(rowGroupSize)
-                                .build();
+        /*
+         * Contribution ids run on from chunk to chunk, so a shard counts the contributions of the chunks before it
+         */
+        if (firstChunk > 0)
+        {
+            long[] before = countContributions(0, firstChunk, customerCount, segments);
 
-                outputParquetPath = parquetPath;
+            for (int i = 0; i < segments.size(); i++)
+            {
+                contributionIds[i] += before[i];
             }
+        }
 
-            if (!csvPath.equals(outputCSVPath))
-            {
-                if (csvPrinter != null && writer != null)
-                {
-                    csvPrinter.flush();
-                    csvPrinter.close();
-                    writer.close();
-                }
+        long[] shardFirstContributionIds = contributionIds.clone();
 
-                File outputFile = new File(csvPath);
-                outputFile.getParentFile().mkdirs();
-                writer = Files.newBufferedWriter(Paths.get(outputFile.getAbsolutePath()));
-                csvPrinter = new CSVPrinter(writer, CSVFormat.EXCEL.withQuote('"').withQuoteMode(QuoteMode.NON_NUMERIC)
-                        .withHeader("ContributionId", "CustomerId", "ContributionDate", "Amount"));
+        String customerFileName = shards > 1 ? String.format("%s-shard-%05d", SinkContext.CUSTOMERS, shard) : SinkContext.CUSTOMERS;
+        sinkContext.setCustomerFileName(customerFileName);
 
-                outputCSVPath = csvPath;
-            }
+        /*
+         * Split customers files are each checked and recorded as they are written
+         */
+        boolean splitCustomers = partitionScheme.getPartSize() > 0L;
+        List<File> customerFiles = splitCustomers ? Collections.<File>emptyList() : getCustomerFiles();
+        boolean customersComplete = !splitCustomers && manifest.isComplete(CUSTOMERS_ENTRY, shardCustomers, customerFiles);
+
+        if (customersComplete)
+        {
+            System.out.println("Customers are complete, regenerating them for contributions only");
+        }
+
+        if (rollups)
+        {
+            monthlyTotals = new MonthlyTotals(YearMonth.of(segments.get(0).getStartYear(), 1),
+                    YearMonth.of(segments.get(segments.size() - 1).getEndYear(), 12));
+        }
 
-            if (!compressedCSVPath.equals(outputCompressedCSVPath))
+        try (Sink<CustomerBatch> customerSink = customersComplete ? new FanOutSink<>(Collections.<Sink<CustomerBatch>>emptyList())
+                : splitCustomers ? new CustomerPartSink(customerFileName, manifest) : openCustomerSink())
+        {
+            for (int chunk = firstChunk; chunk < endChunk; chunk++)
             {
-                if (compressedCSVPrinter != null && compressedWriter != null)
-                {
-                    compressedCSVPrinter.flush();
-                    compressedCSVPrinter.close();
-                    compressedWriter.close();
-                    gzipStream.close();
-                }
+                long firstCustomerId = (long) chunk * chunkSize;
+                int count = (int) Math.min(chunkSize, customerCount - firstCustomerId);
+
+                sinkContext.getMetrics().startChunk(firstCustomerId - shardFirstCustomerId, count);
 
-                File outputFile = new File(compressedCSVPath);
-                outputFile.getParentFile().mkdirs();
+                CustomerTable customers = saveCustomers(firstCustomerId, count, customerSink);
 
-                gzipStream = new GZIPOutputStream(new FileOutputStream(outputFile));
-                compressedWriter = new OutputStreamWriter(gzipStream);
+                String partSuffix = chunks > 1 ? String.format("-%05d", chunk) : "";
 
-                compressedCSVPrinter = new CSVPrinter(compressedWriter, CSVFormat.EXCEL.withQuote('"').withQuoteMode(QuoteMode.NON_NUMERIC)
-                        .withHeader("ContributionId", "CustomerId", "ContributionDate", "Amount"));
+                for (int i = 0; i < segments.size(); i++)
+                {
+                    Manifest.Segment segment = segments.get(i);
+
+                    contributionIds[i] = createContributions(customers, YearMonth.of(segment.getStartYear(), 1),
+                            YearMonth.of(segment.getEndYear(), 12), contributionIds[i], partSuffix, manifest);
 
-                outputCompressedCSVPath = compressedCSVPath;
+                    if (rollups)
+                    {
+                        writeCustomerYearlyTotals(customers, segment.getStartYear(), segment.getEndYear(), partSuffix);
+                    }
+                }
             }
 
-            for (Customer c: customersPerPayDate.get(payDay))
+            if (rollups)
             {
-                if (payDate.getTime() < c.getJoinDate().getTime())
-                {
-                    continue;
-                }
+                writeMonthlyTotals(shards > 1 ? String.format("monthly_totals-shard-%05d", shard) : "monthly_totals");
+            }
+        }
+        finally
+        {
+            monthlyTotals = null;
+        }
+
+        if (!customersComplete && !splitCustomers)
+        {
+            manifest.record(CUSTOMERS_ENTRY, shardCustomers, customerFiles);
+        }
 
-                double averageSalary = c.getMale() ? maleAverageSalary : femaleAverageSalary;
-                double growthRate = c.getMale() ? maleGrowthRate : femaleGrowthRate;
+        for (int i = 0; i < segments.size(); i++)
+        {
+            manifest.setWrittenContributionIds(i, shardFirstContributionIds[i], contributionIds[i]);
+        }
 
-                double salary = c.getSalary(startYear, payYear, averageSalary, growthRate);
-                double amount = salary * monthlyContrib;
+        long nextContributionId = contributionIds[contributionIds.length - 1];
+
+        if (endChunk < chunks)
+        {
+            nextContributionId += countContributions(endChunk, chunks, customerCount, segments)[segments.size() - 1];
+        }
 
-                amount = Double.parseDouble(String.format("%.2f", amount));
+        manifest.setComplete(nextContributionId);
+    }
 
-                Contribution contribution = new Contribution(contributionId++, c.getCustomerId());
-                contribution.setAmount(amount);
-                contribution.setContributionDate(payDate);
+    /**
+     * Counts the contributions each segment makes for a range of chunks without generating them.
+     * Only the join date and activity of each customer are drawn, which is all the counts depend on
+     * @param fromChunk the first chunk to count
+     * @param toChunk the chunk after the last to count
+     * @param customerCount the number of customers in the run
+     * @param segments the segments of the run
+     * @return the number of contributions in each segment
+     */
+    private long[] countContributions(int fromChunk, int toChunk, long customerCount, List<Manifest.Segment> segments)
+    {
+        System.out.println("Counting the contributions of chunks " + fromChunk + " to " + (toChunk - 1) + " to number this shard's contributions");
 
-                parquetWriter.write(contribution);
+        long[] counts = new long[segments.size()];
 
-                csvPrinter.printRecord(contribution.getContributionId(), contribution.getCustomerId(),
-                        dateFormat.format(payDate), amount);
+        for (int chunk = fromChunk; chunk < toChunk; chunk++)
+        {
+            long firstCustomerId = (long) chunk * chunkSize;
+            int[] joinEpochDays = new int[(int) Math.min(chunkSize, customerCount - firstCustomerId)];
+            byte[] activities = new byte[joinEpochDays.length];
 
-                compressedCSVPrinter.printRecord(contribution.getContributionId(), contribution.getCustomerId(),
-                        dateFormat.format(payDate), amount);
+            for (int i = 0; i < joinEpochDays.length; i++)
+            {
+                SplittableRandom random = randomStreams.forCustomer(firstCustomerId + i);
+                drawSalaryVariance(random);
+                joinEpochDays[i] = LogicalValues.toEpochDay(drawJoinDate(random));
+                activities[i] = (byte) skewModel.drawActivity(random);
             }
 
-            payDate = new Date(payDate.getTime() + ONE_DAY);
+            PayDayIndex index = new PayDayIndex(joinEpochDays, activities);
+
+            for (int i = 0; i < segments.size(); i++)
+            {
+                YearMonth lastMonth = YearMonth.of(segments.get(i).getEndYear(), 12);
+
+                for (YearMonth month = YearMonth.of(segments.get(i).getStartYear(), 1); !month.isAfter(lastMonth); month = month.plusMonths(1))
+                {
+                    counts[i] += index.countContributions(month);
+                }
+            }
         }
 
-        csvPrinter.flush();
-        writer.close();
+        return counts;
+    }
+
+    /**
+     * Creates contributions for all customers, writing each year/month partition on its own worker
+     */
+    public void createContributions(List<Customer> customers) throws IOException
+    {
+        CustomerTable table = new CustomerTable(customers.isEmpty() ? 0L : customers.get(0).getCustomerId(), customers.size());
 
-        compressedCSVPrinter.flush();
-        compressedWriter.close();
-        gzipStream.close();
+        for (Customer customer: customers)
+        {
+            table.add(customer);
+        }
 
-        parquetWriter.close();
+        createContributions(table, YearMonth.of(startYear, 1), YearMonth.of(endYear, 12), 0L, "", null);
     }
 
-    public List<Customer> createCustomers(int count) throws IOException
+    /**
+     * Creates contributions for a chunk of customers, writing each year/month partition on its own worker
+     * @param customers the customers in this chunk
+     * @param firstMonth the first partition to create
+     * @param lastMonth the last partition to create
+     * @param firstContributionId the id of the first contribution in this chunk
+     * @param partSuffix the suffix distinguishing this chunk's files within each partition
+     * @param manifest the run manifest, partitions it holds are skipped, null to write every partition
+     * @return the id following the last contribution in this chunk
+     */
+    private long createContributions(CustomerTable customers, YearMonth firstMonth, YearMonth lastMonth,
+                                     long firstContributionId, String partSuffix, Manifest manifest) throws IOException
     {
-        System.out.println("Creating customers");
+        System.out.println("Creating contributions for " + customers.size() + " customers using " + threads + " threads");
 
-        List<String> femaleNames = loadFirstNames(femaleFirstNamesLocation);
-        List<String> maleNames = loadFirstNames(maleFirstNamesLocation);
-        List<String> lastNames = loadLastNames(lastNamesLocation);
+        int[][] customerOrder = partitionScheme.groupByFile(customers, layout.order(customers));
 
-        double maleWeight = 0.63;
-        long customerId = 0;
+        tabulateContributionCents(customers, firstMonth.getYear(), lastMonth.getYear());
 
-        List<Customer> customers = new ArrayList<>();
+        /*
+         * Sorted join days and activity per pay day so partition row counts can be computed without generating anything
+         */
+        int[] joinEpochDays = new int[customers.size()];
 
-        for (int i = 0; i < count; i++)
+        for (int i = 0; i < joinEpochDays.length; i++)
         {
-            Customer customer = new Customer(customerId++);
+            joinEpochDays[i] = customers.getJoinEpochDay(i);
+        }
 
-            double variance = random.nextDouble() * salaryVariance;
+        PayDayIndex index = new PayDayIndex(joinEpochDays, customers.getActivities());
 
-            if (random.nextBoolean())
-            {
-                variance *= -1.0;
-            }
+        List<YearMonth> partitions = new ArrayList<>();
+
+        for (YearMonth month = firstMonth; !month.isAfter(lastMonth); month = month.plusMonths(1))
+        {
+            partitions.add(month);
+        }
+
+        /*
+         * Contribution ids are allocated in date order, so each partition starts where the previous one ends
+         * regardless of which worker writes it first
+         */
+        long[] firstContributionIds = new long[partitions.size()];
+        long[] rows = new long[partitions.size()];
+        long contributionId = firstContributionId;
 
-            customer.setSalaryVariance(variance);
+        for (int i = 0; i < partitions.size(); i++)
+        {
+            firstContributionIds[i] = contributionId;
+            rows[i] = index.countContributions(partitions.get(i));
+            contributionId += rows[i];
+        }
 
-            Date joinDate = new Date(minDate.getTime() + dataGenerator.nextLong(0L, maxDays) * ONE_DAY);
-            customer.setJoinDate(joinDate);
+        sinkContext.getMetrics().addExpectedRows(contributionId - firstContributionId);
 
-            boolean male = random.nextDouble() < maleWeight;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
 
-            customer.setMale(male);
-            customer.setTitle(getTitle(male));
+        try
+        {
+            List<Future<Boolean>> futures = new ArrayList<>();
 
-            if (male)
+            for (int i = 0; i < partitions.size(); i++)
             {
-                customer.setFirstName(makeName(maleNames));
+                YearMonth partition = partitions.get(i);
+                long partitionFirstContributionId = firstContributionIds[i];
+                long partitionRows = rows[i];
+
+                futures.add(executor.submit(() -> createContributions(partition, partitionFirstContributionId, partitionRows,
+                        partSuffix, customers, customerOrder, manifest)));
             }
-            else
+
+            int skipped = 0;
+
+            for (Future<Boolean> future: futures)
             {
-                customer.setFirstName(makeName(femaleNames));
+                if (!future.get())
+                {
+                    skipped++;
+                }
             }
 
-            customer.setLastName(makeName(lastNames));
+            if (skipped > 0)
+            {
+                System.out.println("Skipped " + skipped + " complete partitions");
+            }
 
-            customers.add(customer);
+            return contributionId;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while creating contributions");
         }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof IOException)
+            {
+                throw (IOException) e.getCause();
+            }
 
-        return customers;
+            throw new IOException("Failed to create contributions", e.getCause());
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
     }
 
     /**
-     * Makes a name from a list of names
-     * @param names the list of all names
-     * @return a formatted name
+     * Creates and writes the contributions for a single year/month partition
+     * @param partition the year and month to generate
+     * @param firstContributionId the id of the first contribution in this partition
+     * @param rows the number of contributions in this partition
+     * @param partSuffix the suffix distinguishing this chunk's files within the partition
+     * @param customers the customers in this chunk
+     * @param customerOrder customer indexes in the order their rows are written, from the layout
+     * @param manifest the run manifest, or null
+     * @return false if the manifest already held every file of the partition and they were not rewritten
      */
-    private String makeName(List<String> names)
-    {
-        int index = dataGenerator.nextInt(1, names.size() - 1);
-        String name = names.get(index);
-        return WordUtils.capitalizeFully(name);
-    }
-
-    private List<String> loadFirstNames(String location) throws IOException
+    private boolean createContributions(YearMonth partition, long firstContributionId, long rows, String partSuffix,
+                                        CustomerTable customers, int[][] customerOrder, Manifest manifest) throws IOException
     {
-        return IOUtils.readLines(new FileInputStream(location), "UTF-8");
-    }
+        String partitionPath = partitionScheme.getPartitionPath(partition, 1, 0);
+        String baseName = String.format("contributions_%d-%02d%s", partition.getYear(), partition.getMonthValue(), partSuffix);
 
-    private List<String> loadLastNames(String location) throws IOException
-    {
-        return IOUtils.readLines(new FileInputStream(location), "UTF-8");
-    }
+        /*
+         * A split partition's files are only known as its rows are generated, so each is checked as it is reached
+         */
+        boolean split = partitionScheme.isSplit();
+        String entry = SinkContext.CONTRIBUTIONS + "/" + partitionPath + "/" + baseName;
+        List<File> files = split ? Collections.<File>emptyList() : getContributionFiles(partitionPath, baseName);
 
-    private void saveCustomers(List<Customer> customers) throws IOException
-    {
-        System.out.println("Saving: " + customers.size() + " customers");
+        RunMetrics metrics = sinkContext.getMetrics();
+        ContributionTotals partitionTotals = monthlyTotals != null ? new ContributionTotals(2) : null;
 
-        File outputDir = new File("output_csv/customers");
-        outputDir.mkdirs();
+        if (!split && manifest != null && manifest.isComplete(entry, rows, files))
+        {
+            metrics.addSkippedRows(rows);
 
-        outputDir = new File("output_compressed/customers");
-        outputDir.mkdirs();
+            if (partitionTotals != null)
+            {
+                addPartitionTotals(partition, customers, partitionTotals);
+                monthlyTotals.add(partition, partitionTotals);
+            }
 
-        outputDir = new File("output_parquet/customers");
-        outputDir.mkdirs();
+            return false;
+        }
 
-        BufferedWriter writer = Files.newBufferedWriter(Paths.get("output_csv/customers/customers.csv"));
+        metrics.startPartition(baseName);
 
-        GZIPOutputStream gzipOutput = new GZIPOutputStream(new FileOutputStream("output_compressed/customers/customers.csv.gz"));
+        long contributionId = firstContributionId;
+        long startNanos = System.nanoTime();
+        long generationNanos;
+        long sinkNanos = 0L;
+        ContributionPartSink parts = split ? new ContributionPartSink(partition, baseName, manifest) : null;
 
-        OutputStreamWriter compressedWriter = new OutputStreamWriter(gzipOutput);
+        try (Sink<ContributionBatch> sink = split ? parts : openContributionSink(partitionPath, baseName))
+        {
+            ContributionBatch batch = contributionBatches.acquire();
+            int daysInMonth = partition.lengthOfMonth();
+            int firstEpochDay = (int) partition.atDay(1).toEpochDay();
+            int payYear = partition.getYear();
 
-        CSVPrinter csvPrinter = new CSVPrinter(writer, CSVFormat.EXCEL.withQuote('"').withQuoteMode(QuoteMode.NON_NUMERIC)
-                    .withHeader("CustomerId", "Title", "First", "Last", "Gender", "JoinDate"));
+            for (int[] group: customerOrder)
+            {
+                for (int c: group)
+                {
+                    int payDay = customers.getPayDay(c);
+                    int payEpochDay = firstEpochDay + payDay - 1;
+
+                    if (payDay > daysInMonth || payEpochDay < customers.getJoinEpochDay(c))
+                    {
+                        continue;
+                    }
+
+                    long cents = getContributionCents(customers, c, payYear);
+                    int activity = customers.getActivity(c);
+
+                    if (partitionTotals != null)
+                    {
+                        partitionTotals.addSplit(ContributionTotals.genderSlot(customers.isMale(c)), cents, activity);
+                    }
+
+                    for (int part = 0; part < activity; part++)
+                    {
+                        batch.add(contributionId++, customers.getCustomerId(c), payEpochDay,
+                                SkewModel.splitCents(cents, activity, part));
+
+                        if (batch.isFull())
+                        {
+                            sinkNanos += write(sink, batch);
+                            metrics.addContributionRows(batch.size());
+                            batch.release();
+                            batch = contributionBatches.acquire();
+                        }
+                    }
+                }
+            }
 
-        CSVPrinter compressedCSVPrinter = new CSVPrinter(compressedWriter, CSVFormat.EXCEL.withQuote('"').withQuoteMode(QuoteMode.NON_NUMERIC)
-                .withHeader("CustomerId", "Title", "First", "Last", "Gender", "JoinDate"));
+            if (batch.size() > 0)
+            {
+                sinkNanos += write(sink, batch);
+                metrics.addContributionRows(batch.size());
+            }
 
-        String parquetPath = "output_parquet/customers/customers.snappy.parquet";
+            batch.release();
+            generationNanos = System.nanoTime() - startNanos - sinkNanos;
+        }
+        finally
+        {
+            metrics.finishPartition(baseName);
+        }
 
-        ParquetWriter<Customer> parquetWriter = AvroParquetWriter.<Customer>builder(new Path(parquetPath))
-                .withSchema(Customer.SCHEMA)
-                .withCompressionCodec(CompressionCodecName.SNAPPY)
-                .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
-                .withRowGroupSize(rowGroupSize)
-                .build();
+        metrics.addTime(RunMetrics.Stage.GENERATION, generationNanos);
+        metrics.addTime(RunMetrics.Stage.SINK_WAIT, System.nanoTime() - startNanos - generationNanos);
 
-        for (Customer customer: customers)
+        if (partitionTotals != null)
         {
-            csvPrinter.printRecord(customer.getCustomerId(), customer.getTitle(),
-                    customer.getFirstName(), customer.getLastName(), customer.getGenderString(),
-                    dateFormat.format(customer.getJoinDate()));
-            compressedCSVPrinter.printRecord(customer.getCustomerId(), customer.getTitle(),
-                    customer.getFirstName(), customer.getLastName(), customer.getGenderString(),
-                    dateFormat.format(customer.getJoinDate()));
-            parquetWriter.write(customer);
+            monthlyTotals.add(partition, partitionTotals);
         }
 
-        csvPrinter.flush();
-        writer.close();
+        if (split)
+        {
+            return parts.getFiles() == 0 || parts.getSkippedFiles() < parts.getFiles();
+        }
 
-        compressedCSVPrinter.flush();
-        compressedWriter.close();
-        gzipOutput.close();
+        if (manifest != null)
+        {
+            manifest.record(entry, contributionId - firstContributionId, files);
+        }
 
-        parquetWriter.close();
+        return true;
     }
 
-
-    public String getTitle(boolean male)
+    /**
+     * Totals the contributions of a partition by gender without writing them, for a partition a previous
+     * run already wrote
+     */
+    private void addPartitionTotals(YearMonth partition, CustomerTable customers, ContributionTotals totals)
     {
-        if (male)
-        {
-            return "Mr";
-        } else
+        int daysInMonth = partition.lengthOfMonth();
+        int firstEpochDay = (int) partition.atDay(1).toEpochDay();
+
+        for (int c = 0; c < customers.size(); c++)
         {
-            switch (dataGenerator.nextInt(0, 3))
+            int payDay = customers.getPayDay(c);
+
+            if (payDay <= daysInMonth && firstEpochDay + payDay - 1 >= customers.getJoinEpochDay(c))
             {
-                case 0:
-                    return "Mrs";
-                case 1:
-                    return "Ms";
-                case 2:
-                    return "Miss";
-                default:
-                    return "Mrs";
+                totals.addSplit(ContributionTotals.genderSlot(customers.isMale(c)),
+                        getContributionCents(customers, c, partition.getYear()), customers.getActivity(c));
             }
         }
     }
 
-    public static void main(String [] args) throws ParseException, IOException
+    /**
+     * Writes the run's contribution totals by month and gender
+     * @param baseName the file name without its extension
+     */
+    private void writeMonthlyTotals(String baseName) throws IOException
+    {
+        try (ParquetWriter<MonthlyTotal> writer = RollupWriters.openMonthlyTotals(sinkContext, baseName))
+        {
+            monthlyTotals.write(writer);
+        }
+    }
+
+    /**
+     * Writes the contribution totals of every customer in a chunk for each year they contribute in. Every
+     * contribution a customer makes in a year shares out the same monthly amount, so the totals follow from
+     * the tabulated amounts and the months the customer is paid in without revisiting the rows
+     * @param customers the customers in this chunk, tabulated for the years
+     * @param firstYear the first year
+     * @param lastYear the last year
+     * @param partSuffix the suffix distinguishing this chunk's files
+     */
+    private void writeCustomerYearlyTotals(CustomerTable customers, int firstYear, int lastYear, String partSuffix) throws IOException
     {
-        DataGenerator generator = new DataGenerator();
+        String baseName = String.format("%s_%d-%d%s", RollupWriters.CUSTOMER_YEARLY_TOTALS, firstYear, lastYear, partSuffix);
+
+        try (ParquetWriter<CustomerYearTotal> writer = RollupWriters.openCustomerYearlyTotals(sinkContext, baseName))
+        {
+            CustomerYearTotal row = new CustomerYearTotal();
+
+            for (int year = firstYear; year <= lastYear; year++)
+            {
+                /*
+                 * The months from each month to the end of the year long enough to hold each pay day
+                 */
+                int[][] paidMonths = new int[32][14];
 
-        List<Customer> customers = generator.createCustomers(1000000);
-        generator.saveCustomers(customers);
-        generator.createContributions(customers);
+                for (int payDay = 1; payDay < 32; payDay++)
+                {
+                    for (int month = 12; month >= 1; month--)
+                    {
+                        paidMonths[payDay][month] = paidMonths[payDay][month + 1]
+                                + (YearMonth.of(year, month).lengthOfMonth() >= payDay ? 1 : 0);
+                    }
+                }
 
+                for (int c = 0; c < customers.size(); c++)
+                {
+                    LocalDate joinDate = LocalDate.ofEpochDay(customers.getJoinEpochDay(c));
+
+                    if (joinDate.getYear() > year)
+                    {
+                        continue;
+                    }
+
+                    int months = paidMonths[joinDate.getDayOfMonth()][joinDate.getYear() == year ? joinDate.getMonthValue() : 1];
+
+                    if (months == 0)
+                    {
+                        continue;
+                    }
+
+                    long cents = getContributionCents(customers, c, year);
+                    int activity = customers.getActivity(c);
+                    long min = SkewModel.splitCents(cents, activity, activity - 1);
+                    long max = SkewModel.splitCents(cents, activity, 0);
+
+                    row.setCustomerId(customers.getCustomerId(c));
+                    row.setYear(year);
+                    row.setMale(customers.isMale(c));
+                    row.setTotals((long) activity * months, cents * months, min, max);
+                    writer.write(row);
+                }
+            }
+        }
     }
 
+    /**
+     * Hands a batch to a sink
+     * @return the nanoseconds the generating thread was held up
+     */
+    private static <B> long write(Sink<B> sink, B batch) throws IOException
+    {
+        long start = System.nanoTime();
+        sink.write(batch);
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Lists the files written for one contributions file across every enabled format
+     * @return the files, empty if any format cannot list its files so the entry is never taken as complete
+     */
+    private List<File> getContributionFiles(String partitionPath, String baseName)
+    {
+        List<File> files = new ArrayList<>();
+
+        for (SinkProvider format: formats)
+        {
+            List<File> formatFiles = format.getContributionFiles(sinkContext, partitionPath, baseName);
+
+            if (formatFiles.isEmpty())
+            {
+                return Collections.emptyList();
+            }
+
+            files.addAll(formatFiles);
+        }
+
+        return files;
+    }
+
+    /**
+     * Lists the files written for the customers table across every enabled format
+     * @return the files, empty if any format cannot list its files
+     */
+    private List<File> getCustomerFiles()
+    {
+        List<File> files = new ArrayList<>();
+
+        for (SinkProvider format: formats)
+        {
+            List<File> formatFiles = format.getCustomerFiles(sinkContext);
+
+            if (formatFiles.isEmpty())
+            {
+                return Collections.emptyList();
+            }
+
+            files.addAll(formatFiles);
+        }
+
+        return files;
+    }
+
+    /**
+     * Opens a sink writing one contributions file to every enabled format
+     * @param partitionPath the partition directory
+     * @param baseName the file name without an extension
+     * @return the sink
+     */
+    private Sink<ContributionBatch> openContributionSink(String partitionPath, String baseName) throws IOException
+    {
+        List<Sink<ContributionBatch>> sinks = new ArrayList<>();
+
+        try
+        {
+            for (SinkProvider format: formats)
+            {
+                sinks.add(async(format.createContributionSink(sinkContext, partitionPath, baseName),
+                        format.getName() + "-" + baseName));
+            }
+        }
+        catch (IOException e)
+        {
+            new FanOutSink<>(sinks).close();
+            throw e;
+        }
+
+        return new FanOutSink<>(sinks);
+    }
+
+    /**
+     * Opens a sink writing the customers table to every enabled format
+     * @return the sink
+     */
+    private Sink<CustomerBatch> openCustomerSink() throws IOException
+    {
+        List<Sink<CustomerBatch>> sinks = new ArrayList<>();
+
+        try
+        {
+            for (SinkProvider format: formats)
+            {
+                sinks.add(async(format.createCustomerSink(sinkContext), format.getName() + "-customers"));
+            }
+        }
+        catch (IOException e)
+        {
+            new FanOutSink<>(sinks).close();
+            throw e;
+        }
+
+        return new FanOutSink<>(sinks);
+    }
+
+    /**
+     * Converts the part size to the CSV bytes of the rows that fill it in the largest of the enabled formats,
+     * so every format's parts split at the same rows and none is expected to pass the part size
+     * @param table SinkContext.CONTRIBUTIONS or SinkContext.CUSTOMERS
+     * @return the CSV bytes to split files at, 0 to only split by partition
+     */
+    private long getCsvPartSize(String table)
+    {
+        long partSize = partitionScheme.getPartSize();
+
+        if (partSize == 0L)
+        {
+            return 0L;
+        }
+
+        double ratio = 0.0;
+
+        for (SinkProvider format: formats)
+        {
+            ratio = Math.max(ratio, format.getSizeRatio(sinkContext, table));
+        }
+
+        return Math.max(1L, (long) (partSize / ratio));
+    }
+
+    /**
+     * Writes a chunk's contributions for a month to a file per partition, split into parts at the part size
+     */
+    private class ContributionPartSink extends PartSink<ContributionBatch>
+    {
+        private final YearMonth partition;
+        private final String baseName;
+        private final int firstEpochDay;
+
+        ContributionPartSink(YearMonth partition, String baseName, Manifest manifest)
+        {
+            super(getCsvPartSize(SinkContext.CONTRIBUTIONS), ContributionCsvEncoder.HEADER_BYTES.length, manifest);
+            this.partition = partition;
+            this.baseName = baseName;
+            this.firstEpochDay = (int) partition.atDay(1).toEpochDay();
+        }
+
+        @Override
+        protected int size(ContributionBatch batch)
+        {
+            return batch.size();
+        }
+
+        @Override
+        protected int getFileKey(ContributionBatch batch, int row)
+        {
+            return partitionScheme.getFileKey(batch.getCustomerId(row), batch.getEpochDay(row) - firstEpochDay + 1);
+        }
+
+        @Override
+        protected long getRowLength(ContributionBatch batch, int row)
+        {
+            return ContributionCsvEncoder.getRowLength(batch.getContributionId(row), batch.getCustomerId(row), batch.getAmountCents(row));
+        }
+
+        @Override
+        protected ContributionBatch slice(ContributionBatch batch, int from, int to)
+        {
+            return batch.slice(from, to);
+        }
+
+        private String getName(int part)
+        {
+            return partitionScheme.getPartSize() > 0L ? String.format("%s-part-%05d", baseName, part) : baseName;
+        }
+
+        @Override
+        protected String getEntry(int fileKey, int part)
+        {
+            return SinkContext.CONTRIBUTIONS + "/" + partitionScheme.getPartitionPath(partition, fileKey) + "/" + getName(part);
+        }
+
+        @Override
+        protected List<File> getFiles(int fileKey, int part)
+        {
+            return getContributionFiles(partitionScheme.getPartitionPath(partition, fileKey), getName(part));
+        }
+
+        @Override
+        protected Sink<ContributionBatch> open(int fileKey, int part) throws IOException
+        {
+            return openContributionSink(partitionScheme.getPartitionPath(partition, fileKey), getName(part));
+        }
+    }
+
+    /**
+     * Writes a shard's customers to part files of the part size
+     */
+    private class CustomerPartSink extends PartSink<CustomerBatch>
+    {
+        private final String fileName;
+        private byte[] scratch = new byte[256];
+
+        CustomerPartSink(String fileName, Manifest manifest)
+        {
+            super(getCsvPartSize(SinkContext.CUSTOMERS), CustomerCsvEncoder.HEADER_BYTES.length, manifest);
+            this.fileName = fileName;
+        }
+
+        @Override
+        protected int size(CustomerBatch batch)
+        {
+            return batch.size();
+        }
+
+        @Override
+        protected int getFileKey(CustomerBatch batch, int row)
+        {
+            return 0;
+        }
+
+        @Override
+        protected long getRowLength(CustomerBatch batch, int row)
+        {
+            Customer customer = batch.get(row);
+            int maxLength = CustomerCsvEncoder.getMaxLength(customer);
+
+            if (scratch.length < maxLength)
+            {
+                scratch = new byte[maxLength];
+            }
+
+            return CustomerCsvEncoder.encode(customer, scratch, 0);
+        }
+
+        @Override
+        protected CustomerBatch slice(CustomerBatch batch, int from, int to)
+        {
+            return batch.slice(from, to);
+        }
+
+        private String getName(int part)
+        {
+            return String.format("%s-part-%05d", fileName, part);
+        }
+
+        @Override
+        protected String getEntry(int fileKey, int part)
+        {
+            return SinkContext.CUSTOMERS + "/" + getName(part);
+        }
+
+        @Override
+        protected List<File> getFiles(int fileKey, int part)
+        {
+            sinkContext.setCustomerFileName(getName(part));
+            return getCustomerFiles();
+        }
+
+        @Override
+        protected Sink<CustomerBatch> open(int fileKey, int part) throws IOException
+        {
+            sinkContext.setCustomerFileName(getName(part));
+            return openCustomerSink();
+        }
+    }
+
+    /**
+     * Moves a sink onto the writer pool unless writes should happen on the generating thread
+     */
+    private <B> Sink<B> async(Sink<B> sink, String name)
+    {
+        return writerQueueDepth > 0 ? new AsyncSink<>(sink, writerQueueDepth, sinkContext.getWriterExecutor(), name) : sink;
+    }
+
+    /**
+     * Computes a customer's monthly contribution for a year
+     * @param customers the customer table
+     * @param index the customer's index in the table
+     * @param payYear the year of the contribution
+     * @return the contribution amount rounded to whole cents
+     */
+    public long getContributionCents(CustomerTable customers, int index, int payYear)
+    {
+        int cents = customers.getContributionCents(index, payYear);
+
+        if (cents != CustomerTable.NOT_TABULATED)
+        {
+            return cents;
+        }
+
+        return getContributionCents(customers.isMale(index), customers.getSalaryVariance(index), customers.getRandomSeed(index), payYear);
+    }
+
+    /**
+     * Computes the monthly contribution of every customer in a table for a range of years, once per customer
+     * and year, so contributions look their amounts up rather than recomputing salaries for every row
+     * @param customers the customers
+     * @param firstYear the first year
+     * @param lastYear the last year
+     */
+    public void tabulateContributionCents(CustomerTable customers, int firstYear, int lastYear)
+    {
+        int years = lastYear - firstYear + 1;
+        int[] cents = new int[customers.size() * years];
+
+        for (int i = 0; i < customers.size(); i++)
+        {
+            boolean male = customers.isMale(i);
+            double variance = customers.getSalaryVariance(i);
+            long randomSeed = customers.getRandomSeed(i);
+
+            for (int year = 0; year < years; year++)
+            {
+                long yearCents = getContributionCents(male, variance, randomSeed, firstYear + year);
+                cents[i * years + year] = yearCents > Integer.MIN_VALUE && yearCents <= Integer.MAX_VALUE ?
+                        (int) yearCents : CustomerTable.NOT_TABULATED;
+            }
+        }
+
+        customers.setContributionCents(firstYear, years, cents);
+    }
+
+    private long getContributionCents(boolean male, double salaryVariance, long randomSeed, int payYear)
+    {
+        double averageSalary = male ? maleAverageSalary : femaleAverageSalary;
+        double growthRate = male ? maleGrowthRate : femaleGrowthRate;
+
+        double variance = salaryVariance + Customer.getYearlyKick(randomSeed, payYear);
+        double salary = Customer.getSalary(variance, startYear, payYear, averageSalary, growthRate);
+
+        return Math.round(salary * monthlyContrib * 100.0);
+    }
+
+    /**
+     * Finds the fewest customers whose contributions reach a target, so a run can be sized by its output
+     * rather than its customers. Customers are drawn one at a time from id 0 and nothing is kept, and
+     * only their join date and activity are drawn unless there is a byte target.
+     * @param targetRows contribution rows to reach, 0 for no row target
+     * @param targetBytes bytes of contribution CSV to reach, 0 for no byte target
+     * @return the number of customers
+     */
+    public long findCustomerCount(long targetRows, long targetBytes) throws IOException
+    {
+        if (targetRows <= 0L && targetBytes <= 0L)
+        {
+            throw new IllegalArgumentException("A row or byte target is required");
+        }
+
+        YearMonth firstMonth = YearMonth.of(startYear, 1);
+        int months = (endYear - startYear + 1) * 12;
+
+        /*
+         * The months from each month to the end of the run long enough to hold each pay day
+         */
+        int[][] paidMonths = new int[32][months + 1];
+
+        for (int payDay = 1; payDay < 32; payDay++)
+        {
+            for (int i = months - 1; i >= 0; i--)
+            {
+                paidMonths[payDay][i] = paidMonths[payDay][i + 1] + (firstMonth.plusMonths(i).lengthOfMonth() >= payDay ? 1 : 0);
+            }
+        }
+
+        long rows = 0L;
+        long bytes = 0L;
+        long customerId = 0L;
+
+        while (true)
+        {
+            LocalDate joinDate;
+            int activity;
+            long customerBytes = 0L;
+
+            if (targetBytes > 0L)
+            {
+                Customer customer = createCustomer(customerId);
+                joinDate = LocalDate.ofEpochDay(customer.getJoinEpochDay());
+                activity = customer.getActivity();
+                customerBytes = countCsvBytes(customer, joinDate);
+            }
+            else
+            {
+                SplittableRandom random = randomStreams.forCustomer(customerId);
+                drawSalaryVariance(random);
+                joinDate = LocalDate.ofEpochDay(LogicalValues.toEpochDay(drawJoinDate(random)));
+                activity = skewModel.drawActivity(random);
+            }
+
+            int joinMonth = (int) ChronoUnit.MONTHS.between(firstMonth, YearMonth.from(joinDate));
+            long customerRows = (long) activity * paidMonths[joinDate.getDayOfMonth()][joinMonth];
+
+            rows += customerRows;
+            bytes += customerBytes + customerRows * (ContributionCsvEncoder.countDigits(customerId) + 17L);
+            customerId++;
+
+            if (rows >= targetRows && (targetBytes <= 0L || estimateCsvBytes(bytes, rows, customerId, months) >= targetBytes))
+            {
+                System.out.println("Generating " + customerId + " customers making " + rows + " contributions to reach the target");
+                return customerId;
+            }
+        }
+    }
+
+    /**
+     * Counts the bytes of a customer's contribution amounts as CSV
+     */
+    private long countCsvBytes(Customer customer, LocalDate joinDate)
+    {
+        int payDay = joinDate.getDayOfMonth();
+        int activity = customer.getActivity();
+        long bytes = 0L;
+
+        for (int year = joinDate.getYear(); year <= endYear; year++)
+        {
+            int paid = 0;
+
+            for (int month = year == joinDate.getYear() ? joinDate.getMonthValue() : 1; month <= 12; month++)
+            {
+                if (YearMonth.of(year, month).lengthOfMonth() >= payDay)
+                {
+                    paid++;
+                }
+            }
+
+            long cents = getContributionCents(customer.getMale(), customer.getSalaryVariance(), customer.getRandomSeed(), year);
+            long yearBytes = 0L;
+
+            for (int part = 0; part < activity; part++)
+            {
+                yearBytes += ContributionCsvEncoder.countCentsBytes(SkewModel.splitCents(cents, activity, part));
+            }
+
+            bytes += paid * yearBytes;
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Adds the contribution ids and the header of every file to the bytes counted so far
+     */
+    private long estimateCsvBytes(long bytes, long rows, long customers, int months)
+    {
+        long chunks = (customers + chunkSize - 1L) / chunkSize;
+        long idBytes = 0L;
+
+        /*
+         * Ids run from 0 to rows - 1, counted a number of digits at a time
+         */
+        for (long low = 0L, high = 10L, digits = 1L; low < rows; low = high, high *= 10L, digits++)
+        {
+            idBytes += (Math.min(rows, high) - low) * digits;
+        }
+
+        return bytes + idBytes + chunks * months * ContributionCsvEncoder.HEADER_BYTES.length;
+    }
+
+    public List<Customer> createCustomers(int count) throws IOException
+    {
+        return createCustomers(0L, count);
+    }
+
+    /**
+     * Creates a chunk of customers, each customer depends only on the seed and its id
+     * @param firstCustomerId the id of the first customer in the chunk
+     * @param count the number of customers to create
+     * @return the customers
+     */
+    public List<Customer> createCustomers(long firstCustomerId, int count) throws IOException
+    {
+        System.out.println("Creating customers from: " + firstCustomerId + " with seed: " + randomStreams.getSeed());
+
+        List<Customer> customers = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++)
+        {
+            customers.add(createCustomer(firstCustomerId + i));
+        }
+
+        return customers;
+    }
+
+    /**
+     * Creates a single customer from its own random stream
+     * @param customerId the customer id
+     * @return the customer
+     */
+    public Customer createCustomer(long customerId) throws IOException
+    {
+        if (lastNames == null)
+        {
+            femaleNames = NameDictionary.load(femaleFirstNamesLocation);
+            maleNames = NameDictionary.load(maleFirstNamesLocation);
+            lastNames = NameDictionary.load(lastNamesLocation);
+        }
+
+        double maleWeight = 0.63;
+
+        SplittableRandom random = randomStreams.forCustomer(customerId);
+
+        Customer customer = new Customer(customerId);
+        customer.setRandomSeed(randomStreams.customerSeed(customerId));
+
+        customer.setSalaryVariance(drawSalaryVariance(random));
+        customer.setJoinDate(drawJoinDate(random));
+        customer.setActivity(skewModel.drawActivity(random));
+
+        boolean male = random.nextDouble() < maleWeight;
+
+        customer.setMale(male);
+        customer.setTitle(getTitle(male, random));
+
+        if (male)
+        {
+            customer.setFirstName(makeName(maleNames, random));
+        }
+        else
+        {
+            customer.setFirstName(makeName(femaleNames, random));
+        }
+
+        customer.setLastName(makeName(lastNames, random));
+
+        return customer;
+    }
+
+    /**
+     * Draws a customer's variance from the average salary, the first draw from their random stream
+     */
+    private double drawSalaryVariance(SplittableRandom random)
+    {
+        double variance = random.nextDouble() * salaryVariance;
+
+        if (random.nextBoolean())
+        {
+            variance *= -1.0;
+        }
+
+        return variance;
+    }
+
+    /**
+     * Draws a customer's join date, which follows the salary variance in their random stream, and their
+     * activity follows it
+     */
+    private Date drawJoinDate(SplittableRandom random)
+    {
+        return skewModel.drawBurst(random, new Date(minDate.getTime() + skewModel.drawJoinDay(random, maxDays) * ONE_DAY));
+    }
+
+    /**
+     * Picks a name from a dictionary
+     * @param names the dictionary of all names
+     * @param random the customer's random stream
+     * @return a formatted name shared with every other customer given it
+     */
+    private Name makeName(NameDictionary names, SplittableRandom random)
+    {
+        int index = random.nextInt(1, names.size());
+        return names.get(index);
+    }
+
+    /**
+     * Creates and saves a chunk of customers without holding them in memory
+     * @param firstCustomerId the id of the first customer in the chunk
+     * @param count the number of customers to create
+     * @param customerSink the sink to save customers to
+     * @return the columns of the chunk needed to generate contributions
+     */
+    private CustomerTable saveCustomers(long firstCustomerId, int count, Sink<CustomerBatch> customerSink) throws IOException
+    {
+        System.out.println("Saving: " + count + " customers from: " + firstCustomerId + " with seed: " + randomStreams.getSeed());
+
+        RunMetrics metrics = sinkContext.getMetrics();
+
+        CustomerTable customers = new CustomerTable(firstCustomerId, count);
+        CustomerBatch batch = new CustomerBatch(batchSize);
+
+        long startNanos = System.nanoTime();
+        long sinkNanos = 0L;
+
+        for (int i = 0; i < count; i++)
+        {
+            Customer customer = createCustomer(firstCustomerId + i);
+            customers.add(customer);
+            batch.add(customer);
+
+            if (batch.isFull())
+            {
+                sinkNanos += write(customerSink, batch);
+                metrics.addCustomerRows(batch.size());
+                batch = new CustomerBatch(batchSize);
+            }
+        }
+
+        if (batch.size() > 0)
+        {
+            sinkNanos += write(customerSink, batch);
+            metrics.addCustomerRows(batch.size());
+        }
+
+        metrics.addTime(RunMetrics.Stage.GENERATION, System.nanoTime() - startNanos - sinkNanos);
+        metrics.addTime(RunMetrics.Stage.SINK_WAIT, sinkNanos);
+
+        return customers;
+    }
+
+    /**
+     * Creates the columns of a range of customers needed to generate contributions, without saving them
+     * @param firstCustomerId the id of the first customer
+     * @param count the number of customers to create
+     * @return the customers
+     */
+    CustomerTable createCustomerTable(long firstCustomerId, int count) throws IOException
+    {
+        CustomerTable customers = new CustomerTable(firstCustomerId, count);
+
+        for (int i = 0; i < count; i++)
+        {
+            customers.add(createCustomer(firstCustomerId + i));
+        }
+
+        return customers;
+    }
+
+    public String getTitle(boolean male, SplittableRandom random)
+    {
+        if (male)
+        {
+            return "Mr";
+        } else
+        {
+            switch (random.nextInt(0, 4))
+            {
+                case 0:
+                    return "Mrs";
+                case 1:
+                    return "Ms";
+                case 2:
+                    return "Miss";
+                default:
+                    return "Mrs";
+            }
+        }
+    }
+
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    public void setThreads(int threads)
+    {
+        if (threads < 1)
+        {
+            throw new IllegalArgumentException("Thread count must be at least 1: " + threads);
+        }
+
+        this.threads = threads;
+    }
+
+    public int getShard()
+    {
+        return shard;
+    }
+
+    public int getShards()
+    {
+        return shards;
+    }
+
+    /**
+     * Restricts the generator to one shard of a run, a contiguous range of customer chunks. Shards share
+     * customer and contribution id spaces, so together they write exactly what one unsharded run would
+     * @param shard the shard index, from 0
+     * @param shards the number of shards
+     */
+    public void setShard(int shard, int shards)
+    {
+        if (shards < 1 || shard < 0 || shard >= shards)
+        {
+            throw new IllegalArgumentException("Shard must be between 0 and " + (shards - 1) + " of " + shards + ": " + shard);
+        }
+
+        this.shard = shard;
+        this.shards = shards;
+    }
+
+    public int getStartYear()
+    {
+        return startYear;
+    }
+
+    public int getEndYear()
+    {
+        return endYear;
+    }
+
+    /**
+     * Sets the years to simulate, customers join and contribute within this range
+     * @param startYear the first year
+     * @param endYear the last year
+     */
+    public void setYears(int startYear, int endYear)
+    {
+        if (endYear < startYear)
+        {
+            throw new IllegalArgumentException("End year " + endYear + " is before start year " + startYear);
+        }
+
+        this.startYear = startYear;
+        this.endYear = endYear;
+        this.joinEndYear = endYear;
+
+        LocalDate firstDay = LocalDate.of(startYear, 1, 1);
+
+        minDate = Date.from(firstDay.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        maxDays = ChronoUnit.DAYS.between(firstDay, LocalDate.of(endYear, 12, 31));
+    }
+
+    public int getChunkSize()
+    {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize)
+    {
+        if (chunkSize < 1)
+        {
+            throw new IllegalArgumentException("Chunk size must be at least 1: " + chunkSize);
+        }
+
+        this.chunkSize = chunkSize;
+    }
+
+    public List<SinkProvider> getFormats()
+    {
+        return formats;
+    }
+
+    public void setFormats(List<SinkProvider> formats)
+    {
+        if (formats.isEmpty())
+        {
+            throw new IllegalArgumentException("At least one output format is required");
+        }
+
+        for (SinkProvider format: formats)
+        {
+            format.checkAvailable();
+        }
+
+        this.formats = new ArrayList<>(formats);
+    }
+
+    public int getWriterQueueDepth()
+    {
+        return writerQueueDepth;
+    }
+
+    public void setWriterQueueDepth(int writerQueueDepth)
+    {
+        if (writerQueueDepth < 0)
+        {
+            throw new IllegalArgumentException("Writer queue depth must not be negative: " + writerQueueDepth);
+        }
+
+        this.writerQueueDepth = writerQueueDepth;
+    }
+
+    public int getMetricsInterval()
+    {
+        return metricsInterval;
+    }
+
+    public void setMetricsInterval(int metricsInterval)
+    {
+        if (metricsInterval < 0)
+        {
+            throw new IllegalArgumentException("Metrics interval must not be negative: " + metricsInterval);
+        }
+
+        this.metricsInterval = metricsInterval;
+    }
+
+    public File getMetricsFile()
+    {
+        return metricsFile;
+    }
+
+    public void setMetricsFile(File metricsFile)
+    {
+        this.metricsFile = metricsFile;
+    }
+
+    public ContributionLayout getLayout()
+    {
+        return layout;
+    }
+
+    public void setLayout(ContributionLayout layout)
+    {
+        this.layout = layout;
+    }
+
+    public boolean isRollups()
+    {
+        return rollups;
+    }
+
+    public void setRollups(boolean rollups)
+    {
+        this.rollups = rollups;
+    }
+
+    public PartitionScheme getPartitionScheme()
+    {
+        return partitionScheme;
+    }
+
+    public SkewModel getSkewModel()
+    {
+        return skewModel;
+    }
+
+    public SinkContext getSinkContext()
+    {
+        return sinkContext;
+    }
+
+    /**
+     * @return the directory manifests are kept in, under the output root
+     */
+    public File getManifestDirectory()
+    {
+        return sinkContext.resolve(Manifest.DEFAULT_DIRECTORY);
+    }
+
+    private static Map<String, String> modelParameterDescriptions()
+    {
+        Map<String, String> descriptions = new LinkedHashMap<>();
+        descriptions.put("male-salary", "Average male salary in the start year");
+        descriptions.put("female-salary", "Average female salary in the start year");
+        descriptions.put("male-growth", "Yearly male salary growth as a fraction of the first year's salary");
+        descriptions.put("female-growth", "Yearly female salary growth as a fraction of the first year's salary");
+        descriptions.put("salary-variance", "Largest fraction a customer's salary varies from the average, 0 to 1");
+        descriptions.put("contribution-rate", "Fraction of salary contributed each year, 0 to 1");
+        descriptions.put("member-growth", "Yearly growth in the number of customers joining, 0 spreads joins evenly");
+        descriptions.put("activity-skew", "Zipf exponent of the contributions customers make per pay day, higher is more skewed");
+        descriptions.put("max-activity", "Most contributions a customer makes per pay day, 1 to " + SkewModel.MAX_ACTIVITY_LIMIT);
+        descriptions.put("burst-fraction", "Fraction of customers paid on the 1st or 15th of the month, 0 to 1");
+        return Collections.unmodifiableMap(descriptions);
+    }
+
+    /**
+     * Fetches the parameters of the salary and contribution model, recorded in a run's manifest so
+     * resumed and appended runs reproduce it
+     * @return the parameters by the names in MODEL_PARAMETERS
+     */
+    public Map<String, Double> getModelParameters()
+    {
+        Map<String, Double> parameters = new LinkedHashMap<>();
+        parameters.put("male-salary", maleAverageSalary);
+        parameters.put("female-salary", femaleAverageSalary);
+        parameters.put("male-growth", maleGrowthRate);
+        parameters.put("female-growth", femaleGrowthRate);
+        parameters.put("salary-variance", salaryVariance);
+        parameters.put("contribution-rate", yearlyContrib);
+        parameters.put("member-growth", skewModel.getMemberGrowth());
+        parameters.put("activity-skew", skewModel.getActivitySkew());
+        parameters.put("max-activity", (double) skewModel.getMaxActivity());
+        parameters.put("burst-fraction", skewModel.getBurstFraction());
+        return parameters;
+    }
+
+    /**
+     * Sets a parameter of the salary and contribution model
+     * @param name one of the names in MODEL_PARAMETERS
+     * @param value the value
+     */
+    public void setModelParameter(String name, double value)
+    {
+        switch (name)
+        {
+            case "male-salary":
+                maleAverageSalary = requireRange(name, value, 0.0, Double.MAX_VALUE);
+                break;
+            case "female-salary":
+                femaleAverageSalary = requireRange(name, value, 0.0, Double.MAX_VALUE);
+                break;
+            case "male-growth":
+                maleGrowthRate = requireRange(name, value, -1.0, Double.MAX_VALUE);
+                break;
+            case "female-growth":
+                femaleGrowthRate = requireRange(name, value, -1.0, Double.MAX_VALUE);
+                break;
+            case "salary-variance":
+                salaryVariance = requireRange(name, value, 0.0, 1.0);
+                break;
+            case "contribution-rate":
+                yearlyContrib = requireRange(name, value, 0.0, 1.0);
+                monthlyContrib = yearlyContrib / 12.0;
+                break;
+            case "member-growth":
+                skewModel.setMemberGrowth(value);
+                break;
+            case "activity-skew":
+                skewModel.setActivitySkew(value);
+                break;
+            case "max-activity":
+                if (value != Math.rint(value))
+                {
+                    throw new IllegalArgumentException(name + " must be a whole number: " + value);
+                }
+
+                skewModel.setMaxActivity((int) requireRange(name, value, 1.0, SkewModel.MAX_ACTIVITY_LIMIT));
+                break;
+            case "burst-fraction":
+                skewModel.setBurstFraction(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown model parameter: " + name + ", available: " + MODEL_PARAMETERS.keySet());
+        }
+    }
+
+    private static double requireRange(String name, double value, double min, double max)
+    {
+        if (!(value >= min && value <= max))
+        {
+            throw new IllegalArgumentException(name + (max == Double.MAX_VALUE ? " must be at least " + min :
+                    " must be between " + min + " and " + max) + ": " + value);
+        }
+
+        return value;
+    }
+
+    /**
+     * Runs the command line, kept here so scripts launching DataGenerator keep working
+     * @see DataGeneratorCli
+     */
+    public static void main(String[] args) throws IOException, org.apache.commons.cli.ParseException
+    {
+        DataGeneratorCli.main(args);
+    }
 }
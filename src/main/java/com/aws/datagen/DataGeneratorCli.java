@@ -0,0 +1,532 @@
+package com.aws.datagen;
+
+import com.aws.datagen.feed.Emitters;
+import com.aws.datagen.metrics.PrometheusEndpoint;
+import com.aws.datagen.sink.ContributionBatch;
+import com.aws.datagen.sink.Sink;
+import com.aws.datagen.sink.SinkContext;
+import com.aws.datagen.sink.SinkProviders;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+
+import javax.management.JMException;
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The command line of the data generator: parses options and config files into a configured
+ * DataGenerator, then generates, resumes, appends, feeds or verifies a run.
+ */
+public class DataGeneratorCli
+{
+    /**
+     * The options sizing a new run by its output instead of its customers
+     */
+    private static final String[] TARGET_OPTIONS = {"target-rows", "target-partition-rows", "target-bytes"};
+
+    private DataGeneratorCli()
+    {
+    }
+
+    public static void main(String [] args) throws IOException, org.apache.commons.cli.ParseException
+    {
+        Options options = createOptions();
+        CommandLine commandLine = new DefaultParser().parse(options, args);
+
+        if (commandLine.hasOption("help"))
+        {
+            new HelpFormatter().printHelp(120, "DataGenerator [options]", "Generates customers and their pension contributions",
+                    options, "Every long option can also be set in a --config file");
+            return;
+        }
+
+        RunSettings settings = RunSettings.load(commandLine, options);
+
+        File outputRoot = settings.has("output-root") ? new File(settings.get("output-root")) : null;
+
+        if (settings.has("verify-shards"))
+        {
+            verifyShards(outputRoot, Integer.parseInt(settings.get("verify-shards")));
+            return;
+        }
+
+        if (settings.has("verify"))
+        {
+            verifyDataset(outputRoot, Integer.parseInt(settings.get("threads", Integer.toString(Runtime.getRuntime().availableProcessors()))));
+            return;
+        }
+
+        if (settings.has("shard") != settings.has("of"))
+        {
+            throw new IllegalArgumentException("--shard and --of must be given together");
+        }
+
+        int shard = Integer.parseInt(settings.get("shard", "0"));
+        int shards = Integer.parseInt(settings.get("of", "1"));
+
+        if (shards > 1 && settings.has("feed"))
+        {
+            throw new IllegalArgumentException("--feed cannot be sharded");
+        }
+
+        boolean resume = settings.has("resume");
+        boolean append = settings.has("append");
+
+        if (resume && append)
+        {
+            throw new IllegalArgumentException("Choose one of --resume and --append");
+        }
+
+        if ((resume || append) && settings.has("feed"))
+        {
+            throw new IllegalArgumentException("--feed cannot be combined with --resume or --append");
+        }
+
+        if (append && !settings.has("end-year"))
+        {
+            throw new IllegalArgumentException("--append needs the new --end-year");
+        }
+
+        Manifest manifest = null;
+        DataGenerator generator;
+
+        if (resume || append)
+        {
+            List<String> fromManifest = new ArrayList<>(Arrays.asList("customers", "chunk-size", "start-year"));
+            fromManifest.addAll(Arrays.asList(TARGET_OPTIONS));
+            fromManifest.addAll(DataGenerator.MODEL_PARAMETERS.keySet());
+
+            for (String option: fromManifest)
+            {
+                if (settings.has(option))
+                {
+                    throw new IllegalArgumentException("--" + option + " is taken from the manifest when resuming or appending");
+                }
+            }
+
+            if (resume && settings.has("end-year"))
+            {
+                throw new IllegalArgumentException("--end-year is taken from the manifest when resuming, use --append to extend the run");
+            }
+
+            manifest = Manifest.load(Manifest.shardDirectory(new File(outputRoot, Manifest.DEFAULT_DIRECTORY), shard, shards));
+
+            if (manifest.getShards() != shards)
+            {
+                throw new IllegalArgumentException("The manifest records shard " + manifest.getShard() + " of " + manifest.getShards()
+                        + ", pass the same --shard and --of");
+            }
+
+            if (settings.has("seed") && Long.parseLong(settings.get("seed")) != manifest.getSeed())
+            {
+                throw new IllegalArgumentException("The manifest was written with seed " + manifest.getSeed());
+            }
+
+            checkRecorded(settings, "layout", manifest.getLayout(), value -> ContributionLayout.forName(value).getName());
+            checkRecorded(settings, "partition-by", manifest.getPartitionBy(), value ->
+            {
+                PartitionScheme scheme = new PartitionScheme();
+                scheme.setKeys(value);
+                return scheme.getKeys();
+            });
+            checkRecorded(settings, "buckets", Integer.toString(manifest.getBuckets()), value -> Integer.toString(Integer.parseInt(value)));
+            checkRecorded(settings, "part-size", Long.toString(manifest.getPartSize()), value -> Long.toString(Long.parseLong(value)));
+
+            generator = new DataGenerator(manifest.getSeed());
+        }
+        else
+        {
+            generator = settings.has("seed") ? new DataGenerator(Long.parseLong(settings.get("seed"))) : new DataGenerator();
+        }
+
+        generator.getSinkContext().setOutputRoot(outputRoot);
+        generator.setShard(shard, shards);
+
+        for (String parameter: DataGenerator.MODEL_PARAMETERS.keySet())
+        {
+            if (settings.has(parameter))
+            {
+                generator.setModelParameter(parameter, Double.parseDouble(settings.get(parameter)));
+            }
+        }
+
+        if (settings.has("threads"))
+        {
+            generator.setThreads(Integer.parseInt(settings.get("threads")));
+        }
+
+        if (settings.has("formats"))
+        {
+            generator.setFormats(SinkProviders.resolve(settings.get("formats")));
+        }
+
+        if (settings.has("writer-queue-depth"))
+        {
+            generator.setWriterQueueDepth(Integer.parseInt(settings.get("writer-queue-depth")));
+        }
+
+        if (settings.has("gzip-level"))
+        {
+            generator.getSinkContext().setGzipLevel(Integer.parseInt(settings.get("gzip-level")));
+        }
+
+        if (settings.has("gzip-block-size"))
+        {
+            generator.getSinkContext().setGzipBlockSize(Integer.parseInt(settings.get("gzip-block-size")));
+        }
+
+        if (settings.has("writer-threads"))
+        {
+            generator.getSinkContext().setWriterThreads(Integer.parseInt(settings.get("writer-threads")));
+        }
+
+        if (settings.has("compression-threads"))
+        {
+            generator.getSinkContext().setCompressionThreads(Integer.parseInt(settings.get("compression-threads")));
+        }
+
+        for (Map.Entry<Object, Object> parquetOption: settings.getProperties("parquet").entrySet())
+        {
+            generator.getSinkContext().setParquetOption(parquetOption.getKey().toString(), parquetOption.getValue().toString());
+        }
+
+        if (settings.has("chunk-size"))
+        {
+            generator.setChunkSize(Integer.parseInt(settings.get("chunk-size")));
+        }
+
+        if (settings.has("layout"))
+        {
+            generator.setLayout(ContributionLayout.forName(settings.get("layout")));
+        }
+
+        if (settings.has("partition-by"))
+        {
+            generator.getPartitionScheme().setKeys(settings.get("partition-by"));
+        }
+
+        if (settings.has("buckets"))
+        {
+            generator.getPartitionScheme().setBuckets(Integer.parseInt(settings.get("buckets")));
+        }
+
+        if (settings.has("part-size"))
+        {
+            generator.getPartitionScheme().setPartSize(Long.parseLong(settings.get("part-size")));
+        }
+
+        if (settings.has("rollups"))
+        {
+            generator.setRollups(true);
+        }
+
+        if (settings.has("metrics-interval"))
+        {
+            generator.setMetricsInterval(Integer.parseInt(settings.get("metrics-interval")));
+        }
+
+        if (settings.has("metrics-file"))
+        {
+            generator.setMetricsFile(new File(settings.get("metrics-file")));
+        }
+
+        if (settings.has("jmx"))
+        {
+            try
+            {
+                PrometheusEndpoint.registerMBean(generator.getSinkContext().getMetrics());
+            }
+            catch (JMException e)
+            {
+                throw new IOException("Failed to register the metrics MBean", e);
+            }
+        }
+
+        PrometheusEndpoint endpoint = settings.has("metrics-port") ?
+                new PrometheusEndpoint(generator.getSinkContext().getMetrics(), Integer.parseInt(settings.get("metrics-port"))) : null;
+
+        try
+        {
+            run(generator, manifest, append, settings);
+        }
+        finally
+        {
+            if (endpoint != null)
+            {
+                endpoint.close();
+            }
+        }
+    }
+
+    /**
+     * Defines every command line option, the long names double as config file keys
+     */
+    private static Options createOptions()
+    {
+        Options options = new Options();
+        options.addOption("h", "help", false, "Print this help");
+        options.addOption(null, RunSettings.CONFIG_OPTION, true, "Properties or YAML file of settings keyed by long option name, "
+                + "the command line takes precedence");
+        options.addOption("o", "output-root", true, "Directory to write output, manifests and metrics under, default the working directory");
+        options.addOption("t", "threads", true, "Number of contribution partitions to generate concurrently");
+        options.addOption("s", "seed", true, "Random seed, runs with the same seed produce identical output");
+        options.addOption("c", "customers", true, "Number of customers to generate");
+        options.addOption(null, "target-rows", true, "Generate the fewest customers making at least this many contributions, instead of --customers");
+        options.addOption(null, "target-partition-rows", true, "Generate the fewest customers making at least this many contributions per "
+                + "month on average, instead of --customers");
+        options.addOption(null, "target-bytes", true, "Generate the fewest customers whose contributions reach this many bytes as "
+                + "uncompressed CSV, instead of --customers");
+        options.addOption("k", "chunk-size", true, "Number of customers to hold in memory at once");
+        options.addOption(null, "start-year", true, "First year to simulate");
+        options.addOption(null, "end-year", true, "Last year to simulate, or the new last year when appending");
+        options.addOption("r", "resume", false, "Resume the run recorded in " + Manifest.DEFAULT_DIRECTORY
+                + ", regenerating only missing or corrupt files");
+        options.addOption("a", "append", false, "Extend the finished run recorded in " + Manifest.DEFAULT_DIRECTORY
+                + " to --end-year without rewriting earlier years");
+        options.addOption(null, "shard", true, "Generate only this shard of the run, from 0, requires --of");
+        options.addOption(null, "of", true, "The number of shards the run is split into across processes");
+        options.addOption(null, "verify-shards", true, "Check that this many finished shards add up to one complete run");
+        options.addOption(null, "verify", false, "Read the output back and check its ids, dates and row counts, and that every format agrees");
+        options.addOption(null, "layout", true, "Order of the rows in each contributions file: date (default), customer "
+                + "to cluster by customer id, or zorder to cluster by customer id and pay day");
+        options.addOption(null, "partition-by", true, "Comma separated contribution partition keys from year, month, day and bucket, default "
+                + PartitionScheme.DEFAULT_KEYS);
+        options.addOption(null, "buckets", true, "Number of customer id hash buckets for the bucket partition key, default 16");
+        options.addOption(null, "part-size", true, "Split contributions and customers files into part-NNNNN files of about this many bytes of CSV");
+        options.addOption(null, "rollups", false, "Also write Parquet tables of contribution totals by month and gender and by customer and year");
+        options.addOption(null, "metrics-interval", true, "Seconds between progress log lines, 0 to only log the final line");
+        options.addOption(null, "metrics-file", true, "Where to write the JSON metrics summary, default output_metrics/metrics.json");
+        options.addOption(null, "metrics-port", true, "Serve Prometheus text metrics at http://localhost:<port>/metrics during the run");
+        options.addOption(null, "jmx", false, "Register the run metrics as the JMX MBean " + PrometheusEndpoint.OBJECT_NAME);
+        options.addOption(null, "feed", true, "Emit a continuous live feed of contributions to " + Emitters.USAGE
+                + " instead of writing batch files");
+        options.addOption(null, "feed-rate", true, "Live feed rows per second, 0 for full speed");
+        options.addOption(null, "feed-rows", true, "Stop the live feed after this many rows");
+        options.addOption(null, "feed-seconds", true, "Stop the live feed after this many seconds");
+        options.addOption(null, "feed-start", true, "First simulated pay day of the live feed, yyyy-MM-dd");
+        options.addOption(null, "feed-roll-size", true, "Bytes per live feed file before rolling to a new one");
+        options.addOption(null, "feed-roll-seconds", true, "Seconds per live feed file before rolling to a new one");
+        options.addOption("f", "formats", true, "Comma separated output formats: " + String.join(", ", SinkProviders.available().keySet()));
+        options.addOption("q", "writer-queue-depth", true, "Batches queued per output, 0 writes on the generating threads");
+        options.addOption(null, "writer-threads", true, "Threads writing queued batches, shared by every output");
+        options.addOption(null, "gzip-level", true, "Gzip compression level 1-9, default 6");
+        options.addOption(null, "gzip-block-size", true, "Uncompressed bytes per parallel gzip block");
+        options.addOption(null, "compression-threads", true, "Threads compressing gzip blocks, 1 disables parallel gzip");
+        options.addOption(Option.builder("P").longOpt("parquet").numberOfArgs(2).valueSeparator('=')
+                .argName("[table.]option=value")
+                .desc("Parquet writer option for all tables or one of contributions/customers/rollups: codec, row-group-size, "
+                        + "page-size, dictionary-page-size, dictionary, writer-version. Codecs are uncompressed, snappy and gzip, "
+                        + "zstd needs a newer Hadoop than the one bundled. Bloom filters and per-column dictionary settings "
+                        + "are not supported by the bundled Parquet 1.10")
+                .build());
+
+        for (Map.Entry<String, String> parameter: DataGenerator.MODEL_PARAMETERS.entrySet())
+        {
+            options.addOption(null, parameter.getKey(), true, parameter.getValue());
+        }
+
+        return options;
+    }
+
+    /**
+     * Rejects an option that differs from the value the manifest records, since a resumed or appended run
+     * keeps the layout of the files already written
+     * @param settings the run settings
+     * @param option the option name
+     * @param recorded the value the manifest records
+     * @param normalise converts the option's value to the form the manifest records it in
+     */
+    private static void checkRecorded(RunSettings settings, String option, String recorded, Function<String, String> normalise)
+    {
+        if (settings.has(option) && !normalise.apply(settings.get(option)).equals(recorded))
+        {
+            throw new IllegalArgumentException("--" + option + " " + settings.get(option) + " differs from the manifest, which records "
+                    + recorded + ", leave it out when resuming or appending");
+        }
+    }
+
+    /**
+     * Runs the generator in the mode selected on the command line
+     */
+    private static void run(DataGenerator generator, Manifest manifest, boolean append, RunSettings settings) throws IOException
+    {
+        if (manifest != null)
+        {
+            try (Manifest runManifest = manifest)
+            {
+                if (append)
+                {
+                    generator.append(runManifest, Integer.parseInt(settings.get("end-year")));
+                }
+                else
+                {
+                    generator.resume(runManifest);
+                }
+            }
+
+            return;
+        }
+
+        if (settings.has("start-year") || settings.has("end-year"))
+        {
+            generator.setYears(Integer.parseInt(settings.get("start-year", Integer.toString(generator.getStartYear()))),
+                    Integer.parseInt(settings.get("end-year", Integer.toString(generator.getEndYear()))));
+        }
+
+        long customers = Long.parseLong(settings.get("customers", "1000000"));
+        List<String> targets = new ArrayList<>();
+
+        for (String option: TARGET_OPTIONS)
+        {
+            if (settings.has(option))
+            {
+                targets.add("--" + option);
+            }
+        }
+
+        if (!targets.isEmpty())
+        {
+            if (targets.size() > 1 || settings.has("customers"))
+            {
+                throw new IllegalArgumentException("Choose one of --customers, --target-rows, --target-partition-rows and --target-bytes");
+            }
+
+            if (settings.has("feed"))
+            {
+                throw new IllegalArgumentException("A live feed is sized by --customers, not " + targets.get(0));
+            }
+
+            long months = (generator.getEndYear() - generator.getStartYear() + 1L) * 12L;
+
+            customers = generator.findCustomerCount(
+                    settings.has("target-rows") ? Long.parseLong(settings.get("target-rows")) :
+                            settings.has("target-partition-rows") ? Long.parseLong(settings.get("target-partition-rows")) * months : 0L,
+                    settings.has("target-bytes") ? Long.parseLong(settings.get("target-bytes")) : 0L);
+        }
+
+        if (settings.has("feed"))
+        {
+            runFeed(generator, customers, settings);
+            return;
+        }
+
+        generator.generate(customers);
+    }
+
+    /**
+     * Verifies the shards of a sharded run, failing if they do not add up to one complete run
+     */
+    private static void verifyShards(File outputRoot, int shards) throws IOException
+    {
+        ShardVerifier verifier = new ShardVerifier(new File(outputRoot, Manifest.DEFAULT_DIRECTORY), shards);
+
+        if (!verifier.verify())
+        {
+            for (String problem: verifier.getProblems())
+            {
+                System.out.println(problem);
+            }
+
+            throw new IllegalStateException(shards + " shards do not make a complete run, found "
+                    + verifier.getProblems().size() + " problems");
+        }
+
+        System.out.println(shards + " shards make a complete run of " + verifier.getCustomerRows() + " customers and "
+                + verifier.getContributionRows() + " contributions in " + verifier.getFiles() + " files");
+    }
+
+    /**
+     * Reads a finished run back, failing if any check finds a problem
+     */
+    private static void verifyDataset(File outputRoot, int threads) throws IOException
+    {
+        SinkContext context = new SinkContext();
+        context.setOutputRoot(outputRoot);
+
+        DatasetVerifier verifier = new DatasetVerifier(context, threads);
+        long start = System.nanoTime();
+
+        if (!verifier.verify())
+        {
+            for (String problem: verifier.getProblems())
+            {
+                System.out.println(problem);
+            }
+
+            throw new IllegalStateException("The output failed verification with " + verifier.getProblems().size() + " problems");
+        }
+
+        System.out.println(String.format(Locale.ROOT, "Verified %d customers and %d contributions in %d %s files in %.1f seconds",
+                verifier.getCustomerRows(), verifier.getContributionRows(), verifier.getFiles(),
+                String.join(", ", verifier.getFormats()), (System.nanoTime() - start) / 1e9));
+    }
+
+    /**
+     * Runs a live feed until its limits are reached or the process is interrupted
+     */
+    private static void runFeed(DataGenerator generator, long customers, RunSettings settings) throws IOException
+    {
+        if (customers > Integer.MAX_VALUE)
+        {
+            throw new IllegalArgumentException("A live feed holds every customer in memory, at most "
+                    + Integer.MAX_VALUE + " are supported: " + customers);
+        }
+
+        LiveFeed feed = new LiveFeed(generator, (int) customers);
+
+        if (settings.has("feed-rate"))
+        {
+            feed.setRate(Double.parseDouble(settings.get("feed-rate")));
+        }
+
+        if (settings.has("feed-rows"))
+        {
+            feed.setMaxRows(Long.parseLong(settings.get("feed-rows")));
+        }
+
+        if (settings.has("feed-seconds"))
+        {
+            feed.setMaxSeconds(Long.parseLong(settings.get("feed-seconds")));
+        }
+
+        if (settings.has("feed-start"))
+        {
+            feed.setStartDate(LocalDate.parse(settings.get("feed-start")));
+        }
+
+        Sink<ContributionBatch> emitter = Emitters.open(settings.get("feed"),
+                Long.parseLong(settings.get("feed-roll-size", Long.toString(64L * 1024L * 1024L))),
+                Long.parseLong(settings.get("feed-roll-seconds", "60")));
+
+        /*
+         * On Ctrl-C let the feed finish its current batch and close the emitter so the last file is complete
+         */
+        Thread feedThread = Thread.currentThread();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() ->
+        {
+            feed.stop();
+
+            try
+            {
+                feedThread.join(5000L);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        feed.run(emitter);
+    }
+}
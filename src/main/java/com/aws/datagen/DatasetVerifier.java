@@ -0,0 +1,1160 @@
+package com.aws.datagen;
+
+import com.aws.datagen.model.LogicalValues;
+import com.aws.datagen.sink.LocalInputFile;
+import com.aws.datagen.sink.SinkContext;
+import com.aws.datagen.util.Seeds;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowFileReader;
+import org.apache.arrow.vector.ipc.ArrowReader;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.orc.OrcFile;
+import org.apache.orc.RecordReader;
+import org.apache.orc.TypeDescription;
+import org.apache.parquet.avro.AvroParquetReader;
+import org.apache.parquet.avro.AvroReadSupport;
+import org.apache.parquet.avro.AvroSchemaConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.metadata.FileMetaData;
+import org.apache.parquet.io.InputFile;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a generated dataset back and checks it, so a large run can be validated without loading it into Athena.
+ *
+ * Every output format found under the output root is read, a contribution partition per thread. Parquet
+ * is read with a projection of only the columns checked, so customers decode two of their six columns, and
+ * ORC with only those columns included.
+ * The checks are that:
+ * - customer ids are unique and run from 0 with no gaps
+ * - contribution ids run from 0 with no gaps or overlaps, in order within each file
+ * - no contribution falls before its customer joined or outside its partition's month
+ * - every format holds the same files with the same rows
+ * - row counts match the run manifest, or the shards' manifests, when there is one
+ */
+public class DatasetVerifier
+{
+    /**
+     * The formats that can be read back, in the order they are preferred for the row checks
+     */
+    private enum Format
+    {
+        PARQUET("parquet", "output_parquet", ".parquet"),
+        CSV("csv", "output_csv", ".csv"),
+        COMPRESSED_CSV("compressed_csv", "output_compressed", ".csv.gz"),
+        ORC("orc", "output_orc", ".orc"),
+        ARROW("arrow", "output_arrow", ".arrow"),
+        ARROW_STREAM("arrow_stream", "output_arrow_stream", ".arrows");
+
+        private final String label;
+        private final String directory;
+        private final String extension;
+
+        Format(String label, String directory, String extension)
+        {
+            this.label = label;
+            this.directory = directory;
+            this.extension = extension;
+        }
+    }
+
+    private static final String[] CUSTOMER_COLUMNS = {"CustomerId", "JoinDate"};
+    private static final String[] CONTRIBUTION_COLUMNS = {"ContributionId", "CustomerId", "ContributionDate", "Amount"};
+
+    private final SinkContext context;
+    private final int threads;
+
+    private final List<String> problems = Collections.synchronizedList(new ArrayList<>());
+    private final List<Format> formats = new ArrayList<>();
+
+    /**
+     * Join epoch days indexed by customer id, read from the preferred format
+     */
+    private int[] joinEpochDays = new int[0];
+
+    /**
+     * The partition scheme of the run, for the bucket each customer's contributions belong in
+     */
+    private PartitionScheme partitionScheme = new PartitionScheme();
+
+    private long customerRows = 0L;
+    private long contributionRows = 0L;
+    private int files = 0;
+
+    /**
+     * @param context the sink settings, whose output root holds the dataset
+     * @param threads the number of partitions to read at once
+     */
+    public DatasetVerifier(SinkContext context, int threads)
+    {
+        if (threads < 1)
+        {
+            throw new IllegalArgumentException("Threads must be at least 1: " + threads);
+        }
+
+        this.context = context;
+        this.threads = threads;
+    }
+
+    /**
+     * Runs every check
+     * @return true if no problems were found
+     */
+    public boolean verify() throws IOException
+    {
+        problems.clear();
+        formats.clear();
+        customerRows = 0L;
+        contributionRows = 0L;
+        files = 0;
+
+        /*
+         * output_parquet can hold only rollup tables when Parquet was not one of the formats
+         */
+        for (Format format: Format.values())
+        {
+            if (context.resolve(format.directory + "/" + SinkContext.CUSTOMERS).isDirectory()
+                    || context.resolve(format.directory + "/" + SinkContext.CONTRIBUTIONS).isDirectory())
+            {
+                formats.add(format);
+            }
+        }
+
+        if (formats.isEmpty())
+        {
+            problems.add("No csv, compressed_csv, parquet, orc or arrow output found under "
+                    + (context.getOutputRoot() != null ? context.getOutputRoot() : "the working directory"));
+            return false;
+        }
+
+        partitionScheme = loadPartitionScheme();
+        checkCustomers();
+
+        List<FileSummary> summaries = checkContributions();
+
+        checkContributionIds(summaries);
+        checkManifests(summaries);
+
+        return problems.isEmpty();
+    }
+
+    /**
+     * Reads the customers of every format, keeping the join days of the first to check contributions against
+     */
+    private void checkCustomers() throws IOException
+    {
+        FileSummary expected = null;
+
+        for (Format format: formats)
+        {
+            FileSummary summary = new FileSummary(SinkContext.CUSTOMERS);
+            List<File> customerFiles = listFiles(new File(context.resolve(format.directory), SinkContext.CUSTOMERS), format);
+            BitSet seen = expected == null ? new BitSet() : null;
+
+            for (File file: customerFiles)
+            {
+                readCustomers(format, file, (customerId, joinEpochDay) ->
+                {
+                    summary.add(customerId, Seeds.mix(customerId, joinEpochDay));
+
+                    if (seen != null)
+                    {
+                        if (customerId < 0L || customerId >= Integer.MAX_VALUE)
+                        {
+                            summary.invalidRows++;
+                            return;
+                        }
+
+                        int index = (int) customerId;
+
+                        if (seen.get(index))
+                        {
+                            summary.duplicateRows++;
+                        }
+
+                        seen.set(index);
+
+                        if (index >= joinEpochDays.length)
+                        {
+                            joinEpochDays = Arrays.copyOf(joinEpochDays, Math.max(index + 1, joinEpochDays.length * 2));
+                        }
+
+                        joinEpochDays[index] = joinEpochDay;
+                    }
+                });
+            }
+
+            files += customerFiles.size();
+
+            if (seen != null)
+            {
+                expected = summary;
+                customerRows = summary.rows;
+
+                if (summary.invalidRows > 0L)
+                {
+                    problems.add(format.label + ": " + summary.invalidRows + " customers have invalid ids");
+                }
+
+                if (summary.duplicateRows > 0L)
+                {
+                    problems.add(format.label + ": " + summary.duplicateRows + " customer ids appear more than once");
+                }
+
+                if (seen.nextClearBit(0) < seen.length())
+                {
+                    problems.add(format.label + ": customer ids are missing from " + seen.nextClearBit(0) + ", the highest is " + (seen.length() - 1));
+                }
+            }
+            else if (summary.rows != expected.rows || summary.checksum != expected.checksum)
+            {
+                problems.add(format.label + ": customers hold " + summary.rows + " rows that differ from the "
+                        + expected.rows + " in " + formats.get(0).label);
+            }
+        }
+    }
+
+    /**
+     * Reads every contribution partition, a partition per thread
+     * @return the summary of each file of the preferred format
+     */
+    private List<FileSummary> checkContributions() throws IOException
+    {
+        Set<String> partitionPaths = new TreeSet<>();
+
+        for (Format format: formats)
+        {
+            File contributions = new File(context.resolve(format.directory), SinkContext.CONTRIBUTIONS);
+
+            addPartitionPaths(contributions, "", partitionPaths);
+        }
+
+        System.out.println("Verifying " + partitionPaths.size() + " partitions in " + formats.size() + " formats using " + threads + " threads");
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try
+        {
+            List<Future<List<FileSummary>>> futures = new ArrayList<>();
+
+            for (String partitionPath: partitionPaths)
+            {
+                futures.add(executor.submit(() -> checkPartition(partitionPath)));
+            }
+
+            List<FileSummary> summaries = new ArrayList<>();
+
+            for (Future<List<FileSummary>> future: futures)
+            {
+                summaries.addAll(future.get());
+            }
+
+            return summaries;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while verifying contributions");
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof IOException)
+            {
+                throw (IOException) e.getCause();
+            }
+
+            throw new IOException("Failed to verify contributions", e.getCause());
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Collects the directories under the contributions directory that hold files, at whatever depth the
+     * partition keys put them
+     */
+    private static void addPartitionPaths(File directory, String path, Set<String> partitionPaths)
+    {
+        File[] children = directory.listFiles(File::isFile);
+
+        if (!path.isEmpty() && children != null && children.length > 0)
+        {
+            partitionPaths.add(path);
+        }
+
+        for (File child: listDirectories(directory))
+        {
+            addPartitionPaths(child, path.isEmpty() ? child.getName() : path + "/" + child.getName(), partitionPaths);
+        }
+    }
+
+    /**
+     * Reads the partition scheme of the run from its manifest, or of shard 0 for a sharded run
+     * @return the scheme, the default one if there is no manifest
+     */
+    private PartitionScheme loadPartitionScheme() throws IOException
+    {
+        PartitionScheme scheme = new PartitionScheme();
+        File directory = context.resolve(Manifest.DEFAULT_DIRECTORY);
+
+        for (File shardDirectory: listDirectories(directory))
+        {
+            if (!new File(directory, "run.properties").isFile() && shardDirectory.getName().startsWith("shard-"))
+            {
+                directory = shardDirectory;
+            }
+        }
+
+        if (new File(directory, "run.properties").isFile())
+        {
+            try (Manifest manifest = Manifest.load(directory))
+            {
+                scheme.setKeys(manifest.getPartitionBy());
+                scheme.setBuckets(manifest.getBuckets());
+            }
+        }
+
+        return scheme;
+    }
+
+    /**
+     * Reads one partition in every format, checking each row of the preferred format and that the others match it
+     * @param partitionPath the Hive style partition directory
+     * @return the summary of each file of the preferred format
+     */
+    private List<FileSummary> checkPartition(String partitionPath) throws IOException
+    {
+        long[] bounds = new long[3];
+        PartitionScheme.parsePartitionPath(partitionPath, bounds);
+
+        long firstDay = bounds[0];
+        long lastDay = bounds[1];
+        int bucket = (int) bounds[2];
+
+        Map<String, FileSummary> expected = null;
+
+        for (Format format: formats)
+        {
+            Map<String, FileSummary> summaries = new TreeMap<>();
+            File directory = new File(new File(context.resolve(format.directory), SinkContext.CONTRIBUTIONS), partitionPath);
+
+            for (File file: listFiles(directory, format))
+            {
+                String name = file.getName();
+                FileSummary summary = new FileSummary(SinkContext.CONTRIBUTIONS + "/" + partitionPath + "/" + name.substring(0, name.indexOf('.')));
+
+                readContributions(format, file, (contributionId, customerId, epochDay, cents) ->
+                {
+                    summary.add(contributionId, Seeds.mix(Seeds.mix(Seeds.mix(contributionId, customerId), epochDay), cents));
+
+                    if (customerId < 0L || customerId >= joinEpochDays.length || customerId >= customerRows)
+                    {
+                        summary.invalidRows++;
+                    }
+                    else if (epochDay < joinEpochDays[(int) customerId])
+                    {
+                        summary.beforeJoinRows++;
+                    }
+
+                    if (epochDay < firstDay || epochDay > lastDay)
+                    {
+                        summary.outsideMonthRows++;
+                    }
+
+                    if (bucket >= 0 && partitionScheme.getBucket(customerId) != bucket)
+                    {
+                        summary.otherBucketRows++;
+                    }
+                });
+
+                summaries.put(summary.entry, summary);
+            }
+
+            synchronized (this)
+            {
+                files += summaries.size();
+            }
+
+            if (expected == null)
+            {
+                expected = summaries;
+
+                for (FileSummary summary: summaries.values())
+                {
+                    reportRowProblems(format, summary);
+                }
+            }
+            else
+            {
+                compare(format, expected, summaries);
+            }
+        }
+
+        return expected == null ? Collections.<FileSummary>emptyList() : new ArrayList<>(expected.values());
+    }
+
+    private void reportRowProblems(Format format, FileSummary summary)
+    {
+        String file = format.label + ": " + summary.entry;
+
+        if (!summary.consecutive)
+        {
+            problems.add(file + " has contribution ids out of order");
+        }
+
+        if (summary.invalidRows > 0L)
+        {
+            problems.add(file + " has " + summary.invalidRows + " contributions by unknown customers");
+        }
+
+        if (summary.beforeJoinRows > 0L)
+        {
+            problems.add(file + " has " + summary.beforeJoinRows + " contributions from before their customer joined");
+        }
+
+        if (summary.outsideMonthRows > 0L)
+        {
+            problems.add(file + " has " + summary.outsideMonthRows + " contributions outside its partition's dates");
+        }
+
+        if (summary.otherBucketRows > 0L)
+        {
+            problems.add(file + " has " + summary.otherBucketRows + " contributions by customers of other buckets");
+        }
+    }
+
+    /**
+     * Checks another format holds the same files and rows as the preferred one
+     */
+    private void compare(Format format, Map<String, FileSummary> expected, Map<String, FileSummary> summaries)
+    {
+        for (FileSummary summary: expected.values())
+        {
+            FileSummary other = summaries.get(summary.entry);
+
+            if (other == null)
+            {
+                problems.add(format.label + ": " + summary.entry + " is missing");
+            }
+            else if (other.rows != summary.rows || other.checksum != summary.checksum)
+            {
+                problems.add(format.label + ": " + summary.entry + " holds " + other.rows + " rows that differ from the "
+                        + summary.rows + " in " + formats.get(0).label);
+            }
+        }
+
+        for (String entry: summaries.keySet())
+        {
+            if (!expected.containsKey(entry))
+            {
+                problems.add(format.label + ": " + entry + " is not in " + formats.get(0).label);
+            }
+        }
+    }
+
+    /**
+     * Checks the contribution ids of all the files follow on from 0
+     */
+    private void checkContributionIds(List<FileSummary> summaries)
+    {
+        List<FileSummary> ranges = new ArrayList<>();
+
+        for (FileSummary summary: summaries)
+        {
+            contributionRows += summary.rows;
+
+            if (summary.rows > 0L)
+            {
+                ranges.add(summary);
+            }
+        }
+
+        ranges.sort(Comparator.comparingLong(summary -> summary.firstId));
+
+        long expected = 0L;
+
+        for (FileSummary range: ranges)
+        {
+            if (range.firstId > expected)
+            {
+                problems.add("Contribution ids " + expected + " to " + (range.firstId - 1) + " are missing before " + range.entry);
+            }
+            else if (range.firstId < expected)
+            {
+                problems.add("Contribution ids of " + range.entry + " from " + range.firstId + " overlap ids before them");
+            }
+
+            expected = Math.max(expected, range.lastId + 1L);
+        }
+    }
+
+    /**
+     * Checks the row counts against the run manifest, or every shard's manifest
+     */
+    private void checkManifests(List<FileSummary> summaries) throws IOException
+    {
+        File directory = context.resolve(Manifest.DEFAULT_DIRECTORY);
+        List<File> manifestDirectories = new ArrayList<>();
+
+        if (new File(directory, "run.properties").isFile())
+        {
+            manifestDirectories.add(directory);
+        }
+        else
+        {
+            for (File shardDirectory: listDirectories(directory))
+            {
+                if (shardDirectory.getName().startsWith("shard-"))
+                {
+                    manifestDirectories.add(shardDirectory);
+                }
+            }
+        }
+
+        if (manifestDirectories.isEmpty())
+        {
+            return;
+        }
+
+        Map<String, Long> rows = new HashMap<>();
+
+        for (FileSummary summary: summaries)
+        {
+            rows.put(summary.entry, summary.rows);
+        }
+
+        long manifestCustomers = 0L;
+
+        for (File manifestDirectory: manifestDirectories)
+        {
+            try (Manifest manifest = Manifest.load(manifestDirectory))
+            {
+                for (String entry: manifest.getEntries())
+                {
+                    long manifestRows = manifest.getRows(entry);
+
+                    if (entry.equals(SinkContext.CUSTOMERS) || entry.startsWith(SinkContext.CUSTOMERS + "/"))
+                    {
+                        manifestCustomers += manifestRows;
+                        continue;
+                    }
+
+                    Long found = rows.remove(entry);
+
+                    if (found == null)
+                    {
+                        problems.add(entry + " is in the manifest but was not found");
+                    }
+                    else if (found != manifestRows)
+                    {
+                        problems.add(entry + " holds " + found + " rows, the manifest recorded " + manifestRows);
+                    }
+                }
+            }
+        }
+
+        if (manifestCustomers != customerRows)
+        {
+            problems.add("There are " + customerRows + " customers, the manifest recorded " + manifestCustomers);
+        }
+
+        for (String entry: new TreeSet<>(rows.keySet()))
+        {
+            problems.add(entry + " is not in the manifest");
+        }
+    }
+
+    private void readCustomers(Format format, File file, CustomerVisitor visitor) throws IOException
+    {
+        if (format == Format.PARQUET)
+        {
+            readParquet(file, CUSTOMER_COLUMNS, record -> visitor.visit((Long) record.get(0),
+                    LogicalValues.readEpochDay(record.get(1))));
+        }
+        else if (format == Format.ORC || format == Format.ARROW || format == Format.ARROW_STREAM)
+        {
+            readColumns(format, file, CUSTOMER_COLUMNS, row -> visitor.visit(row[0], (int) row[1]));
+        }
+        else
+        {
+            readCsv(file, format == Format.COMPRESSED_CSV, record -> visitor.visit(Long.parseLong(record.get(0)),
+                    (int) LocalDate.parse(record.get(5)).toEpochDay()));
+        }
+    }
+
+    private void readContributions(Format format, File file, ContributionVisitor visitor) throws IOException
+    {
+        if (format == Format.PARQUET)
+        {
+            readParquet(file, CONTRIBUTION_COLUMNS, record -> visitor.visit((Long) record.get(0), (Long) record.get(1),
+                    LogicalValues.readEpochDay(record.get(2)), LogicalValues.readCents(record.get(3))));
+        }
+        else if (format == Format.ORC || format == Format.ARROW || format == Format.ARROW_STREAM)
+        {
+            readColumns(format, file, CONTRIBUTION_COLUMNS, row -> visitor.visit(row[0], row[1], (int) row[2], row[3]));
+        }
+        else
+        {
+            try (InputStream input = open(file, format == Format.COMPRESSED_CSV))
+            {
+                new ContributionCsvScanner(input, file).scan(visitor);
+            }
+        }
+    }
+
+    /**
+     * Reads a Parquet file decoding only some of its columns, in the order given
+     * @param file the file
+     * @param columns the column names
+     * @param visitor called with each record
+     */
+    private static void readParquet(File file, String[] columns, RecordVisitor<GenericRecord> visitor) throws IOException
+    {
+        InputFile input = new LocalInputFile(file);
+
+        /*
+         * Without the Hadoop defaults, which Parquet does not need and take longer to parse than a small file takes to read
+         */
+        Configuration configuration = new Configuration(false);
+
+        Schema projection = project(readSchema(configuration, input), columns);
+        AvroReadSupport.setRequestedProjection(configuration, projection);
+        AvroReadSupport.setAvroReadSchema(configuration, projection);
+
+        try (ParquetReader<GenericRecord> reader = AvroParquetReader.<GenericRecord>builder(input).withConf(configuration).build())
+        {
+            for (GenericRecord record = reader.read(); record != null; record = reader.read())
+            {
+                visitor.visit(record);
+            }
+        }
+    }
+
+    /**
+     * Reads some of the columns of an ORC or Arrow file, every one a long, a date as its epoch day or a
+     * decimal as its unscaled value
+     * @param format the file's format
+     * @param file the file
+     * @param columns the column names
+     * @param visitor called with each row's values, in the order of the columns
+     */
+    private static void readColumns(Format format, File file, String[] columns, RecordVisitor<long[]> visitor) throws IOException
+    {
+        if (format == Format.ORC)
+        {
+            readOrc(file, columns, visitor);
+            return;
+        }
+
+        try (BufferAllocator allocator = new RootAllocator();
+             FileInputStream input = new FileInputStream(file);
+             ArrowReader reader = format == Format.ARROW ? new ArrowFileReader(input.getChannel(), allocator)
+                     : new ArrowStreamReader(input, allocator))
+        {
+            long[] row = new long[columns.length];
+
+            while (reader.loadNextBatch())
+            {
+                VectorSchemaRoot root = reader.getVectorSchemaRoot();
+                FieldVector[] vectors = new FieldVector[columns.length];
+
+                for (int c = 0; c < columns.length; c++)
+                {
+                    vectors[c] = root.getVector(columns[c]);
+
+                    if (vectors[c] == null)
+                    {
+                        throw new IOException("No column " + columns[c] + " in " + file);
+                    }
+                }
+
+                for (int i = 0; i < root.getRowCount(); i++)
+                {
+                    for (int c = 0; c < columns.length; c++)
+                    {
+                        row[c] = readLong(vectors[c], i);
+                    }
+
+                    visitor.visit(row);
+                }
+            }
+        }
+    }
+
+    private static long readLong(FieldVector vector, int index)
+    {
+        if (vector instanceof BigIntVector)
+        {
+            return ((BigIntVector) vector).get(index);
+        }
+
+        if (vector instanceof DateDayVector)
+        {
+            return ((DateDayVector) vector).get(index);
+        }
+
+        if (vector instanceof DecimalVector)
+        {
+            /*
+             * The low eight bytes of the little endian 128 bit value, exact for any amount that fits a long
+             */
+            return vector.getDataBuffer().getLong((long) index * DecimalVector.TYPE_WIDTH);
+        }
+
+        throw new IllegalArgumentException("Column " + vector.getName() + " is not a long, date or decimal");
+    }
+
+    private static void readOrc(File file, String[] columns, RecordVisitor<long[]> visitor) throws IOException
+    {
+        Configuration configuration = new Configuration(false);
+        RawLocalFileSystem fileSystem = new RawLocalFileSystem();
+        fileSystem.initialize(URI.create("file:///"), configuration);
+
+        try (org.apache.orc.Reader reader = OrcFile.createReader(new Path(file.getAbsolutePath()),
+                OrcFile.readerOptions(configuration).filesystem(fileSystem)))
+        {
+            TypeDescription schema = reader.getSchema();
+            boolean[] include = new boolean[schema.getMaximumId() + 1];
+            int[] fields = new int[columns.length];
+
+            include[0] = true;
+
+            for (int c = 0; c < columns.length; c++)
+            {
+                fields[c] = schema.getFieldNames().indexOf(columns[c]);
+
+                if (fields[c] < 0)
+                {
+                    throw new IOException("No column " + columns[c] + " in " + file);
+                }
+
+                include[schema.getChildren().get(fields[c]).getId()] = true;
+            }
+
+            VectorizedRowBatch batch = schema.createRowBatch(TypeDescription.RowBatchVersion.USE_DECIMAL64, 8192);
+            long[] row = new long[columns.length];
+
+            try (RecordReader rows = reader.rows(reader.options().include(include)))
+            {
+                while (rows.nextBatch(batch))
+                {
+                    for (int i = 0; i < batch.size; i++)
+                    {
+                        for (int c = 0; c < columns.length; c++)
+                        {
+                            LongColumnVector vector = (LongColumnVector) batch.cols[fields[c]];
+                            row[c] = vector.vector[vector.isRepeating ? 0 : i];
+                        }
+
+                        visitor.visit(row);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the Avro schema a Parquet file was written with, which differs between schema versions
+     */
+    private static Schema readSchema(Configuration configuration, InputFile input) throws IOException
+    {
+        FileMetaData metadata;
+
+        try (ParquetFileReader reader = ParquetFileReader.open(input))
+        {
+            metadata = reader.getFooter().getFileMetaData();
+        }
+
+        String avroSchema = metadata.getKeyValueMetaData().get("parquet.avro.schema");
+
+        return avroSchema != null ? new Schema.Parser().parse(avroSchema) : new AvroSchemaConverter(configuration).convert(metadata.getSchema());
+    }
+
+    private static Schema project(Schema schema, String[] columns) throws IOException
+    {
+        List<Schema.Field> fields = new ArrayList<>();
+
+        for (String column: columns)
+        {
+            Schema.Field field = schema.getField(column);
+
+            if (field == null)
+            {
+                throw new IOException("No column " + column + " in " + schema.getFullName());
+            }
+
+            fields.add(new Schema.Field(field.name(), field.schema(), field.doc(), field.defaultVal()));
+        }
+
+        return Schema.createRecord(schema.getName(), schema.getDoc(), schema.getNamespace(), false, fields);
+    }
+
+    private static void readCsv(File file, boolean compressed, RecordVisitor<CSVRecord> visitor) throws IOException
+    {
+        try (CSVParser parser = CSVFormat.EXCEL.withFirstRecordAsHeader().parse(new BufferedReader(new InputStreamReader(
+                open(file, compressed), StandardCharsets.UTF_8), 65536)))
+        {
+            for (CSVRecord record: parser)
+            {
+                visitor.visit(record);
+            }
+        }
+    }
+
+    private static InputStream open(File file, boolean compressed) throws IOException
+    {
+        InputStream input = new FileInputStream(file);
+        return compressed ? new GZIPInputStream(input, 65536) : input;
+    }
+
+    private static List<File> listFiles(File directory, Format format)
+    {
+        List<File> found = new ArrayList<>();
+        File[] children = directory.listFiles();
+
+        if (children != null)
+        {
+            for (File child: children)
+            {
+                if (child.isFile() && !child.getName().startsWith(".") && child.getName().endsWith(format.extension))
+                {
+                    found.add(child);
+                }
+            }
+        }
+
+        Collections.sort(found);
+
+        return found;
+    }
+
+    private static List<File> listDirectories(File directory)
+    {
+        List<File> found = new ArrayList<>();
+        File[] children = directory.listFiles(File::isDirectory);
+
+        if (children != null)
+        {
+            found.addAll(Arrays.asList(children));
+        }
+
+        Collections.sort(found);
+
+        return found;
+    }
+
+    public List<String> getProblems()
+    {
+        return new ArrayList<>(problems);
+    }
+
+    public long getCustomerRows()
+    {
+        return customerRows;
+    }
+
+    public long getContributionRows()
+    {
+        return contributionRows;
+    }
+
+    /**
+     * @return the files read, in every format
+     */
+    public int getFiles()
+    {
+        return files;
+    }
+
+    /**
+     * @return the formats found and read
+     */
+    public List<String> getFormats()
+    {
+        List<String> labels = new ArrayList<>();
+
+        for (Format format: formats)
+        {
+            labels.add(format.label);
+        }
+
+        return labels;
+    }
+
+    /**
+     * The rows of one file, with an order independent checksum of their values to compare formats by
+     */
+    private static class FileSummary
+    {
+        private final String entry;
+
+        private long rows = 0L;
+        private long checksum = 0L;
+        private long firstId = 0L;
+        private long lastId = 0L;
+        private boolean consecutive = true;
+
+        private long invalidRows = 0L;
+        private long duplicateRows = 0L;
+        private long beforeJoinRows = 0L;
+        private long outsideMonthRows = 0L;
+        private long otherBucketRows = 0L;
+
+        private FileSummary(String entry)
+        {
+            this.entry = entry;
+        }
+
+        private void add(long id, long hash)
+        {
+            if (rows == 0L)
+            {
+                firstId = id;
+            }
+            else if (id != lastId + 1L)
+            {
+                consecutive = false;
+            }
+
+            lastId = id;
+            checksum += hash;
+            rows++;
+        }
+    }
+
+    /**
+     * Scans contributions CSV in the exact layout ContributionCsvEncoder writes, several times faster than a
+     * general CSV parser. Anything else is reported as malformed.
+     */
+    private static class ContributionCsvScanner
+    {
+        private final InputStream input;
+        private final File file;
+        private final byte[] buffer = new byte[65536];
+
+        private int position = 0;
+        private int limit = 0;
+        private long line = 1L;
+
+        /**
+         * The last date read, as runs of rows share their date
+         */
+        private int lastDate = -1;
+        private int lastEpochDay = 0;
+
+        private ContributionCsvScanner(InputStream input, File file)
+        {
+            this.input = input;
+            this.file = file;
+        }
+
+        private void scan(ContributionVisitor visitor) throws IOException
+        {
+            int b;
+
+            while ((b = next()) != '\n')
+            {
+                if (b < 0)
+                {
+                    return;
+                }
+            }
+
+            while ((b = next()) >= 0)
+            {
+                line++;
+
+                long contributionId = readLong(b, ',');
+                long customerId = readLong(next(), ',');
+
+                expect(next(), '"');
+                int year = readDigits(4, '-');
+                int month = readDigits(2, '-');
+                int day = readDigits(2, '"');
+                expect(next(), ',');
+
+                int date = (year * 100 + month) * 100 + day;
+
+                if (date != lastDate)
+                {
+                    lastEpochDay = (int) LocalDate.of(year, month, day).toEpochDay();
+                    lastDate = date;
+                }
+
+                long cents = readCents(next());
+                expect(next(), '\n');
+
+                visitor.visit(contributionId, customerId, lastEpochDay, cents);
+            }
+        }
+
+        /**
+         * Reads an amount and the carriage return after it. Amounts are written with one or two
+         * decimals, or from 1e7 on in Double.toString's scientific notation
+         */
+        private long readCents(int b) throws IOException
+        {
+            boolean negative = b == '-';
+            long units = readLong(negative ? next() : b, '.');
+            long fraction = 0L;
+            int fractionDigits = 0;
+
+            for (b = next(); b >= '0' && b <= '9'; b = next())
+            {
+                if (++fractionDigits > 18)
+                {
+                    throw malformed();
+                }
+
+                fraction = fraction * 10L + (b - '0');
+            }
+
+            long cents;
+
+            if (b == 'E' && fractionDigits > 0)
+            {
+                int exponent = (int) readLong(next(), '\r');
+
+                try
+                {
+                    cents = BigDecimal.valueOf(units).add(BigDecimal.valueOf(fraction, fractionDigits))
+                            .scaleByPowerOfTen(exponent + 2).longValueExact();
+                }
+                catch (ArithmeticException e)
+                {
+                    throw malformed();
+                }
+            }
+            else if (fractionDigits == 1 || fractionDigits == 2)
+            {
+                expect(b, '\r');
+                cents = units * 100L + (fractionDigits == 1 ? fraction * 10L : fraction);
+            }
+            else
+            {
+                throw malformed();
+            }
+
+            return negative ? -cents : cents;
+        }
+
+        private long readLong(int b, int end) throws IOException
+        {
+            long value = 0L;
+            int digits = 0;
+
+            for (; b != end; b = next())
+            {
+                if (b < '0' || b > '9' || ++digits > 18)
+                {
+                    throw malformed();
+                }
+
+                value = value * 10L + (b - '0');
+            }
+
+            if (digits == 0)
+            {
+                throw malformed();
+            }
+
+            return value;
+        }
+
+        private int readDigits(int count, int end) throws IOException
+        {
+            int value = 0;
+
+            for (int i = 0; i < count; i++)
+            {
+                int b = next();
+
+                if (b < '0' || b > '9')
+                {
+                    throw malformed();
+                }
+
+                value = value * 10 + (b - '0');
+            }
+
+            expect(next(), end);
+
+            return value;
+        }
+
+        private void expect(int b, int expected) throws IOException
+        {
+            if (b != expected)
+            {
+                throw malformed();
+            }
+        }
+
+        private int next() throws IOException
+        {
+            if (position == limit)
+            {
+                limit = input.read(buffer, 0, buffer.length);
+                position = 0;
+
+                if (limit <= 0)
+                {
+                    limit = 0;
+                    return -1;
+                }
+            }
+
+            return buffer[position++];
+        }
+
+        private IOException malformed()
+        {
+            return new IOException("Malformed contribution at line " + line + " of " + file);
+        }
+    }
+
+    private interface RecordVisitor<R>
+    {
+        void visit(R record) throws IOException;
+    }
+
+    private interface CustomerVisitor
+    {
+        void visit(long customerId, int joinEpochDay);
+    }
+
+    private interface ContributionVisitor
+    {
+        void visit(long contributionId, long customerId, int epochDay, long cents);
+    }
+}
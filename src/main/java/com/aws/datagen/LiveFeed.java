@@ -0,0 +1,284 @@
+package com.aws.datagen;
+
+import com.aws.datagen.feed.FeedStats;
+import com.aws.datagen.feed.RateLimiter;
+import com.aws.datagen.sink.ContributionBatch;
+import com.aws.datagen.sink.Sink;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Emits contributions continuously at a target rate, carrying a fixed population of customers on past
+ * the end of the batch data one simulated pay day at a time. Amounts come from the same salary model
+ * as the batch output.
+ *
+ * Progress is reported on stderr so stdout can carry the feed itself. Emitters write a batch before
+ * returning from write, so one batch is refilled for the whole feed.
+ */
+public class LiveFeed
+{
+    private final DataGenerator generator;
+    private final CustomerTable customers;
+
+    /**
+     * The target rows per second, 0 emits as fast as possible
+     */
+    private double rate = 1000.0;
+
+    /**
+     * Stop after this many rows or seconds, 0 runs until stopped
+     */
+    private long maxRows = 0L;
+    private long maxSeconds = 0L;
+
+    /**
+     * The most rows emitted at once, rate limited feeds emit roughly a millisecond of rows at a time
+     */
+    private int batchSize = 8192;
+
+    private long firstContributionId = 0L;
+    private LocalDate startDate;
+
+    private int reportSeconds = 10;
+
+    private volatile boolean stopped = false;
+
+    /**
+     * Creates a feed for customers 0 to customerCount - 1 of a generator
+     * @param generator the generator providing customers and the salary model
+     * @param customerCount the number of customers contributing
+     */
+    public LiveFeed(DataGenerator generator, int customerCount) throws IOException
+    {
+        if (customerCount < 1)
+        {
+            throw new IllegalArgumentException("A live feed needs at least one customer: " + customerCount);
+        }
+
+        this.generator = generator;
+        this.customers = generator.createCustomerTable(0L, customerCount);
+        this.startDate = LocalDate.of(generator.getEndYear() + 1, 1, 1);
+    }
+
+    /**
+     * Emits contributions until stopped or a row or time limit is reached, then closes the emitter
+     * @param emitter where to send contributions
+     * @return the counters for the whole run
+     */
+    public FeedStats run(Sink<ContributionBatch> emitter) throws IOException
+    {
+        System.err.println("Live feed of " + customers.size() + " customers from " + startDate + " at "
+                + (rate > 0.0 ? rate + " rows/sec" : "full speed"));
+
+        int[][] customersPerPayDay = customers.indexByPayDay();
+
+        RateLimiter limiter = rate > 0.0 ? new RateLimiter(rate) : null;
+        int capacity = rate > 0.0 ? (int) Math.max(1L, Math.min(batchSize, (long) (rate / 1000.0))) : batchSize;
+
+        FeedStats total = new FeedStats();
+        FeedStats interval = new FeedStats();
+
+        long startNanos = System.nanoTime();
+        long nextReportNanos = startNanos + reportSeconds * 1000000000L;
+
+        long contributionId = firstContributionId;
+        LocalDate payDate = startDate;
+        int tabulatedYear = Integer.MIN_VALUE;
+
+        try (Sink<ContributionBatch> output = emitter)
+        {
+            ContributionBatch batch = new ContributionBatch(capacity);
+            int limit = nextCapacity(capacity, total);
+
+            days:
+            while (!isFinished(total, startNanos))
+            {
+                int payEpochDay = (int) payDate.toEpochDay();
+                int payYear = payDate.getYear();
+
+                if (payYear != tabulatedYear)
+                {
+                    generator.tabulateContributionCents(customers, payYear, payYear);
+                    tabulatedYear = payYear;
+                }
+
+                for (int c: customersPerPayDay[payDate.getDayOfMonth()])
+                {
+                    if (payEpochDay < customers.getJoinEpochDay(c))
+                    {
+                        continue;
+                    }
+
+                    long cents = generator.getContributionCents(customers, c, payYear);
+                    int activity = customers.getActivity(c);
+
+                    for (int part = 0; part < activity; part++)
+                    {
+                        batch.add(contributionId++, customers.getCustomerId(c), payEpochDay,
+                                SkewModel.splitCents(cents, activity, part));
+
+                        if (batch.size() == limit)
+                        {
+                            emit(output, batch, limiter, total, interval);
+                            batch.clear();
+
+                            if (System.nanoTime() >= nextReportNanos)
+                            {
+                                System.err.println("Emitted " + interval + ", simulated date " + payDate);
+                                interval.reset();
+                                nextReportNanos += reportSeconds * 1000000000L;
+                            }
+
+                            if (isFinished(total, startNanos))
+                            {
+                                break days;
+                            }
+
+                            limit = nextCapacity(capacity, total);
+                        }
+                    }
+                }
+
+                payDate = payDate.plusDays(1);
+            }
+
+            // a full batch was emitted and cleared as it filled, a partial one is left when the feed is stopped
+            if (batch.size() > 0)
+            {
+                emit(output, batch, limiter, total, interval);
+            }
+        }
+
+        System.err.println("Live feed finished: " + total + ", simulated date " + payDate);
+
+        return total;
+    }
+
+    /**
+     * Writes a batch once the rate limiter allows it, recording its latency from when it was due
+     */
+    private static void emit(Sink<ContributionBatch> output, ContributionBatch batch, RateLimiter limiter,
+            FeedStats total, FeedStats interval) throws IOException
+    {
+        long due = limiter != null ? limiter.acquire(batch.size()) : System.nanoTime();
+
+        output.write(batch);
+
+        long latency = System.nanoTime() - due;
+        total.record(batch.size(), latency);
+        interval.record(batch.size(), latency);
+    }
+
+    /**
+     * Sizes the next batch so a row limit is met exactly
+     */
+    private int nextCapacity(int capacity, FeedStats total)
+    {
+        return maxRows > 0L ? (int) Math.min(capacity, maxRows - total.getRows()) : capacity;
+    }
+
+    private boolean isFinished(FeedStats total, long startNanos)
+    {
+        return stopped
+                || (maxRows > 0L && total.getRows() >= maxRows)
+                || (maxSeconds > 0L && System.nanoTime() - startNanos >= maxSeconds * 1000000000L);
+    }
+
+    /**
+     * Asks a running feed to stop after its current batch
+     */
+    public void stop()
+    {
+        stopped = true;
+    }
+
+    public double getRate()
+    {
+        return rate;
+    }
+
+    public void setRate(double rate)
+    {
+        if (rate < 0.0 || Double.isNaN(rate))
+        {
+            throw new IllegalArgumentException("Rate must not be negative: " + rate);
+        }
+
+        this.rate = rate;
+    }
+
+    public long getMaxRows()
+    {
+        return maxRows;
+    }
+
+    public void setMaxRows(long maxRows)
+    {
+        this.maxRows = Math.max(0L, maxRows);
+    }
+
+    public long getMaxSeconds()
+    {
+        return maxSeconds;
+    }
+
+    public void setMaxSeconds(long maxSeconds)
+    {
+        this.maxSeconds = Math.max(0L, maxSeconds);
+    }
+
+    public int getBatchSize()
+    {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize)
+    {
+        if (batchSize < 1)
+        {
+            throw new IllegalArgumentException("Batch size must be at least 1: " + batchSize);
+        }
+
+        this.batchSize = batchSize;
+    }
+
+    public long getFirstContributionId()
+    {
+        return firstContributionId;
+    }
+
+    public void setFirstContributionId(long firstContributionId)
+    {
+        this.firstContributionId = firstContributionId;
+    }
+
+    public LocalDate getStartDate()
+    {
+        return startDate;
+    }
+
+    /**
+     * Sets the first simulated pay day, by default the first day after the batch data ends
+     * @param startDate the first pay day
+     */
+    public void setStartDate(LocalDate startDate)
+    {
+        this.startDate = startDate;
+    }
+
+    public int getReportSeconds()
+    {
+        return reportSeconds;
+    }
+
+    public void setReportSeconds(int reportSeconds)
+    {
+        if (reportSeconds < 1)
+        {
+            throw new IllegalArgumentException("Report interval must be at least 1 second: " + reportSeconds);
+        }
+
+        this.reportSeconds = reportSeconds;
+    }
+}
@@ -0,0 +1,639 @@
+package com.aws.datagen;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Records the settings of a run and every output file it has finished, so an interrupted run can be
+ * resumed and a finished run can be extended without rewriting what is already on disk.
+ *
+ * The settings live in run.properties and the finished files in files.csv, an append only journal
+ * flushed after each entry so it survives the run being killed. A file counts as finished only while
+ * its length and CRC32 still match the journal.
+ *
+ * Each shard of a sharded run keeps its own manifest in a subdirectory, see shardDirectory.
+ *
+ * Files are recorded relative to the output root the manifest directory sits in, so a run can be
+ * copied or moved and still be resumed or appended to.
+ */
+public class Manifest implements Closeable
+{
+    public static final String DEFAULT_DIRECTORY = "output_manifest";
+
+    private static final String SETTINGS_FILE = "run.properties";
+    private static final String FILES_FILE = "files.csv";
+
+    private static final CSVFormat JOURNAL_FORMAT = CSVFormat.DEFAULT
+            .withHeader("Entry", "Rows", "File", "Length", "Crc32")
+            .withRecordSeparator('\n');
+
+    private final File directory;
+    private final Properties settings;
+
+    /**
+     * The latest journal record for each file, by entry
+     */
+    private final Map<String, Map<String, FileRecord>> entries = new HashMap<>();
+
+    private CSVPrinter journal = null;
+
+    private Manifest(File directory, Properties settings)
+    {
+        this.directory = directory;
+        this.settings = settings;
+    }
+
+    /**
+     * Starts a new manifest for a run, discarding any previous one
+     * @param directory the manifest directory
+     * @param seed the run seed
+     * @param customers the number of customers
+     * @param chunkSize the number of customers generated at once
+     * @param startYear the first year of the run
+     * @param joinEndYear the last year customers can join in
+     * @return the manifest
+     */
+    public static Manifest create(File directory, long seed, long customers, int chunkSize, int startYear, int joinEndYear) throws IOException
+    {
+        directory.mkdirs();
+        Files.deleteIfExists(new File(directory, FILES_FILE).toPath());
+
+        Properties settings = new Properties();
+        settings.setProperty("seed", Long.toString(seed));
+        settings.setProperty("customers", Long.toString(customers));
+        settings.setProperty("chunkSize", Integer.toString(chunkSize));
+        settings.setProperty("startYear", Integer.toString(startYear));
+        settings.setProperty("joinEndYear", Integer.toString(joinEndYear));
+        settings.setProperty("segments", "0");
+
+        Manifest manifest = new Manifest(directory, settings);
+        manifest.saveSettings();
+
+        return manifest;
+    }
+
+    /**
+     * Fetches the manifest directory for one shard of a run
+     * @param directory the manifest directory of the whole run
+     * @param shard the shard index, from 0
+     * @param shards the number of shards, 1 for an unsharded run
+     * @return the run's directory if unsharded, otherwise a subdirectory for the shard
+     */
+    public static File shardDirectory(File directory, int shard, int shards)
+    {
+        if (shards == 1)
+        {
+            return directory;
+        }
+
+        return new File(directory, String.format("shard-%05d-of-%05d", shard, shards));
+    }
+
+    /**
+     * Loads the manifest of a previous run
+     * @param directory the manifest directory
+     * @return the manifest
+     */
+    public static Manifest load(File directory) throws IOException
+    {
+        File settingsFile = new File(directory, SETTINGS_FILE);
+
+        if (!settingsFile.isFile())
+        {
+            throw new FileNotFoundException("No manifest to resume from: " + settingsFile);
+        }
+
+        Properties settings = new Properties();
+
+        try (InputStream input = new FileInputStream(settingsFile))
+        {
+            settings.load(input);
+        }
+
+        Manifest manifest = new Manifest(directory, settings);
+        manifest.loadJournal();
+
+        return manifest;
+    }
+
+    /**
+     * Reads the journal, ignoring a final record cut short by the previous run being killed
+     */
+    private void loadJournal() throws IOException
+    {
+        File journalFile = new File(directory, FILES_FILE);
+
+        if (!journalFile.isFile())
+        {
+            return;
+        }
+
+        try (CSVParser parser = JOURNAL_FORMAT.withSkipHeaderRecord()
+                .parse(new InputStreamReader(new FileInputStream(journalFile), StandardCharsets.UTF_8)))
+        {
+            for (CSVRecord record: parser)
+            {
+                if (!record.isConsistent())
+                {
+                    continue;
+                }
+
+                try
+                {
+                    FileRecord fileRecord = new FileRecord(Long.parseLong(record.get("Rows")),
+                            Long.parseLong(record.get("Length")), Long.parseLong(record.get("Crc32")));
+
+                    entries.computeIfAbsent(record.get("Entry"), entry -> new HashMap<>()).put(relativize(resolve(record.get("File"))), fileRecord);
+                }
+                catch (NumberFormatException e)
+                {
+                    // a partially written record
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the settings to a temporary file and moves it into place so a crash never leaves them half written
+     */
+    private void saveSettings() throws IOException
+    {
+        File settingsFile = new File(directory, SETTINGS_FILE);
+        File temporaryFile = new File(directory, SETTINGS_FILE + ".tmp");
+
+        try (OutputStream output = new FileOutputStream(temporaryFile))
+        {
+            settings.store(output, "Data generator run");
+        }
+
+        Files.move(temporaryFile.toPath(), settingsFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public long getSeed()
+    {
+        return Long.parseLong(settings.getProperty("seed"));
+    }
+
+    public long getCustomers()
+    {
+        return Long.parseLong(settings.getProperty("customers"));
+    }
+
+    public int getChunkSize()
+    {
+        return Integer.parseInt(settings.getProperty("chunkSize"));
+    }
+
+    public int getStartYear()
+    {
+        return Integer.parseInt(settings.getProperty("startYear"));
+    }
+
+    public int getJoinEndYear()
+    {
+        return Integer.parseInt(settings.getProperty("joinEndYear"));
+    }
+
+    /**
+     * Records the parameters of the salary and contribution model the run was generated with
+     * @param parameters the parameters by name
+     */
+    public synchronized void setModelParameters(Map<String, Double> parameters) throws IOException
+    {
+        for (Map.Entry<String, Double> parameter: parameters.entrySet())
+        {
+            settings.setProperty("model." + parameter.getKey(), Double.toString(parameter.getValue()));
+        }
+
+        saveSettings();
+    }
+
+    /**
+     * @return the model parameters by name, empty for runs recorded before they were
+     */
+    public Map<String, Double> getModelParameters()
+    {
+        Map<String, Double> parameters = new TreeMap<>();
+
+        for (String key: settings.stringPropertyNames())
+        {
+            if (key.startsWith("model."))
+            {
+                parameters.put(key.substring("model.".length()), Double.parseDouble(settings.getProperty(key)));
+            }
+        }
+
+        return parameters;
+    }
+
+    /**
+     * @return the name of the layout rows were written in, date for runs recorded before layouts
+     */
+    public String getLayout()
+    {
+        return settings.getProperty("layout", "date");
+    }
+
+    /**
+     * Records the layout rows are written in, as it decides which contribution id each row gets
+     * @param layout the layout's name
+     */
+    public synchronized void setLayout(String layout) throws IOException
+    {
+        settings.setProperty("layout", layout);
+        saveSettings();
+    }
+
+    /**
+     * @return the comma separated partition keys, year,month for runs recorded before partition keys
+     */
+    public String getPartitionBy()
+    {
+        return settings.getProperty("partitionBy", PartitionScheme.DEFAULT_KEYS);
+    }
+
+    /**
+     * @return the number of customer buckets
+     */
+    public int getBuckets()
+    {
+        return Integer.parseInt(settings.getProperty("buckets", "16"));
+    }
+
+    /**
+     * @return the CSV bytes files are split at, 0 if they are not split
+     */
+    public long getPartSize()
+    {
+        return Long.parseLong(settings.getProperty("partSize", "0"));
+    }
+
+    /**
+     * Records how contributions are partitioned and files split, as it decides which file each row goes to
+     * @param scheme the partition scheme
+     */
+    public synchronized void setPartitionScheme(PartitionScheme scheme) throws IOException
+    {
+        settings.setProperty("partitionBy", scheme.getKeys());
+        settings.setProperty("buckets", Integer.toString(scheme.getBuckets()));
+        settings.setProperty("partSize", Long.toString(scheme.getPartSize()));
+        saveSettings();
+    }
+
+    /**
+     * @return the index of the shard this manifest records, 0 for an unsharded run
+     */
+    public int getShard()
+    {
+        return Integer.parseInt(settings.getProperty("shard", "0"));
+    }
+
+    /**
+     * @return the number of shards the run is split into, 1 for an unsharded run
+     */
+    public int getShards()
+    {
+        return Integer.parseInt(settings.getProperty("shards", "1"));
+    }
+
+    /**
+     * Records which shard of a run this manifest covers
+     * @param shard the shard index, from 0
+     * @param shards the number of shards
+     */
+    public synchronized void setShard(int shard, int shards) throws IOException
+    {
+        settings.setProperty("shard", Integer.toString(shard));
+        settings.setProperty("shards", Integer.toString(shards));
+        saveSettings();
+    }
+
+    /**
+     * @return the last year contributions have been generated up to
+     */
+    public int getEndYear()
+    {
+        List<Segment> segments = getSegments();
+        return segments.get(segments.size() - 1).getEndYear();
+    }
+
+    /**
+     * Fetches the year ranges generated so far, each with its own block of contribution ids
+     */
+    public List<Segment> getSegments()
+    {
+        int count = Integer.parseInt(settings.getProperty("segments"));
+        List<Segment> segments = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++)
+        {
+            segments.add(new Segment(
+                    Integer.parseInt(settings.getProperty("segment." + i + ".startYear")),
+                    Integer.parseInt(settings.getProperty("segment." + i + ".endYear")),
+                    Long.parseLong(settings.getProperty("segment." + i + ".firstContributionId"))));
+        }
+
+        return segments;
+    }
+
+    /**
+     * Adds a year range to the run, the run is incomplete until it has been generated
+     * @param segment the years to add and the id of their first contribution
+     */
+    public synchronized void addSegment(Segment segment) throws IOException
+    {
+        int index = Integer.parseInt(settings.getProperty("segments"));
+
+        settings.setProperty("segment." + index + ".startYear", Integer.toString(segment.getStartYear()));
+        settings.setProperty("segment." + index + ".endYear", Integer.toString(segment.getEndYear()));
+        settings.setProperty("segment." + index + ".firstContributionId", Long.toString(segment.getFirstContributionId()));
+        settings.setProperty("segments", Integer.toString(index + 1));
+        settings.remove("nextContributionId");
+
+        saveSettings();
+    }
+
+    /**
+     * Records the block of contribution ids this run, or this shard of it, wrote within a segment
+     * @param segment the segment index
+     * @param firstContributionId the id of the first contribution written
+     * @param nextContributionId the id following the last contribution written
+     */
+    public synchronized void setWrittenContributionIds(int segment, long firstContributionId, long nextContributionId) throws IOException
+    {
+        settings.setProperty("segment." + segment + ".writtenFirstContributionId", Long.toString(firstContributionId));
+        settings.setProperty("segment." + segment + ".writtenNextContributionId", Long.toString(nextContributionId));
+        saveSettings();
+    }
+
+    /**
+     * Fetches the block of contribution ids written within a segment
+     * @param segment the segment index
+     * @return the first id and the id following the last, or null if not recorded
+     */
+    public long[] getWrittenContributionIds(int segment)
+    {
+        String first = settings.getProperty("segment." + segment + ".writtenFirstContributionId");
+        String next = settings.getProperty("segment." + segment + ".writtenNextContributionId");
+
+        if (first == null || next == null)
+        {
+            return null;
+        }
+
+        return new long[] {Long.parseLong(first), Long.parseLong(next)};
+    }
+
+    /**
+     * @return true if every segment of the run has been generated
+     */
+    public boolean isComplete()
+    {
+        return settings.containsKey("nextContributionId");
+    }
+
+    /**
+     * Marks the run as complete
+     * @param nextContributionId the id following the last contribution generated
+     */
+    public synchronized void setComplete(long nextContributionId) throws IOException
+    {
+        settings.setProperty("nextContributionId", Long.toString(nextContributionId));
+        saveSettings();
+    }
+
+    /**
+     * @return the id following the last contribution of a complete run
+     */
+    public long getNextContributionId()
+    {
+        if (!isComplete())
+        {
+            throw new IllegalStateException("The run in " + directory + " has not finished, resume it first");
+        }
+
+        return Long.parseLong(settings.getProperty("nextContributionId"));
+    }
+
+    /**
+     * Checks whether an entry was finished with the expected rows and its files are intact
+     * @param entry the entry name, e.g. one contributions file across all formats
+     * @param rows the number of rows the entry should hold
+     * @param files the files the entry should have written
+     * @return true if every file is recorded with the same rows and still has its recorded length and checksum
+     */
+    public boolean isComplete(String entry, long rows, Collection<File> files) throws IOException
+    {
+        Map<String, FileRecord> records;
+
+        synchronized (this)
+        {
+            records = entries.containsKey(entry) ? new HashMap<>(entries.get(entry)) : Collections.emptyMap();
+        }
+
+        for (File file: files)
+        {
+            FileRecord record = records.get(relativize(file));
+
+            if (record == null || record.rows != rows || !file.isFile() || file.length() != record.length
+                    || checksum(file) != record.crc32)
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the names of every finished entry
+     */
+    public synchronized Set<String> getEntries()
+    {
+        return new TreeSet<>(entries.keySet());
+    }
+
+    /**
+     * @param entry the entry name
+     * @return the rows recorded for an entry, 0 if it is not recorded
+     */
+    public synchronized long getRows(String entry)
+    {
+        Map<String, FileRecord> records = entries.get(entry);
+        return records == null || records.isEmpty() ? 0L : records.values().iterator().next().rows;
+    }
+
+    /**
+     * @param entry the entry name
+     * @return the files recorded for an entry
+     */
+    public synchronized List<File> getFiles(String entry)
+    {
+        List<File> files = new ArrayList<>();
+
+        for (String path: entries.getOrDefault(entry, Collections.emptyMap()).keySet())
+        {
+            files.add(resolve(path));
+        }
+
+        return files;
+    }
+
+    /**
+     * @return the output root, the directory holding the manifest directory of the whole run
+     */
+    private File getRoot()
+    {
+        File runDirectory = getShards() > 1 ? directory.getAbsoluteFile().getParentFile() : directory.getAbsoluteFile();
+        return runDirectory.getParentFile();
+    }
+
+    /**
+     * Converts a file to the path recorded in the journal
+     * @param file the file
+     * @return the path relative to the output root, or the absolute path if the file is outside it
+     */
+    private String relativize(File file)
+    {
+        Path root = getRoot().toPath().normalize();
+        Path path = file.getAbsoluteFile().toPath().normalize();
+
+        return path.startsWith(root) ? root.relativize(path).toString() : path.toString();
+    }
+
+    /**
+     * Converts a path recorded in the journal back to a file, journals written before paths were
+     * made relative may still hold absolute paths
+     * @param path the recorded path
+     * @return the file
+     */
+    private File resolve(String path)
+    {
+        File file = new File(path);
+        return file.isAbsolute() ? file : new File(getRoot(), path);
+    }
+
+    /**
+     * Records that an entry has been finished, checksumming each of its files
+     * @param entry the entry name
+     * @param rows the number of rows written
+     * @param files the files written
+     */
+    public void record(String entry, long rows, Collection<File> files) throws IOException
+    {
+        Map<String, FileRecord> records = new LinkedHashMap<>();
+
+        for (File file: files)
+        {
+            records.put(relativize(file), new FileRecord(rows, file.length(), checksum(file)));
+        }
+
+        synchronized (this)
+        {
+            if (journal == null)
+            {
+                File journalFile = new File(directory, FILES_FILE);
+                boolean newJournal = !journalFile.isFile() || journalFile.length() == 0L;
+
+                Writer writer = new OutputStreamWriter(new FileOutputStream(journalFile, true), StandardCharsets.UTF_8);
+                journal = new CSVPrinter(writer, newJournal ? JOURNAL_FORMAT : JOURNAL_FORMAT.withSkipHeaderRecord());
+            }
+
+            for (Map.Entry<String, FileRecord> record: records.entrySet())
+            {
+                journal.printRecord(entry, record.getValue().rows, record.getKey(), record.getValue().length, record.getValue().crc32);
+            }
+
+            journal.flush();
+
+            entries.computeIfAbsent(entry, name -> new HashMap<>()).putAll(records);
+        }
+    }
+
+    /**
+     * Computes the CRC32 of a file
+     */
+    private static long checksum(File file) throws IOException
+    {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[64 * 1024];
+
+        try (InputStream input = new FileInputStream(file))
+        {
+            int read;
+
+            while ((read = input.read(buffer)) > 0)
+            {
+                crc.update(buffer, 0, read);
+            }
+        }
+
+        return crc.getValue();
+    }
+
+    @Override
+    public synchronized void close() throws IOException
+    {
+        if (journal != null)
+        {
+            journal.close();
+            journal = null;
+        }
+    }
+
+    /**
+     * A range of years generated together, contribution ids run on from the previous range
+     */
+    public static final class Segment
+    {
+        private final int startYear;
+        private final int endYear;
+        private final long firstContributionId;
+
+        public Segment(int startYear, int endYear, long firstContributionId)
+        {
+            this.startYear = startYear;
+            this.endYear = endYear;
+            this.firstContributionId = firstContributionId;
+        }
+
+        public int getStartYear()
+        {
+            return startYear;
+        }
+
+        public int getEndYear()
+        {
+            return endYear;
+        }
+
+        public long getFirstContributionId()
+        {
+            return firstContributionId;
+        }
+    }
+
+    private static final class FileRecord
+    {
+        private final long rows;
+        private final long length;
+        private final long crc32;
+
+        private FileRecord(long rows, long length, long crc32)
+        {
+            this.rows = rows;
+            this.length = length;
+            this.crc32 = crc32;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.aws.datagen;
+
+import com.aws.datagen.model.MonthlyTotal;
+import org.apache.parquet.hadoop.ParquetWriter;
+
+import java.io.IOException;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Contribution totals by month and gender for a whole run, added to by each partition as it is generated
+ */
+class MonthlyTotals
+{
+    private final YearMonth firstMonth;
+    private final ContributionTotals totals;
+
+    /**
+     * @param firstMonth the first month of the run
+     * @param lastMonth the last month of the run
+     */
+    MonthlyTotals(YearMonth firstMonth, YearMonth lastMonth)
+    {
+        this.firstMonth = firstMonth;
+        this.totals = new ContributionTotals(((int) ChronoUnit.MONTHS.between(firstMonth, lastMonth) + 1) * 2);
+    }
+
+    /**
+     * Adds the totals of one partition
+     * @param month the partition's month
+     * @param partition the partition's totals by gender slot
+     */
+    synchronized void add(YearMonth month, ContributionTotals partition)
+    {
+        totals.addAll(partition, (int) ChronoUnit.MONTHS.between(firstMonth, month) * 2);
+    }
+
+    /**
+     * Writes a row for every month and gender with contributions
+     */
+    synchronized void write(ParquetWriter<MonthlyTotal> writer) throws IOException
+    {
+        MonthlyTotal row = new MonthlyTotal();
+
+        for (int slot = 0; slot < totals.size(); slot++)
+        {
+            if (totals.getCount(slot) == 0L)
+            {
+                continue;
+            }
+
+            YearMonth month = firstMonth.plusMonths(slot / 2);
+
+            row.setYear(month.getYear());
+            row.setMonth(month.getMonthValue());
+            row.setMale(slot % 2 == ContributionTotals.genderSlot(true));
+            row.setTotals(totals.getCount(slot), totals.getSum(slot), totals.getMin(slot), totals.getMax(slot));
+            writer.write(row);
+        }
+    }
+}
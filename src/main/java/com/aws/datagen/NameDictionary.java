@@ -0,0 +1,62 @@
+package com.aws.datagen;
+
+import com.aws.datagen.model.Name;
+import org.apache.commons.text.WordUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A list of names capitalised and encoded once when loaded, then referenced by index.
+ *
+ * Dictionaries are cached by location, so every generator in the process shares one copy of each.
+ */
+public class NameDictionary
+{
+    private static final Map<String, NameDictionary> LOADED = new HashMap<>();
+
+    private final Name[] names;
+
+    private NameDictionary(List<String> lines)
+    {
+        names = new Name[lines.size()];
+
+        for (int i = 0; i < names.length; i++)
+        {
+            names[i] = new Name(WordUtils.capitalizeFully(lines.get(i)));
+        }
+    }
+
+    /**
+     * Loads a dictionary of one upper case name per line, or fetches it if already loaded
+     * @param location the path of the names file
+     * @return the dictionary
+     */
+    public static synchronized NameDictionary load(String location) throws IOException
+    {
+        NameDictionary dictionary = LOADED.get(location);
+
+        if (dictionary == null)
+        {
+            dictionary = new NameDictionary(Files.readAllLines(Paths.get(location), StandardCharsets.UTF_8));
+            LOADED.put(location, dictionary);
+        }
+
+        return dictionary;
+    }
+
+    public int size()
+    {
+        return names.length;
+    }
+
+    public Name get(int index)
+    {
+        return names[index];
+    }
+}
@@ -0,0 +1,216 @@
+package com.aws.datagen;
+
+import com.aws.datagen.sink.Sink;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Splits the rows handed to it across a series of files, starting the next file when the rows move to
+ * another partition or the current file reaches the part size, counted as CSV text.
+ *
+ * Rows for each file must arrive together. Every file is recorded in the manifest once it is closed, and
+ * a file the manifest already holds intact is passed over without being written, so a resumed run only
+ * rewrites the files it lost.
+ */
+abstract class PartSink<B> implements Sink<B>
+{
+    private final long partSize;
+    private final long headerLength;
+    private final Manifest manifest;
+
+    /**
+     * The file keys already finished, so rows that arrive out of order are caught rather than overwriting a file
+     */
+    private final BitSet finishedKeys = new BitSet();
+
+    private boolean open = false;
+    private int fileKey = 0;
+    private int part = 0;
+    private long fileRows = 0L;
+    private long fileBytes = 0L;
+
+    private String entry = null;
+    private List<File> files = null;
+    private Sink<B> sink = null;
+
+    private int fileCount = 0;
+    private int skippedFiles = 0;
+
+    /**
+     * @param partSize the CSV bytes to split files at, 0 to only split by partition
+     * @param headerLength the CSV bytes of the header each file starts with
+     * @param manifest the run manifest, or null
+     */
+    PartSink(long partSize, long headerLength, Manifest manifest)
+    {
+        this.partSize = partSize;
+        this.headerLength = headerLength;
+        this.manifest = manifest;
+    }
+
+    /**
+     * @return the number of rows in a batch
+     */
+    protected abstract int size(B batch);
+
+    /**
+     * @return the key of the file a row goes to, equal for rows of the same partition
+     */
+    protected abstract int getFileKey(B batch, int row);
+
+    /**
+     * @return the CSV bytes of a row
+     */
+    protected abstract long getRowLength(B batch, int row);
+
+    /**
+     * @return a new batch of a range of rows
+     */
+    protected abstract B slice(B batch, int from, int to);
+
+    /**
+     * @return the manifest entry of a file
+     */
+    protected abstract String getEntry(int fileKey, int part);
+
+    /**
+     * @return the files a file is written to across every format, empty if any format cannot list them
+     */
+    protected abstract List<File> getFiles(int fileKey, int part);
+
+    /**
+     * Opens a file in every format
+     */
+    protected abstract Sink<B> open(int fileKey, int part) throws IOException;
+
+    @Override
+    public void write(B batch) throws IOException
+    {
+        int size = size(batch);
+        int start = 0;
+
+        for (int row = 0; row < size; row++)
+        {
+            int key = getFileKey(batch, row);
+            long length = partSize > 0L ? getRowLength(batch, row) : 0L;
+
+            if (!open || key != fileKey || (partSize > 0L && fileRows > 0L && fileBytes + length > partSize))
+            {
+                write(batch, start, row);
+                start = row;
+
+                int nextPart = open && key == fileKey ? part + 1 : 0;
+
+                finishFile();
+                startFile(key, nextPart);
+            }
+
+            fileRows++;
+            fileBytes += length;
+        }
+
+        write(batch, start, size);
+    }
+
+    private void write(B batch, int from, int to) throws IOException
+    {
+        if (sink == null || from == to)
+        {
+            return;
+        }
+
+        sink.write(from == 0 && to == size(batch) ? batch : slice(batch, from, to));
+    }
+
+    private void startFile(int key, int part) throws IOException
+    {
+        if (finishedKeys.get(key) && part == 0)
+        {
+            throw new IllegalStateException("Rows for " + getEntry(key, 0) + " arrived after the file was finished");
+        }
+
+        open = true;
+        fileKey = key;
+        this.part = part;
+        fileRows = 0L;
+        fileBytes = headerLength;
+
+        fileCount++;
+        entry = getEntry(key, part);
+        files = getFiles(key, part);
+
+        boolean complete = manifest != null && !files.isEmpty() && manifest.isComplete(entry, manifest.getRows(entry), files);
+        sink = complete ? null : open(key, part);
+    }
+
+    private void finishFile() throws IOException
+    {
+        if (!open)
+        {
+            return;
+        }
+
+        finishedKeys.set(fileKey);
+
+        if (sink == null)
+        {
+            if (fileRows != manifest.getRows(entry))
+            {
+                throw new IllegalStateException(entry + " holds " + fileRows + " rows but the manifest recorded "
+                        + manifest.getRows(entry) + ", the run's settings have changed");
+            }
+
+            skippedFiles++;
+            return;
+        }
+
+        Sink<B> closing = sink;
+        sink = null;
+        closing.close();
+
+        if (manifest != null)
+        {
+            manifest.record(entry, fileRows, files);
+        }
+    }
+
+    /**
+     * @return the number of files started
+     */
+    public int getFiles()
+    {
+        return fileCount;
+    }
+
+    /**
+     * @return the number of files passed over because a previous run finished them
+     */
+    public int getSkippedFiles()
+    {
+        return skippedFiles;
+    }
+
+    /**
+     * Finishes the last file
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            finishFile();
+        }
+        finally
+        {
+            open = false;
+
+            if (sink != null)
+            {
+                sink.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.aws.datagen;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * How contributions are laid out in Hive style partition directories, and the size files are split at.
+ *
+ * The partition keys, any of year, month, day and bucket, are written in that order:
+ * contributionYear=2005/contributionMonth=2005-03/contributionDate=2005-03-14/customerBucket=07.
+ * Buckets hash the customer id as Hive buckets a bigint column, so consecutive customers go round robin.
+ *
+ * With a part size, each file is split into part-NNNNN files once its CSV text reaches the size. The CSV length
+ * of a row can be counted exactly from its values, so every format is split at the same rows.
+ */
+public class PartitionScheme
+{
+    public static final String YEAR = "year";
+    public static final String MONTH = "month";
+    public static final String DAY = "day";
+    public static final String BUCKET = "bucket";
+
+    public static final String DEFAULT_KEYS = YEAR + "," + MONTH;
+
+    private boolean year = true;
+    private boolean month = true;
+    private boolean day = false;
+    private boolean bucket = false;
+
+    /**
+     * The number of customer buckets, used when bucket is a key
+     */
+    private int buckets = 16;
+
+    /**
+     * The CSV bytes a file is split at, 0 to never split
+     */
+    private long partSize = 0L;
+
+    /**
+     * @return true if a chunk's contributions for a month can be written to more than one file
+     */
+    public boolean isSplit()
+    {
+        return day || bucket || partSize > 0L;
+    }
+
+    /**
+     * Builds the partition directory of a file
+     * @param partition the month of the file's contributions
+     * @param payDay the day of the month, used if day is a key
+     * @param customerBucket the customer bucket, used if bucket is a key
+     * @return the directory, relative to the contributions directory
+     */
+    public String getPartitionPath(YearMonth partition, int payDay, int customerBucket)
+    {
+        List<String> directories = new ArrayList<>();
+
+        if (year)
+        {
+            directories.add("contributionYear=" + partition.getYear());
+        }
+
+        if (month)
+        {
+            directories.add("contributionMonth=" + partition);
+        }
+
+        if (day)
+        {
+            directories.add("contributionDate=" + partition.atDay(payDay));
+        }
+
+        if (bucket)
+        {
+            directories.add(String.format("customerBucket=%0" + getBucketDigits() + "d", customerBucket));
+        }
+
+        return String.join("/", directories);
+    }
+
+    /**
+     * @return the digits bucket numbers are padded to so they sort in order, at least two
+     */
+    private int getBucketDigits()
+    {
+        return Math.max(2, Integer.toString(buckets - 1).length());
+    }
+
+    /**
+     * Identifies the file a customer's contributions in a month go to, among the files of the month
+     * @param customerId the customer id
+     * @param payDay the customer's pay day
+     * @return the key, equal for contributions that go to the same file
+     */
+    public int getFileKey(long customerId, int payDay)
+    {
+        return (bucket ? getBucket(customerId) << 5 : 0) | (day ? payDay : 0);
+    }
+
+    /**
+     * Builds the partition directory of a file key
+     */
+    public String getPartitionPath(YearMonth partition, int fileKey)
+    {
+        return getPartitionPath(partition, Math.max(fileKey & 31, 1), fileKey >>> 5);
+    }
+
+    /**
+     * @return the bucket a customer's contributions go to
+     */
+    public int getBucket(long customerId)
+    {
+        return ((int) (customerId ^ (customerId >>> 32)) & Integer.MAX_VALUE) % buckets;
+    }
+
+    /**
+     * Groups customers so every file's contributions are written together, keeping the order within each file
+     * @param customers the customers of a chunk
+     * @param order customer indexes in the order of the row layout
+     * @return the indexes grouped by file, or the order unchanged when every month is one file
+     */
+    int[][] groupByFile(CustomerTable customers, int[][] order)
+    {
+        if (!day && !bucket)
+        {
+            return order;
+        }
+
+        int keys = (bucket ? buckets : 1) << 5;
+        int[] counts = new int[keys + 1];
+
+        for (int[] group: order)
+        {
+            for (int c: group)
+            {
+                counts[getFileKey(customers.getCustomerId(c), customers.getPayDay(c)) + 1]++;
+            }
+        }
+
+        for (int key = 0; key < keys; key++)
+        {
+            counts[key + 1] += counts[key];
+        }
+
+        int[] grouped = new int[customers.size()];
+
+        for (int[] group: order)
+        {
+            for (int c: group)
+            {
+                grouped[counts[getFileKey(customers.getCustomerId(c), customers.getPayDay(c))]++] = c;
+            }
+        }
+
+        return new int[][] {grouped};
+    }
+
+    /**
+     * @return the partition keys, comma separated
+     */
+    public String getKeys()
+    {
+        List<String> keys = new ArrayList<>();
+
+        if (year)
+        {
+            keys.add(YEAR);
+        }
+
+        if (month)
+        {
+            keys.add(MONTH);
+        }
+
+        if (day)
+        {
+            keys.add(DAY);
+        }
+
+        if (bucket)
+        {
+            keys.add(BUCKET);
+        }
+
+        return String.join(",", keys);
+    }
+
+    /**
+     * Sets the partition keys
+     * @param keys comma separated keys from year, month, day and bucket, in any order
+     */
+    public void setKeys(String keys)
+    {
+        boolean year = false;
+        boolean month = false;
+        boolean day = false;
+        boolean bucket = false;
+
+        for (String key: keys.split(","))
+        {
+            switch (key.trim().toLowerCase(Locale.ROOT))
+            {
+                case YEAR:
+                    year = true;
+                    break;
+                case MONTH:
+                    month = true;
+                    break;
+                case DAY:
+                    day = true;
+                    break;
+                case BUCKET:
+                    bucket = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown partition key: " + key + ", expected year, month, day or bucket");
+            }
+        }
+
+        this.year = year;
+        this.month = month;
+        this.day = day;
+        this.bucket = bucket;
+    }
+
+    public int getBuckets()
+    {
+        return buckets;
+    }
+
+    public void setBuckets(int buckets)
+    {
+        if (buckets < 1 || buckets > 100000)
+        {
+            throw new IllegalArgumentException("Buckets must be between 1 and 100000: " + buckets);
+        }
+
+        this.buckets = buckets;
+    }
+
+    public long getPartSize()
+    {
+        return partSize;
+    }
+
+    public void setPartSize(long partSize)
+    {
+        if (partSize < 0L)
+        {
+            throw new IllegalArgumentException("Part size must not be negative: " + partSize);
+        }
+
+        this.partSize = partSize;
+    }
+
+    /**
+     * Parses the partition directories of a file back into the range of dates it can hold and its bucket
+     * @param partitionPath the directory, relative to the contributions directory
+     * @param bounds receives the first and last epoch day and the bucket, or -1 if not bucketed
+     */
+    static void parsePartitionPath(String partitionPath, long[] bounds)
+    {
+        bounds[0] = Long.MIN_VALUE;
+        bounds[1] = Long.MAX_VALUE;
+        bounds[2] = -1L;
+
+        for (String directory: partitionPath.split("/"))
+        {
+            int separator = directory.indexOf('=');
+
+            if (separator < 0)
+            {
+                continue;
+            }
+
+            String value = directory.substring(separator + 1);
+            long first;
+            long last;
+
+            switch (directory.substring(0, separator))
+            {
+                case "contributionYear":
+                    first = LocalDate.of(Integer.parseInt(value), 1, 1).toEpochDay();
+                    last = LocalDate.of(Integer.parseInt(value), 12, 31).toEpochDay();
+                    break;
+                case "contributionMonth":
+                    first = YearMonth.parse(value).atDay(1).toEpochDay();
+                    last = YearMonth.parse(value).atEndOfMonth().toEpochDay();
+                    break;
+                case "contributionDate":
+                    first = LocalDate.parse(value).toEpochDay();
+                    last = first;
+                    break;
+                case "customerBucket":
+                    bounds[2] = Integer.parseInt(value);
+                    continue;
+                default:
+                    continue;
+            }
+
+            bounds[0] = Math.max(bounds[0], first);
+            bounds[1] = Math.min(bounds[1], last);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.aws.datagen;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+
+/**
+ * Customer join days bucketed by the day of the month customers are paid, the day of the month they
+ * joined, and sorted, so the contributions a partition holds can be counted without generating them.
+ *
+ * When customers make more than one contribution per pay day a running total of their activity is kept
+ * alongside the join days.
+ */
+class PayDayIndex
+{
+    private final int[][] joinDays = new int[32][];
+
+    /**
+     * Activity totals up to and including each join day, null when every customer contributes once
+     */
+    private final long[][] activityTotals;
+
+    /**
+     * @param joinEpochDays customer join epoch days
+     * @param activities the contributions each customer makes per pay day, null if they all make one
+     */
+    PayDayIndex(int[] joinEpochDays, byte[] activities)
+    {
+        boolean uniform = true;
+
+        if (activities != null)
+        {
+            for (byte activity: activities)
+            {
+                if (activity != 1)
+                {
+                    uniform = false;
+                    break;
+                }
+            }
+        }
+
+        int[] counts = new int[32];
+
+        for (int joinEpochDay: joinEpochDays)
+        {
+            counts[LocalDate.ofEpochDay(joinEpochDay).getDayOfMonth()]++;
+        }
+
+        /*
+         * Join day and activity are packed into one long so sorting keeps them together
+         */
+        long[][] packed = new long[32][];
+
+        for (int i = 0; i < 32; i++)
+        {
+            packed[i] = new long[counts[i]];
+        }
+
+        Arrays.fill(counts, 0);
+
+        for (int i = 0; i < joinEpochDays.length; i++)
+        {
+            int payDay = LocalDate.ofEpochDay(joinEpochDays[i]).getDayOfMonth();
+            packed[payDay][counts[payDay]++] = ((long) joinEpochDays[i] << 8) | (uniform ? 1 : activities[i]);
+        }
+
+        activityTotals = uniform ? null : new long[32][];
+
+        for (int payDay = 0; payDay < 32; payDay++)
+        {
+            long[] bucket = packed[payDay];
+            Arrays.sort(bucket);
+
+            joinDays[payDay] = new int[bucket.length];
+
+            if (!uniform)
+            {
+                activityTotals[payDay] = new long[bucket.length];
+            }
+
+            long total = 0L;
+
+            for (int i = 0; i < bucket.length; i++)
+            {
+                joinDays[payDay][i] = (int) (bucket[i] >> 8);
+
+                if (!uniform)
+                {
+                    total += bucket[i] & 0xFF;
+                    activityTotals[payDay][i] = total;
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the contributions that will be made in a partition
+     * @param partition the year and month to count
+     * @return the number of contributions in the partition
+     */
+    long countContributions(YearMonth partition)
+    {
+        long count = 0L;
+
+        for (int payDay = 1; payDay <= partition.lengthOfMonth(); payDay++)
+        {
+            int joined = countJoinedBy(joinDays[payDay], partition.atDay(payDay).toEpochDay());
+
+            if (activityTotals == null)
+            {
+                count += joined;
+            }
+            else if (joined > 0)
+            {
+                count += activityTotals[payDay][joined - 1];
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Counts the customers that joined on or before an epoch day
+     * @param joinDays sorted join epoch days
+     * @param epochDay the epoch day to count up to
+     * @return the number of join days less than or equal to epochDay
+     */
+    private static int countJoinedBy(int[] joinDays, long epochDay)
+    {
+        int low = 0;
+        int high = joinDays.length;
+
+        while (low < high)
+        {
+            int mid = (low + high) >>> 1;
+
+            if (joinDays[mid] <= epochDay)
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+}
@@ -0,0 +1,47 @@
+package com.aws.datagen;
+
+import com.aws.datagen.util.Seeds;
+
+import java.util.SplittableRandom;
+
+/**
+ * Derives independent, reproducible random streams from a single run seed.
+ *
+ * Every stream is a pure function of the run seed and its key (customer id, year etc),
+ * so any customer or partition can be regenerated on its own and no generator state
+ * is shared between threads.
+ */
+public final class RandomStreams
+{
+    private final long seed;
+
+    public RandomStreams(long seed)
+    {
+        this.seed = seed;
+    }
+
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    /**
+     * Fetches the seed for all random draws made for a customer
+     * @param customerId the customer id
+     * @return the customer's seed
+     */
+    public long customerSeed(long customerId)
+    {
+        return Seeds.mix(seed, customerId);
+    }
+
+    /**
+     * Creates the random stream used to generate a customer's attributes
+     * @param customerId the customer id
+     * @return a new random stream
+     */
+    public SplittableRandom forCustomer(long customerId)
+    {
+        return new SplittableRandom(customerSeed(customerId));
+    }
+}
@@ -0,0 +1,301 @@
+package com.aws.datagen;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Options;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Run parameters taken from the command line, falling back to a config file named by --config.
+ *
+ * Config files use the long option names as keys. Parquet options are nested under parquet, e.g.
+ * parquet.codec=gzip or parquet.contributions.row-group-size=134217728. Files ending .yaml or .yml
+ * are read as YAML, anything else as Java properties.
+ */
+public class RunSettings
+{
+    public static final String CONFIG_OPTION = "config";
+
+    private static final String PARQUET_OPTION = "parquet";
+
+    private final CommandLine commandLine;
+    private final Options options;
+    private final Properties config;
+
+    private RunSettings(CommandLine commandLine, Options options, Properties config)
+    {
+        this.commandLine = commandLine;
+        this.options = options;
+        this.config = config;
+    }
+
+    /**
+     * Reads the config file named on the command line, if any, and checks every key is a known option
+     * @param commandLine the parsed command line
+     * @param options the options the command line was parsed with
+     * @return the settings
+     */
+    public static RunSettings load(CommandLine commandLine, Options options) throws IOException
+    {
+        Properties config = commandLine.hasOption(CONFIG_OPTION) ?
+                readConfig(new File(commandLine.getOptionValue(CONFIG_OPTION))) : new Properties();
+
+        for (String key: config.stringPropertyNames())
+        {
+            String option = key.contains(".") ? key.substring(0, key.indexOf('.')) : key;
+
+            if (!options.hasLongOption(option) || option.equals(CONFIG_OPTION)
+                    || (key.contains(".") != option.equals(PARQUET_OPTION)))
+            {
+                throw new IllegalArgumentException("Unknown setting in config: " + key);
+            }
+
+            String value = config.getProperty(key).toLowerCase(Locale.ROOT);
+
+            if (!options.getOption(option).hasArg() && !value.equals("true") && !value.equals("false"))
+            {
+                throw new IllegalArgumentException("Config setting " + key + " must be true or false: " + config.getProperty(key));
+            }
+        }
+
+        return new RunSettings(commandLine, options, config);
+    }
+
+    /**
+     * Checks whether an option was given, for flags a config value of true counts
+     * @param option the long option name
+     */
+    public boolean has(String option)
+    {
+        if (commandLine.hasOption(option))
+        {
+            return true;
+        }
+
+        if (!config.containsKey(option))
+        {
+            return false;
+        }
+
+        return options.getOption(option).hasArg() || Boolean.parseBoolean(config.getProperty(option));
+    }
+
+    /**
+     * @param option the long option name
+     * @return the option's value from the command line, else the config, else null
+     */
+    public String get(String option)
+    {
+        return get(option, null);
+    }
+
+    /**
+     * @param option the long option name
+     * @param defaultValue the value if the option was not given
+     * @return the option's value from the command line, else the config, else the default
+     */
+    public String get(String option, String defaultValue)
+    {
+        if (commandLine.hasOption(option))
+        {
+            return commandLine.getOptionValue(option);
+        }
+
+        return config.getProperty(option, defaultValue);
+    }
+
+    /**
+     * Fetches key=value options such as the Parquet options, command line values replacing config values
+     * @param option the long option name
+     * @return the values by key
+     */
+    public Properties getProperties(String option)
+    {
+        Properties properties = new Properties();
+        String prefix = option + ".";
+
+        for (String key: config.stringPropertyNames())
+        {
+            if (key.startsWith(prefix))
+            {
+                properties.setProperty(key.substring(prefix.length()), config.getProperty(key));
+            }
+        }
+
+        properties.putAll(commandLine.getOptionProperties(option));
+
+        return properties;
+    }
+
+    /**
+     * Reads a properties or YAML config file
+     * @param file the file
+     * @return the settings, nested YAML keys joined with dots
+     */
+    public static Properties readConfig(File file) throws IOException
+    {
+        String name = file.getName().toLowerCase(Locale.ROOT);
+
+        if (name.endsWith(".yaml") || name.endsWith(".yml"))
+        {
+            return readYaml(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8), file);
+        }
+
+        Properties properties = new Properties();
+
+        try (InputStream input = Files.newInputStream(file.toPath()))
+        {
+            properties.load(input);
+        }
+
+        return properties;
+    }
+
+    /**
+     * Reads the subset of YAML a config needs: nested mappings of scalars, with lists written either
+     * inline as [a, b] or as - items, which are joined with commas. Block list items may be indented
+     * under their key or sit at the key's own indent
+     */
+    static Properties readYaml(List<String> lines, File file)
+    {
+        Properties properties = new Properties();
+
+        /*
+         * The indent and key prefix of each mapping enclosing the current line
+         */
+        Deque<Integer> indents = new ArrayDeque<>();
+        Deque<String> prefixes = new ArrayDeque<>();
+
+        /*
+         * Whether the innermost mapping is a key with no value and nothing under it yet, which can
+         * take list items at its own indent
+         */
+        boolean openKey = false;
+
+        for (int number = 1; number <= lines.size(); number++)
+        {
+            String line = stripComment(lines.get(number - 1));
+            String content = line.trim();
+
+            if (content.isEmpty() || content.equals("---"))
+            {
+                continue;
+            }
+
+            if (line.startsWith("\t"))
+            {
+                throw new IllegalArgumentException(file + " line " + number + ": indent with spaces, not tabs");
+            }
+
+            int indent = line.indexOf(content.charAt(0));
+
+            if (content.startsWith("- ") || content.equals("-"))
+            {
+                if (prefixes.isEmpty() || indent < indents.peek() || (indent == indents.peek() && !openKey))
+                {
+                    throw new IllegalArgumentException(file + " line " + number + ": list item outside a list");
+                }
+
+                String key = prefixes.peek().substring(0, prefixes.peek().length() - 1);
+                String item = unquote(content.substring(1).trim());
+                String previous = properties.getProperty(key);
+
+                properties.setProperty(key, previous == null ? item : previous + "," + item);
+                continue;
+            }
+
+            while (!indents.isEmpty() && indent <= indents.peek())
+            {
+                indents.pop();
+                prefixes.pop();
+            }
+
+            int separator = content.indexOf(':');
+
+            if (separator <= 0 || (separator + 1 < content.length() && content.charAt(separator + 1) != ' '))
+            {
+                throw new IllegalArgumentException(file + " line " + number + ": expected key: value but was: " + content);
+            }
+
+            String key = (prefixes.isEmpty() ? "" : prefixes.peek()) + unquote(content.substring(0, separator).trim());
+            String value = content.substring(separator + 1).trim();
+            openKey = value.isEmpty();
+
+            if (value.isEmpty())
+            {
+                indents.push(indent);
+                prefixes.push(key + ".");
+            }
+            else if (value.startsWith("[") && value.endsWith("]"))
+            {
+                StringBuilder items = new StringBuilder();
+
+                for (String item: value.substring(1, value.length() - 1).split(","))
+                {
+                    if (!item.trim().isEmpty())
+                    {
+                        items.append(items.length() > 0 ? "," : "").append(unquote(item.trim()));
+                    }
+                }
+
+                properties.setProperty(key, items.toString());
+            }
+            else
+            {
+                properties.setProperty(key, unquote(value));
+            }
+        }
+
+        return properties;
+    }
+
+    /**
+     * Removes a # comment, unless the # is inside quotes or part of a word
+     */
+    private static String stripComment(String line)
+    {
+        char quote = 0;
+
+        for (int i = 0; i < line.length(); i++)
+        {
+            char c = line.charAt(i);
+
+            if (quote != 0)
+            {
+                if (c == quote)
+                {
+                    quote = 0;
+                }
+            }
+            else if (c == '"' || c == '\'')
+            {
+                quote = c;
+            }
+            else if (c == '#' && (i == 0 || Character.isWhitespace(line.charAt(i - 1))))
+            {
+                return line.substring(0, i);
+            }
+        }
+
+        return line;
+    }
+
+    private static String unquote(String value)
+    {
+        if (value.length() >= 2 && (value.charAt(0) == '"' || value.charAt(0) == '\'') && value.charAt(value.length() - 1) == value.charAt(0))
+        {
+            return value.substring(1, value.length() - 1);
+        }
+
+        return value;
+    }
+}
@@ -0,0 +1,242 @@
+package com.aws.datagen;
+
+import com.aws.datagen.sink.SinkContext;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Checks that the shards of a sharded run add up to one complete run.
+ *
+ * Reads every shard's manifest and checks that each shard finished with the same settings, that their
+ * contribution ids follow on from one another through each segment with no gaps or overlaps, that the
+ * row counts of the union match, that no two shards wrote the same file and that every recorded file
+ * still has its recorded length and checksum.
+ */
+public class ShardVerifier
+{
+    private final File directory;
+    private final int shards;
+
+    private final List<String> problems = new ArrayList<>();
+
+    private long customerRows = 0L;
+    private long contributionRows = 0L;
+    private int files = 0;
+
+    /**
+     * @param directory the manifest directory of the whole run
+     * @param shards the number of shards the run was split into
+     */
+    public ShardVerifier(File directory, int shards)
+    {
+        if (shards < 2)
+        {
+            throw new IllegalArgumentException("A sharded run has at least 2 shards: " + shards);
+        }
+
+        this.directory = directory;
+        this.shards = shards;
+    }
+
+    /**
+     * Runs every check
+     * @return true if no problems were found
+     */
+    public boolean verify() throws IOException
+    {
+        problems.clear();
+        customerRows = 0L;
+        contributionRows = 0L;
+        files = 0;
+
+        List<Manifest> manifests = new ArrayList<>();
+
+        for (int shard = 0; shard < shards; shard++)
+        {
+            try
+            {
+                Manifest manifest = Manifest.load(Manifest.shardDirectory(directory, shard, shards));
+
+                if (manifest.getShard() != shard || manifest.getShards() != shards)
+                {
+                    problems.add("Shard " + shard + " has the manifest of shard " + manifest.getShard() + " of " + manifest.getShards());
+                }
+                else if (!manifest.isComplete())
+                {
+                    problems.add("Shard " + shard + " has not finished, resume it");
+                }
+                else
+                {
+                    manifests.add(manifest);
+                }
+            }
+            catch (FileNotFoundException e)
+            {
+                problems.add("Shard " + shard + " has no manifest: " + e.getMessage());
+            }
+        }
+
+        if (manifests.size() == shards && checkSettings(manifests))
+        {
+            checkContributionIds(manifests);
+            checkFiles(manifests);
+        }
+
+        return problems.isEmpty();
+    }
+
+    /**
+     * Checks every shard was generated with the first shard's settings
+     */
+    private boolean checkSettings(List<Manifest> manifests)
+    {
+        Manifest first = manifests.get(0);
+
+        for (Manifest manifest: manifests)
+        {
+            if (manifest.getSeed() != first.getSeed() || manifest.getCustomers() != first.getCustomers()
+                    || manifest.getChunkSize() != first.getChunkSize() || manifest.getStartYear() != first.getStartYear()
+                    || manifest.getJoinEndYear() != first.getJoinEndYear() || !manifest.getLayout().equals(first.getLayout())
+                    || !manifest.getPartitionBy().equals(first.getPartitionBy()) || manifest.getBuckets() != first.getBuckets()
+                    || manifest.getPartSize() != first.getPartSize()
+                    || manifest.getNextContributionId() != first.getNextContributionId()
+                    || !describe(manifest.getSegments()).equals(describe(first.getSegments())))
+            {
+                problems.add("Shard " + manifest.getShard() + " was generated with different settings from shard 0");
+            }
+        }
+
+        return problems.isEmpty();
+    }
+
+    /**
+     * Checks the shards' contribution ids follow on from one another through each segment
+     */
+    private void checkContributionIds(List<Manifest> manifests)
+    {
+        Manifest first = manifests.get(0);
+        List<Manifest.Segment> segments = first.getSegments();
+
+        for (int i = 0; i < segments.size(); i++)
+        {
+            long expected = segments.get(i).getFirstContributionId();
+            long segmentEnd = i + 1 < segments.size() ? segments.get(i + 1).getFirstContributionId() : first.getNextContributionId();
+
+            for (Manifest manifest: manifests)
+            {
+                long[] written = manifest.getWrittenContributionIds(i);
+
+                if (written == null)
+                {
+                    problems.add("Shard " + manifest.getShard() + " did not record its contribution ids for segment " + i);
+                    return;
+                }
+
+                if (written[0] != expected)
+                {
+                    problems.add(String.format("Segment %d: shard %d starts at contribution id %d, expected %d",
+                            i, manifest.getShard(), written[0], expected));
+                }
+
+                expected = written[1];
+            }
+
+            if (expected != segmentEnd)
+            {
+                problems.add(String.format("Segment %d: the last shard ends at contribution id %d, expected %d", i, expected, segmentEnd));
+            }
+        }
+    }
+
+    /**
+     * Checks the row counts of the union, that each file belongs to one shard and that every file is intact
+     */
+    private void checkFiles(List<Manifest> manifests) throws IOException
+    {
+        Map<String, Integer> owners = new HashMap<>();
+
+        for (Manifest manifest: manifests)
+        {
+            for (String entry: manifest.getEntries())
+            {
+                long rows = manifest.getRows(entry);
+                List<File> entryFiles = manifest.getFiles(entry);
+
+                if (entry.equals(SinkContext.CUSTOMERS) || entry.startsWith(SinkContext.CUSTOMERS + "/"))
+                {
+                    customerRows += rows;
+                }
+                else if (entry.startsWith(SinkContext.CONTRIBUTIONS + "/"))
+                {
+                    contributionRows += rows;
+                }
+
+                for (File file: entryFiles)
+                {
+                    Integer owner = owners.put(file.getPath(), manifest.getShard());
+
+                    if (owner != null)
+                    {
+                        problems.add("Shards " + owner + " and " + manifest.getShard() + " both wrote " + file);
+                    }
+
+                    files++;
+                }
+
+                if (!manifest.isComplete(entry, rows, entryFiles))
+                {
+                    problems.add("Shard " + manifest.getShard() + ": " + entry + " is missing or no longer matches its checksum");
+                }
+            }
+        }
+
+        Manifest first = manifests.get(0);
+        long expectedContributions = first.getNextContributionId() - first.getSegments().get(0).getFirstContributionId();
+
+        if (customerRows != first.getCustomers())
+        {
+            problems.add("The shards hold " + customerRows + " customers, expected " + first.getCustomers());
+        }
+
+        if (contributionRows != expectedContributions)
+        {
+            problems.add("The shards hold " + contributionRows + " contributions, expected " + expectedContributions);
+        }
+    }
+
+    private static String describe(List<Manifest.Segment> segments)
+    {
+        StringBuilder description = new StringBuilder();
+
+        for (Manifest.Segment segment: segments)
+        {
+            description.append(segment.getStartYear()).append('-').append(segment.getEndYear())
+                    .append('@').append(segment.getFirstContributionId()).append(' ');
+        }
+
+        return description.toString();
+    }
+
+    public List<String> getProblems()
+    {
+        return problems;
+    }
+
+    public long getCustomerRows()
+    {
+        return customerRows;
+    }
+
+    public long getContributionRows()
+    {
+        return contributionRows;
+    }
+
+    public int getFiles()
+    {
+        return files;
+    }
+}
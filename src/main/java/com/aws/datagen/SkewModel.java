@@ -0,0 +1,219 @@
+package com.aws.datagen;
+
+import com.aws.datagen.model.LogicalValues;
+import org.apache.commons.math3.distribution.ZipfDistribution;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.SplittableRandom;
+
+/**
+ * Optional skew in when customers join, how often they contribute and which days they are paid on, to
+ * reproduce the lopsided shapes of production data.
+ *
+ * - Member growth makes joins grow exponentially year on year instead of being spread evenly.
+ * - Activity gives each customer a number of contributions per pay day from a Zipf distribution, so a
+ *   few hot customers contribute far more often than the rest. Each contribution is a share of the
+ *   customer's monthly amount.
+ * - Pay day bursts move a fraction of customers' join days, and so their pay days, to the 1st or 15th.
+ *
+ * Every draw comes from the customer's own random stream after the draws of the uniform model, and
+ * nothing is drawn for a feature that is off, so the default model reproduces uniform output exactly.
+ */
+public class SkewModel
+{
+    /**
+     * The most contributions a customer can make per pay day
+     */
+    public static final int MAX_ACTIVITY_LIMIT = 100;
+
+    private static final int[] BURST_DAYS = {1, 15};
+
+    /**
+     * Yearly growth in the number of customers joining, 0 for evenly spread joins
+     */
+    private double memberGrowth = 0.0;
+
+    /**
+     * The Zipf exponent of customer activity and the most contributions per pay day, 1 disables activity
+     */
+    private double activitySkew = 1.0;
+    private int maxActivity = 1;
+
+    /**
+     * The fraction of customers paid on one of the burst days
+     */
+    private double burstFraction = 0.0;
+
+    /**
+     * Cumulative activity probabilities, null while activity is disabled
+     */
+    private double[] activityCdf = null;
+
+    /**
+     * Draws the day a customer joins on, counted from the first day they can join
+     * @param random the customer's random stream
+     * @param maxDays the last day customers can join on
+     * @return the day, 0 to maxDays
+     */
+    public long drawJoinDay(SplittableRandom random, long maxDays)
+    {
+        if (memberGrowth == 0.0)
+        {
+            return random.nextLong(0L, maxDays + 1L);
+        }
+
+        /*
+         * Inverts the cumulative distribution of a density growing by memberGrowth per year
+         */
+        double rate = Math.log1p(memberGrowth) / 365.25;
+        double day = Math.log1p(random.nextDouble() * Math.expm1(rate * (maxDays + 1L))) / rate;
+
+        return Math.min(maxDays, Math.max(0L, (long) day));
+    }
+
+    /**
+     * Moves a join date to a burst day of its month for the chosen fraction of customers
+     * @param random the customer's random stream
+     * @param joinDate the drawn join date
+     * @return the join date, moved or not
+     */
+    public Date drawBurst(SplittableRandom random, Date joinDate)
+    {
+        if (burstFraction == 0.0 || random.nextDouble() >= burstFraction)
+        {
+            return joinDate;
+        }
+
+        LocalDate date = LocalDate.ofEpochDay(LogicalValues.toEpochDay(joinDate));
+
+        return LogicalValues.toDate((int) date.withDayOfMonth(BURST_DAYS[random.nextInt(BURST_DAYS.length)]).toEpochDay());
+    }
+
+    /**
+     * Draws the number of contributions a customer makes per pay day
+     * @param random the customer's random stream
+     * @return 1 to maxActivity
+     */
+    public int drawActivity(SplittableRandom random)
+    {
+        if (activityCdf == null)
+        {
+            return 1;
+        }
+
+        double u = random.nextDouble();
+        int low = 0;
+        int high = activityCdf.length - 1;
+
+        while (low < high)
+        {
+            int mid = (low + high) >>> 1;
+
+            if (activityCdf[mid] <= u)
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid;
+            }
+        }
+
+        return low + 1;
+    }
+
+    /**
+     * Splits a customer's monthly amount across their contributions on a pay day
+     * @param cents the monthly amount
+     * @param activity the number of contributions
+     * @param part which contribution, from 0
+     * @return the contribution's share, the shares add up to the monthly amount
+     */
+    public static long splitCents(long cents, int activity, int part)
+    {
+        return Math.floorDiv(cents, activity) + (part < Math.floorMod(cents, activity) ? 1L : 0L);
+    }
+
+    private void buildActivityCdf()
+    {
+        if (maxActivity == 1)
+        {
+            activityCdf = null;
+            return;
+        }
+
+        ZipfDistribution zipf = new ZipfDistribution(null, maxActivity, activitySkew);
+
+        activityCdf = new double[maxActivity];
+
+        for (int k = 1; k <= maxActivity; k++)
+        {
+            activityCdf[k - 1] = zipf.cumulativeProbability(k);
+        }
+
+        activityCdf[maxActivity - 1] = 1.0;
+    }
+
+    public double getMemberGrowth()
+    {
+        return memberGrowth;
+    }
+
+    public void setMemberGrowth(double memberGrowth)
+    {
+        if (!(memberGrowth > -1.0) || Double.isInfinite(memberGrowth))
+        {
+            throw new IllegalArgumentException("Member growth must be greater than -1: " + memberGrowth);
+        }
+
+        this.memberGrowth = memberGrowth;
+    }
+
+    public double getActivitySkew()
+    {
+        return activitySkew;
+    }
+
+    public void setActivitySkew(double activitySkew)
+    {
+        if (!(activitySkew > 0.0) || Double.isInfinite(activitySkew))
+        {
+            throw new IllegalArgumentException("Activity skew must be greater than 0: " + activitySkew);
+        }
+
+        this.activitySkew = activitySkew;
+        buildActivityCdf();
+    }
+
+    public int getMaxActivity()
+    {
+        return maxActivity;
+    }
+
+    public void setMaxActivity(int maxActivity)
+    {
+        if (maxActivity < 1 || maxActivity > MAX_ACTIVITY_LIMIT)
+        {
+            throw new IllegalArgumentException("Max activity must be between 1 and " + MAX_ACTIVITY_LIMIT + ": " + maxActivity);
+        }
+
+        this.maxActivity = maxActivity;
+        buildActivityCdf();
+    }
+
+    public double getBurstFraction()
+    {
+        return burstFraction;
+    }
+
+    public void setBurstFraction(double burstFraction)
+    {
+        if (!(burstFraction >= 0.0 && burstFraction <= 1.0))
+        {
+            throw new IllegalArgumentException("Burst fraction must be between 0 and 1: " + burstFraction);
+        }
+
+        this.burstFraction = burstFraction;
+    }
+}
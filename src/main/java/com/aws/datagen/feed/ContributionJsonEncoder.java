@@ -0,0 +1,141 @@
+package com.aws.datagen.feed;
+
+import com.aws.datagen.sink.ContributionBatch;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Encodes contributions as newline delimited JSON, one object per row, without boxing the values
+ * or allocating per row.
+ *
+ * Fields are written in the same order as the CSV columns and the amount is written with exactly
+ * two decimal places.
+ */
+public class ContributionJsonEncoder
+{
+    private static final byte[] CONTRIBUTION_ID = "{\"ContributionId\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CUSTOMER_ID = ",\"CustomerId\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CONTRIBUTION_DATE = ",\"ContributionDate\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] AMOUNT = "\",\"Amount\":".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The longest row: the fixed text, three longs of up to 20 characters and a ten character date
+     */
+    private static final int MAX_ROW_LENGTH = 160;
+
+    private byte[] buffer = new byte[64 * 1024];
+
+    private int encodedEpochDay = Integer.MIN_VALUE;
+    private byte[] encodedDate = null;
+
+    /**
+     * Encodes every row of a batch into the encoder's buffer
+     * @param batch the contributions
+     * @return the length of the encoded rows
+     */
+    public int encode(ContributionBatch batch)
+    {
+        if (buffer.length < batch.size() * MAX_ROW_LENGTH)
+        {
+            buffer = Arrays.copyOf(buffer, batch.size() * MAX_ROW_LENGTH);
+        }
+
+        int position = 0;
+
+        for (int i = 0; i < batch.size(); i++)
+        {
+            if (batch.getEpochDay(i) != encodedEpochDay)
+            {
+                encodedEpochDay = batch.getEpochDay(i);
+                encodedDate = LocalDate.ofEpochDay(encodedEpochDay).toString().getBytes(StandardCharsets.US_ASCII);
+            }
+
+            position = write(CONTRIBUTION_ID, position);
+            position = writeLong(batch.getContributionId(i), position);
+            position = write(CUSTOMER_ID, position);
+            position = writeLong(batch.getCustomerId(i), position);
+            position = write(CONTRIBUTION_DATE, position);
+            position = write(encodedDate, position);
+            position = write(AMOUNT, position);
+            position = writeCents(batch.getAmountCents(i), position);
+            buffer[position++] = '}';
+            buffer[position++] = '\n';
+        }
+
+        return position;
+    }
+
+    /**
+     * Fetches the buffer holding the most recently encoded batch
+     */
+    public byte[] getBuffer()
+    {
+        return buffer;
+    }
+
+    private int write(byte[] bytes, int position)
+    {
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        return position + bytes.length;
+    }
+
+    /**
+     * Writes cents as a decimal with two places, e.g. 31840 as 318.40
+     */
+    private int writeCents(long cents, int position)
+    {
+        if (cents < 0)
+        {
+            buffer[position++] = '-';
+            cents = -cents;
+        }
+
+        position = writeLong(cents / 100L, position);
+        buffer[position++] = '.';
+        buffer[position++] = (byte) ('0' + (cents % 100L) / 10L);
+        buffer[position++] = (byte) ('0' + cents % 10L);
+
+        return position;
+    }
+
+    private int writeLong(long value, int position)
+    {
+        if (value < 0)
+        {
+            if (value == Long.MIN_VALUE)
+            {
+                return write(Long.toString(value).getBytes(StandardCharsets.US_ASCII), position);
+            }
+
+            buffer[position++] = '-';
+            value = -value;
+        }
+
+        int end = position + digits(value);
+        int index = end;
+
+        do
+        {
+            buffer[--index] = (byte) ('0' + value % 10L);
+            value /= 10L;
+        }
+        while (value != 0L);
+
+        return end;
+    }
+
+    private static int digits(long value)
+    {
+        int digits = 1;
+
+        while (value >= 10L)
+        {
+            value /= 10L;
+            digits++;
+        }
+
+        return digits;
+    }
+}
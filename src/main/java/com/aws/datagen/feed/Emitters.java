@@ -0,0 +1,62 @@
+package com.aws.datagen.feed;
+
+import com.aws.datagen.sink.ContributionBatch;
+import com.aws.datagen.sink.Sink;
+
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+
+/**
+ * Opens the destinations a live feed can emit to:
+ * <ul>
+ *     <li>stdout - newline delimited JSON on standard output</li>
+ *     <li>files:&lt;directory&gt; - rolling newline delimited JSON files</li>
+ *     <li>socket:&lt;host&gt;:&lt;port&gt; - newline delimited JSON over a TCP connection</li>
+ * </ul>
+ */
+public final class Emitters
+{
+    public static final String USAGE = "stdout, files:<directory> or socket:<host>:<port>";
+
+    private Emitters()
+    {
+    }
+
+    /**
+     * Opens an emitter
+     * @param spec the emitter, e.g. "files:feed"
+     * @param rollBytes the size after which rolling files are rolled
+     * @param rollSeconds the age after which rolling files are rolled
+     * @return the emitter
+     */
+    public static Sink<ContributionBatch> open(String spec, long rollBytes, long rollSeconds) throws IOException
+    {
+        if (spec.equals("stdout"))
+        {
+            return new StreamSink(new FileOutputStream(FileDescriptor.out));
+        }
+
+        if (spec.startsWith("files:") && spec.length() > "files:".length())
+        {
+            return new RollingFileSink(new File(spec.substring("files:".length())), rollBytes, rollSeconds);
+        }
+
+        if (spec.startsWith("socket:"))
+        {
+            int separator = spec.lastIndexOf(':');
+
+            if (separator > "socket:".length())
+            {
+                Socket socket = new Socket(spec.substring("socket:".length(), separator), Integer.parseInt(spec.substring(separator + 1)));
+                socket.setTcpNoDelay(true);
+
+                return new StreamSink(socket.getOutputStream());
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown emitter: " + spec + ", expected " + USAGE);
+    }
+}
@@ -0,0 +1,125 @@
+package com.aws.datagen.feed;
+
+import java.util.Arrays;
+
+/**
+ * Throughput and emit latency counters for a live feed.
+ *
+ * Latency is the time from a batch being due to it having been written, recorded in a log-linear
+ * histogram with eight buckets per power of two so percentiles are accurate to within 12.5%
+ * without storing every sample.
+ */
+public class FeedStats
+{
+    private static final int SUB_BUCKETS = 8;
+    private static final int SUB_BUCKET_BITS = 3;
+
+    private long startNanos = System.nanoTime();
+
+    private long rows = 0L;
+    private long batches = 0L;
+    private long maxLatency = 0L;
+    private final long[] latencies = new long[64 * SUB_BUCKETS];
+
+    /**
+     * Records a batch
+     * @param count the rows in the batch
+     * @param latencyNanos how long after it was due the batch was written
+     */
+    public void record(int count, long latencyNanos)
+    {
+        long latency = Math.max(0L, latencyNanos);
+
+        rows += count;
+        batches++;
+        maxLatency = Math.max(maxLatency, latency);
+        latencies[bucket(latency)]++;
+    }
+
+    public long getRows()
+    {
+        return rows;
+    }
+
+    /**
+     * @return the rows emitted per second since the counters were started or reset
+     */
+    public double getRowsPerSecond()
+    {
+        long elapsed = System.nanoTime() - startNanos;
+        return elapsed > 0L ? rows * 1e9 / elapsed : 0.0;
+    }
+
+    /**
+     * Fetches a latency percentile
+     * @param percentile the percentile, e.g. 99.0
+     * @return the upper bound of the bucket holding the percentile, in nanoseconds
+     */
+    public long getLatencyPercentile(double percentile)
+    {
+        long rank = (long) Math.ceil(batches * percentile / 100.0);
+        long seen = 0L;
+
+        for (int i = 0; i < latencies.length; i++)
+        {
+            seen += latencies[i];
+
+            if (seen >= rank && seen > 0L)
+            {
+                return Math.min(upperBound(i), maxLatency);
+            }
+        }
+
+        return 0L;
+    }
+
+    public long getMaxLatency()
+    {
+        return maxLatency;
+    }
+
+    /**
+     * Clears the counters, e.g. at the start of each reporting interval
+     */
+    public void reset()
+    {
+        startNanos = System.nanoTime();
+        rows = 0L;
+        batches = 0L;
+        maxLatency = 0L;
+        Arrays.fill(latencies, 0L);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%d rows, %.1f rows/sec, latency p50 %.3f ms p99 %.3f ms max %.3f ms",
+                rows, getRowsPerSecond(), getLatencyPercentile(50.0) / 1e6, getLatencyPercentile(99.0) / 1e6, maxLatency / 1e6);
+    }
+
+    private static int bucket(long value)
+    {
+        if (value < SUB_BUCKETS)
+        {
+            return (int) value;
+        }
+
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+        return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long upperBound(int bucket)
+    {
+        if (bucket < SUB_BUCKETS)
+        {
+            return bucket;
+        }
+
+        int magnitude = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = bucket % SUB_BUCKETS;
+
+        return ((long) (SUB_BUCKETS + subBucket + 1) << (magnitude - SUB_BUCKET_BITS)) - 1L;
+    }
+}
@@ -0,0 +1,52 @@
+package com.aws.datagen.feed;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Paces rows to a fixed rate against a schedule rather than sleeping between batches, so sleep
+ * overshoot and time spent emitting never accumulate into drift.
+ *
+ * Row n is due at start + n / rate. If the caller falls behind, rows are released immediately until
+ * it catches up, and how late they were shows up in the latency figures.
+ */
+public class RateLimiter
+{
+    private final double nanosPerRow;
+    private final long startNanos;
+
+    private long rows = 0L;
+
+    /**
+     * @param rowsPerSecond the target rate
+     */
+    public RateLimiter(double rowsPerSecond)
+    {
+        if (!(rowsPerSecond > 0.0))
+        {
+            throw new IllegalArgumentException("Rate must be positive: " + rowsPerSecond);
+        }
+
+        this.nanosPerRow = 1000000000.0 / rowsPerSecond;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Waits until a number of rows are due
+     * @param count the number of rows about to be emitted
+     * @return the time the last of the rows was due, in System.nanoTime units
+     */
+    public long acquire(int count)
+    {
+        rows += count;
+
+        long due = startNanos + (long) (rows * nanosPerRow);
+        long wait;
+
+        while ((wait = due - System.nanoTime()) > 0L)
+        {
+            LockSupport.parkNanos(wait);
+        }
+
+        return due;
+    }
+}
@@ -0,0 +1,103 @@
+package com.aws.datagen.feed;
+
+import com.aws.datagen.sink.ContributionBatch;
+import com.aws.datagen.sink.Sink;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes contributions as newline delimited JSON to a directory, starting a new file once the
+ * current one reaches a size or age limit.
+ *
+ * Files are written with an .inprogress suffix and renamed when they are rolled, so anything
+ * watching the directory only ever sees complete files.
+ */
+public class RollingFileSink implements Sink<ContributionBatch>
+{
+    private static final String IN_PROGRESS = ".inprogress";
+
+    private final File directory;
+    private final long rollBytes;
+    private final long rollNanos;
+    private final String prefix;
+
+    private final ContributionJsonEncoder encoder = new ContributionJsonEncoder();
+
+    private int sequence = 0;
+    private File file = null;
+    private OutputStream output = null;
+    private long written = 0L;
+    private long openedNanos = 0L;
+
+    /**
+     * @param directory the directory to write to
+     * @param rollBytes the size after which a file is rolled
+     * @param rollSeconds the age after which a file is rolled
+     */
+    public RollingFileSink(File directory, long rollBytes, long rollSeconds)
+    {
+        if (rollBytes < 1 || rollSeconds < 1)
+        {
+            throw new IllegalArgumentException("Roll size and interval must be positive: " + rollBytes + ", " + rollSeconds);
+        }
+
+        this.directory = directory;
+        this.rollBytes = rollBytes;
+        this.rollNanos = rollSeconds * 1000000000L;
+        this.prefix = "contributions-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + "-";
+
+        directory.mkdirs();
+    }
+
+    @Override
+    public void write(ContributionBatch batch) throws IOException
+    {
+        if (output != null && (written >= rollBytes || System.nanoTime() - openedNanos >= rollNanos))
+        {
+            roll();
+        }
+
+        if (output == null)
+        {
+            file = new File(directory, String.format("%s%05d.ndjson%s", prefix, sequence++, IN_PROGRESS));
+            output = new FileOutputStream(file);
+            written = 0L;
+            openedNanos = System.nanoTime();
+        }
+
+        int length = encoder.encode(batch);
+
+        output.write(encoder.getBuffer(), 0, length);
+        written += length;
+    }
+
+    /**
+     * Closes the current file and renames it to its final name
+     */
+    private void roll() throws IOException
+    {
+        output.close();
+        output = null;
+
+        String name = file.getName();
+        File complete = new File(directory, name.substring(0, name.length() - IN_PROGRESS.length()));
+
+        Files.move(file.toPath(), complete.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (output != null)
+        {
+            roll();
+        }
+    }
+}
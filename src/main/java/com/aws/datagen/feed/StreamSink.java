@@ -0,0 +1,70 @@
+package com.aws.datagen.feed;
+
+import com.aws.datagen.sink.ContributionBatch;
+import com.aws.datagen.sink.Sink;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes contributions as newline delimited JSON to a stream, e.g. stdout or a socket.
+ *
+ * Batches are buffered and flushed once the flush interval has passed since the last flush, checked as
+ * each batch is written. A slow feed is flushed every batch, while a fast one makes a few large writes
+ * a second rather than one per batch.
+ */
+public class StreamSink implements Sink<ContributionBatch>
+{
+    public static final long DEFAULT_FLUSH_MILLIS = 100L;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final OutputStream output;
+    private final long flushNanos;
+    private final ContributionJsonEncoder encoder = new ContributionJsonEncoder();
+
+    private long flushedNanos = System.nanoTime();
+
+    public StreamSink(OutputStream output)
+    {
+        this(output, DEFAULT_FLUSH_MILLIS);
+    }
+
+    /**
+     * @param output the stream to write to
+     * @param flushMillis the least time between flushes, 0 flushes every batch
+     */
+    public StreamSink(OutputStream output, long flushMillis)
+    {
+        if (flushMillis < 0L)
+        {
+            throw new IllegalArgumentException("Flush interval must not be negative: " + flushMillis);
+        }
+
+        this.output = new BufferedOutputStream(output, BUFFER_SIZE);
+        this.flushNanos = flushMillis * 1000000L;
+    }
+
+    @Override
+    public void write(ContributionBatch batch) throws IOException
+    {
+        int length = encoder.encode(batch);
+
+        output.write(encoder.getBuffer(), 0, length);
+
+        long now = System.nanoTime();
+
+        if (now - flushedNanos >= flushNanos)
+        {
+            output.flush();
+            flushedNanos = now;
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        output.close();
+    }
+}
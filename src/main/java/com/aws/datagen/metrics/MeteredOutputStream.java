@@ -0,0 +1,56 @@
+package com.aws.datagen.metrics;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the bytes written to a file and the time spent writing them.
+ *
+ * Wrap the stream that writes the file itself, beneath any heap buffering, so only writes on their way
+ * to the file are timed.
+ */
+public class MeteredOutputStream extends FilterOutputStream
+{
+    private final RunMetrics metrics;
+    private final LongAdder bytes;
+
+    /**
+     * @param output the file stream
+     * @param metrics the run metrics
+     * @param sink the output format the bytes are counted against
+     */
+    public MeteredOutputStream(OutputStream output, RunMetrics metrics, String sink)
+    {
+        super(output);
+        this.metrics = metrics;
+        this.bytes = metrics.getBytesCounter(sink);
+    }
+
+    @Override
+    public void write(int b) throws IOException
+    {
+        long start = System.nanoTime();
+        out.write(b);
+        metrics.addTime(RunMetrics.Stage.IO, System.nanoTime() - start);
+        bytes.increment();
+    }
+
+    @Override
+    public void write(byte[] buffer, int offset, int length) throws IOException
+    {
+        long start = System.nanoTime();
+        out.write(buffer, offset, length);
+        metrics.addTime(RunMetrics.Stage.IO, System.nanoTime() - start);
+        bytes.add(length);
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        long start = System.nanoTime();
+        super.close();
+        metrics.addTime(RunMetrics.Stage.IO, System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,207 @@
+package com.aws.datagen.metrics;
+
+import org.apache.log4j.Logger;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs a progress line at a fixed interval while a run is in progress, and writes a JSON summary
+ * once it is over
+ */
+public class MetricsReporter implements Closeable
+{
+    private static final Logger LOG = Logger.getLogger(MetricsReporter.class);
+
+    private static final double MB = 1024.0 * 1024.0;
+
+    private final RunMetrics metrics;
+    private final ScheduledExecutorService scheduler;
+
+    private long lastRows = 0L;
+    private long lastNanos = System.nanoTime();
+
+    /**
+     * Starts reporting
+     * @param metrics the run metrics
+     * @param intervalSeconds the seconds between progress lines, 0 to only log the final line
+     */
+    public MetricsReporter(RunMetrics metrics, int intervalSeconds)
+    {
+        this.metrics = metrics;
+
+        if (intervalSeconds > 0)
+        {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable ->
+            {
+                Thread thread = new Thread(runnable, "metrics-reporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+            scheduler.scheduleAtFixedRate(this::report, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        }
+        else
+        {
+            scheduler = null;
+        }
+    }
+
+    private synchronized void report()
+    {
+        long rows = metrics.getContributionRows();
+        long now = System.nanoTime();
+        double rate = now > lastNanos ? (rows - lastRows) * 1e9 / (now - lastNanos) : 0.0;
+
+        lastRows = rows;
+        lastNanos = now;
+
+        LOG.info(describe(metrics, rate));
+    }
+
+    /**
+     * Stops reporting and logs a final line with the rate over the whole run
+     */
+    @Override
+    public void close()
+    {
+        if (scheduler != null)
+        {
+            scheduler.shutdownNow();
+        }
+
+        LOG.info("Finished in " + formatDuration(metrics.getElapsedSeconds()) + ": " + describe(metrics, metrics.getRowsPerSecond()));
+    }
+
+    /**
+     * Describes the state of a run in one line
+     * @param metrics the run metrics
+     * @param rowsPerSecond the recent contribution rate
+     * @return the description
+     */
+    public static String describe(RunMetrics metrics, double rowsPerSecond)
+    {
+        StringBuilder line = new StringBuilder();
+
+        line.append(String.format(Locale.ROOT, "%.1f%% done, %d contributions at %.0f rows/sec, %d customers",
+                metrics.getProgress() * 100.0, metrics.getContributionRows(), rowsPerSecond, metrics.getCustomerRows()));
+
+        if (metrics.getSkippedRows() > 0L)
+        {
+            line.append(", ").append(metrics.getSkippedRows()).append(" skipped");
+        }
+
+        List<String> partitions = metrics.getActivePartitions();
+
+        if (!partitions.isEmpty())
+        {
+            line.append(", writing ").append(partitions.get(0));
+
+            if (partitions.size() > 1)
+            {
+                line.append(" (+").append(partitions.size() - 1).append(" more)");
+            }
+        }
+
+        line.append(", written");
+
+        for (Map.Entry<String, Long> sink: metrics.getBytesWritten().entrySet())
+        {
+            line.append(String.format(Locale.ROOT, " %s %.1f MB", sink.getKey(), sink.getValue() / MB));
+        }
+
+        Map<String, Double> stageSeconds = metrics.getStageSeconds();
+        double totalSeconds = 0.0;
+
+        for (double seconds: stageSeconds.values())
+        {
+            totalSeconds += seconds;
+        }
+
+        line.append(", time");
+
+        for (Map.Entry<String, Double> stage: stageSeconds.entrySet())
+        {
+            line.append(String.format(Locale.ROOT, " %s %.0f%%", stage.getKey(),
+                    totalSeconds > 0.0 ? stage.getValue() * 100.0 / totalSeconds : 0.0));
+        }
+
+        line.append(String.format(Locale.ROOT, ", heap %.0f/%.0f MB", metrics.getHeapUsedBytes() / MB, metrics.getHeapMaxBytes() / MB));
+
+        double eta = metrics.getEtaSeconds();
+
+        if (eta > 0.0)
+        {
+            line.append(", ETA ").append(formatDuration(eta));
+        }
+
+        return line.toString();
+    }
+
+    /**
+     * Writes the final state of a run as JSON
+     * @param metrics the run metrics
+     * @param file the file to write
+     */
+    public static void writeSummary(RunMetrics metrics, File file) throws IOException
+    {
+        if (file.getParentFile() != null)
+        {
+            file.getParentFile().mkdirs();
+        }
+
+        StringBuilder json = new StringBuilder("{\n");
+
+        json.append(String.format(Locale.ROOT, "  \"elapsedSeconds\": %.3f,\n", metrics.getElapsedSeconds()));
+        json.append("  \"contributionRows\": ").append(metrics.getContributionRows()).append(",\n");
+        json.append("  \"customerRows\": ").append(metrics.getCustomerRows()).append(",\n");
+        json.append("  \"skippedRows\": ").append(metrics.getSkippedRows()).append(",\n");
+        json.append(String.format(Locale.ROOT, "  \"rowsPerSecond\": %.1f,\n", metrics.getRowsPerSecond()));
+        json.append("  \"bytesWritten\": {");
+
+        String separator = "";
+
+        for (Map.Entry<String, Long> sink: metrics.getBytesWritten().entrySet())
+        {
+            json.append(separator).append("\n    ").append(quote(sink.getKey())).append(": ").append(sink.getValue());
+            separator = ",";
+        }
+
+        json.append("\n  },\n  \"stageSeconds\": {");
+        separator = "";
+
+        for (Map.Entry<String, Double> stage: metrics.getStageSeconds().entrySet())
+        {
+            json.append(separator).append(String.format(Locale.ROOT, "\n    %s: %.3f", quote(stage.getKey()), stage.getValue()));
+            separator = ",";
+        }
+
+        json.append("\n  },\n");
+        json.append("  \"heapUsedBytes\": ").append(metrics.getHeapUsedBytes()).append(",\n");
+        json.append("  \"heapMaxBytes\": ").append(metrics.getHeapMaxBytes()).append(",\n");
+        json.append(String.format(Locale.ROOT, "  \"progress\": %.4f\n", metrics.getProgress()));
+        json.append("}\n");
+
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))
+        {
+            writer.write(json.toString());
+        }
+    }
+
+    private static String quote(String value)
+    {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    private static String formatDuration(double seconds)
+    {
+        long total = Math.round(seconds);
+        return String.format(Locale.ROOT, "%02d:%02d:%02d", total / 3600L, (total / 60L) % 60L, total % 60L);
+    }
+}
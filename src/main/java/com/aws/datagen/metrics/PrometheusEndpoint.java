@@ -0,0 +1,140 @@
+package com.aws.datagen.metrics;
+
+import com.sun.net.httpserver.HttpServer;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Serves the run metrics in the Prometheus text format at http://localhost:&lt;port&gt;/metrics.
+ *
+ * The server only listens on the loopback interface.
+ */
+public class PrometheusEndpoint implements Closeable
+{
+    public static final String OBJECT_NAME = "com.aws.datagen:type=RunMetrics";
+
+    private final RunMetrics metrics;
+    private final HttpServer server;
+
+    /**
+     * Starts serving
+     * @param metrics the run metrics
+     * @param port the port, 0 picks a free one
+     */
+    public PrometheusEndpoint(RunMetrics metrics, int port) throws IOException
+    {
+        this.metrics = metrics;
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", exchange ->
+        {
+            byte[] body = format(this.metrics).getBytes(StandardCharsets.UTF_8);
+
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+
+            try (OutputStream output = exchange.getResponseBody())
+            {
+                output.write(body);
+            }
+        });
+        server.start();
+    }
+
+    /**
+     * @return the port being served on
+     */
+    public int getPort()
+    {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close()
+    {
+        server.stop(0);
+    }
+
+    /**
+     * Registers the run metrics with the platform MBean server under {@value #OBJECT_NAME}
+     * @param metrics the run metrics
+     */
+    public static void registerMBean(RunMetrics metrics) throws JMException
+    {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(OBJECT_NAME));
+    }
+
+    /**
+     * Formats the run metrics in the Prometheus text exposition format
+     * @param metrics the run metrics
+     * @return the metrics text
+     */
+    public static String format(RunMetrics metrics)
+    {
+        StringBuilder text = new StringBuilder();
+
+        header(text, "datagen_rows_total", "counter", "Rows generated");
+        sample(text, "datagen_rows_total{table=\"contributions\"}", metrics.getContributionRows());
+        sample(text, "datagen_rows_total{table=\"customers\"}", metrics.getCustomerRows());
+
+        header(text, "datagen_skipped_rows_total", "counter", "Contribution rows a resumed run had already written");
+        sample(text, "datagen_skipped_rows_total", metrics.getSkippedRows());
+
+        header(text, "datagen_written_bytes_total", "counter", "Bytes written by each output format");
+
+        for (Map.Entry<String, Long> sink: metrics.getBytesWritten().entrySet())
+        {
+            sample(text, "datagen_written_bytes_total{format=\"" + sink.getKey() + "\"}", sink.getValue());
+        }
+
+        header(text, "datagen_stage_seconds_total", "counter", "Time spent in each stage summed over all threads");
+
+        for (Map.Entry<String, Double> stage: metrics.getStageSeconds().entrySet())
+        {
+            sample(text, "datagen_stage_seconds_total{stage=\"" + stage.getKey() + "\"}", stage.getValue());
+        }
+
+        header(text, "datagen_active_partitions", "gauge", "Partitions being written");
+        sample(text, "datagen_active_partitions", metrics.getActivePartitions().size());
+
+        header(text, "datagen_heap_used_bytes", "gauge", "Heap in use");
+        sample(text, "datagen_heap_used_bytes", metrics.getHeapUsedBytes());
+
+        header(text, "datagen_elapsed_seconds", "gauge", "Time since the run started");
+        sample(text, "datagen_elapsed_seconds", metrics.getElapsedSeconds());
+
+        header(text, "datagen_progress_ratio", "gauge", "Estimated fraction of the run completed");
+        sample(text, "datagen_progress_ratio", metrics.getProgress());
+
+        header(text, "datagen_eta_seconds", "gauge", "Estimated time remaining, -1 when unknown");
+        sample(text, "datagen_eta_seconds", metrics.getEtaSeconds());
+
+        return text.toString();
+    }
+
+    private static void header(StringBuilder text, String name, String type, String help)
+    {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder text, String name, long value)
+    {
+        text.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void sample(StringBuilder text, String name, double value)
+    {
+        text.append(name).append(' ').append(String.format(Locale.ROOT, "%.6f", value)).append('\n');
+    }
+}
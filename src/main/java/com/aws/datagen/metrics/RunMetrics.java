@@ -0,0 +1,291 @@
+package com.aws.datagen.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters describing a run while it is in progress: rows generated, bytes written per output format,
+ * time spent in each stage of the pipeline, the partitions being written and the estimated time
+ * remaining.
+ *
+ * Every counter is safe to update from the generating, writer and compression threads at once and is
+ * cheap enough to update once per batch.
+ */
+public class RunMetrics implements RunMetricsMXBean
+{
+    /**
+     * Where time goes. Stage times are summed over every thread, so they show where the work is
+     * rather than adding up to the elapsed time.
+     */
+    public enum Stage
+    {
+        /**
+         * Creating customers and computing contributions
+         */
+        GENERATION,
+
+        /**
+         * Encoding rows as CSV, or handing them to a Parquet writer, which also compresses and writes its pages
+         */
+        ENCODING,
+
+        /**
+         * Deflating gzip output
+         */
+        COMPRESSION,
+
+        /**
+         * Writing to output files
+         */
+        IO,
+
+        /**
+         * Generating threads blocked handing batches to sinks, including the writing itself when writer threads are disabled
+         */
+        SINK_WAIT;
+
+        public String getLabel()
+        {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final long startNanos = System.nanoTime();
+
+    private final LongAdder contributionRows = new LongAdder();
+    private final LongAdder customerRows = new LongAdder();
+    private final LongAdder skippedRows = new LongAdder();
+
+    private final LongAdder[] stageNanos = new LongAdder[Stage.values().length];
+
+    private final ConcurrentMap<String, LongAdder> sinkBytes = new ConcurrentHashMap<>();
+
+    private final Set<String> activePartitions = new ConcurrentSkipListSet<>();
+
+    /**
+     * Progress through the customer chunks, contributions are only counted a chunk at a time
+     */
+    private long totalCustomers = 0L;
+    private long customersBeforeChunk = 0L;
+    private long chunkCustomers = 0L;
+    private long chunkExpectedRows = 0L;
+    private long chunkRowsAtStart = 0L;
+    private boolean finished = false;
+
+    public RunMetrics()
+    {
+        for (int i = 0; i < stageNanos.length; i++)
+        {
+            stageNanos[i] = new LongAdder();
+        }
+    }
+
+    public void addContributionRows(long rows)
+    {
+        contributionRows.add(rows);
+    }
+
+    public void addCustomerRows(long rows)
+    {
+        customerRows.add(rows);
+    }
+
+    /**
+     * Counts rows a resumed run did not need to write towards progress
+     * @param rows the rows in the skipped partition
+     */
+    public void addSkippedRows(long rows)
+    {
+        skippedRows.add(rows);
+    }
+
+    /**
+     * Adds time spent in a stage
+     * @param stage the stage
+     * @param nanos the time in nanoseconds
+     */
+    public void addTime(Stage stage, long nanos)
+    {
+        stageNanos[stage.ordinal()].add(nanos);
+    }
+
+    /**
+     * Fetches the byte counter for an output format
+     * @param sink the format name, e.g. "csv"
+     * @return the counter
+     */
+    public LongAdder getBytesCounter(String sink)
+    {
+        return sinkBytes.computeIfAbsent(sink, name -> new LongAdder());
+    }
+
+    public void startPartition(String partition)
+    {
+        activePartitions.add(partition);
+    }
+
+    public void finishPartition(String partition)
+    {
+        activePartitions.remove(partition);
+    }
+
+    /**
+     * Starts tracking progress
+     * @param totalCustomers the number of customers in the run
+     */
+    public synchronized void startRun(long totalCustomers)
+    {
+        this.totalCustomers = totalCustomers;
+        this.customersBeforeChunk = 0L;
+        this.chunkCustomers = 0L;
+        this.finished = false;
+    }
+
+    /**
+     * Moves progress on to a new chunk of customers
+     * @param customersBeforeChunk the customers in earlier chunks
+     * @param chunkCustomers the customers in this chunk
+     */
+    public synchronized void startChunk(long customersBeforeChunk, long chunkCustomers)
+    {
+        this.customersBeforeChunk = customersBeforeChunk;
+        this.chunkCustomers = chunkCustomers;
+        this.chunkExpectedRows = 0L;
+        this.chunkRowsAtStart = contributionRows.sum() + skippedRows.sum();
+    }
+
+    /**
+     * Adds to the contributions the current chunk will make, once they have been counted
+     * @param rows the rows
+     */
+    public synchronized void addExpectedRows(long rows)
+    {
+        chunkExpectedRows += rows;
+    }
+
+    public synchronized void finishRun()
+    {
+        finished = true;
+    }
+
+    @Override
+    public long getContributionRows()
+    {
+        return contributionRows.sum();
+    }
+
+    @Override
+    public long getCustomerRows()
+    {
+        return customerRows.sum();
+    }
+
+    @Override
+    public long getSkippedRows()
+    {
+        return skippedRows.sum();
+    }
+
+    @Override
+    public double getRowsPerSecond()
+    {
+        double elapsed = getElapsedSeconds();
+        return elapsed > 0.0 ? getContributionRows() / elapsed : 0.0;
+    }
+
+    @Override
+    public Map<String, Long> getBytesWritten()
+    {
+        Map<String, Long> bytes = new TreeMap<>();
+
+        for (Map.Entry<String, LongAdder> sink: sinkBytes.entrySet())
+        {
+            bytes.put(sink.getKey(), sink.getValue().sum());
+        }
+
+        return bytes;
+    }
+
+    @Override
+    public Map<String, Double> getStageSeconds()
+    {
+        Map<String, Double> seconds = new LinkedHashMap<>();
+
+        for (Stage stage: Stage.values())
+        {
+            seconds.put(stage.getLabel(), stageNanos[stage.ordinal()].sum() / 1e9);
+        }
+
+        return seconds;
+    }
+
+    @Override
+    public List<String> getActivePartitions()
+    {
+        return new ArrayList<>(activePartitions);
+    }
+
+    @Override
+    public long getHeapUsedBytes()
+    {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    @Override
+    public long getHeapMaxBytes()
+    {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getMax();
+    }
+
+    @Override
+    public double getElapsedSeconds()
+    {
+        return (System.nanoTime() - startNanos) / 1e9;
+    }
+
+    @Override
+    public synchronized double getProgress()
+    {
+        if (finished)
+        {
+            return 1.0;
+        }
+
+        if (totalCustomers == 0L)
+        {
+            return 0.0;
+        }
+
+        double chunkProgress = 0.0;
+
+        if (chunkExpectedRows > 0L)
+        {
+            long chunkRows = contributionRows.sum() + skippedRows.sum() - chunkRowsAtStart;
+            chunkProgress = Math.min(1.0, (double) chunkRows / chunkExpectedRows);
+        }
+
+        return (customersBeforeChunk + chunkCustomers * chunkProgress) / totalCustomers;
+    }
+
+    @Override
+    public double getEtaSeconds()
+    {
+        double progress = getProgress();
+
+        if (progress >= 1.0)
+        {
+            return 0.0;
+        }
+
+        if (progress < 0.001)
+        {
+            return -1.0;
+        }
+
+        return getElapsedSeconds() * (1.0 - progress) / progress;
+    }
+}
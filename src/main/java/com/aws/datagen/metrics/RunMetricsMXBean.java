@@ -0,0 +1,55 @@
+package com.aws.datagen.metrics;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The run metrics as exposed over JMX under com.aws.datagen:type=RunMetrics
+ */
+public interface RunMetricsMXBean
+{
+    long getContributionRows();
+
+    long getCustomerRows();
+
+    /**
+     * @return rows of partitions skipped because a resumed run had already written them
+     */
+    long getSkippedRows();
+
+    /**
+     * @return contribution rows generated per second since the run started
+     */
+    double getRowsPerSecond();
+
+    /**
+     * @return bytes written by each output format
+     */
+    Map<String, Long> getBytesWritten();
+
+    /**
+     * @return seconds spent in each stage, summed over every thread
+     */
+    Map<String, Double> getStageSeconds();
+
+    /**
+     * @return the partitions being written
+     */
+    List<String> getActivePartitions();
+
+    long getHeapUsedBytes();
+
+    long getHeapMaxBytes();
+
+    double getElapsedSeconds();
+
+    /**
+     * @return the estimated fraction of the run completed, 0 to 1
+     */
+    double getProgress();
+
+    /**
+     * @return the estimated seconds remaining, -1 until there is enough progress to estimate
+     */
+    double getEtaSeconds();
+}
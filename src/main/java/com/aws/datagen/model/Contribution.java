@@ -4,24 +4,34 @@ import org.apache.avro.Schema;
 import org.apache.avro.SchemaBuilder;
 import org.apache.avro.specific.SpecificRecord;
 import org.apache.avro.specific.SpecificRecordBase;
-import org.apache.commons.lang3.time.FastDateFormat;
 
-import java.text.ParseException;
+import java.time.LocalDate;
 import java.util.Date;
 
 public class Contribution extends SpecificRecordBase implements SpecificRecord
 {
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
     private long contributionId = 0L;
     private long customerId = 0L;
 
-    private double amount = 0.0;
-    private Date contributionDate = null;
+    private long amountCents = 0L;
+    private int contributionEpochDay = NO_DATE;
+    private String contributionDateString = null;
+
+    private final LogicalValues.Amount amountValue = new LogicalValues.Amount();
 
-    private static final FastDateFormat dateFormat = FastDateFormat.getInstance("yyyy-MM-dd");
+    /**
+     * The version 1 schema with a string date and a double amount, kept for reading older files
+     */
+    public static final Schema SCHEMA_V1 = makeSchemaV1();
 
+    /**
+     * The version 2 schema with a date logical type and a decimal(12,2) amount
+     */
     public static final Schema SCHEMA = makeSchema();
 
-    private static Schema makeSchema()
+    private static Schema makeSchemaV1()
     {
         Schema schema = SchemaBuilder
                 .record("Contribution").namespace("com.aws.parquet")
@@ -35,6 +45,20 @@ public class Contribution extends SpecificRecordBase implements SpecificRecord
         return schema;
     }
 
+    private static Schema makeSchema()
+    {
+        Schema schema = SchemaBuilder
+                .record("Contribution").namespace("com.aws.parquet")
+                .fields()
+                .name("ContributionId").type().longType().longDefault(0L)
+                .name("CustomerId").type().longType().longDefault(0L)
+                .name("Amount").type(LogicalValues.amountSchema()).noDefault()
+                .name("ContributionDate").type(LogicalValues.dateSchema()).noDefault()
+                .endRecord();
+
+        return schema;
+    }
+
     @Override
     public Object get(int field)
     {
@@ -50,11 +74,12 @@ public class Contribution extends SpecificRecordBase implements SpecificRecord
             }
             case 2:
             {
-                return amount;
+                amountValue.setCents(amountCents);
+                return amountValue;
             }
             case 3:
             {
-                return dateFormat.format(contributionDate);
+                return contributionEpochDay;
             }
             default:
             {
@@ -63,6 +88,9 @@ public class Contribution extends SpecificRecordBase implements SpecificRecord
         }
     }
 
+    /**
+     * Sets a field from either schema version
+     */
     @Override
     public void put(int field, Object value)
     {
@@ -80,20 +108,12 @@ public class Contribution extends SpecificRecordBase implements SpecificRecord
             }
             case 2:
             {
-                amount = (Double) value;
+                amountCents = LogicalValues.readCents(value);
                 return;
             }
             case 3:
             {
-                try
-                {
-                    contributionDate = dateFormat.parse((String) value);
-                }
-                catch (ParseException e)
-                {
-                    contributionDate = null;
-                    e.printStackTrace();
-                }
+                setContributionEpochDay(LogicalValues.readEpochDay(value));
                 return;
             }
             default:
@@ -120,29 +140,77 @@ public class Contribution extends SpecificRecordBase implements SpecificRecord
         return contributionId;
     }
 
+    public void setContributionId(long contributionId)
+    {
+        this.contributionId = contributionId;
+    }
+
     public long getCustomerId()
     {
         return customerId;
     }
 
+    public void setCustomerId(long customerId)
+    {
+        this.customerId = customerId;
+    }
+
     public double getAmount()
     {
-        return amount;
+        return amountCents / 100.0;
     }
 
     public void setAmount(double amount)
     {
-        this.amount = amount;
+        this.amountCents = Math.round(amount * 100.0);
+    }
+
+    public long getAmountCents()
+    {
+        return amountCents;
+    }
+
+    public void setAmountCents(long amountCents)
+    {
+        this.amountCents = amountCents;
     }
 
     public Date getContributionDate()
     {
-        return contributionDate;
+        return contributionEpochDay != NO_DATE ? LogicalValues.toDate(contributionEpochDay) : null;
     }
 
     public void setContributionDate(Date contributionDate)
     {
-        this.contributionDate = contributionDate;
+        setContributionEpochDay(contributionDate != null ? LogicalValues.toEpochDay(contributionDate) : NO_DATE);
+    }
+
+    public int getContributionEpochDay()
+    {
+        return contributionEpochDay;
+    }
+
+    /**
+     * Sets the contribution date, the formatted date is only recomputed when the day changes
+     * so a reused record does not format it again for every row
+     */
+    public void setContributionEpochDay(int contributionEpochDay)
+    {
+        if (contributionEpochDay != this.contributionEpochDay)
+        {
+            this.contributionEpochDay = contributionEpochDay;
+            this.contributionDateString = null;
+        }
+    }
+
+    public String getContributionDateString()
+    {
+        if (contributionDateString == null && contributionEpochDay != NO_DATE)
+        {
+            contributionDateString = LocalDate.ofEpochDay(contributionEpochDay).toString();
+        }
+
+        return contributionDateString;
     }
 
     public String toString()
@@ -150,7 +218,7 @@ public class Contribution extends SpecificRecordBase implements SpecificRecord
         return String.format("%d\t%d\t%s\t%.2f",
                 contributionId,
                 customerId,
-                contributionDate != null ? dateFormat.format(contributionDate) : "null",
-                amount);
+                contributionEpochDay != NO_DATE ? getContributionDateString() : "null",
+                getAmount());
     }
 }
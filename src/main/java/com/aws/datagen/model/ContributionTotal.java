@@ -0,0 +1,133 @@
+package com.aws.datagen.model;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.avro.specific.SpecificRecordBase;
+
+/**
+ * A row of a rollup table: the count, sum, min and max of a group of contribution amounts, written after
+ * the columns that identify the group
+ */
+public abstract class ContributionTotal extends SpecificRecordBase implements SpecificRecord
+{
+    private long contributions = 0L;
+    private long totalCents = 0L;
+    private long minCents = 0L;
+    private long maxCents = 0L;
+
+    private final LogicalValues.Amount totalValue = LogicalValues.Amount.total();
+    private final LogicalValues.Amount minValue = new LogicalValues.Amount();
+    private final LogicalValues.Amount maxValue = new LogicalValues.Amount();
+
+    /**
+     * Adds the total columns to a schema, after the group columns
+     */
+    protected static Schema endSchema(SchemaBuilder.FieldAssembler<Schema> fields)
+    {
+        return fields
+                .name("Contributions").type().longType().noDefault()
+                .name("TotalAmount").type(LogicalValues.totalSchema()).noDefault()
+                .name("MinAmount").type(LogicalValues.amountSchema()).noDefault()
+                .name("MaxAmount").type(LogicalValues.amountSchema()).noDefault()
+                .endRecord();
+    }
+
+    /**
+     * @param field the index of a total column, from 0
+     */
+    protected Object getTotal(int field)
+    {
+        switch (field)
+        {
+            case 0:
+            {
+                return contributions;
+            }
+            case 1:
+            {
+                totalValue.setCents(totalCents);
+                return totalValue;
+            }
+            case 2:
+            {
+                minValue.setCents(minCents);
+                return minValue;
+            }
+            case 3:
+            {
+                maxValue.setCents(maxCents);
+                return maxValue;
+            }
+            default:
+            {
+                throw new IllegalArgumentException("Invalid total field index: " + field);
+            }
+        }
+    }
+
+    /**
+     * @param field the index of a total column, from 0
+     */
+    protected void putTotal(int field, Object value)
+    {
+        switch (field)
+        {
+            case 0:
+            {
+                contributions = (Long) value;
+                return;
+            }
+            case 1:
+            {
+                totalCents = LogicalValues.readCents(value);
+                return;
+            }
+            case 2:
+            {
+                minCents = LogicalValues.readCents(value);
+                return;
+            }
+            case 3:
+            {
+                maxCents = LogicalValues.readCents(value);
+                return;
+            }
+            default:
+            {
+                throw new IllegalArgumentException("Invalid total field index: " + field);
+            }
+        }
+    }
+
+    /**
+     * Sets every total at once
+     */
+    public void setTotals(long contributions, long totalCents, long minCents, long maxCents)
+    {
+        this.contributions = contributions;
+        this.totalCents = totalCents;
+        this.minCents = minCents;
+        this.maxCents = maxCents;
+    }
+
+    public long getContributions()
+    {
+        return contributions;
+    }
+
+    public long getTotalCents()
+    {
+        return totalCents;
+    }
+
+    public long getMinCents()
+    {
+        return minCents;
+    }
+
+    public long getMaxCents()
+    {
+        return maxCents;
+    }
+}
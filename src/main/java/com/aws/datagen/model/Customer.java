@@ -1,36 +1,41 @@
 package com.aws.datagen.model;
 
+import com.aws.datagen.util.Seeds;
 import org.apache.avro.Schema;
 import org.apache.avro.SchemaBuilder;
 import org.apache.avro.specific.SpecificRecord;
 import org.apache.avro.specific.SpecificRecordBase;
 import org.apache.commons.lang3.time.FastDateFormat;
 
-import java.text.ParseException;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 public class Customer extends SpecificRecordBase implements SpecificRecord
 {
     private long customerId = 0L;
     private String title = null;
-    private String firstName = null;
-    private String lastName = null;
+    private Name firstName = null;
+    private Name lastName = null;
     private boolean male = true;
     private Date joinDate = null;
+    private int joinEpochDay = 0;
     private double salaryVariance = 0.0;
-
-    private static final Random random = new Random();
-
-    private Map<Integer, Double> yearlyVariance = new HashMap<>();
+    private long randomSeed = 0L;
+    private int activity = 1;
 
     private static final FastDateFormat dateFormat = FastDateFormat.getInstance("yyyy-MM-dd");
 
+    /**
+     * The version 1 schema with a string join date, kept for reading older files
+     */
+    public static final Schema SCHEMA_V1 = makeSchemaV1();
+
+    /**
+     * The version 2 schema with a date logical type join date
+     */
     public static final Schema SCHEMA = makeSchema();
 
-    private static Schema makeSchema()
+    private static Schema makeSchemaV1()
     {
         Schema schema = SchemaBuilder
                 .record("Customer").namespace("com.aws.parquet")
@@ -46,6 +51,22 @@ public class Customer extends SpecificRecordBase implements SpecificRecord
         return schema;
     }
 
+    private static Schema makeSchema()
+    {
+        Schema schema = SchemaBuilder
+                .record("Customer").namespace("com.aws.parquet")
+                .fields()
+                .name("CustomerId").type().longType().noDefault()
+                .name("Title").type().stringType().noDefault()
+                .name("FirstName").type().stringType().noDefault()
+                .name("LastName").type().stringType().noDefault()
+                .name("Gender").type().stringType().noDefault()
+                .name("JoinDate").type(LogicalValues.dateSchema()).noDefault()
+                .endRecord();
+
+        return schema;
+    }
+
     @Override
     public Object get(int field)
     {
@@ -61,11 +82,11 @@ public class Customer extends SpecificRecordBase implements SpecificRecord
             }
             case 2:
             {
-                return firstName;
+                return firstName != null ? firstName.getUtf8() : null;
             }
             case 3:
             {
-                return lastName;
+                return lastName != null ? lastName.getUtf8() : null;
             }
             case 4:
             {
@@ -73,7 +94,7 @@ public class Customer extends SpecificRecordBase implements SpecificRecord
             }
             case 5:
             {
-                return dateFormat.format(joinDate);
+                return joinEpochDay;
             }
             default:
             {
@@ -82,6 +103,9 @@ public class Customer extends SpecificRecordBase implements SpecificRecord
         }
     }
 
+    /**
+     * Sets a field from either schema version
+     */
     @Override
     public void put(int field, Object value)
     {
@@ -94,35 +118,27 @@ public class Customer extends SpecificRecordBase implements SpecificRecord
             }
             case 1:
             {
-                title = (String) value;
+                title = value.toString();
                 return;
             }
             case 2:
             {
-                firstName = (String) value;
+                firstName = new Name(value.toString());
                 return;
             }
             case 3:
             {
-                lastName = (String) value;
+                lastName = new Name(value.toString());
                 return;
             }
             case 4:
             {
-                male = "M".equals(value);
+                male = "M".equals(value.toString());
                 return;
             }
             case 5:
             {
-                try
-                {
-                    joinDate = dateFormat.parse((String) value);
-                }
-                catch (ParseException e)
-                {
-                    e.printStackTrace();
-                    joinDate = null;
-                }
+                setJoinEpochDay(LogicalValues.readEpochDay(value));
                 return;
             }
             default:
@@ -144,24 +160,19 @@ public class Customer extends SpecificRecordBase implements SpecificRecord
     }
 
     /**
-     * Fetches the yearly salary for this customer
+     * Fetches the yearly salary for this customer. The yearly kick is derived from the customer's seed,
+     * so nothing is cached and the customer can be shared between threads.
      */
     public double getSalary(int minYear, int currentYear, double averageSalary, double growthFactor)
     {
-        if (!yearlyVariance.containsKey(currentYear))
-        {
-            double kick = 0.2 * random.nextDouble();
-
-            if (random.nextBoolean())
-            {
-                kick *= -1.0;
-            }
-
-            yearlyVariance.put(currentYear, salaryVariance + kick);
-        }
-
-        double actualVariance = yearlyVariance.get(currentYear);
+        return getSalary(salaryVariance + getYearlyKick(randomSeed, currentYear), minYear, currentYear, averageSalary, growthFactor);
+    }
 
+    /**
+     * Computes the yearly salary for a customer with the given variance from the average salary
+     */
+    public static double getSalary(double actualVariance, int minYear, int currentYear, double averageSalary, double growthFactor)
+    {
         int yearsOfGrowth = currentYear - minYear;
 
         double salaryFirstYear = averageSalary + averageSalary * actualVariance;
@@ -173,12 +184,38 @@ public class Customer extends SpecificRecordBase implements SpecificRecord
         return salary;
     }
 
+    /**
+     * Fetches the random yearly change to a customer's salary variance. The kick is derived from
+     * the customer's seed and the year so it does not depend on generation order.
+     */
+    public static double getYearlyKick(long randomSeed, int year)
+    {
+        SplittableRandom random = new SplittableRandom(Seeds.mix(randomSeed, year));
+
+        double kick = 0.2 * random.nextDouble();
+
+        if (random.nextBoolean())
+        {
+            kick *= -1.0;
+        }
+
+        return kick;
+    }
+
     public long getCustomerId()
     {
         return customerId;
     }
 
     public String getFirstName()
+    {
+        return firstName != null ? firstName.getText() : null;
+    }
+
+    /**
+     * @return the first name with its encoded forms
+     */
+    public Name getFirstNameValue()
     {
         return firstName;
     }
@@ -194,16 +231,40 @@ public class Customer extends SpecificRecordBase implements SpecificRecord
     }
 
     public void setFirstName(String firstName)
+    {
+        this.firstName = firstName != null ? new Name(firstName) : null;
+    }
+
+    /**
+     * Sets a first name shared from a dictionary
+     */
+    public void setFirstName(Name firstName)
     {
         this.firstName = firstName;
     }
 
     public String getLastName()
+    {
+        return lastName != null ? lastName.getText() : null;
+    }
+
+    /**
+     * @return the last name with its encoded forms
+     */
+    public Name getLastNameValue()
     {
         return lastName;
     }
 
     public void setLastName(String lastName)
+    {
+        this.lastName = lastName != null ? new Name(lastName) : null;
+    }
+
+    /**
+     * Sets a last name shared from a dictionary
+     */
+    public void setLastName(Name lastName)
     {
         this.lastName = lastName;
     }
@@ -216,6 +277,23 @@ public class Customer extends SpecificRecordBase implements SpecificRecord
     public void setJoinDate(Date joinDate)
     {
         this.joinDate = joinDate;
+        this.joinEpochDay = joinDate != null ? LogicalValues.toEpochDay(joinDate) : 0;
+    }
+
+    public int getJoinEpochDay()
+    {
+        return joinEpochDay;
+    }
+
+    public void setJoinEpochDay(int joinEpochDay)
+    {
+        this.joinEpochDay = joinEpochDay;
+        this.joinDate = LogicalValues.toDate(joinEpochDay);
+    }
+
+    public double getSalaryVariance()
+    {
+        return salaryVariance;
     }
 
     public void setSalaryVariance(double salaryVariance)
@@ -223,6 +301,29 @@ public class Customer extends SpecificRecordBase implements SpecificRecord
         this.salaryVariance = salaryVariance;
     }
 
+    public long getRandomSeed()
+    {
+        return randomSeed;
+    }
+
+    public void setRandomSeed(long randomSeed)
+    {
+        this.randomSeed = randomSeed;
+    }
+
+    /**
+     * @return the contributions the customer makes per pay day, not part of the schema
+     */
+    public int getActivity()
+    {
+        return activity;
+    }
+
+    public void setActivity(int activity)
+    {
+        this.activity = activity;
+    }
+
     public boolean getMale()
     {
         return male;
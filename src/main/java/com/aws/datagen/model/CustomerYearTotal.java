@@ -0,0 +1,113 @@
+package com.aws.datagen.model;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+
+/**
+ * The contributions made by one customer in one year
+ */
+public class CustomerYearTotal extends ContributionTotal
+{
+    private long customerId = 0L;
+    private int year = 0;
+    private boolean male = true;
+
+    public static final Schema SCHEMA = makeSchema();
+
+    private static Schema makeSchema()
+    {
+        return endSchema(SchemaBuilder
+                .record("CustomerYearTotal").namespace("com.aws.parquet")
+                .fields()
+                .name("CustomerId").type().longType().noDefault()
+                .name("Year").type().intType().noDefault()
+                .name("Gender").type().stringType().noDefault());
+    }
+
+    @Override
+    public Object get(int field)
+    {
+        switch (field)
+        {
+            case 0:
+            {
+                return customerId;
+            }
+            case 1:
+            {
+                return year;
+            }
+            case 2:
+            {
+                return male ? "M" : "F";
+            }
+            default:
+            {
+                return getTotal(field - 3);
+            }
+        }
+    }
+
+    @Override
+    public void put(int field, Object value)
+    {
+        switch (field)
+        {
+            case 0:
+            {
+                customerId = (Long) value;
+                return;
+            }
+            case 1:
+            {
+                year = (Integer) value;
+                return;
+            }
+            case 2:
+            {
+                male = "M".equals(value.toString());
+                return;
+            }
+            default:
+            {
+                putTotal(field - 3, value);
+            }
+        }
+    }
+
+    @Override
+    public Schema getSchema()
+    {
+        return SCHEMA;
+    }
+
+    public long getCustomerId()
+    {
+        return customerId;
+    }
+
+    public void setCustomerId(long customerId)
+    {
+        this.customerId = customerId;
+    }
+
+    public int getYear()
+    {
+        return year;
+    }
+
+    public void setYear(int year)
+    {
+        this.year = year;
+    }
+
+    public boolean isMale()
+    {
+        return male;
+    }
+
+    public void setMale(boolean male)
+    {
+        this.male = male;
+    }
+}
@@ -0,0 +1,191 @@
+package com.aws.datagen.model;
+
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericFixed;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * Schema helpers and conversions for the typed date and decimal columns.
+ *
+ * Dates are stored as an Avro date (int epoch days) and money as decimal(12,2) in a six byte
+ * fixed, or decimal(18,2) in an eight byte fixed for totals that can outgrow an amount. The read
+ * helpers also accept the string dates and double amounts of the version 1 schemas so older files
+ * can still be read.
+ */
+public final class LogicalValues
+{
+    public static final int AMOUNT_PRECISION = 12;
+    public static final int AMOUNT_SCALE = 2;
+
+    /**
+     * The number of bytes needed to hold a two's complement decimal of AMOUNT_PRECISION digits
+     */
+    public static final int AMOUNT_BYTES = 6;
+
+    public static final int TOTAL_PRECISION = 18;
+    public static final int TOTAL_BYTES = 8;
+
+    private LogicalValues()
+    {
+    }
+
+    public static Schema dateSchema()
+    {
+        return LogicalTypes.date().addToSchema(Schema.create(Schema.Type.INT));
+    }
+
+    public static Schema amountSchema()
+    {
+        return LogicalTypes.decimal(AMOUNT_PRECISION, AMOUNT_SCALE)
+                .addToSchema(Schema.createFixed("Amount", null, "com.aws.parquet", AMOUNT_BYTES));
+    }
+
+    public static Schema totalSchema()
+    {
+        return LogicalTypes.decimal(TOTAL_PRECISION, AMOUNT_SCALE)
+                .addToSchema(Schema.createFixed("Total", null, "com.aws.parquet", TOTAL_BYTES));
+    }
+
+    public static int toEpochDay(Date date)
+    {
+        return (int) date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+    }
+
+    public static Date toDate(int epochDay)
+    {
+        return Date.from(LocalDate.ofEpochDay(epochDay).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * Reads a date column written as either an epoch day or a yyyy-MM-dd string
+     */
+    public static int readEpochDay(Object value)
+    {
+        if (value instanceof Number)
+        {
+            return ((Number) value).intValue();
+        }
+
+        return (int) LocalDate.parse(value.toString()).toEpochDay();
+    }
+
+    /**
+     * Reads a money column written as either a decimal or a double
+     * @return the amount in cents
+     */
+    public static long readCents(Object value)
+    {
+        if (value instanceof GenericFixed)
+        {
+            return decodeUnscaled(((GenericFixed) value).bytes());
+        }
+        else if (value instanceof ByteBuffer)
+        {
+            ByteBuffer buffer = (ByteBuffer) value;
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.duplicate().get(bytes);
+            return decodeUnscaled(bytes);
+        }
+        else if (value instanceof BigDecimal)
+        {
+            return ((BigDecimal) value).setScale(AMOUNT_SCALE).unscaledValue().longValueExact();
+        }
+
+        return Math.round(((Number) value).doubleValue() * 100.0);
+    }
+
+    private static long decodeUnscaled(byte[] bytes)
+    {
+        long value = bytes[0];
+
+        for (int i = 1; i < bytes.length; i++)
+        {
+            value = (value << 8) | (bytes[i] & 0xffL);
+        }
+
+        return value;
+    }
+
+    /**
+     * A reusable decimal(12,2) fixed value, so writing an amount does not allocate
+     */
+    public static class Amount implements GenericFixed
+    {
+        private static final Schema SCHEMA = amountSchema();
+        private static final Schema TOTAL_SCHEMA = totalSchema();
+
+        private final Schema schema;
+        private final byte[] bytes;
+        private final int precision;
+
+        /**
+         * The largest number of cents the precision holds
+         */
+        private final long maxCents;
+
+        public Amount()
+        {
+            this(SCHEMA, AMOUNT_BYTES, AMOUNT_PRECISION);
+        }
+
+        private Amount(Schema schema, int size, int precision)
+        {
+            this.schema = schema;
+            this.bytes = new byte[size];
+            this.precision = precision;
+
+            long limit = 1L;
+
+            for (int i = 0; i < precision; i++)
+            {
+                limit *= 10L;
+            }
+
+            this.maxCents = limit - 1L;
+        }
+
+        /**
+         * @return a reusable decimal(18,2) fixed value for totals
+         */
+        public static Amount total()
+        {
+            return new Amount(TOTAL_SCHEMA, TOTAL_BYTES, TOTAL_PRECISION);
+        }
+
+        /**
+         * @param cents the amount in cents
+         * @throws IllegalArgumentException if the amount has more digits than the decimal's precision
+         */
+        public void setCents(long cents)
+        {
+            if (cents > maxCents || cents < -maxCents)
+            {
+                throw new IllegalArgumentException("Amount must fit decimal(" + precision + "," + AMOUNT_SCALE + "): " + cents + " cents");
+            }
+
+            for (int i = bytes.length - 1; i >= 0; i--)
+            {
+                bytes[i] = (byte) cents;
+                cents >>= 8;
+            }
+        }
+
+        @Override
+        public byte[] bytes()
+        {
+            return bytes;
+        }
+
+        @Override
+        public Schema getSchema()
+        {
+            return schema;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.aws.datagen.model;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+
+/**
+ * The contributions made by the customers of one gender in one month
+ */
+public class MonthlyTotal extends ContributionTotal
+{
+    private int year = 0;
+    private int month = 0;
+    private boolean male = true;
+
+    public static final Schema SCHEMA = makeSchema();
+
+    private static Schema makeSchema()
+    {
+        return endSchema(SchemaBuilder
+                .record("MonthlyTotal").namespace("com.aws.parquet")
+                .fields()
+                .name("Year").type().intType().noDefault()
+                .name("Month").type().intType().noDefault()
+                .name("Gender").type().stringType().noDefault());
+    }
+
+    @Override
+    public Object get(int field)
+    {
+        switch (field)
+        {
+            case 0:
+            {
+                return year;
+            }
+            case 1:
+            {
+                return month;
+            }
+            case 2:
+            {
+                return male ? "M" : "F";
+            }
+            default:
+            {
+                return getTotal(field - 3);
+            }
+        }
+    }
+
+    @Override
+    public void put(int field, Object value)
+    {
+        switch (field)
+        {
+            case 0:
+            {
+                year = (Integer) value;
+                return;
+            }
+            case 1:
+            {
+                month = (Integer) value;
+                return;
+            }
+            case 2:
+            {
+                male = "M".equals(value.toString());
+                return;
+            }
+            default:
+            {
+                putTotal(field - 3, value);
+            }
+        }
+    }
+
+    @Override
+    public Schema getSchema()
+    {
+        return SCHEMA;
+    }
+
+    public int getYear()
+    {
+        return year;
+    }
+
+    public void setYear(int year)
+    {
+        this.year = year;
+    }
+
+    public int getMonth()
+    {
+        return month;
+    }
+
+    public void setMonth(int month)
+    {
+        this.month = month;
+    }
+
+    public boolean isMale()
+    {
+        return male;
+    }
+
+    public void setMale(boolean male)
+    {
+        this.male = male;
+    }
+}
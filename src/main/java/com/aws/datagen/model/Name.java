@@ -0,0 +1,52 @@
+package com.aws.datagen.model;
+
+import org.apache.avro.util.Utf8;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A name with its Avro and CSV forms encoded once.
+ *
+ * Names drawn from a dictionary are shared by every customer that has them, so writers reuse the
+ * encoded bytes instead of encoding the same few thousand strings again for every row.
+ */
+public final class Name
+{
+    private final String text;
+    private final Utf8 utf8;
+    private final byte[] quotedCsv;
+
+    public Name(String text)
+    {
+        this.text = text;
+        this.utf8 = new Utf8(text);
+        this.quotedCsv = ('"' + text.replace("\"", "\"\"") + '"').getBytes(StandardCharsets.UTF_8);
+    }
+
+    public String getText()
+    {
+        return text;
+    }
+
+    /**
+     * @return the UTF-8 form handed to Avro writers, which must not modify it
+     */
+    public Utf8 getUtf8()
+    {
+        return utf8;
+    }
+
+    /**
+     * @return the name quoted as CSVFormat.EXCEL with QuoteMode.NON_NUMERIC would write it
+     */
+    public byte[] getQuotedCsv()
+    {
+        return quotedCsv;
+    }
+
+    @Override
+    public String toString()
+    {
+        return text;
+    }
+}
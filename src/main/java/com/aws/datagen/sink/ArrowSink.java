@@ -0,0 +1,112 @@
+package com.aws.datagen.sink;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.ipc.ArrowWriter;
+import org.apache.avro.Schema;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Writes each batch handed to it as one Arrow IPC record batch, in the file or the streaming format.
+ *
+ * Subclasses copy a batch's columns straight into the Arrow vectors. The vectors' buffers are kept from
+ * one batch to the next and only grow, so a file allocates its memory once.
+ */
+public abstract class ArrowSink<B> implements Sink<B>
+{
+    private final BufferAllocator allocator;
+    private final VectorSchemaRoot root;
+    private final FileOutputStream output;
+    private final ArrowWriter writer;
+
+    /**
+     * @param file the file to write
+     * @param schema the Avro schema of the table
+     * @param streaming true for the streaming format, false for the file format with its footer
+     */
+    protected ArrowSink(File file, Schema schema, boolean streaming) throws IOException
+    {
+        allocator = new RootAllocator();
+        root = VectorSchemaRoot.create(ColumnarSchemas.toArrow(schema), allocator);
+
+        for (FieldVector vector: root.getFieldVectors())
+        {
+            vector.allocateNew();
+        }
+
+        output = new FileOutputStream(file);
+        writer = streaming ? new ArrowStreamWriter(root, null, output.getChannel()) : new ArrowFileWriter(root, null, output.getChannel());
+        writer.start();
+    }
+
+    /**
+     * Allocates a small buffer, which fails on Java 9 and later unless java.nio has been opened to Arrow
+     */
+    static void checkAvailable()
+    {
+        try (BufferAllocator allocator = new RootAllocator())
+        {
+            allocator.buffer(8).close();
+        }
+        catch (ExceptionInInitializerError | NoClassDefFoundError e)
+        {
+            throw new IllegalArgumentException("Arrow output needs Java to be started with --add-opens=java.base/java.nio=ALL-UNNAMED", e);
+        }
+    }
+
+    /**
+     * @return the vector of a column
+     */
+    protected FieldVector getVector(String column)
+    {
+        return root.getVector(column);
+    }
+
+    /**
+     * Copies a batch into the vectors, which have been emptied
+     * @return the number of rows copied
+     */
+    protected abstract int fill(B batch);
+
+    @Override
+    public void write(B batch) throws IOException
+    {
+        for (FieldVector vector: root.getFieldVectors())
+        {
+            vector.reset();
+        }
+
+        int rows = fill(batch);
+
+        if (rows == 0)
+        {
+            return;
+        }
+
+        root.setRowCount(rows);
+        writer.writeBatch();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            writer.end();
+            writer.close();
+        }
+        finally
+        {
+            root.close();
+            allocator.close();
+            output.close();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.aws.datagen.sink;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Arrow IPC written to output_arrow in the file format, or to output_arrow_stream in the streaming format.
+ *
+ * Arrow reaches its buffers through internal JDK classes, so Java 9 and later must be started with
+ * --add-opens=java.base/java.nio=ALL-UNNAMED.
+ */
+public class ArrowSinkProvider implements SinkProvider
+{
+    private final boolean streaming;
+
+    /**
+     * @param streaming true for the streaming format, false for the file format
+     */
+    public ArrowSinkProvider(boolean streaming)
+    {
+        this.streaming = streaming;
+    }
+
+    @Override
+    public String getName()
+    {
+        return streaming ? "arrow_stream" : "arrow";
+    }
+
+    @Override
+    public void checkAvailable()
+    {
+        ArrowSink.checkAvailable();
+    }
+
+    /**
+     * Fixed width columns are a little larger than the CSV text of contributions, customer names a little smaller
+     */
+    @Override
+    public double getSizeRatio(SinkContext context, String table)
+    {
+        return SinkContext.CONTRIBUTIONS.equals(table) ? 1.1 : 0.95;
+    }
+
+    @Override
+    public Sink<ContributionBatch> createContributionSink(SinkContext context, String partitionPath, String baseName) throws IOException
+    {
+        File file = contributionFile(context, partitionPath, baseName);
+        file.getParentFile().mkdirs();
+
+        return new MeteredSink<>(new ContributionArrowSink(file, streaming), context.getMetrics(), getName(), file);
+    }
+
+    @Override
+    public Sink<CustomerBatch> createCustomerSink(SinkContext context) throws IOException
+    {
+        File file = customerFile(context);
+        file.getParentFile().mkdirs();
+
+        return new MeteredSink<>(new CustomerArrowSink(file, streaming), context.getMetrics(), getName(), file);
+    }
+
+    @Override
+    public List<File> getContributionFiles(SinkContext context, String partitionPath, String baseName)
+    {
+        return Collections.singletonList(contributionFile(context, partitionPath, baseName));
+    }
+
+    @Override
+    public List<File> getCustomerFiles(SinkContext context)
+    {
+        return Collections.singletonList(customerFile(context));
+    }
+
+    private String getDirectory()
+    {
+        return "output_" + getName();
+    }
+
+    private String getExtension()
+    {
+        return streaming ? ".arrows" : ".arrow";
+    }
+
+    private File contributionFile(SinkContext context, String partitionPath, String baseName)
+    {
+        return context.resolve(String.format("%s/contributions/%s/%s%s", getDirectory(), partitionPath, baseName, getExtension()));
+    }
+
+    private File customerFile(SinkContext context)
+    {
+        return context.resolve(getDirectory() + "/customers/" + context.getCustomerFileName() + getExtension());
+    }
+}
@@ -0,0 +1,248 @@
+package com.aws.datagen.sink;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs a sink on a shared pool of writer threads so encoding, compression and I/O overlap with generation.
+ *
+ * Batches are handed over through a bounded queue, so a generator that outpaces the sink blocks
+ * until the writer catches up. The queue is drained by one pool task at a time, which gives up its
+ * thread once the queue is empty or it has written a queue's worth of batches, so any number of
+ * sinks can share a few threads. A failure on the writer is rethrown to the generator on its next
+ * write or on close.
+ *
+ * Closing hands the close to the writer behind the last batch and waits for it, so the delegate is
+ * never closed while a batch is still being written. Recyclable batches are retained while queued and
+ * released once written or discarded.
+ */
+public class AsyncSink<B> implements Sink<B>
+{
+    private static final Object END = new Object();
+
+    private final Sink<B> delegate;
+    private final BlockingQueue<Object> queue;
+    private final Executor executor;
+    private final String name;
+
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private final CountDownLatch closed = new CountDownLatch(1);
+
+    private volatile Throwable failure = null;
+
+    /**
+     * @param delegate the sink to write on the pool
+     * @param queueDepth the number of batches that may wait for the writer
+     * @param executor the writer pool
+     * @param name the name failures are reported under
+     */
+    public AsyncSink(Sink<B> delegate, int queueDepth, Executor executor, String name)
+    {
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<>(queueDepth);
+        this.executor = executor;
+        this.name = name;
+    }
+
+    @Override
+    public void write(B batch) throws IOException
+    {
+        checkFailure();
+        retain(batch);
+
+        boolean queued = false;
+
+        try
+        {
+            while (!queue.offer(batch, 100L, TimeUnit.MILLISECONDS))
+            {
+                checkFailure();
+            }
+
+            queued = true;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing to sink: " + name);
+        }
+        finally
+        {
+            if (!queued)
+            {
+                release(batch);
+            }
+        }
+
+        schedule();
+    }
+
+    /**
+     * Queues the close behind every batch and waits for the writer to close the delegate, even if
+     * interrupted, since the writer may still be using it
+     */
+    @Override
+    public void close() throws IOException
+    {
+        boolean interrupted = false;
+
+        try
+        {
+            while (true)
+            {
+                try
+                {
+                    queue.put(END);
+                    break;
+                }
+                catch (InterruptedException e)
+                {
+                    interrupted = true;
+                }
+            }
+
+            schedule();
+
+            while (true)
+            {
+                try
+                {
+                    closed.await();
+                    break;
+                }
+                catch (InterruptedException e)
+                {
+                    interrupted = true;
+                }
+            }
+        }
+        finally
+        {
+            if (interrupted)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        checkFailure();
+    }
+
+    /**
+     * Starts a drain on the pool unless one is already running
+     */
+    private void schedule()
+    {
+        if (scheduled.compareAndSet(false, true))
+        {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Writes queued batches until the queue is empty or a queue's worth has been written, discarding
+     * batches queued after a failure, then reschedules itself if more arrived
+     */
+    @SuppressWarnings("unchecked")
+    private void drain()
+    {
+        try
+        {
+            int limit = queue.remainingCapacity() + queue.size();
+
+            for (int i = 0; i < limit; i++)
+            {
+                Object item = queue.poll();
+
+                if (item == null)
+                {
+                    break;
+                }
+
+                if (item == END)
+                {
+                    closeDelegate();
+                }
+                else
+                {
+                    try
+                    {
+                        if (failure == null)
+                        {
+                            delegate.write((B) item);
+                        }
+                    }
+                    catch (Throwable t)
+                    {
+                        failure = t;
+                    }
+                    finally
+                    {
+                        release(item);
+                    }
+                }
+            }
+        }
+        finally
+        {
+            scheduled.set(false);
+
+            if (!queue.isEmpty())
+            {
+                schedule();
+            }
+        }
+    }
+
+    private void closeDelegate()
+    {
+        try
+        {
+            delegate.close();
+        }
+        catch (Throwable t)
+        {
+            if (failure == null)
+            {
+                failure = t;
+            }
+            else
+            {
+                failure.addSuppressed(t);
+            }
+        }
+        finally
+        {
+            closed.countDown();
+        }
+    }
+
+    private static void retain(Object batch)
+    {
+        if (batch instanceof Recyclable)
+        {
+            ((Recyclable) batch).retain();
+        }
+    }
+
+    private static void release(Object batch)
+    {
+        if (batch instanceof Recyclable)
+        {
+            ((Recyclable) batch).release();
+        }
+    }
+
+    private void checkFailure() throws IOException
+    {
+        if (failure != null)
+        {
+            throw new IOException("Sink failed: " + name, failure);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.aws.datagen.sink;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes a file through a FileChannel from a large direct buffer, so encoded bytes are copied once
+ * from the heap and reach the file in a few large writes.
+ *
+ * A BufferedOutputStream over a FileOutputStream copies every byte twice, once into its heap buffer and
+ * again into a temporary native buffer for each write. Direct buffers are pooled and reused by later
+ * files, since a run opens thousands of files and direct memory is only released by the garbage collector.
+ * At most MAX_POOLED_BUFFERS are kept, so a burst of open files does not pin its buffers for the rest of the run.
+ */
+public class ChannelOutputStream extends OutputStream
+{
+    static final int BUFFER_SIZE = 1024 * 1024;
+
+    static final int MAX_POOLED_BUFFERS = 16;
+
+    private static final BlockingQueue<ByteBuffer> BUFFERS = new ArrayBlockingQueue<>(MAX_POOLED_BUFFERS);
+
+    private final FileChannel channel;
+    private ByteBuffer buffer;
+
+    /**
+     * Creates or truncates a file for writing
+     * @param file the file
+     */
+    public ChannelOutputStream(File file) throws IOException
+    {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        ByteBuffer pooled = BUFFERS.poll();
+        buffer = pooled != null ? pooled : ByteBuffer.allocateDirect(BUFFER_SIZE);
+        buffer.clear();
+    }
+
+    @Override
+    public void write(int b) throws IOException
+    {
+        if (!buffer.hasRemaining())
+        {
+            drain();
+        }
+
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException
+    {
+        while (length > 0)
+        {
+            int count = Math.min(length, buffer.remaining());
+            buffer.put(bytes, offset, count);
+
+            offset += count;
+            length -= count;
+
+            if (!buffer.hasRemaining())
+            {
+                drain();
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+        drain();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (buffer == null)
+        {
+            return;
+        }
+
+        try
+        {
+            drain();
+        }
+        finally
+        {
+            channel.close();
+            BUFFERS.offer(buffer);
+            buffer = null;
+        }
+    }
+
+    /**
+     * @return the number of buffers waiting to be reused
+     */
+    static int getPooledBufferCount()
+    {
+        return BUFFERS.size();
+    }
+
+    /**
+     * Writes everything buffered to the file
+     */
+    private void drain() throws IOException
+    {
+        buffer.flip();
+
+        while (buffer.hasRemaining())
+        {
+            channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+}
@@ -0,0 +1,113 @@
+package com.aws.datagen.sink;
+
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.avro.LogicalType;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.orc.TypeDescription;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Derives the Arrow and ORC schemas of a table from its Avro schema, so every columnar format has the
+ * same column names, order and types as the Parquet files.
+ *
+ * Longs map to 64 bit integers, strings to UTF-8, the date logical type to a day count since the epoch
+ * and decimals to decimals of the same precision and scale. Every column is written non null.
+ */
+public final class ColumnarSchemas
+{
+    private ColumnarSchemas()
+    {
+    }
+
+    /**
+     * @param schema an Avro record schema
+     * @return the Arrow schema
+     */
+    public static org.apache.arrow.vector.types.pojo.Schema toArrow(Schema schema)
+    {
+        List<Field> fields = new ArrayList<>();
+
+        for (Schema.Field field: schema.getFields())
+        {
+            fields.add(new Field(field.name(), FieldType.notNullable(toArrowType(field)), null));
+        }
+
+        return new org.apache.arrow.vector.types.pojo.Schema(fields);
+    }
+
+    /**
+     * @param schema an Avro record schema
+     * @return the ORC struct type
+     */
+    public static TypeDescription toOrc(Schema schema)
+    {
+        TypeDescription struct = TypeDescription.createStruct();
+
+        for (Schema.Field field: schema.getFields())
+        {
+            struct.addField(field.name(), toOrcType(field));
+        }
+
+        return struct;
+    }
+
+    private static ArrowType toArrowType(Schema.Field field)
+    {
+        Schema schema = field.schema();
+        LogicalType logicalType = schema.getLogicalType();
+
+        if (logicalType instanceof LogicalTypes.Decimal)
+        {
+            LogicalTypes.Decimal decimal = (LogicalTypes.Decimal) logicalType;
+            return new ArrowType.Decimal(decimal.getPrecision(), decimal.getScale(), 128);
+        }
+
+        if (logicalType instanceof LogicalTypes.Date)
+        {
+            return new ArrowType.Date(DateUnit.DAY);
+        }
+
+        switch (schema.getType())
+        {
+            case LONG:
+                return new ArrowType.Int(64, true);
+            case STRING:
+                return ArrowType.Utf8.INSTANCE;
+            default:
+                throw new IllegalArgumentException("No Arrow type for column " + field.name() + " of type " + schema);
+        }
+    }
+
+    private static TypeDescription toOrcType(Schema.Field field)
+    {
+        Schema schema = field.schema();
+        LogicalType logicalType = schema.getLogicalType();
+
+        if (logicalType instanceof LogicalTypes.Decimal)
+        {
+            LogicalTypes.Decimal decimal = (LogicalTypes.Decimal) logicalType;
+            return TypeDescription.createDecimal().withPrecision(decimal.getPrecision()).withScale(decimal.getScale());
+        }
+
+        if (logicalType instanceof LogicalTypes.Date)
+        {
+            return TypeDescription.createDate();
+        }
+
+        switch (schema.getType())
+        {
+            case LONG:
+                return TypeDescription.createLong();
+            case STRING:
+                return TypeDescription.createString();
+            default:
+                throw new IllegalArgumentException("No ORC type for column " + field.name() + " of type " + schema);
+        }
+    }
+}
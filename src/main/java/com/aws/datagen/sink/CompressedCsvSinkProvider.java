@@ -0,0 +1,94 @@
+package com.aws.datagen.sink;
+
+import com.aws.datagen.metrics.MeteredOutputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Gzip compressed CSV written to output_compressed, compressed in parallel blocks by default
+ */
+public class CompressedCsvSinkProvider implements SinkProvider
+{
+    /**
+     * Blocks compressing at once per file, many files are written at once so this bounds memory
+     * without leaving the shared compression threads idle
+     */
+    private static final int MAX_BLOCKS_IN_FLIGHT = 4;
+
+    @Override
+    public String getName()
+    {
+        return "compressed_csv";
+    }
+
+    /**
+     * Measured at the default gzip level 6, levels 1 and 9 come within a tenth of it
+     */
+    @Override
+    public double getSizeRatio(SinkContext context, String table)
+    {
+        return SinkContext.CONTRIBUTIONS.equals(table) ? 0.29 : 0.34;
+    }
+
+    @Override
+    public Sink<ContributionBatch> createContributionSink(SinkContext context, String partitionPath, String baseName) throws IOException
+    {
+        File file = contributionFile(context, partitionPath, baseName);
+        file.getParentFile().mkdirs();
+
+        return new CsvSink<>(open(context, file), ContributionBatch.CSV_HEADER, context.getMetrics());
+    }
+
+    @Override
+    public Sink<CustomerBatch> createCustomerSink(SinkContext context) throws IOException
+    {
+        File file = customerFile(context);
+        file.getParentFile().mkdirs();
+
+        return new CsvSink<>(open(context, file), CustomerBatch.CSV_HEADER, context.getMetrics());
+    }
+
+    @Override
+    public List<File> getContributionFiles(SinkContext context, String partitionPath, String baseName)
+    {
+        return Collections.singletonList(contributionFile(context, partitionPath, baseName));
+    }
+
+    @Override
+    public List<File> getCustomerFiles(SinkContext context)
+    {
+        return Collections.singletonList(customerFile(context));
+    }
+
+    private File contributionFile(SinkContext context, String partitionPath, String baseName)
+    {
+        return context.resolve(String.format("output_compressed/contributions/%s/%s.csv.gz", partitionPath, baseName));
+    }
+
+    private File customerFile(SinkContext context)
+    {
+        return context.resolve("output_compressed/customers/" + context.getCustomerFileName() + ".csv.gz");
+    }
+
+    /**
+     * Opens a gzip stream, compressing blocks in parallel unless a single compression thread is configured
+     */
+    private OutputStream open(SinkContext context, File file) throws IOException
+    {
+        OutputStream output = new MeteredOutputStream(new ChannelOutputStream(file), context.getMetrics(), getName());
+
+        if (context.getCompressionThreads() == 1)
+        {
+            return new BufferedOutputStream(new ParallelGzipOutputStream.LevelGZIPOutputStream(output, context.getGzipLevel(),
+                    context.getMetrics()), CsvSinkProvider.BUFFER_SIZE);
+        }
+
+        return new ParallelGzipOutputStream(output, context.getCompressionExecutor(), context.getGzipLevel(),
+                context.getGzipBlockSize(), Math.min(context.getCompressionThreads(), MAX_BLOCKS_IN_FLIGHT), context.getMetrics());
+    }
+}
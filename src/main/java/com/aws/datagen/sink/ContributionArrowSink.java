@@ -0,0 +1,44 @@
+package com.aws.datagen.sink;
+
+import com.aws.datagen.model.Contribution;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.DecimalVector;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Writes contribution batches to Arrow IPC, copying the batch's columns into the vectors
+ */
+public class ContributionArrowSink extends ArrowSink<ContributionBatch>
+{
+    private final BigIntVector contributionIds;
+    private final BigIntVector customerIds;
+    private final DecimalVector amounts;
+    private final DateDayVector dates;
+
+    public ContributionArrowSink(File file, boolean streaming) throws IOException
+    {
+        super(file, Contribution.SCHEMA, streaming);
+
+        contributionIds = (BigIntVector) getVector("ContributionId");
+        customerIds = (BigIntVector) getVector("CustomerId");
+        amounts = (DecimalVector) getVector("Amount");
+        dates = (DateDayVector) getVector("ContributionDate");
+    }
+
+    @Override
+    protected int fill(ContributionBatch batch)
+    {
+        for (int i = 0; i < batch.size(); i++)
+        {
+            contributionIds.setSafe(i, batch.getContributionId(i));
+            customerIds.setSafe(i, batch.getCustomerId(i));
+            amounts.setSafe(i, batch.getAmountCents(i));
+            dates.setSafe(i, batch.getEpochDay(i));
+        }
+
+        return batch.size();
+    }
+}
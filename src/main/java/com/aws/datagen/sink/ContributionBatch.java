@@ -0,0 +1,144 @@
+package com.aws.datagen.sink;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A columnar batch of contributions handed from the generator to the sinks
+ */
+public class ContributionBatch implements CsvEncodable, Recyclable
+{
+    public static final byte[] CSV_HEADER = ContributionCsvEncoder.HEADER_BYTES;
+
+    private final long[] contributionIds;
+    private final long[] customerIds;
+    private final int[] epochDays;
+    private final long[] amountCents;
+
+    private int size = 0;
+
+    /**
+     * The pool the batch returns to once released, null for a batch that is left to the garbage collector
+     */
+    private final ContributionBatchPool pool;
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    public ContributionBatch(int capacity)
+    {
+        this(capacity, null);
+    }
+
+    ContributionBatch(int capacity, ContributionBatchPool pool)
+    {
+        contributionIds = new long[capacity];
+        customerIds = new long[capacity];
+        epochDays = new int[capacity];
+        amountCents = new long[capacity];
+        this.pool = pool;
+    }
+
+    /**
+     * Appends a contribution
+     * @param contributionId the contribution id
+     * @param customerId the customer id
+     * @param epochDay the contribution date as an epoch day
+     * @param cents the amount in cents
+     */
+    public void add(long contributionId, long customerId, int epochDay, long cents)
+    {
+        contributionIds[size] = contributionId;
+        customerIds[size] = customerId;
+        epochDays[size] = epochDay;
+        amountCents[size] = cents;
+        size++;
+    }
+
+    /**
+     * Copies a range of rows into a new batch
+     * @param from the first row
+     * @param to the row after the last
+     * @return the rows
+     */
+    public ContributionBatch slice(int from, int to)
+    {
+        ContributionBatch slice = new ContributionBatch(to - from);
+
+        System.arraycopy(contributionIds, from, slice.contributionIds, 0, to - from);
+        System.arraycopy(customerIds, from, slice.customerIds, 0, to - from);
+        System.arraycopy(epochDays, from, slice.epochDays, 0, to - from);
+        System.arraycopy(amountCents, from, slice.amountCents, 0, to - from);
+        slice.size = to - from;
+
+        return slice;
+    }
+
+    @Override
+    public void retain()
+    {
+        references.incrementAndGet();
+    }
+
+    /**
+     * Drops a reference, emptying the batch and returning it to its pool when none are left
+     */
+    @Override
+    public void release()
+    {
+        if (references.decrementAndGet() == 0 && pool != null)
+        {
+            clear();
+            references.set(1);
+            pool.recycle(this);
+        }
+    }
+
+    /**
+     * Empties the batch so its holder can refill it, once no sink still holds it
+     */
+    public void clear()
+    {
+        size = 0;
+    }
+
+    public boolean isFull()
+    {
+        return size == contributionIds.length;
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    public long getContributionId(int index)
+    {
+        return contributionIds[index];
+    }
+
+    public long getCustomerId(int index)
+    {
+        return customerIds[index];
+    }
+
+    public int getEpochDay(int index)
+    {
+        return epochDays[index];
+    }
+
+    public long getAmountCents(int index)
+    {
+        return amountCents[index];
+    }
+
+    @Override
+    public int getMaxCsvRowLength(int row)
+    {
+        return ContributionCsvEncoder.MAX_ROW_LENGTH;
+    }
+
+    @Override
+    public int encodeCsvRow(int row, byte[] target, int offset)
+    {
+        return ContributionCsvEncoder.encode(contributionIds[row], customerIds[row], epochDays[row], amountCents[row], target, offset);
+    }
+}
@@ -0,0 +1,47 @@
+package com.aws.datagen.sink;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Reuses contribution batches across partitions and generator threads, so a run allocates only as
+ * many batches as are in flight at once rather than one per batch written.
+ *
+ * The pool only ever holds batches that were in flight together, so it is bounded by the writer
+ * queues rather than a cap of its own.
+ */
+public class ContributionBatchPool
+{
+    private final int batchSize;
+    private final Queue<ContributionBatch> batches = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param batchSize the capacity of each batch
+     */
+    public ContributionBatchPool(int batchSize)
+    {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Takes an empty batch holding one reference, creating one if none are free
+     */
+    public ContributionBatch acquire()
+    {
+        ContributionBatch batch = batches.poll();
+        return batch != null ? batch : new ContributionBatch(batchSize, this);
+    }
+
+    /**
+     * @return the number of batches waiting to be reused
+     */
+    public int getFreeBatches()
+    {
+        return batches.size();
+    }
+
+    void recycle(ContributionBatch batch)
+    {
+        batches.offer(batch);
+    }
+}
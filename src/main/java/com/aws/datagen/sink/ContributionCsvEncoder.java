@@ -0,0 +1,285 @@
+package com.aws.datagen.sink;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Encodes contribution rows exactly as CSVFormat.EXCEL with QuoteMode.NON_NUMERIC would, without
+ * boxing the values or allocating per row.
+ *
+ * Ids are written as plain integers, the date is quoted and the amount is written as
+ * Double.toString would write a value rounded to whole cents. Every column is ASCII so rows are
+ * encoded straight to bytes, ready to be written to any number of outputs.
+ *
+ * Amounts of 1e7 or more, which Double.toString writes in scientific notation, are rare enough to be
+ * written by Double.toString itself. Dates from 1970 to 2099 are copied from a table quoted once per day.
+ */
+public class ContributionCsvEncoder
+{
+    public static final String HEADER = "\"ContributionId\",\"CustomerId\",\"ContributionDate\",\"Amount\"\r\n";
+
+    public static final byte[] HEADER_BYTES = HEADER.getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Amounts from this many cents on are written in scientific notation
+     */
+    private static final long SCIENTIFIC_CENTS = 1000000000L;
+
+    /**
+     * The longest possible row: two signed 20 digit numbers, an amount of at most 22 characters,
+     * a quoted ten character date and the separators
+     */
+    public static final int MAX_ROW_LENGTH = 80;
+
+    /**
+     * Every date from 0000 to 9999 quotes to the same length
+     */
+    private static final int QUOTED_DATE_LENGTH = 12;
+
+    /**
+     * The quoted dates from 1970-01-01 up to 2100-01-01, QUOTED_DATE_LENGTH bytes per epoch day
+     */
+    private static final byte[] QUOTED_DATES = quoteDates(LocalDate.of(2100, 1, 1));
+
+    private final byte[] buffer = new byte[128];
+
+    /**
+     * Quotes a formatted date once so it can be reused for every row on that day
+     * @param date the formatted date
+     * @return the quoted date
+     */
+    public static byte[] quote(String date)
+    {
+        return ('"' + date + '"').getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Encodes a single contribution row into the encoder's buffer
+     * @param contributionId the contribution id
+     * @param customerId the customer id
+     * @param quotedDate the quoted contribution date
+     * @param amountCents the amount in cents
+     * @return the length of the encoded row
+     */
+    public int encode(long contributionId, long customerId, byte[] quotedDate, long amountCents)
+    {
+        return encode(contributionId, customerId, quotedDate, amountCents, buffer, 0);
+    }
+
+    /**
+     * Encodes a single contribution row straight into a caller's array, which must have at least
+     * MAX_ROW_LENGTH bytes free after the offset
+     * @param contributionId the contribution id
+     * @param customerId the customer id
+     * @param quotedDate the quoted contribution date
+     * @param amountCents the amount in cents
+     * @param target the array to encode into
+     * @param offset the position to start at
+     * @return the position after the encoded row
+     */
+    public static int encode(long contributionId, long customerId, byte[] quotedDate, long amountCents, byte[] target, int offset)
+    {
+        int position = writeLong(target, contributionId, offset);
+        target[position++] = ',';
+        position = writeLong(target, customerId, position);
+        target[position++] = ',';
+        System.arraycopy(quotedDate, 0, target, position, quotedDate.length);
+        position += quotedDate.length;
+        target[position++] = ',';
+        position = writeCents(target, amountCents, position);
+        target[position++] = '\r';
+        target[position++] = '\n';
+
+        return position;
+    }
+
+    /**
+     * Encodes a single contribution row straight into a caller's array, looking the date up in the
+     * quoted date table
+     * @param contributionId the contribution id
+     * @param customerId the customer id
+     * @param epochDay the contribution date as an epoch day
+     * @param amountCents the amount in cents
+     * @param target the array to encode into, with at least MAX_ROW_LENGTH bytes free after the offset
+     * @param offset the position to start at
+     * @return the position after the encoded row
+     */
+    public static int encode(long contributionId, long customerId, int epochDay, long amountCents, byte[] target, int offset)
+    {
+        int position = writeLong(target, contributionId, offset);
+        target[position++] = ',';
+        position = writeLong(target, customerId, position);
+        target[position++] = ',';
+        position = writeQuotedDate(target, epochDay, position);
+        target[position++] = ',';
+        position = writeCents(target, amountCents, position);
+        target[position++] = '\r';
+        target[position++] = '\n';
+
+        return position;
+    }
+
+    /**
+     * Counts the bytes of a row without encoding it
+     * @return the length encode would return for the row
+     */
+    public static int getRowLength(long contributionId, long customerId, long amountCents)
+    {
+        return countDigits(contributionId) + countDigits(customerId) + countCentsBytes(amountCents) + 17;
+    }
+
+    /**
+     * Counts the bytes of an amount, as writeCents writes it
+     */
+    public static int countCentsBytes(long cents)
+    {
+        if (isScientific(cents))
+        {
+            return Double.toString(cents / 100.0).length();
+        }
+
+        long fraction = Math.abs(cents % 100L);
+        return (cents < 0L ? 1 : 0) + countDigits(Math.abs(cents / 100L)) + (fraction % 10L != 0L ? 3 : 2);
+    }
+
+    /**
+     * Counts the bytes of an integer, including a minus sign
+     */
+    public static int countDigits(long value)
+    {
+        int digits = value < 0L ? 2 : 1;
+
+        for (long remaining = value / 10L; remaining != 0L; remaining /= 10L)
+        {
+            digits++;
+        }
+
+        return digits;
+    }
+
+    /**
+     * Fetches the buffer holding the most recently encoded row
+     */
+    public byte[] getBuffer()
+    {
+        return buffer;
+    }
+
+    /**
+     * Copies a quoted date from the table, quoting dates outside it as they come
+     */
+    private static int writeQuotedDate(byte[] target, int epochDay, int position)
+    {
+        if (epochDay >= 0 && epochDay < QUOTED_DATES.length / QUOTED_DATE_LENGTH)
+        {
+            System.arraycopy(QUOTED_DATES, epochDay * QUOTED_DATE_LENGTH, target, position, QUOTED_DATE_LENGTH);
+            return position + QUOTED_DATE_LENGTH;
+        }
+
+        byte[] quotedDate = quote(LocalDate.ofEpochDay(epochDay).toString());
+        System.arraycopy(quotedDate, 0, target, position, quotedDate.length);
+        return position + quotedDate.length;
+    }
+
+    /**
+     * Quotes every date from the epoch up to an end date into one table
+     */
+    private static byte[] quoteDates(LocalDate end)
+    {
+        byte[] table = new byte[(int) end.toEpochDay() * QUOTED_DATE_LENGTH];
+
+        for (LocalDate date = LocalDate.ofEpochDay(0L); date.isBefore(end); date = date.plusDays(1L))
+        {
+            int position = (int) date.toEpochDay() * QUOTED_DATE_LENGTH;
+            table[position] = '"';
+            writeDigits(table, date.getYear(), position + 1, 4);
+            table[position + 5] = '-';
+            writeDigits(table, date.getMonthValue(), position + 6, 2);
+            table[position + 8] = '-';
+            writeDigits(table, date.getDayOfMonth(), position + 9, 2);
+            table[position + 11] = '"';
+        }
+
+        return table;
+    }
+
+    private static void writeDigits(byte[] buffer, int value, int position, int digits)
+    {
+        for (int i = position + digits - 1; i >= position; i--)
+        {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static boolean isScientific(long cents)
+    {
+        return cents >= SCIENTIFIC_CENTS || cents <= -SCIENTIFIC_CENTS;
+    }
+
+    /**
+     * Writes cents as a decimal with at least one and at most two fraction digits, matching Double.toString
+     */
+    private static int writeCents(byte[] buffer, long cents, int position)
+    {
+        if (isScientific(cents))
+        {
+            byte[] amount = Double.toString(cents / 100.0).getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(amount, 0, buffer, position, amount.length);
+            return position + amount.length;
+        }
+
+        if (cents < 0L)
+        {
+            buffer[position++] = '-';
+            cents = -cents;
+        }
+
+        position = writeLong(buffer, cents / 100L, position);
+        buffer[position++] = '.';
+
+        int fraction = (int) (cents % 100L);
+
+        buffer[position++] = (byte) ('0' + fraction / 10);
+
+        if (fraction % 10 != 0)
+        {
+            buffer[position++] = (byte) ('0' + fraction % 10);
+        }
+
+        return position;
+    }
+
+    static int writeLong(byte[] buffer, long value, int position)
+    {
+        if (value == Long.MIN_VALUE)
+        {
+            byte[] digits = Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(digits, 0, buffer, position, digits.length);
+            return position + digits.length;
+        }
+
+        if (value < 0L)
+        {
+            buffer[position++] = '-';
+            value = -value;
+        }
+
+        int digits = 1;
+
+        for (long remaining = value / 10L; remaining != 0L; remaining /= 10L)
+        {
+            digits++;
+        }
+
+        int end = position + digits;
+
+        for (int i = end - 1; i >= position; i--)
+        {
+            buffer[i] = (byte) ('0' + value % 10L);
+            value /= 10L;
+        }
+
+        return end;
+    }
+}
@@ -0,0 +1,44 @@
+package com.aws.datagen.sink;
+
+import com.aws.datagen.model.Contribution;
+import org.apache.hadoop.hive.ql.exec.vector.Decimal64ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Writes contribution batches to ORC, copying the batch's columns into the column vectors
+ */
+public class ContributionOrcSink extends OrcSink<ContributionBatch>
+{
+    public ContributionOrcSink(File file) throws IOException
+    {
+        super(file, Contribution.SCHEMA);
+    }
+
+    @Override
+    protected int size(ContributionBatch batch)
+    {
+        return batch.size();
+    }
+
+    @Override
+    protected void fill(ContributionBatch batch, int from, int rows)
+    {
+        VectorizedRowBatch rowBatch = getRowBatch();
+        long[] contributionIds = ((LongColumnVector) rowBatch.cols[0]).vector;
+        long[] customerIds = ((LongColumnVector) rowBatch.cols[1]).vector;
+        long[] amounts = ((Decimal64ColumnVector) rowBatch.cols[2]).vector;
+        long[] dates = ((LongColumnVector) rowBatch.cols[3]).vector;
+
+        for (int i = 0; i < rows; i++)
+        {
+            contributionIds[i] = batch.getContributionId(from + i);
+            customerIds[i] = batch.getCustomerId(from + i);
+            amounts[i] = batch.getAmountCents(from + i);
+            dates[i] = batch.getEpochDay(from + i);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.aws.datagen.sink;
+
+import com.aws.datagen.model.Contribution;
+import org.apache.parquet.hadoop.ParquetWriter;
+
+import java.io.IOException;
+
+/**
+ * Writes contribution batches to Parquet through a single reused record
+ */
+public class ContributionParquetSink implements Sink<ContributionBatch>
+{
+    private final ParquetWriter<Contribution> writer;
+    private final Contribution contribution = new Contribution(0L, 0L);
+
+    public ContributionParquetSink(ParquetWriter<Contribution> writer)
+    {
+        this.writer = writer;
+    }
+
+    @Override
+    public void write(ContributionBatch batch) throws IOException
+    {
+        for (int i = 0; i < batch.size(); i++)
+        {
+            contribution.setContributionId(batch.getContributionId(i));
+            contribution.setCustomerId(batch.getCustomerId(i));
+            contribution.setContributionEpochDay(batch.getEpochDay(i));
+            contribution.setAmountCents(batch.getAmountCents(i));
+
+            writer.write(contribution);
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        writer.close();
+    }
+}
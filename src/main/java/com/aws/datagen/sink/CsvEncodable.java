@@ -0,0 +1,29 @@
+package com.aws.datagen.sink;
+
+/**
+ * A batch that encodes its rows as CSV straight into a caller's array, so each CSV sink encodes into a
+ * buffer it reuses rather than one allocated per batch
+ */
+public interface CsvEncodable
+{
+    /**
+     * @return the number of rows in the batch
+     */
+    int size();
+
+    /**
+     * Bounds the length of an encoded row
+     * @param row the row
+     * @return at least the number of bytes encodeCsvRow writes for the row
+     */
+    int getMaxCsvRowLength(int row);
+
+    /**
+     * Encodes a row into an array, which must have at least getMaxCsvRowLength bytes free after the offset
+     * @param row the row
+     * @param target the array to encode into
+     * @param offset the position to start at
+     * @return the position after the encoded row
+     */
+    int encodeCsvRow(int row, byte[] target, int offset);
+}
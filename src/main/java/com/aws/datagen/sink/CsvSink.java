@@ -0,0 +1,71 @@
+package com.aws.datagen.sink;
+
+import com.aws.datagen.metrics.RunMetrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes batches as CSV to a stream, used for both plain and compressed CSV outputs.
+ *
+ * Rows are encoded into an array reused by the writing thread and handed to the stream a chunk at a
+ * time, so no array is allocated per batch.
+ */
+public class CsvSink<B extends CsvEncodable> implements Sink<B>
+{
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+    private final OutputStream output;
+    private final RunMetrics metrics;
+
+    public CsvSink(OutputStream output, byte[] header, RunMetrics metrics) throws IOException
+    {
+        this.output = output;
+        this.metrics = metrics;
+        output.write(header);
+    }
+
+    /**
+     * Writes a batch, writing out the encoded rows whenever the next row might not fit
+     */
+    @Override
+    public void write(B batch) throws IOException
+    {
+        byte[] buffer = BUFFERS.get();
+        int length = 0;
+        long start = System.nanoTime();
+
+        for (int row = 0; row < batch.size(); row++)
+        {
+            int maxLength = batch.getMaxCsvRowLength(row);
+
+            if (length + maxLength > buffer.length)
+            {
+                metrics.addTime(RunMetrics.Stage.ENCODING, System.nanoTime() - start);
+                output.write(buffer, 0, length);
+                length = 0;
+
+                if (maxLength > buffer.length)
+                {
+                    buffer = new byte[maxLength];
+                    BUFFERS.set(buffer);
+                }
+
+                start = System.nanoTime();
+            }
+
+            length = batch.encodeCsvRow(row, buffer, length);
+        }
+
+        metrics.addTime(RunMetrics.Stage.ENCODING, System.nanoTime() - start);
+        output.write(buffer, 0, length);
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        output.close();
+    }
+}
@@ -0,0 +1,68 @@
+package com.aws.datagen.sink;
+
+import com.aws.datagen.metrics.MeteredOutputStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Plain CSV written to output_csv
+ */
+public class CsvSinkProvider implements SinkProvider
+{
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    @Override
+    public String getName()
+    {
+        return "csv";
+    }
+
+    @Override
+    public Sink<ContributionBatch> createContributionSink(SinkContext context, String partitionPath, String baseName) throws IOException
+    {
+        File file = contributionFile(context, partitionPath, baseName);
+        file.getParentFile().mkdirs();
+
+        return new CsvSink<>(open(context, file), ContributionBatch.CSV_HEADER, context.getMetrics());
+    }
+
+    @Override
+    public Sink<CustomerBatch> createCustomerSink(SinkContext context) throws IOException
+    {
+        File file = customerFile(context);
+        file.getParentFile().mkdirs();
+
+        return new CsvSink<>(open(context, file), CustomerBatch.CSV_HEADER, context.getMetrics());
+    }
+
+    @Override
+    public List<File> getContributionFiles(SinkContext context, String partitionPath, String baseName)
+    {
+        return Collections.singletonList(contributionFile(context, partitionPath, baseName));
+    }
+
+    @Override
+    public List<File> getCustomerFiles(SinkContext context)
+    {
+        return Collections.singletonList(customerFile(context));
+    }
+
+    private OutputStream open(SinkContext context, File file) throws IOException
+    {
+        return new MeteredOutputStream(new ChannelOutputStream(file), context.getMetrics(), getName());
+    }
+
+    private File contributionFile(SinkContext context, String partitionPath, String baseName)
+    {
+        return context.resolve(String.format("output_csv/contributions/%s/%s.csv", partitionPath, baseName));
+    }
+
+    private File customerFile(SinkContext context)
+    {
+        return context.resolve("output_csv/customers/" + context.getCustomerFileName() + ".csv");
+    }
+}
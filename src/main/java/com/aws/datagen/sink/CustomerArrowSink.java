@@ -0,0 +1,59 @@
+package com.aws.datagen.sink;
+
+import com.aws.datagen.model.Customer;
+import com.aws.datagen.model.Name;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.VarCharVector;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Writes customer batches to Arrow IPC, taking names from their encoded UTF-8
+ */
+public class CustomerArrowSink extends ArrowSink<CustomerBatch>
+{
+    private final BigIntVector customerIds;
+    private final VarCharVector titles;
+    private final VarCharVector firstNames;
+    private final VarCharVector lastNames;
+    private final VarCharVector genders;
+    private final DateDayVector joinDates;
+
+    private final Utf8Values values = new Utf8Values();
+
+    public CustomerArrowSink(File file, boolean streaming) throws IOException
+    {
+        super(file, Customer.SCHEMA, streaming);
+
+        customerIds = (BigIntVector) getVector("CustomerId");
+        titles = (VarCharVector) getVector("Title");
+        firstNames = (VarCharVector) getVector("FirstName");
+        lastNames = (VarCharVector) getVector("LastName");
+        genders = (VarCharVector) getVector("Gender");
+        joinDates = (DateDayVector) getVector("JoinDate");
+    }
+
+    @Override
+    protected int fill(CustomerBatch batch)
+    {
+        for (int i = 0; i < batch.size(); i++)
+        {
+            Customer customer = batch.get(i);
+            Name firstName = customer.getFirstNameValue();
+            Name lastName = customer.getLastNameValue();
+            byte[] title = values.get(customer.getTitle());
+            byte[] gender = values.get(customer.getGenderString());
+
+            customerIds.setSafe(i, customer.getCustomerId());
+            titles.setSafe(i, title, 0, title.length);
+            firstNames.setSafe(i, firstName.getUtf8().getBytes(), 0, firstName.getUtf8().getByteLength());
+            lastNames.setSafe(i, lastName.getUtf8().getBytes(), 0, lastName.getUtf8().getByteLength());
+            genders.setSafe(i, gender, 0, gender.length);
+            joinDates.setSafe(i, customer.getJoinEpochDay());
+        }
+
+        return batch.size();
+    }
+}
@@ -0,0 +1,69 @@
+package com.aws.datagen.sink;
+
+import com.aws.datagen.model.Customer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A batch of customers handed from the generator to the sinks
+ */
+public class CustomerBatch implements CsvEncodable
+{
+    public static final byte[] CSV_HEADER = CustomerCsvEncoder.HEADER_BYTES;
+
+    private final List<Customer> customers;
+    private final int capacity;
+
+    public CustomerBatch(int capacity)
+    {
+        this.customers = new ArrayList<>(capacity);
+        this.capacity = capacity;
+    }
+
+    public void add(Customer customer)
+    {
+        customers.add(customer);
+    }
+
+    /**
+     * Copies a range of customers into a new batch
+     * @param from the first customer
+     * @param to the customer after the last
+     * @return the customers
+     */
+    public CustomerBatch slice(int from, int to)
+    {
+        CustomerBatch slice = new CustomerBatch(to - from);
+        slice.customers.addAll(customers.subList(from, to));
+        return slice;
+    }
+
+    public boolean isFull()
+    {
+        return customers.size() == capacity;
+    }
+
+    @Override
+    public int size()
+    {
+        return customers.size();
+    }
+
+    public Customer get(int index)
+    {
+        return customers.get(index);
+    }
+
+    @Override
+    public int getMaxCsvRowLength(int row)
+    {
+        return CustomerCsvEncoder.getMaxLength(customers.get(row));
+    }
+
+    @Override
+    public int encodeCsvRow(int row, byte[] target, int offset)
+    {
+        return CustomerCsvEncoder.encode(customers.get(row), target, offset);
+    }
+}
@@ -0,0 +1,152 @@
+package com.aws.datagen.sink;
+
+import com.aws.datagen.model.Customer;
+import com.aws.datagen.model.Name;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Encodes customer rows exactly as CSVFormat.EXCEL with QuoteMode.NON_NUMERIC would, straight to bytes.
+ *
+ * Names are copied from the bytes each Name encoded once, so customers sharing a dictionary name
+ * cost a copy rather than a fresh String and its encoding.
+ */
+public class CustomerCsvEncoder
+{
+    public static final String HEADER = "\"CustomerId\",\"Title\",\"First\",\"Last\",\"Gender\",\"JoinDate\"\r\n";
+
+    public static final byte[] HEADER_BYTES = HEADER.getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * A missing value, which CSVPrinter writes as nothing at all rather than an empty quoted string
+     */
+    private static final byte[] NULL = {};
+    private static final byte[] MALE = {'"', 'M', '"'};
+    private static final byte[] FEMALE = {'"', 'F', '"'};
+
+    /**
+     * The longest the id, gender, quoted date and separators of a row can be
+     */
+    private static final int MAX_FIXED_LENGTH = 20 + 3 + 14 + 7;
+
+    /**
+     * Bounds the length of a customer's row
+     * @param customer the customer
+     * @return the most bytes the row can take
+     */
+    public static int getMaxLength(Customer customer)
+    {
+        String title = customer.getTitle();
+
+        return MAX_FIXED_LENGTH + (title != null ? 2 + 6 * title.length() : 0)
+                + quoted(customer.getFirstNameValue()).length + quoted(customer.getLastNameValue()).length;
+    }
+
+    /**
+     * Encodes a customer row into an array, which must have at least getMaxLength bytes free after the offset
+     * @param customer the customer
+     * @param target the array to encode into
+     * @param offset the position to start at
+     * @return the position after the encoded row
+     */
+    public static int encode(Customer customer, byte[] target, int offset)
+    {
+        int position = ContributionCsvEncoder.writeLong(target, customer.getCustomerId(), offset);
+        target[position++] = ',';
+        position = writeQuoted(target, customer.getTitle(), position);
+        target[position++] = ',';
+        position = write(target, quoted(customer.getFirstNameValue()), position);
+        target[position++] = ',';
+        position = write(target, quoted(customer.getLastNameValue()), position);
+        target[position++] = ',';
+        position = write(target, customer.getMale() ? MALE : FEMALE, position);
+        target[position++] = ',';
+        position = writeDate(target, customer.getJoinEpochDay(), position);
+        target[position++] = '\r';
+        target[position++] = '\n';
+
+        return position;
+    }
+
+    private static byte[] quoted(Name name)
+    {
+        return name != null ? name.getQuotedCsv() : NULL;
+    }
+
+    private static int write(byte[] target, byte[] bytes, int position)
+    {
+        System.arraycopy(bytes, 0, target, position, bytes.length);
+        return position + bytes.length;
+    }
+
+    /**
+     * Quotes a short string such as a title, copying ASCII characters directly
+     */
+    private static int writeQuoted(byte[] target, String value, int position)
+    {
+        if (value == null)
+        {
+            return position;
+        }
+
+        int start = position;
+        target[position++] = '"';
+
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+
+            if (c >= 0x80)
+            {
+                return write(target, new Name(value).getQuotedCsv(), start);
+            }
+
+            if (c == '"')
+            {
+                target[position++] = '"';
+            }
+
+            target[position++] = (byte) c;
+        }
+
+        target[position++] = '"';
+
+        return position;
+    }
+
+    /**
+     * Writes a quoted yyyy-MM-dd date, as LocalDate.toString would
+     */
+    private static int writeDate(byte[] target, int epochDay, int position)
+    {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        int year = date.getYear();
+
+        if (year < 0 || year > 9999)
+        {
+            return write(target, ContributionCsvEncoder.quote(date.toString()), position);
+        }
+
+        target[position++] = '"';
+        position = writeDigits(target, year, 4, position);
+        target[position++] = '-';
+        position = writeDigits(target, date.getMonthValue(), 2, position);
+        target[position++] = '-';
+        position = writeDigits(target, date.getDayOfMonth(), 2, position);
+        target[position++] = '"';
+
+        return position;
+    }
+
+    private static int writeDigits(byte[] target, int value, int digits, int position)
+    {
+        for (int i = position + digits - 1; i >= position; i--)
+        {
+            target[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+
+        return position + digits;
+    }
+}
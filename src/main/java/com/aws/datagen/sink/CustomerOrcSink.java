@@ -0,0 +1,57 @@
+package com.aws.datagen.sink;
+
+import com.aws.datagen.model.Customer;
+import com.aws.datagen.model.Name;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Writes customer batches to ORC. String columns reference the names' encoded UTF-8 rather than copying it
+ */
+public class CustomerOrcSink extends OrcSink<CustomerBatch>
+{
+    private final Utf8Values values = new Utf8Values();
+
+    public CustomerOrcSink(File file) throws IOException
+    {
+        super(file, Customer.SCHEMA);
+    }
+
+    @Override
+    protected int size(CustomerBatch batch)
+    {
+        return batch.size();
+    }
+
+    @Override
+    protected void fill(CustomerBatch batch, int from, int rows)
+    {
+        VectorizedRowBatch rowBatch = getRowBatch();
+        long[] customerIds = ((LongColumnVector) rowBatch.cols[0]).vector;
+        BytesColumnVector titles = (BytesColumnVector) rowBatch.cols[1];
+        BytesColumnVector firstNames = (BytesColumnVector) rowBatch.cols[2];
+        BytesColumnVector lastNames = (BytesColumnVector) rowBatch.cols[3];
+        BytesColumnVector genders = (BytesColumnVector) rowBatch.cols[4];
+        long[] joinDates = ((LongColumnVector) rowBatch.cols[5]).vector;
+
+        for (int i = 0; i < rows; i++)
+        {
+            Customer customer = batch.get(from + i);
+            Name firstName = customer.getFirstNameValue();
+            Name lastName = customer.getLastNameValue();
+            byte[] title = values.get(customer.getTitle());
+            byte[] gender = values.get(customer.getGenderString());
+
+            customerIds[i] = customer.getCustomerId();
+            titles.setRef(i, title, 0, title.length);
+            firstNames.setRef(i, firstName.getUtf8().getBytes(), 0, firstName.getUtf8().getByteLength());
+            lastNames.setRef(i, lastName.getUtf8().getBytes(), 0, lastName.getUtf8().getByteLength());
+            genders.setRef(i, gender, 0, gender.length);
+            joinDates[i] = customer.getJoinEpochDay();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.aws.datagen.sink;
+
+import com.aws.datagen.model.Customer;
+import org.apache.parquet.hadoop.ParquetWriter;
+
+import java.io.IOException;
+
+/**
+ * Writes customer batches to Parquet
+ */
+public class CustomerParquetSink implements Sink<CustomerBatch>
+{
+    private final ParquetWriter<Customer> writer;
+
+    public CustomerParquetSink(ParquetWriter<Customer> writer)
+    {
+        this.writer = writer;
+    }
+
+    @Override
+    public void write(CustomerBatch batch) throws IOException
+    {
+        for (int i = 0; i < batch.size(); i++)
+        {
+            writer.write(batch.get(i));
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        writer.close();
+    }
+}
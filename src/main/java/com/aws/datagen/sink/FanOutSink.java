@@ -0,0 +1,60 @@
+package com.aws.datagen.sink;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hands every batch to each of a list of sinks
+ */
+public class FanOutSink<B> implements Sink<B>
+{
+    private final List<Sink<B>> sinks;
+
+    public FanOutSink(List<Sink<B>> sinks)
+    {
+        this.sinks = new ArrayList<>(sinks);
+    }
+
+    @Override
+    public void write(B batch) throws IOException
+    {
+        for (Sink<B> sink: sinks)
+        {
+            sink.write(batch);
+        }
+    }
+
+    /**
+     * Closes every sink, even if closing an earlier one fails
+     */
+    @Override
+    public void close() throws IOException
+    {
+        IOException failure = null;
+
+        for (Sink<B> sink: sinks)
+        {
+            try
+            {
+                sink.close();
+            }
+            catch (IOException e)
+            {
+                if (failure == null)
+                {
+                    failure = e;
+                }
+                else
+                {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+
+        if (failure != null)
+        {
+            throw failure;
+        }
+    }
+}
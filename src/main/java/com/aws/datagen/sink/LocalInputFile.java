@@ -0,0 +1,76 @@
+package com.aws.datagen.sink;
+
+import org.apache.parquet.io.DelegatingSeekableInputStream;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.SeekableInputStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+
+/**
+ * Reads a local Parquet file without going through a Hadoop FileSystem, whose 1.x API the Parquet
+ * reader's Path based constructors no longer support
+ */
+public class LocalInputFile implements InputFile
+{
+    private final File file;
+
+    public LocalInputFile(File file)
+    {
+        this.file = file;
+    }
+
+    @Override
+    public long getLength()
+    {
+        return file.length();
+    }
+
+    @Override
+    public SeekableInputStream newStream() throws IOException
+    {
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+
+        return new DelegatingSeekableInputStream(new InputStream()
+        {
+            @Override
+            public int read() throws IOException
+            {
+                return input.read();
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException
+            {
+                return input.read(buffer, offset, length);
+            }
+
+            @Override
+            public void close() throws IOException
+            {
+                input.close();
+            }
+        })
+        {
+            @Override
+            public long getPos() throws IOException
+            {
+                return input.getFilePointer();
+            }
+
+            @Override
+            public void seek(long position) throws IOException
+            {
+                input.seek(position);
+            }
+        };
+    }
+
+    @Override
+    public String toString()
+    {
+        return file.getPath();
+    }
+}
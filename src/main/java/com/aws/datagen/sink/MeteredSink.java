@@ -0,0 +1,50 @@
+package com.aws.datagen.sink;
+
+import com.aws.datagen.metrics.RunMetrics;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Times a sink's writes as encoding and counts the size of its file once it is closed, for formats
+ * such as Parquet that encode, compress and write inside a third party writer
+ */
+public class MeteredSink<B> implements Sink<B>
+{
+    private final Sink<B> delegate;
+    private final RunMetrics metrics;
+    private final String format;
+    private final File file;
+
+    /**
+     * @param delegate the sink to meter
+     * @param metrics the run metrics
+     * @param format the output format the bytes are counted against
+     * @param file the file the sink writes
+     */
+    public MeteredSink(Sink<B> delegate, RunMetrics metrics, String format, File file)
+    {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.format = format;
+        this.file = file;
+    }
+
+    @Override
+    public void write(B batch) throws IOException
+    {
+        long start = System.nanoTime();
+        delegate.write(batch);
+        metrics.addTime(RunMetrics.Stage.ENCODING, System.nanoTime() - start);
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        long start = System.nanoTime();
+        delegate.close();
+        metrics.addTime(RunMetrics.Stage.ENCODING, System.nanoTime() - start);
+
+        metrics.getBytesCounter(format).add(file.length());
+    }
+}
@@ -0,0 +1,108 @@
+package com.aws.datagen.sink;
+
+import org.apache.avro.Schema;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.orc.OrcFile;
+import org.apache.orc.TypeDescription;
+import org.apache.orc.Writer;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Writes batches to ORC through one reused VectorizedRowBatch.
+ *
+ * Subclasses copy rows straight into the batch's column vectors, amounts as 64 bit decimals. Files are
+ * written through the raw local file system, without Hadoop's .crc side files.
+ */
+public abstract class OrcSink<B> implements Sink<B>
+{
+    /**
+     * Rows per ORC batch, the generator's batch size
+     */
+    private static final int BATCH_SIZE = 8192;
+
+    private static final Configuration CONFIGURATION = new Configuration(false);
+    private static final RawLocalFileSystem FILE_SYSTEM = createFileSystem();
+
+    private final Writer writer;
+    private final VectorizedRowBatch rowBatch;
+
+    /**
+     * @param file the file to write, replaced if it exists
+     * @param schema the Avro schema of the table
+     */
+    protected OrcSink(File file, Schema schema) throws IOException
+    {
+        TypeDescription description = ColumnarSchemas.toOrc(schema);
+
+        writer = OrcFile.createWriter(new Path(file.getAbsolutePath()), OrcFile.writerOptions(CONFIGURATION)
+                .fileSystem(FILE_SYSTEM)
+                .setSchema(description)
+                .overwrite(true));
+        rowBatch = description.createRowBatch(TypeDescription.RowBatchVersion.USE_DECIMAL64, BATCH_SIZE);
+    }
+
+    private static RawLocalFileSystem createFileSystem()
+    {
+        RawLocalFileSystem fileSystem = new RawLocalFileSystem();
+
+        try
+        {
+            fileSystem.initialize(URI.create("file:///"), CONFIGURATION);
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException("Failed to set up the local file system", e);
+        }
+
+        return fileSystem;
+    }
+
+    /**
+     * @return the vectors of the columns, in schema order
+     */
+    protected VectorizedRowBatch getRowBatch()
+    {
+        return rowBatch;
+    }
+
+    /**
+     * Copies a range of a batch's rows to the start of the row batch
+     * @param batch the rows
+     * @param from the first row to copy
+     * @param rows the number of rows to copy
+     */
+    protected abstract void fill(B batch, int from, int rows);
+
+    /**
+     * @return the number of rows in a batch
+     */
+    protected abstract int size(B batch);
+
+    @Override
+    public void write(B batch) throws IOException
+    {
+        int size = size(batch);
+
+        for (int from = 0; from < size; from += BATCH_SIZE)
+        {
+            int rows = Math.min(BATCH_SIZE, size - from);
+
+            rowBatch.reset();
+            fill(batch, from, rows);
+            rowBatch.size = rows;
+            writer.addRowBatch(rowBatch);
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        writer.close();
+    }
+}
@@ -0,0 +1,67 @@
+package com.aws.datagen.sink;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ORC written to output_orc, ZLIB compressed as ORC is by default
+ */
+public class OrcSinkProvider implements SinkProvider
+{
+    @Override
+    public String getName()
+    {
+        return "orc";
+    }
+
+    /**
+     * Measured with ORC's default ZLIB compression
+     */
+    @Override
+    public double getSizeRatio(SinkContext context, String table)
+    {
+        return SinkContext.CONTRIBUTIONS.equals(table) ? 0.13 : 0.2;
+    }
+
+    @Override
+    public Sink<ContributionBatch> createContributionSink(SinkContext context, String partitionPath, String baseName) throws IOException
+    {
+        File file = contributionFile(context, partitionPath, baseName);
+        file.getParentFile().mkdirs();
+
+        return new MeteredSink<>(new ContributionOrcSink(file), context.getMetrics(), getName(), file);
+    }
+
+    @Override
+    public Sink<CustomerBatch> createCustomerSink(SinkContext context) throws IOException
+    {
+        File file = customerFile(context);
+        file.getParentFile().mkdirs();
+
+        return new MeteredSink<>(new CustomerOrcSink(file), context.getMetrics(), getName(), file);
+    }
+
+    @Override
+    public List<File> getContributionFiles(SinkContext context, String partitionPath, String baseName)
+    {
+        return Collections.singletonList(contributionFile(context, partitionPath, baseName));
+    }
+
+    @Override
+    public List<File> getCustomerFiles(SinkContext context)
+    {
+        return Collections.singletonList(customerFile(context));
+    }
+
+    private File contributionFile(SinkContext context, String partitionPath, String baseName)
+    {
+        return context.resolve(String.format("output_orc/contributions/%s/%s.orc", partitionPath, baseName));
+    }
+
+    private File customerFile(SinkContext context)
+    {
+        return context.resolve("output_orc/customers/" + context.getCustomerFileName() + ".orc");
+    }
+}
@@ -0,0 +1,270 @@
+package com.aws.datagen.sink;
+
+import com.aws.datagen.metrics.RunMetrics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A pigz style gzip stream that compresses fixed size blocks concurrently.
+ *
+ * Each block is compressed on the executor as an independent gzip member and the members are
+ * written in order, producing a standard multi-member gzip file that gunzip, GZIPInputStream,
+ * Athena and Glue all read as one stream. The number of blocks in flight is bounded so memory
+ * use stays at a few blocks per stream.
+ */
+public class ParallelGzipOutputStream extends OutputStream
+{
+    private final OutputStream output;
+    private final ExecutorService executor;
+    private final int level;
+    private final int blockSize;
+    private final int maxBlocksInFlight;
+    private final RunMetrics metrics;
+
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+
+    private byte[] block;
+    private int blockLength = 0;
+    private boolean anyBlocks = false;
+    private boolean closed = false;
+
+    /**
+     * @param output the stream to write the compressed members to
+     * @param executor the executor to compress blocks on
+     * @param level the deflate level, 1-9 or -1 for the default
+     * @param blockSize the uncompressed size of each gzip member
+     * @param maxBlocksInFlight the maximum number of blocks being compressed at once
+     */
+    public ParallelGzipOutputStream(OutputStream output, ExecutorService executor, int level, int blockSize, int maxBlocksInFlight)
+    {
+        this(output, executor, level, blockSize, maxBlocksInFlight, null);
+    }
+
+    /**
+     * @param output the stream to write the compressed members to
+     * @param executor the executor to compress blocks on
+     * @param level the deflate level, 1-9 or -1 for the default
+     * @param blockSize the uncompressed size of each gzip member
+     * @param maxBlocksInFlight the maximum number of blocks being compressed at once
+     * @param metrics the run metrics to add compression time to, or null
+     */
+    public ParallelGzipOutputStream(OutputStream output, ExecutorService executor, int level, int blockSize, int maxBlocksInFlight,
+                                    RunMetrics metrics)
+    {
+        this.output = output;
+        this.executor = executor;
+        this.level = level;
+        this.blockSize = blockSize;
+        this.maxBlocksInFlight = maxBlocksInFlight;
+        this.metrics = metrics;
+        this.block = new byte[blockSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException
+    {
+        block[blockLength++] = (byte) b;
+
+        if (blockLength == blockSize)
+        {
+            submitBlock();
+        }
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException
+    {
+        while (length > 0)
+        {
+            int count = Math.min(length, blockSize - blockLength);
+            System.arraycopy(bytes, offset, block, blockLength, count);
+
+            blockLength += count;
+            offset += count;
+            length -= count;
+
+            if (blockLength == blockSize)
+            {
+                submitBlock();
+            }
+        }
+    }
+
+    /**
+     * Writes any blocks that have finished compressing, a partially filled block is kept
+     * so flushing does not produce tiny members
+     */
+    @Override
+    public void flush() throws IOException
+    {
+        while (!pending.isEmpty() && pending.peekFirst().isDone())
+        {
+            writeNextBlock();
+        }
+
+        output.flush();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (closed)
+        {
+            return;
+        }
+
+        closed = true;
+
+        try
+        {
+            if (blockLength > 0 || !anyBlocks)
+            {
+                submitBlock();
+            }
+
+            while (!pending.isEmpty())
+            {
+                writeNextBlock();
+            }
+        }
+        finally
+        {
+            for (Future<byte[]> future: pending)
+            {
+                future.cancel(true);
+            }
+
+            output.close();
+        }
+    }
+
+    private void submitBlock() throws IOException
+    {
+        byte[] data = block;
+        int length = blockLength;
+
+        pending.addLast(executor.submit(() ->
+        {
+            long start = System.nanoTime();
+            byte[] compressed = compress(data, length, level);
+
+            if (metrics != null)
+            {
+                metrics.addTime(RunMetrics.Stage.COMPRESSION, System.nanoTime() - start);
+            }
+
+            return compressed;
+        }));
+
+        anyBlocks = true;
+        block = new byte[blockSize];
+        blockLength = 0;
+
+        while (pending.size() > maxBlocksInFlight)
+        {
+            writeNextBlock();
+        }
+    }
+
+    private void writeNextBlock() throws IOException
+    {
+        try
+        {
+            output.write(pending.removeFirst().get());
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing");
+        }
+        catch (ExecutionException e)
+        {
+            throw new IOException("Failed to compress block", e.getCause());
+        }
+    }
+
+    /**
+     * Compresses a block as a complete gzip member
+     */
+    static byte[] compress(byte[] data, int length, int level) throws IOException
+    {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 4 + 64);
+
+        try (GZIPOutputStream gzip = new LevelGZIPOutputStream(compressed, level))
+        {
+            gzip.write(data, 0, length);
+        }
+
+        return compressed.toByteArray();
+    }
+
+    /**
+     * A GZIPOutputStream with a configurable deflate level
+     */
+    static class LevelGZIPOutputStream extends GZIPOutputStream
+    {
+        private final RunMetrics metrics;
+
+        LevelGZIPOutputStream(OutputStream output, int level) throws IOException
+        {
+            this(output, level, null);
+        }
+
+        /**
+         * @param output the stream to write to
+         * @param level the deflate level
+         * @param metrics the run metrics to add deflate time to, including finishing the member, or null
+         */
+        LevelGZIPOutputStream(OutputStream output, int level, RunMetrics metrics) throws IOException
+        {
+            super(output, 64 * 1024);
+            def.setLevel(level);
+            this.metrics = metrics;
+        }
+
+        /**
+         * Deflates the next chunk as DeflaterOutputStream does, timing the deflate apart from the write
+         */
+        @Override
+        protected void deflate() throws IOException
+        {
+            long start = System.nanoTime();
+            int length = def.deflate(buf, 0, buf.length);
+
+            if (metrics != null)
+            {
+                metrics.addTime(RunMetrics.Stage.COMPRESSION, System.nanoTime() - start);
+            }
+
+            if (length > 0)
+            {
+                out.write(buf, 0, length);
+            }
+        }
+
+        /**
+         * Finishes the member, timing it whole since GZIPOutputStream deflates the last of the data and
+         * writes the trailer without calling deflate()
+         */
+        @Override
+        public void finish() throws IOException
+        {
+            long start = System.nanoTime();
+            super.finish();
+
+            if (metrics != null)
+            {
+                metrics.addTime(RunMetrics.Stage.COMPRESSION, System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.aws.datagen.sink;
+
+import org.apache.parquet.column.ParquetProperties;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+
+import java.util.Locale;
+
+/**
+ * Parquet writer settings for one table
+ */
+public class ParquetOptions
+{
+    private CompressionCodecName codec = CompressionCodecName.SNAPPY;
+
+    /**
+     * 100MB default row group size
+     */
+    private int rowGroupSize = 1024 * 1024 * 100;
+
+    private int pageSize = ParquetWriter.DEFAULT_PAGE_SIZE;
+    private int dictionaryPageSize = ParquetWriter.DEFAULT_PAGE_SIZE;
+    private boolean dictionaryEncoding = true;
+    private ParquetProperties.WriterVersion writerVersion = ParquetProperties.WriterVersion.PARQUET_1_0;
+
+    public ParquetOptions copy()
+    {
+        ParquetOptions copy = new ParquetOptions();
+        copy.codec = codec;
+        copy.rowGroupSize = rowGroupSize;
+        copy.pageSize = pageSize;
+        copy.dictionaryPageSize = dictionaryPageSize;
+        copy.dictionaryEncoding = dictionaryEncoding;
+        copy.writerVersion = writerVersion;
+        return copy;
+    }
+
+    /**
+     * Sets an option by name, as given on the command line
+     * @param key one of codec, row-group-size, page-size, dictionary-page-size, dictionary or writer-version
+     * @param value the value
+     */
+    public void set(String key, String value)
+    {
+        switch (key)
+        {
+            case "codec":
+                setCodec(CompressionCodecName.valueOf(value.toUpperCase(Locale.ROOT)));
+                break;
+            case "row-group-size":
+                setRowGroupSize(Integer.parseInt(value));
+                break;
+            case "page-size":
+                setPageSize(Integer.parseInt(value));
+                break;
+            case "dictionary-page-size":
+                setDictionaryPageSize(Integer.parseInt(value));
+                break;
+            case "dictionary":
+                setDictionaryEncoding(Boolean.parseBoolean(value));
+                break;
+            case "writer-version":
+                setWriterVersion(ParquetProperties.WriterVersion.fromString(value.toLowerCase(Locale.ROOT)));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown Parquet option: " + key);
+        }
+    }
+
+    /**
+     * Applies these settings to a writer builder
+     */
+    public <T, B extends ParquetWriter.Builder<T, B>> B apply(B builder)
+    {
+        return builder
+                .withCompressionCodec(codec)
+                .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+                .withRowGroupSize(rowGroupSize)
+                .withPageSize(pageSize)
+                .withDictionaryPageSize(dictionaryPageSize)
+                .withDictionaryEncoding(dictionaryEncoding)
+                .withWriterVersion(writerVersion);
+    }
+
+    /**
+     * @return the file extension for this codec, e.g. ".snappy.parquet"
+     */
+    public String getFileExtension()
+    {
+        return codec.getExtension() + ".parquet";
+    }
+
+    public CompressionCodecName getCodec()
+    {
+        return codec;
+    }
+
+    /**
+     * Sets the codec, which must have its Hadoop codec class on the classpath
+     */
+    public void setCodec(CompressionCodecName codec)
+    {
+        if (codec.getHadoopCompressionCodecClassName() != null)
+        {
+            try
+            {
+                Class.forName(codec.getHadoopCompressionCodecClassName());
+            }
+            catch (ClassNotFoundException e)
+            {
+                throw new IllegalArgumentException("Parquet codec " + codec + " is not available, missing: "
+                        + codec.getHadoopCompressionCodecClassName());
+            }
+        }
+
+        this.codec = codec;
+    }
+
+    public int getRowGroupSize()
+    {
+        return rowGroupSize;
+    }
+
+    public void setRowGroupSize(int rowGroupSize)
+    {
+        if (rowGroupSize < 1)
+        {
+            throw new IllegalArgumentException("Parquet row-group-size must be at least 1 byte: " + rowGroupSize);
+        }
+
+        this.rowGroupSize = rowGroupSize;
+    }
+
+    public int getPageSize()
+    {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize)
+    {
+        if (pageSize < 1)
+        {
+            throw new IllegalArgumentException("Parquet page-size must be at least 1 byte: " + pageSize);
+        }
+
+        this.pageSize = pageSize;
+    }
+
+    public int getDictionaryPageSize()
+    {
+        return dictionaryPageSize;
+    }
+
+    public void setDictionaryPageSize(int dictionaryPageSize)
+    {
+        if (dictionaryPageSize < 1)
+        {
+            throw new IllegalArgumentException("Parquet dictionary-page-size must be at least 1 byte: " + dictionaryPageSize);
+        }
+
+        this.dictionaryPageSize = dictionaryPageSize;
+    }
+
+    public boolean getDictionaryEncoding()
+    {
+        return dictionaryEncoding;
+    }
+
+    public void setDictionaryEncoding(boolean dictionaryEncoding)
+    {
+        this.dictionaryEncoding = dictionaryEncoding;
+    }
+
+    public ParquetProperties.WriterVersion getWriterVersion()
+    {
+        return writerVersion;
+    }
+
+    public void setWriterVersion(ParquetProperties.WriterVersion writerVersion)
+    {
+        this.writerVersion = writerVersion;
+    }
+}
@@ -0,0 +1,95 @@
+package com.aws.datagen.sink;
+
+import com.aws.datagen.model.Contribution;
+import com.aws.datagen.model.Customer;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.avro.AvroParquetWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parquet written to output_parquet, Snappy compressed unless configured otherwise
+ */
+public class ParquetSinkProvider implements SinkProvider
+{
+    @Override
+    public String getName()
+    {
+        return "parquet";
+    }
+
+    /**
+     * Measured for each codec with the default writer options, other codecs are taken to compress like Snappy
+     */
+    @Override
+    public double getSizeRatio(SinkContext context, String table)
+    {
+        boolean contributions = SinkContext.CONTRIBUTIONS.equals(table);
+
+        switch (context.getParquetOptions(table).getCodec())
+        {
+            case UNCOMPRESSED:
+                return contributions ? 0.67 : 0.54;
+            case GZIP:
+                return contributions ? 0.19 : 0.25;
+            default:
+                return 0.38;
+        }
+    }
+
+    @Override
+    public Sink<ContributionBatch> createContributionSink(SinkContext context, String partitionPath, String baseName) throws IOException
+    {
+        ParquetOptions options = context.getParquetOptions(SinkContext.CONTRIBUTIONS);
+
+        File file = contributionFile(context, options, partitionPath, baseName);
+        file.getParentFile().mkdirs();
+
+        ParquetWriter<Contribution> writer = options.apply(AvroParquetWriter.<Contribution>builder(new Path(file.getPath()))
+                .withSchema(Contribution.SCHEMA))
+                .build();
+
+        return new MeteredSink<>(new ContributionParquetSink(writer), context.getMetrics(), getName(), file);
+    }
+
+    @Override
+    public Sink<CustomerBatch> createCustomerSink(SinkContext context) throws IOException
+    {
+        ParquetOptions options = context.getParquetOptions(SinkContext.CUSTOMERS);
+
+        File file = customerFile(context, options);
+        file.getParentFile().mkdirs();
+
+        ParquetWriter<Customer> writer = options.apply(AvroParquetWriter.<Customer>builder(new Path(file.getPath()))
+                .withSchema(Customer.SCHEMA))
+                .build();
+
+        return new MeteredSink<>(new CustomerParquetSink(writer), context.getMetrics(), getName(), file);
+    }
+
+    @Override
+    public List<File> getContributionFiles(SinkContext context, String partitionPath, String baseName)
+    {
+        return Collections.singletonList(contributionFile(context, context.getParquetOptions(SinkContext.CONTRIBUTIONS), partitionPath, baseName));
+    }
+
+    @Override
+    public List<File> getCustomerFiles(SinkContext context)
+    {
+        return Collections.singletonList(customerFile(context, context.getParquetOptions(SinkContext.CUSTOMERS)));
+    }
+
+    private File contributionFile(SinkContext context, ParquetOptions options, String partitionPath, String baseName)
+    {
+        return context.resolve(String.format("output_parquet/contributions/%s/%s%s", partitionPath, baseName, options.getFileExtension()));
+    }
+
+    private File customerFile(SinkContext context, ParquetOptions options)
+    {
+        return context.resolve("output_parquet/customers/" + context.getCustomerFileName() + options.getFileExtension());
+    }
+}
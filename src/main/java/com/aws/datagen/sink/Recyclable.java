@@ -0,0 +1,20 @@
+package com.aws.datagen.sink;
+
+/**
+ * A batch that goes back to its pool once nothing holds it, counted by references.
+ *
+ * The generator holds one reference while it writes a batch. A sink that keeps a batch past its
+ * write call, such as an AsyncSink, retains it first and releases it once written.
+ */
+public interface Recyclable
+{
+    /**
+     * Adds a reference
+     */
+    void retain();
+
+    /**
+     * Drops a reference, returning the batch to its pool when none are left
+     */
+    void release();
+}
@@ -0,0 +1,55 @@
+package com.aws.datagen.sink;
+
+import com.aws.datagen.model.CustomerYearTotal;
+import com.aws.datagen.model.MonthlyTotal;
+import org.apache.avro.Schema;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.avro.AvroParquetWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Opens the Parquet rollup tables written to output_parquet next to contributions, whichever formats the
+ * raw rows are written in
+ */
+public final class RollupWriters
+{
+    public static final String MONTHLY_TOTALS = "contribution_monthly_totals";
+    public static final String CUSTOMER_YEARLY_TOTALS = "customer_yearly_totals";
+
+    private RollupWriters()
+    {
+    }
+
+    /**
+     * Opens a file of contribution totals by month and gender
+     * @param baseName the file name without its extension
+     */
+    public static ParquetWriter<MonthlyTotal> openMonthlyTotals(SinkContext context, String baseName) throws IOException
+    {
+        return open(context, MONTHLY_TOTALS, baseName, MonthlyTotal.SCHEMA);
+    }
+
+    /**
+     * Opens a file of contribution totals by customer and year
+     * @param baseName the file name without its extension
+     */
+    public static ParquetWriter<CustomerYearTotal> openCustomerYearlyTotals(SinkContext context, String baseName) throws IOException
+    {
+        return open(context, CUSTOMER_YEARLY_TOTALS, baseName, CustomerYearTotal.SCHEMA);
+    }
+
+    private static <T> ParquetWriter<T> open(SinkContext context, String table, String baseName, Schema schema) throws IOException
+    {
+        ParquetOptions options = context.getParquetOptions(SinkContext.ROLLUPS);
+
+        File file = context.resolve("output_parquet/" + table + "/" + baseName + options.getFileExtension());
+        file.getParentFile().mkdirs();
+
+        return options.apply(AvroParquetWriter.<T>builder(new Path(file.getPath()))
+                .withSchema(schema))
+                .build();
+    }
+}
@@ -0,0 +1,20 @@
+package com.aws.datagen.sink;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A destination for batches of generated rows, e.g. one output file in one format.
+ *
+ * Batches are not modified after they are handed to a sink, so a sink may hold on to a batch
+ * and process it on another thread. A sink holding on to a Recyclable batch must retain it first and
+ * release it when done, since the batch is reused once every reference is released.
+ */
+public interface Sink<B> extends Closeable
+{
+    /**
+     * Writes a batch of rows
+     * @param batch the rows to write
+     */
+    void write(B batch) throws IOException;
+}
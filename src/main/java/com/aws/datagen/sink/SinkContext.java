@@ -0,0 +1,244 @@
+package com.aws.datagen.sink;
+
+import com.aws.datagen.metrics.RunMetrics;
+
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+
+/**
+ * Run-wide settings shared by every sink
+ */
+public class SinkContext
+{
+    public static final String CONTRIBUTIONS = "contributions";
+    public static final String CUSTOMERS = "customers";
+    public static final String ROLLUPS = "rollups";
+
+    /**
+     * Parquet settings for each table
+     */
+    private final ParquetOptions contributionParquetOptions = new ParquetOptions();
+    private final ParquetOptions customerParquetOptions = new ParquetOptions();
+    private final ParquetOptions rollupParquetOptions = new ParquetOptions();
+
+    /**
+     * Gzip deflate level, 1-9, default 6 as gzip and zlib use
+     */
+    private int gzipLevel = 6;
+
+    /**
+     * The uncompressed size of each independently compressed gzip member
+     */
+    private int gzipBlockSize = 1024 * 1024;
+
+    /**
+     * The number of threads compressing gzip blocks, shared by all compressed outputs; 1 compresses
+     * each file on its writer thread with a plain GZIPOutputStream
+     */
+    private int compressionThreads = Runtime.getRuntime().availableProcessors();
+
+    private ExecutorService compressionExecutor = null;
+
+    /**
+     * The number of threads writing asynchronous sinks, shared by every output
+     */
+    private int writerThreads = Runtime.getRuntime().availableProcessors();
+
+    private ExecutorService writerExecutor = null;
+
+    /**
+     * The directory output is written under, null for the working directory
+     */
+    private File outputRoot = null;
+
+    /**
+     * The name of the customers file without its extension, distinct for each shard of a sharded run
+     */
+    private String customerFileName = CUSTOMERS;
+
+    /**
+     * Counters updated by the generator and every sink
+     */
+    private final RunMetrics metrics = new RunMetrics();
+
+    /**
+     * Fetches the Parquet settings for a table
+     * @param table contributions, customers or rollups
+     * @return the table's settings
+     */
+    public ParquetOptions getParquetOptions(String table)
+    {
+        switch (table)
+        {
+            case CONTRIBUTIONS:
+                return contributionParquetOptions;
+            case CUSTOMERS:
+                return customerParquetOptions;
+            case ROLLUPS:
+                return rollupParquetOptions;
+            default:
+                throw new IllegalArgumentException("Unknown table: " + table);
+        }
+    }
+
+    /**
+     * Sets a Parquet option for one or all tables
+     * @param key the option, e.g. "codec" for all tables or "contributions.codec" for one
+     * @param value the value
+     */
+    public void setParquetOption(String key, String value)
+    {
+        int separator = key.indexOf('.');
+
+        if (separator < 0)
+        {
+            contributionParquetOptions.set(key, value);
+            customerParquetOptions.set(key, value);
+            rollupParquetOptions.set(key, value);
+        }
+        else
+        {
+            getParquetOptions(key.substring(0, separator)).set(key.substring(separator + 1), value);
+        }
+    }
+
+    public File getOutputRoot()
+    {
+        return outputRoot;
+    }
+
+    public void setOutputRoot(File outputRoot)
+    {
+        this.outputRoot = outputRoot;
+    }
+
+    /**
+     * Resolves a relative output path against the output root
+     * @param path the path, e.g. output_csv/customers/customers.csv
+     * @return the file
+     */
+    public File resolve(String path)
+    {
+        File file = new File(path);
+        return outputRoot == null || file.isAbsolute() ? file : new File(outputRoot, path);
+    }
+
+    public String getCustomerFileName()
+    {
+        return customerFileName;
+    }
+
+    public void setCustomerFileName(String customerFileName)
+    {
+        this.customerFileName = customerFileName;
+    }
+
+    public RunMetrics getMetrics()
+    {
+        return metrics;
+    }
+
+    public int getGzipLevel()
+    {
+        return gzipLevel;
+    }
+
+    public void setGzipLevel(int gzipLevel)
+    {
+        if (gzipLevel < Deflater.BEST_SPEED || gzipLevel > Deflater.BEST_COMPRESSION)
+        {
+            throw new IllegalArgumentException("Gzip level must be between 1 and 9: " + gzipLevel);
+        }
+
+        this.gzipLevel = gzipLevel;
+    }
+
+    public int getGzipBlockSize()
+    {
+        return gzipBlockSize;
+    }
+
+    public void setGzipBlockSize(int gzipBlockSize)
+    {
+        if (gzipBlockSize < 1024)
+        {
+            throw new IllegalArgumentException("Gzip block size must be at least 1024 bytes: " + gzipBlockSize);
+        }
+
+        this.gzipBlockSize = gzipBlockSize;
+    }
+
+    public int getCompressionThreads()
+    {
+        return compressionThreads;
+    }
+
+    public void setCompressionThreads(int compressionThreads)
+    {
+        if (compressionThreads < 1)
+        {
+            throw new IllegalArgumentException("Compression thread count must be at least 1: " + compressionThreads);
+        }
+
+        this.compressionThreads = compressionThreads;
+    }
+
+    /**
+     * Fetches the pool that gzip blocks are compressed on, created on first use with daemon threads
+     */
+    public synchronized ExecutorService getCompressionExecutor()
+    {
+        if (compressionExecutor == null)
+        {
+            compressionExecutor = newDaemonPool(compressionThreads, "gzip-");
+        }
+
+        return compressionExecutor;
+    }
+
+    public int getWriterThreads()
+    {
+        return writerThreads;
+    }
+
+    public void setWriterThreads(int writerThreads)
+    {
+        if (writerThreads < 1)
+        {
+            throw new IllegalArgumentException("Writer thread count must be at least 1: " + writerThreads);
+        }
+
+        this.writerThreads = writerThreads;
+    }
+
+    /**
+     * Fetches the pool that asynchronous sinks write on, created on first use with daemon threads
+     */
+    public synchronized ExecutorService getWriterExecutor()
+    {
+        if (writerExecutor == null)
+        {
+            writerExecutor = newDaemonPool(writerThreads, "writer-");
+        }
+
+        return writerExecutor;
+    }
+
+    private static ExecutorService newDaemonPool(int threads, String prefix)
+    {
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        ThreadFactory threadFactory = runnable ->
+        {
+            Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        return Executors.newFixedThreadPool(threads, threadFactory);
+    }
+}
@@ -0,0 +1,81 @@
+package com.aws.datagen.sink;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Creates the sinks for one output format.
+ *
+ * Third party formats implement this interface and register it in
+ * META-INF/services/com.aws.datagen.sink.SinkProvider, after which they can be selected
+ * by name alongside the built in formats.
+ */
+public interface SinkProvider
+{
+    /**
+     * @return the name used to select this format, e.g. "parquet"
+     */
+    String getName();
+
+    /**
+     * Checks that this format can be written in the running JVM, so a run fails before generating anything
+     * @throws IllegalArgumentException if it cannot
+     */
+    default void checkAvailable()
+    {
+    }
+
+    /**
+     * Creates the sink for one contributions file
+     * @param context the run settings
+     * @param partitionPath the Hive style partition directory, e.g. contributionYear=2005/contributionMonth=2005-03
+     * @param baseName the file name without an extension
+     * @return the sink
+     */
+    Sink<ContributionBatch> createContributionSink(SinkContext context, String partitionPath, String baseName) throws IOException;
+
+    /**
+     * Creates the sink for the customers table
+     * @param context the run settings
+     * @return the sink
+     */
+    Sink<CustomerBatch> createCustomerSink(SinkContext context) throws IOException;
+
+    /**
+     * Estimates the bytes this format writes for each byte the same rows take as CSV, so part files are
+     * split near the part size in this format; formats that do not override this are taken to write as
+     * much as CSV
+     * @param context the run settings
+     * @param table SinkContext.CONTRIBUTIONS or SinkContext.CUSTOMERS
+     * @return the ratio of this format's bytes to CSV bytes
+     */
+    default double getSizeRatio(SinkContext context, String table)
+    {
+        return 1.0;
+    }
+
+    /**
+     * Lists the files a contributions sink writes so the run manifest can checksum them, formats that
+     * list no files are regenerated whenever a resumed run reaches them
+     * @param context the run settings
+     * @param partitionPath the Hive style partition directory
+     * @param baseName the file name without an extension
+     * @return the files
+     */
+    default List<File> getContributionFiles(SinkContext context, String partitionPath, String baseName)
+    {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Lists the files the customers sink writes
+     * @param context the run settings
+     * @return the files
+     */
+    default List<File> getCustomerFiles(SinkContext context)
+    {
+        return Collections.emptyList();
+    }
+}
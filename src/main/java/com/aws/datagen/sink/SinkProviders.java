@@ -0,0 +1,88 @@
+package com.aws.datagen.sink;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Looks up output formats by name from the built in providers and any registered with ServiceLoader
+ */
+public final class SinkProviders
+{
+    private SinkProviders()
+    {
+    }
+
+    /**
+     * @return every available provider keyed by lower case name, built in providers first
+     */
+    public static Map<String, SinkProvider> available()
+    {
+        Map<String, SinkProvider> providers = new LinkedHashMap<>();
+
+        for (SinkProvider provider: Arrays.asList(new CsvSinkProvider(), new CompressedCsvSinkProvider(), new ParquetSinkProvider(),
+                new OrcSinkProvider(), new ArrowSinkProvider(false), new ArrowSinkProvider(true)))
+        {
+            providers.put(provider.getName().toLowerCase(Locale.ROOT), provider);
+        }
+
+        for (SinkProvider provider: ServiceLoader.load(SinkProvider.class))
+        {
+            providers.putIfAbsent(provider.getName().toLowerCase(Locale.ROOT), provider);
+        }
+
+        return providers;
+    }
+
+    /**
+     * @return the default formats, CSV, compressed CSV and Parquet
+     */
+    public static List<SinkProvider> defaults()
+    {
+        return resolve("csv,compressed_csv,parquet");
+    }
+
+    /**
+     * Resolves a comma separated list of format names, e.g. "csv,parquet"
+     * @param names the format names
+     * @return the providers in the order given
+     */
+    public static List<SinkProvider> resolve(String names)
+    {
+        Map<String, SinkProvider> available = available();
+        List<SinkProvider> providers = new ArrayList<>();
+
+        for (String name: names.split(","))
+        {
+            String key = name.trim().toLowerCase(Locale.ROOT);
+
+            if (key.isEmpty())
+            {
+                continue;
+            }
+
+            SinkProvider provider = available.get(key);
+
+            if (provider == null)
+            {
+                throw new IllegalArgumentException("Unknown output format: " + name.trim() + ", available: " + available.keySet());
+            }
+
+            if (!providers.contains(provider))
+            {
+                providers.add(provider);
+            }
+        }
+
+        if (providers.isEmpty())
+        {
+            throw new IllegalArgumentException("At least one output format is required");
+        }
+
+        return providers;
+    }
+}
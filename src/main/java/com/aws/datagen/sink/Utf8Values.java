@@ -0,0 +1,18 @@
+package com.aws.datagen.sink;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The UTF-8 bytes of the few distinct values of a column such as a title or gender, encoded once per writer
+ */
+class Utf8Values
+{
+    private final Map<String, byte[]> values = new HashMap<>();
+
+    byte[] get(String value)
+    {
+        return values.computeIfAbsent(value, text -> text.getBytes(StandardCharsets.UTF_8));
+    }
+}
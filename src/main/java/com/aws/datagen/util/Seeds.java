@@ -0,0 +1,35 @@
+package com.aws.datagen.util;
+
+/**
+ * Derives seeds from other seeds, so a random stream can be a pure function of a parent seed and
+ * a key without depending on any generator state.
+ */
+public final class Seeds
+{
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private Seeds()
+    {
+    }
+
+    /**
+     * Mixes a key into a seed, producing a well distributed derived seed
+     * @param seed the parent seed
+     * @param key the key to derive with
+     * @return the derived seed
+     */
+    public static long mix(long seed, long key)
+    {
+        return mix64(seed + GOLDEN_GAMMA * (key + 1L));
+    }
+
+    /**
+     * The SplitMix64 finaliser
+     */
+    private static long mix64(long z)
+    {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,215 @@
+package com.aws.datagen;
+
+import com.aws.datagen.sink.SinkContext;
+import com.aws.datagen.sink.SinkProviders;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowFileReader;
+import org.apache.arrow.vector.ipc.ArrowReader;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DecimalColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.orc.OrcFile;
+import org.apache.orc.Reader;
+import org.apache.orc.RecordReader;
+import org.apache.orc.TypeDescription;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ColumnarFormatsTest
+{
+    private static final String[] CONTRIBUTION_COLUMNS = { "ContributionId", "CustomerId", "ContributionDate", "Amount" };
+    private static final String[] CUSTOMER_COLUMNS = { "CustomerId", "Title", "FirstName", "LastName", "Gender", "JoinDate" };
+
+    @Before
+    public void setUp() throws IOException
+    {
+        TestRuns.prepare();
+        TestRuns.deleteOutput();
+    }
+
+    @Test
+    public void orcAndArrowMatchCsv() throws Exception
+    {
+        DataGenerator generator = new DataGenerator(42L);
+        generator.setFormats(SinkProviders.resolve("csv,orc,arrow,arrow_stream"));
+        generator.setChunkSize(100);
+        generator.generate(200);
+
+        File csv = new File("output_csv");
+        List<File> files = new ArrayList<>(FileUtils.listFiles(csv, new String[] { "csv" }, true));
+
+        assertTrue(files.size() > 2);
+
+        for (File file: files)
+        {
+            String path = csv.toURI().relativize(file.toURI()).getPath().replaceAll("\\.csv$", "");
+            String[] columns = path.startsWith(SinkContext.CUSTOMERS) ? CUSTOMER_COLUMNS : CONTRIBUTION_COLUMNS;
+            List<String> expected = readCsv(file);
+
+            assertEquals(path, expected, readOrc(new File("output_orc", path + ".orc"), columns));
+            assertEquals(path, expected, readArrow(new File("output_arrow", path + ".arrow"), false, columns));
+            assertEquals(path, expected, readArrow(new File("output_arrow_stream", path + ".arrows"), true, columns));
+        }
+    }
+
+    @Test
+    public void verifierComparesOrcAndArrowWithCsv() throws Exception
+    {
+        DataGenerator generator = new DataGenerator(42L);
+        generator.setFormats(SinkProviders.resolve("csv,orc,arrow,arrow_stream"));
+        generator.generate(200);
+
+        SinkContext context = new SinkContext();
+        context.setOutputRoot(new File("."));
+        DatasetVerifier verifier = new DatasetVerifier(context, 2);
+
+        assertTrue(verifier.getProblems().toString(), verifier.verify());
+        assertEquals(4, verifier.getFormats().size());
+    }
+
+    /**
+     * Reads a CSV file's rows without quotes, with amounts in cents
+     */
+    private static List<String> readCsv(File file) throws IOException
+    {
+        List<String> rows = new ArrayList<>();
+        List<String> lines = FileUtils.readLines(file, StandardCharsets.UTF_8);
+
+        for (String line: lines.subList(1, lines.size()))
+        {
+            String[] fields = line.replace("\"", "").split(",");
+
+            if (fields.length == CONTRIBUTION_COLUMNS.length)
+            {
+                fields[3] = Long.toString(new BigDecimal(fields[3]).movePointRight(2).longValueExact());
+            }
+
+            rows.add(String.join(",", fields));
+        }
+
+        return rows;
+    }
+
+    private static List<String> readOrc(File file, String[] columns) throws IOException
+    {
+        Configuration configuration = new Configuration(false);
+        RawLocalFileSystem fileSystem = new RawLocalFileSystem();
+        fileSystem.initialize(URI.create("file:///"), configuration);
+
+        List<String> rows = new ArrayList<>();
+
+        try (Reader reader = OrcFile.createReader(new Path(file.getAbsolutePath()), OrcFile.readerOptions(configuration).filesystem(fileSystem)))
+        {
+            TypeDescription schema = reader.getSchema();
+            VectorizedRowBatch batch = schema.createRowBatch();
+
+            try (RecordReader records = reader.rows())
+            {
+                while (records.nextBatch(batch))
+                {
+                    for (int i = 0; i < batch.size; i++)
+                    {
+                        String[] row = new String[columns.length];
+
+                        for (int c = 0; c < columns.length; c++)
+                        {
+                            int field = schema.getFieldNames().indexOf(columns[c]);
+                            row[c] = orcValue(schema.getChildren().get(field), batch.cols[field], i);
+                        }
+
+                        rows.add(String.join(",", row));
+                    }
+                }
+            }
+        }
+
+        return rows;
+    }
+
+    private static String orcValue(TypeDescription type, ColumnVector vector, int row)
+    {
+        int index = vector.isRepeating ? 0 : row;
+
+        switch (type.getCategory())
+        {
+            case DATE:
+                return LocalDate.ofEpochDay(((LongColumnVector) vector).vector[index]).toString();
+            case LONG:
+                return Long.toString(((LongColumnVector) vector).vector[index]);
+            case DECIMAL:
+                return Long.toString(((DecimalColumnVector) vector).vector[index].getHiveDecimal()
+                        .bigDecimalValue().movePointRight(2).longValueExact());
+            default:
+                return ((BytesColumnVector) vector).toString(index);
+        }
+    }
+
+    private static List<String> readArrow(File file, boolean streaming, String[] columns) throws IOException
+    {
+        List<String> rows = new ArrayList<>();
+
+        try (BufferAllocator allocator = new RootAllocator();
+             FileInputStream input = new FileInputStream(file);
+             ArrowReader reader = streaming ? new ArrowStreamReader(input, allocator) : new ArrowFileReader(input.getChannel(), allocator))
+        {
+            while (reader.loadNextBatch())
+            {
+                VectorSchemaRoot root = reader.getVectorSchemaRoot();
+
+                for (int i = 0; i < root.getRowCount(); i++)
+                {
+                    String[] row = new String[columns.length];
+
+                    for (int c = 0; c < columns.length; c++)
+                    {
+                        row[c] = arrowValue(root.getVector(columns[c]), i);
+                    }
+
+                    rows.add(String.join(",", row));
+                }
+            }
+        }
+
+        return rows;
+    }
+
+    private static String arrowValue(FieldVector vector, int row)
+    {
+        if (vector instanceof DateDayVector)
+        {
+            return LocalDate.ofEpochDay(((DateDayVector) vector).get(row)).toString();
+        }
+
+        if (vector instanceof DecimalVector)
+        {
+            return Long.toString(((DecimalVector) vector).getObject(row).movePointRight(2).longValueExact());
+        }
+
+        return String.valueOf(vector.getObject(row));
+    }
+}
@@ -0,0 +1,79 @@
+package com.aws.datagen;
+
+import com.aws.datagen.model.Customer;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class ContributionLayoutTest
+{
+    @Test
+    public void dateLayoutGroupsCustomersByPayDay() throws IOException
+    {
+        CustomerTable customers = createCustomers(300);
+
+        assertArrayEquals(customers.indexByPayDay(), ContributionLayout.DATE.order(customers));
+    }
+
+    @Test
+    public void customerLayoutKeepsCustomerOrder() throws IOException
+    {
+        int[][] order = ContributionLayout.CUSTOMER.order(createCustomers(300));
+
+        assertEquals(1, order.length);
+
+        for (int i = 0; i < order[0].length; i++)
+        {
+            assertEquals(i, order[0][i]);
+        }
+    }
+
+    @Test
+    public void zorderLayoutWritesEveryCustomerOnce() throws IOException
+    {
+        int[][] order = ContributionLayout.ZORDER.order(createCustomers(300));
+        int[] sorted = order[0].clone();
+        Arrays.sort(sorted);
+
+        assertEquals(1, order.length);
+
+        for (int i = 0; i < sorted.length; i++)
+        {
+            assertEquals(i, sorted[i]);
+        }
+
+        assertFalse(Arrays.equals(sorted, order[0]));
+    }
+
+    @Test
+    public void findsLayoutsByName()
+    {
+        assertEquals(ContributionLayout.ZORDER, ContributionLayout.forName(" ZOrder "));
+        assertEquals("customer", ContributionLayout.CUSTOMER.getName());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownLayouts()
+    {
+        ContributionLayout.forName("hilbert");
+    }
+
+    private static CustomerTable createCustomers(int count) throws IOException
+    {
+        TestRuns.prepare();
+
+        CustomerTable customers = new CustomerTable(0L, count);
+
+        for (Customer customer: new DataGenerator(42L).createCustomers(count))
+        {
+            customers.add(customer);
+        }
+
+        return customers;
+    }
+}
@@ -0,0 +1,56 @@
+package com.aws.datagen;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ContributionTotalsTest
+{
+    @Test
+    public void splitTotalsMatchTheSplitShares()
+    {
+        long[] amounts = { 0L, 7L, 100L, 12345L, -12345L };
+
+        for (long cents: amounts)
+        {
+            for (int activity = 1; activity <= 5; activity++)
+            {
+                ContributionTotals totals = new ContributionTotals(1);
+                totals.addSplit(0, cents, activity);
+
+                long min = Long.MAX_VALUE;
+                long max = Long.MIN_VALUE;
+
+                for (int part = 0; part < activity; part++)
+                {
+                    min = Math.min(min, SkewModel.splitCents(cents, activity, part));
+                    max = Math.max(max, SkewModel.splitCents(cents, activity, part));
+                }
+
+                assertEquals(activity, totals.getCount(0));
+                assertEquals(cents, totals.getSum(0));
+                assertEquals(min, totals.getMin(0));
+                assertEquals(max, totals.getMax(0));
+            }
+        }
+    }
+
+    @Test
+    public void addsOtherTotalsFromAnOffset()
+    {
+        ContributionTotals partition = new ContributionTotals(2);
+        partition.add(ContributionTotals.genderSlot(true), 3L, 300L, 90L, 110L);
+
+        ContributionTotals run = new ContributionTotals(6);
+        run.add(5, 1L, 500L, 500L, 500L);
+        run.addAll(partition, 4);
+        run.addAll(partition, 4);
+
+        assertEquals(0L, run.getCount(4));
+        assertEquals(Long.MAX_VALUE, run.getMin(4));
+        assertEquals(7L, run.getCount(5));
+        assertEquals(1100L, run.getSum(5));
+        assertEquals(90L, run.getMin(5));
+        assertEquals(500L, run.getMax(5));
+    }
+}
@@ -0,0 +1,94 @@
+package com.aws.datagen;
+
+import com.aws.datagen.model.Customer;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CustomerTableTest
+{
+    @Test
+    public void holdsCustomerColumns()
+    {
+        CustomerTable table = new CustomerTable(100L, 2);
+        table.add(customer(100L, LocalDate.of(2010, 3, 14), true));
+        table.add(customer(101L, LocalDate.of(2011, 7, 31), false));
+
+        assertEquals(2, table.size());
+        assertEquals(101L, table.getCustomerId(1));
+        assertEquals(LocalDate.of(2010, 3, 14).toEpochDay(), table.getJoinEpochDay(0));
+        assertEquals(0.25, table.getSalaryVariance(0), 0.0);
+        assertEquals(1101L, table.getRandomSeed(1));
+        assertTrue(table.isMale(0));
+        assertFalse(table.isMale(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsCustomersOutOfOrder()
+    {
+        CustomerTable table = new CustomerTable(0L, 2);
+        table.add(customer(1L, LocalDate.of(2010, 1, 1), true));
+    }
+
+    @Test
+    public void indexesCustomersByPayDay()
+    {
+        CustomerTable table = new CustomerTable(0L, 4);
+        table.add(customer(0L, LocalDate.of(2010, 3, 14), true));
+        table.add(customer(1L, LocalDate.of(2011, 1, 31), false));
+        table.add(customer(2L, LocalDate.of(2012, 6, 14), false));
+        table.add(customer(3L, LocalDate.of(2012, 6, 1), true));
+
+        int[][] customersPerPayDay = table.indexByPayDay();
+
+        assertEquals(32, customersPerPayDay.length);
+        assertArrayEquals(new int[] { 3 }, customersPerPayDay[1]);
+        assertArrayEquals(new int[] { 0, 2 }, customersPerPayDay[14]);
+        assertArrayEquals(new int[] { 1 }, customersPerPayDay[31]);
+        assertEquals(0, customersPerPayDay[15].length);
+    }
+
+    @Test
+    public void looksUpTabulatedContributionCents()
+    {
+        CustomerTable table = new CustomerTable(0L, 2);
+        table.add(customer(0L, LocalDate.of(2010, 3, 14), true));
+        table.add(customer(1L, LocalDate.of(2011, 1, 31), false));
+
+        assertEquals(CustomerTable.NOT_TABULATED, table.getContributionCents(0, 2010));
+
+        table.setContributionCents(2010, 2, new int[] { 100, 110, 200, CustomerTable.NOT_TABULATED });
+
+        assertEquals(100, table.getContributionCents(0, 2010));
+        assertEquals(110, table.getContributionCents(0, 2011));
+        assertEquals(200, table.getContributionCents(1, 2010));
+        assertEquals(CustomerTable.NOT_TABULATED, table.getContributionCents(1, 2011));
+        assertEquals(CustomerTable.NOT_TABULATED, table.getContributionCents(0, 2009));
+        assertEquals(CustomerTable.NOT_TABULATED, table.getContributionCents(0, 2012));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTablesOfTheWrongSize()
+    {
+        CustomerTable table = new CustomerTable(0L, 2);
+        table.add(customer(0L, LocalDate.of(2010, 3, 14), true));
+        table.setContributionCents(2010, 2, new int[3]);
+    }
+
+    private static Customer customer(long customerId, LocalDate joinDate, boolean male)
+    {
+        Customer customer = new Customer(customerId);
+        customer.setJoinDate(Date.from(joinDate.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        customer.setSalaryVariance(0.25);
+        customer.setRandomSeed(1000L + customerId);
+        customer.setMale(male);
+        return customer;
+    }
+}
@@ -0,0 +1,105 @@
+package com.aws.datagen;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DataGeneratorCliTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setUp() throws IOException
+    {
+        TestRuns.prepare();
+    }
+
+    @Test
+    public void runsFromConfigWithCommandLineOverrides() throws Exception
+    {
+        File root = folder.newFolder("run");
+        File config = folder.newFile("run.yaml");
+
+        FileUtils.writeLines(config, "UTF-8", Arrays.asList(
+                "seed: 7",
+                "customers: 500",
+                "formats: [csv]",
+                "start-year: 2015",
+                "end-year: 2016",
+                "male-salary: 40000",
+                "metrics-interval: 0",
+                "output-root: " + root.getPath()));
+
+        DataGeneratorCli.main(new String[] { "--config", config.getPath(), "--customers", "60" });
+
+        File customers = new File(root, "output_csv/customers/customers.csv");
+        Collection<File> contributions = FileUtils.listFiles(new File(root, "output_csv/contributions"), new String[] { "csv" }, true);
+
+        assertEquals(61, FileUtils.readLines(customers, StandardCharsets.UTF_8).size());
+        assertEquals(24, contributions.size());
+        assertFalse(new File(root, "output_compressed").exists());
+        assertTrue(new File(root, "output_metrics/metrics.json").isFile());
+
+        try (Manifest manifest = Manifest.load(new File(root, Manifest.DEFAULT_DIRECTORY)))
+        {
+            assertEquals(7L, manifest.getSeed());
+            assertEquals(60L, manifest.getCustomers());
+            assertEquals(2016, manifest.getEndYear());
+            assertEquals(40000.0, manifest.getModelParameters().get("male-salary"), 0.0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownConfigKeys() throws Exception
+    {
+        File config = folder.newFile("run.properties");
+        FileUtils.writeStringToFile(config, "customers=10\ncolour=blue\n", StandardCharsets.UTF_8);
+
+        DataGeneratorCli.main(new String[] { "--config", config.getPath(), "--output-root", folder.getRoot().getPath() });
+    }
+
+    @Test
+    public void rejectsLayoutOptionsThatDifferFromTheManifest() throws Exception
+    {
+        String root = folder.newFolder("run").getPath();
+
+        DataGeneratorCli.main(new String[] { "--output-root", root, "--customers", "20", "--formats", "csv", "--start-year", "2010",
+                "--metrics-interval", "0", "--layout", "customer", "--partition-by", "year,bucket", "--buckets", "4", "--part-size", "5000" });
+
+        String[][] conflicts = {
+                { "--layout", "date" },
+                { "--partition-by", "year,month" },
+                { "--buckets", "8" },
+                { "--part-size", "6000" } };
+
+        for (String[] conflict: conflicts)
+        {
+            try
+            {
+                DataGeneratorCli.main(new String[] { "--output-root", root, "--resume", "--metrics-interval", "0", conflict[0], conflict[1] });
+                fail("Accepted " + conflict[0] + " " + conflict[1]);
+            }
+            catch (IllegalArgumentException e)
+            {
+                assertTrue(e.getMessage(), e.getMessage().startsWith(conflict[0] + " " + conflict[1] + " differs from the manifest"));
+            }
+        }
+
+        DataGeneratorCli.main(new String[] { "--output-root", root, "--resume", "--metrics-interval", "0", "--layout", "CUSTOMER",
+                "--partition-by", "bucket,year", "--buckets", "4", "--part-size", "5000" });
+    }
+}
@@ -0,0 +1,940 @@
+package com.aws.datagen;
+
+import com.aws.datagen.metrics.RunMetrics;
+import com.aws.datagen.model.Customer;
+import com.aws.datagen.model.LogicalValues;
+import com.aws.datagen.sink.CsvSinkProvider;
+import com.aws.datagen.sink.LocalInputFile;
+import com.aws.datagen.sink.SinkProvider;
+import com.aws.datagen.sink.SinkProviders;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.avro.AvroParquetReader;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DataGeneratorTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final File CONTRIBUTIONS = new File("output_csv/contributions");
+    private static final File CUSTOMERS = new File("output_csv/customers/customers.csv");
+
+    @Before
+    public void setUp() throws IOException
+    {
+        TestRuns.prepare();
+        TestRuns.deleteOutput();
+    }
+
+    @Test
+    public void contributionIdsAreContiguousInDateOrder() throws Exception
+    {
+        DataGenerator generator = new DataGenerator();
+        generator.setFormats(SinkProviders.resolve("csv"));
+        generator.setThreads(4);
+        generator.createContributions(generator.createCustomers(300));
+
+        long expectedId = 0L;
+        String lastDate = "";
+
+        for (String row: readRows())
+        {
+            String[] fields = row.split(",");
+            String date = fields[2];
+
+            assertEquals(expectedId++, Long.parseLong(fields[0]));
+            assertTrue(row, date.compareTo(lastDate) >= 0);
+            lastDate = date;
+        }
+
+        assertTrue(expectedId > 0L);
+    }
+
+    @Test
+    public void threadCountDoesNotChangeOutput() throws Exception
+    {
+        DataGenerator generator = new DataGenerator();
+        generator.setFormats(SinkProviders.resolve("csv"));
+        List<Customer> customers = generator.createCustomers(300);
+
+        generator.setThreads(1);
+        generator.createContributions(customers);
+        Map<String, String> single = readFiles();
+
+        TestRuns.deleteOutput();
+
+        generator.setThreads(4);
+        generator.createContributions(customers);
+
+        assertEquals(single, readFiles());
+    }
+
+    @Test
+    public void sameSeedGivesSameOutput() throws Exception
+    {
+        DataGenerator first = new DataGenerator(42L);
+        first.setFormats(SinkProviders.resolve("csv"));
+        first.setThreads(1);
+        first.createContributions(first.createCustomers(300));
+        Map<String, String> expected = readFiles();
+
+        TestRuns.deleteOutput();
+
+        DataGenerator second = new DataGenerator(42L);
+
+        second.setFormats(SinkProviders.resolve("csv"));
+        second.setThreads(4);
+        second.createContributions(second.createCustomers(300));
+
+        assertEquals(expected, readFiles());
+    }
+
+    @Test
+    public void differentSeedsGiveDifferentOutput() throws Exception
+    {
+        DataGenerator first = new DataGenerator(42L);
+        first.setFormats(SinkProviders.resolve("csv"));
+        first.createContributions(first.createCustomers(300));
+        Map<String, String> expected = readFiles();
+
+        TestRuns.deleteOutput();
+
+        DataGenerator second = new DataGenerator(43L);
+
+        second.setFormats(SinkProviders.resolve("csv"));
+        second.createContributions(second.createCustomers(300));
+
+        assertNotEquals(expected, readFiles());
+    }
+
+    @Test
+    public void chunkingKeepsCustomersAndContributions() throws Exception
+    {
+        DataGenerator whole = new DataGenerator(42L);
+        whole.setFormats(SinkProviders.resolve("csv"));
+        whole.generate(300);
+        String customers = FileUtils.readFileToString(CUSTOMERS, StandardCharsets.UTF_8);
+        List<String> contributions = withoutIds(readRows());
+
+        TestRuns.deleteOutput();
+
+        DataGenerator chunked = new DataGenerator(42L);
+
+        chunked.setFormats(SinkProviders.resolve("csv"));
+        chunked.setChunkSize(100);
+        chunked.generate(300);
+
+        assertEquals(customers, FileUtils.readFileToString(CUSTOMERS, StandardCharsets.UTF_8));
+
+        for (String path: readFiles().keySet())
+        {
+            assertTrue(path, path.matches(".*/contributions_\\d{4}-\\d{2}-0000[0-2]\\.csv"));
+        }
+
+        List<String> rows = readRows();
+        TreeSet<Long> ids = new TreeSet<>();
+
+        for (String row: rows)
+        {
+            ids.add(Long.parseLong(row.substring(0, row.indexOf(','))));
+        }
+
+        assertEquals(rows.size(), ids.size());
+        assertEquals(0L, (long) ids.first());
+        assertEquals(rows.size() - 1L, (long) ids.last());
+
+        List<String> chunkedContributions = withoutIds(rows);
+        Collections.sort(contributions);
+        Collections.sort(chunkedContributions);
+        assertEquals(contributions, chunkedContributions);
+    }
+
+    @Test
+    public void writerQueueDoesNotChangeOutput() throws Exception
+    {
+        DataGenerator direct = new DataGenerator(42L);
+        direct.setFormats(SinkProviders.resolve("csv"));
+        direct.setWriterQueueDepth(0);
+        direct.setChunkSize(100);
+        direct.generate(300);
+        String customers = FileUtils.readFileToString(CUSTOMERS, StandardCharsets.UTF_8);
+        Map<String, String> contributions = readFiles();
+
+        TestRuns.deleteOutput();
+
+        DataGenerator queued = new DataGenerator(42L);
+        queued.setFormats(SinkProviders.resolve("csv"));
+        queued.setWriterQueueDepth(2);
+        queued.setChunkSize(100);
+        queued.generate(300);
+
+        assertEquals(customers, FileUtils.readFileToString(CUSTOMERS, StandardCharsets.UTF_8));
+        assertEquals(contributions, readFiles());
+    }
+
+    @Test
+    public void resumeRegeneratesOnlyMissingAndDamagedFiles() throws Exception
+    {
+        DataGenerator generator = new DataGenerator(42L);
+        generator.setFormats(SinkProviders.resolve("csv"));
+        generator.setChunkSize(100);
+        generator.generate(300);
+
+        Map<String, String> expected = readFiles();
+        List<String> paths = new ArrayList<>(expected.keySet());
+        File missing = new File(CONTRIBUTIONS, paths.get(0));
+        File damaged = new File(CONTRIBUTIONS, paths.get(1));
+        File untouched = new File(CONTRIBUTIONS, paths.get(2));
+
+        assertTrue(missing.delete());
+        FileUtils.writeStringToFile(damaged, "damaged", StandardCharsets.UTF_8);
+        assertTrue(untouched.setLastModified(1000000000000L));
+
+        DataGenerator resumed = new DataGenerator(42L);
+        resumed.setFormats(SinkProviders.resolve("csv"));
+
+        try (Manifest manifest = Manifest.load(new File(Manifest.DEFAULT_DIRECTORY)))
+        {
+            resumed.resume(manifest);
+        }
+
+        assertEquals(expected, readFiles());
+        assertEquals(1000000000000L, untouched.lastModified());
+    }
+
+    @Test
+    public void movedRunResumesWithoutRegeneratingItsFiles() throws Exception
+    {
+        File original = folder.newFolder("original").getAbsoluteFile();
+        File moved = new File(folder.getRoot(), "moved").getAbsoluteFile();
+
+        DataGenerator generator = new DataGenerator(42L);
+        generator.setFormats(SinkProviders.resolve("csv"));
+        generator.getSinkContext().setOutputRoot(original);
+        generator.generate(300);
+
+        assertTrue(original.renameTo(moved));
+
+        File contributions = new File(moved, CONTRIBUTIONS.getPath());
+        List<File> files = new ArrayList<>(new TreeSet<>(FileUtils.listFiles(contributions, new String[] { "csv" }, true)));
+        File missing = files.get(0);
+        File untouched = files.get(1);
+        String expected = FileUtils.readFileToString(missing, StandardCharsets.UTF_8);
+
+        assertTrue(missing.delete());
+        assertTrue(untouched.setLastModified(1000000000000L));
+
+        DataGenerator resumed = new DataGenerator(42L);
+        resumed.setFormats(SinkProviders.resolve("csv"));
+        resumed.getSinkContext().setOutputRoot(moved);
+
+        try (Manifest manifest = Manifest.load(resumed.getManifestDirectory()))
+        {
+            resumed.resume(manifest);
+        }
+
+        assertEquals(expected, FileUtils.readFileToString(missing, StandardCharsets.UTF_8));
+        assertEquals(1000000000000L, untouched.lastModified());
+    }
+
+    @Test
+    public void appendExtendsRunWithoutRewritingEarlierYears() throws Exception
+    {
+        DataGenerator generator = new DataGenerator(42L);
+        generator.setFormats(SinkProviders.resolve("csv"));
+        generator.setYears(2015, 2016);
+        generator.generate(300);
+
+        Map<String, String> earlier = readFiles();
+
+        DataGenerator appended = new DataGenerator(42L);
+        appended.setFormats(SinkProviders.resolve("csv"));
+
+        try (Manifest manifest = Manifest.load(new File(Manifest.DEFAULT_DIRECTORY)))
+        {
+            appended.append(manifest, 2017);
+
+            assertEquals(2017, manifest.getEndYear());
+            assertEquals(readRows().size(), manifest.getNextContributionId());
+        }
+
+        Map<String, String> files = readFiles();
+
+        assertEquals(earlier.size() + 12, files.size());
+        assertTrue(files.entrySet().containsAll(earlier.entrySet()));
+
+        long expectedId = 0L;
+
+        for (String row: readRows())
+        {
+            assertEquals(expectedId++, Long.parseLong(row.substring(0, row.indexOf(','))));
+        }
+    }
+
+    @Test
+    public void metricsCountRowsAndBytesWritten() throws Exception
+    {
+        DataGenerator generator = new DataGenerator(42L);
+        generator.setFormats(SinkProviders.resolve("csv"));
+        generator.setMetricsInterval(0);
+        generator.generate(200);
+
+        RunMetrics metrics = generator.getSinkContext().getMetrics();
+        long bytes = CUSTOMERS.length();
+
+        for (String path: readFiles().keySet())
+        {
+            bytes += new File(CONTRIBUTIONS, path).length();
+        }
+
+        assertEquals(readRows().size(), metrics.getContributionRows());
+        assertEquals(200L, metrics.getCustomerRows());
+        assertEquals(bytes, (long) metrics.getBytesWritten().get("csv"));
+        assertEquals(1.0, metrics.getProgress(), 0.0);
+
+        String summary = FileUtils.readFileToString(generator.getMetricsFile(), StandardCharsets.UTF_8);
+
+        assertTrue(summary, summary.contains("\"contributionRows\": " + metrics.getContributionRows() + ",\n"));
+        assertTrue(summary, summary.contains("\"csv\": " + bytes + "\n"));
+    }
+
+    @Test
+    public void shardsTogetherWriteTheUnshardedRun() throws Exception
+    {
+        generateShard(0, 1);
+        Map<String, String> expected = readFiles();
+        List<String> customers = readCustomerRows();
+
+        TestRuns.deleteOutput();
+
+        for (int shard = 0; shard < 2; shard++)
+        {
+            generateShard(shard, 2);
+        }
+
+        assertEquals(expected, readFiles());
+        assertEquals(400, customers.size());
+        assertEquals(customers, readCustomerRows());
+
+        ShardVerifier verifier = new ShardVerifier(new File(Manifest.DEFAULT_DIRECTORY), 2);
+
+        assertTrue(verifier.getProblems().toString(), verifier.verify());
+        assertEquals(400L, verifier.getCustomerRows());
+        assertEquals(readRows().size(), verifier.getContributionRows());
+
+        assertTrue(new File(CONTRIBUTIONS, expected.keySet().iterator().next()).delete());
+
+        assertFalse(new ShardVerifier(new File(Manifest.DEFAULT_DIRECTORY), 2).verify());
+    }
+
+    private static void generateShard(int shard, int shards) throws Exception
+    {
+        DataGenerator generator = new DataGenerator(42L);
+        generator.setFormats(SinkProviders.resolve("csv"));
+        generator.setYears(2015, 2017);
+        generator.setChunkSize(100);
+        generator.setShard(shard, shards);
+        generator.generate(400);
+    }
+
+    /**
+     * Reads the customer rows of every customer file in file name order, without headers
+     */
+    private static List<String> readCustomerRows() throws IOException
+    {
+        List<String> rows = new ArrayList<>();
+
+        for (File file: new TreeSet<>(FileUtils.listFiles(CUSTOMERS.getParentFile(), new String[] { "csv" }, false)))
+        {
+            String[] lines = FileUtils.readFileToString(file, StandardCharsets.UTF_8).split("\r\n");
+            rows.addAll(Arrays.asList(lines).subList(1, lines.length));
+        }
+
+        return rows;
+    }
+
+    @Test
+    public void rowTargetUsesTheFewestCustomers() throws Exception
+    {
+        DataGenerator generator = new DataGenerator(42L);
+        generator.setFormats(SinkProviders.resolve("csv"));
+        long customers = generator.findCustomerCount(5000L, 0L);
+        generator.generate(customers);
+
+        List<String> rows = readRows();
+        long lastCustomerRows = countCustomerRows(rows, customers - 1L);
+
+        assertTrue(rows.size() >= 5000);
+        assertTrue(rows.size() - lastCustomerRows < 5000L);
+    }
+
+    @Test
+    public void byteTargetMatchesTheWrittenCsv() throws Exception
+    {
+        DataGenerator generator = new DataGenerator(42L);
+        generator.setFormats(SinkProviders.resolve("csv"));
+        generator.getSkewModel().setMaxActivity(5);
+        long customers = generator.findCustomerCount(0L, 200000L);
+        generator.generate(customers);
+
+        long bytes = 0L;
+        long lastCustomerBytes = 0L;
+
+        for (File file: FileUtils.listFiles(CONTRIBUTIONS, new String[] { "csv" }, true))
+        {
+            bytes += file.length();
+        }
+
+        for (String row: readRows())
+        {
+            if (Long.parseLong(row.split(",")[1]) == customers - 1L)
+            {
+                lastCustomerBytes += row.length() + 2L;
+            }
+        }
+
+        assertTrue(bytes >= 200000L);
+        assertTrue(bytes - lastCustomerBytes < 200000L);
+    }
+
+    @Test
+    public void activitySplitsEachPayDayEvenly() throws Exception
+    {
+        DataGenerator uniform = new DataGenerator(42L);
+        uniform.setFormats(SinkProviders.resolve("csv"));
+        uniform.generate(100);
+        Map<String, List<Long>> expected = groupAmounts(readRows());
+
+        TestRuns.deleteOutput();
+
+        DataGenerator skewed = new DataGenerator(42L);
+        skewed.setFormats(SinkProviders.resolve("csv"));
+        skewed.getSkewModel().setMaxActivity(5);
+        skewed.getSkewModel().setActivitySkew(1.2);
+        skewed.generate(100);
+        Map<String, List<Long>> payDays = groupAmounts(readRows());
+        Map<String, Integer> activity = new TreeMap<>();
+
+        assertEquals(expected.keySet(), payDays.keySet());
+
+        for (Map.Entry<String, List<Long>> payDay: payDays.entrySet())
+        {
+            List<Long> shares = payDay.getValue();
+            String customerId = payDay.getKey().substring(0, payDay.getKey().indexOf(','));
+
+            assertEquals(payDay.getKey(), activity.computeIfAbsent(customerId, id -> shares.size()).intValue(), shares.size());
+            assertTrue(payDay.getKey(), Collections.max(shares) - Collections.min(shares) <= 1L);
+        }
+
+        assertTrue(new TreeSet<>(activity.values()).size() > 1);
+    }
+
+    private static long countCustomerRows(List<String> rows, long customerId)
+    {
+        long count = 0L;
+
+        for (String row: rows)
+        {
+            if (Long.parseLong(row.split(",")[1]) == customerId)
+            {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Groups the contribution cents of each customer by date
+     */
+    private static Map<String, List<Long>> groupAmounts(List<String> rows)
+    {
+        Map<String, List<Long>> amounts = new TreeMap<>();
+
+        for (String row: rows)
+        {
+            String[] fields = row.split(",");
+            long cents = new BigDecimal(fields[3]).movePointRight(2).longValueExact();
+            amounts.computeIfAbsent(fields[1] + "," + fields[2], key -> new ArrayList<>()).add(cents);
+        }
+
+        return amounts;
+    }
+
+    @Test
+    public void tabulatedAmountsMatchComputedAmounts() throws Exception
+    {
+        DataGenerator generator = new DataGenerator(42L);
+        CustomerTable computed = new CustomerTable(0L, 200);
+        CustomerTable tabulated = new CustomerTable(0L, 200);
+
+        for (Customer customer: generator.createCustomers(200))
+        {
+            computed.add(customer);
+            tabulated.add(customer);
+        }
+
+        generator.tabulateContributionCents(tabulated, generator.getStartYear(), generator.getEndYear());
+
+        for (int i = 0; i < tabulated.size(); i++)
+        {
+            for (int year = generator.getStartYear(); year <= generator.getEndYear(); year++)
+            {
+                assertTrue(tabulated.getContributionCents(i, year) != CustomerTable.NOT_TABULATED);
+                assertEquals(generator.getContributionCents(computed, i, year), generator.getContributionCents(tabulated, i, year));
+            }
+        }
+    }
+
+    @Test
+    public void parquetMatchesCsv() throws Exception
+    {
+        DataGenerator generator = new DataGenerator(42L);
+        generator.setFormats(SinkProviders.resolve("csv,parquet"));
+        generator.generate(200);
+
+        for (Map.Entry<String, String> file: readFiles().entrySet())
+        {
+            String parquetPath = file.getKey().replace(".csv", ".snappy.parquet");
+            List<String> expected = new ArrayList<>();
+
+            for (String row: file.getValue().split("\r\n"))
+            {
+                if (!row.startsWith("\"ContributionId\""))
+                {
+                    String[] fields = row.split(",");
+                    expected.add(fields[0] + "," + fields[1] + "," + fields[2].replace("\"", "") + ","
+                            + Math.round(Double.parseDouble(fields[3]) * 100.0));
+                }
+            }
+
+            assertEquals(expected, readParquet(new File("output_parquet/contributions", parquetPath)));
+        }
+    }
+
+    /**
+     * Reads contributions back from Parquet in the same field order as the CSV, with the amount in cents
+     */
+    private static List<String> readParquet(File file) throws IOException
+    {
+        List<String> rows = new ArrayList<>();
+
+        try (ParquetReader<GenericRecord> reader = AvroParquetReader.<GenericRecord>builder(new LocalInputFile(file))
+                .withConf(new Configuration(false)).build())
+        {
+            for (GenericRecord record = reader.read(); record != null; record = reader.read())
+            {
+                rows.add(record.get("ContributionId") + "," + record.get("CustomerId") + ","
+                        + LocalDate.ofEpochDay(LogicalValues.readEpochDay(record.get("ContributionDate"))) + ","
+                        + LogicalValues.readCents(record.get("Amount")));
+            }
+        }
+
+        return rows;
+    }
+
+    @Test
+    public void rollupsMatchTotalsFromTheCsv() throws Exception
+    {
+        DataGenerator generator = new DataGenerator(42L);
+        generator.setFormats(SinkProviders.resolve("csv"));
+        generator.getSkewModel().setMaxActivity(3);
+        generator.setRollups(true);
+        generator.generate(200);
+
+        Map<String, String> genders = new TreeMap<>();
+
+        for (String row: readCustomerRows())
+        {
+            String[] fields = row.split(",");
+            genders.put(fields[0], fields[4].replace("\"", ""));
+        }
+
+        Map<String, List<Long>> monthly = new TreeMap<>();
+        Map<String, List<Long>> yearly = new TreeMap<>();
+
+        for (String row: readRows())
+        {
+            String[] fields = row.split(",");
+            String date = fields[2].replace("\"", "");
+            long cents = new BigDecimal(fields[3]).movePointRight(2).longValueExact();
+            String gender = genders.get(fields[1]);
+
+            addTotal(monthly, Integer.parseInt(date.substring(0, 4)) + "," + Integer.parseInt(date.substring(5, 7)) + "," + gender, cents);
+            addTotal(yearly, fields[1] + "," + date.substring(0, 4) + "," + gender, cents);
+        }
+
+        assertEquals(monthly, readTotals(new File("output_parquet/contribution_monthly_totals"), "Year", "Month", "Gender"));
+        assertEquals(yearly, readTotals(new File("output_parquet/customer_yearly_totals"), "CustomerId", "Year", "Gender"));
+    }
+
+    /**
+     * Adds an amount to the count, sum, min and max of a group
+     */
+    private static void addTotal(Map<String, List<Long>> totals, String group, long cents)
+    {
+        List<Long> total = totals.computeIfAbsent(group, key -> new ArrayList<>(Arrays.asList(0L, 0L, Long.MAX_VALUE, Long.MIN_VALUE)));
+        total.set(0, total.get(0) + 1L);
+        total.set(1, total.get(1) + cents);
+        total.set(2, Math.min(total.get(2), cents));
+        total.set(3, Math.max(total.get(3), cents));
+    }
+
+    /**
+     * Reads every rollup file of a table, keyed by its group columns
+     */
+    private static Map<String, List<Long>> readTotals(File table, String... groupColumns) throws IOException
+    {
+        Map<String, List<Long>> totals = new TreeMap<>();
+
+        for (File file: FileUtils.listFiles(table, new String[] { "parquet" }, false))
+        {
+            try (ParquetReader<GenericRecord> reader = AvroParquetReader.<GenericRecord>builder(new LocalInputFile(file))
+                    .withConf(new Configuration(false)).build())
+            {
+                for (GenericRecord record = reader.read(); record != null; record = reader.read())
+                {
+                    List<String> group = new ArrayList<>();
+
+                    for (String column: groupColumns)
+                    {
+                        group.add(record.get(column).toString());
+                    }
+
+                    totals.put(String.join(",", group), Arrays.asList((Long) record.get("Contributions"),
+                            LogicalValues.readCents(record.get("TotalAmount")), LogicalValues.readCents(record.get("MinAmount")),
+                            LogicalValues.readCents(record.get("MaxAmount"))));
+                }
+            }
+        }
+
+        assertFalse(totals.isEmpty());
+        return totals;
+    }
+
+    @Test
+    public void layoutsKeepEachFilesRowsAndIds() throws Exception
+    {
+        DataGenerator generator = new DataGenerator(42L);
+        generator.setFormats(SinkProviders.resolve("csv"));
+        generator.generate(300);
+        Map<String, String> expected = readFiles();
+
+        for (ContributionLayout layout: Arrays.asList(ContributionLayout.CUSTOMER, ContributionLayout.ZORDER))
+        {
+            TestRuns.deleteOutput();
+
+            DataGenerator laidOut = new DataGenerator(42L);
+            laidOut.setFormats(SinkProviders.resolve("csv"));
+            laidOut.setLayout(layout);
+            laidOut.generate(300);
+            Map<String, String> files = readFiles();
+
+            assertEquals(expected.keySet(), files.keySet());
+
+            for (String path: expected.keySet())
+            {
+                List<String> expectedRows = rowsOf(expected.get(path));
+                List<String> rows = rowsOf(files.get(path));
+
+                assertEquals(path, sortedIds(expectedRows), sortedIds(rows));
+                assertEquals(path, sorted(withoutIds(expectedRows)), sorted(withoutIds(rows)));
+
+                if (layout == ContributionLayout.CUSTOMER)
+                {
+                    for (int i = 1; i < rows.size(); i++)
+                    {
+                        assertTrue(Long.parseLong(rows.get(i - 1).split(",")[1]) <= Long.parseLong(rows.get(i).split(",")[1]));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void resumeKeepsTheRecordedLayout() throws Exception
+    {
+        DataGenerator generator = new DataGenerator(42L);
+        generator.setFormats(SinkProviders.resolve("csv"));
+        generator.setLayout(ContributionLayout.ZORDER);
+        generator.generate(300);
+
+        Map<String, String> expected = readFiles();
+        assertTrue(new File(CONTRIBUTIONS, expected.keySet().iterator().next()).delete());
+
+        DataGenerator resumed = new DataGenerator(42L);
+        resumed.setFormats(SinkProviders.resolve("csv"));
+
+        try (Manifest manifest = Manifest.load(new File(Manifest.DEFAULT_DIRECTORY)))
+        {
+            assertEquals("zorder", manifest.getLayout());
+            resumed.resume(manifest);
+        }
+
+        assertEquals(ContributionLayout.ZORDER, resumed.getLayout());
+        assertEquals(expected, readFiles());
+    }
+
+    private static List<String> rowsOf(String file)
+    {
+        List<String> lines = Arrays.asList(file.split("\r\n"));
+        return lines.subList(1, lines.size());
+    }
+
+    private static List<Long> sortedIds(List<String> rows)
+    {
+        List<Long> ids = new ArrayList<>();
+
+        for (String row: rows)
+        {
+            ids.add(Long.parseLong(row.substring(0, row.indexOf(','))));
+        }
+
+        Collections.sort(ids);
+        return ids;
+    }
+
+    private static List<String> sorted(List<String> rows)
+    {
+        List<String> sorted = new ArrayList<>(rows);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    @Test
+    public void partitionKeysKeepEveryRowInItsPartition() throws Exception
+    {
+        DataGenerator generator = new DataGenerator(42L);
+        generator.setFormats(SinkProviders.resolve("csv"));
+        generator.generate(300);
+        List<String> expected = readRows();
+
+        TestRuns.deleteOutput();
+
+        DataGenerator partitioned = new DataGenerator(42L);
+        partitioned.setFormats(SinkProviders.resolve("csv"));
+        partitioned.getPartitionScheme().setKeys("year,month,day,bucket");
+        partitioned.getPartitionScheme().setBuckets(4);
+        partitioned.generate(300);
+        List<String> rows = readRows();
+
+        assertEquals(sortedIds(expected), sortedIds(rows));
+        assertEquals(sorted(withoutIds(expected)), sorted(withoutIds(rows)));
+
+        long[] bounds = new long[3];
+
+        for (Map.Entry<String, String> file: readFiles().entrySet())
+        {
+            String path = file.getKey();
+            PartitionScheme.parsePartitionPath(path.substring(0, path.lastIndexOf('/')), bounds);
+
+            assertTrue(path, bounds[0] == bounds[1] && bounds[2] >= 0L);
+
+            for (String row: rowsOf(file.getValue()))
+            {
+                String[] fields = row.split(",");
+
+                assertEquals(path, LocalDate.ofEpochDay(bounds[0]).toString(), fields[2].replace("\"", ""));
+                assertEquals(path, bounds[2], partitioned.getPartitionScheme().getBucket(Long.parseLong(fields[1])));
+            }
+        }
+    }
+
+    @Test
+    public void partSizeSplitsFilesAtTheSameRows() throws Exception
+    {
+        DataGenerator generator = new DataGenerator(42L);
+        generator.setFormats(SinkProviders.resolve("csv"));
+        generator.generate(300);
+        List<String> expected = readRows();
+        List<String> customers = readCustomerRows();
+
+        TestRuns.deleteOutput();
+
+        DataGenerator split = new DataGenerator(42L);
+        split.setFormats(SinkProviders.resolve("csv,compressed_csv"));
+        split.getPartitionScheme().setPartSize(1000L);
+        split.generate(300);
+
+        assertEquals(expected, readRows());
+        assertEquals(customers, readCustomerRows());
+
+        for (Map.Entry<String, String> file: readFiles().entrySet())
+        {
+            assertTrue(file.getKey(), file.getKey().matches(".*-part-\\d{5}\\.csv"));
+            assertTrue(file.getKey(), file.getValue().length() <= 1000 || rowsOf(file.getValue()).size() == 1);
+            assertGzipMatches(new File(CONTRIBUTIONS, file.getKey()),
+                    new File("output_compressed/contributions", file.getKey() + ".gz"));
+        }
+
+        assertTrue(FileUtils.listFiles(CUSTOMERS.getParentFile(), new String[] { "csv" }, false).size() > 1);
+    }
+
+    @Test
+    public void partSizeIsEstimatedInTheLargestFormat() throws Exception
+    {
+        DataGenerator csv = new DataGenerator(42L);
+        csv.setFormats(SinkProviders.resolve("csv"));
+        csv.getPartitionScheme().setPartSize(15000L);
+        csv.generate(1000);
+        int csvParts = FileUtils.listFiles(CONTRIBUTIONS, new String[] { "csv" }, true).size();
+
+        TestRuns.deleteOutput();
+
+        DataGenerator parquet = new DataGenerator(42L);
+        parquet.setFormats(SinkProviders.resolve("parquet"));
+        parquet.getPartitionScheme().setPartSize(15000L);
+        parquet.generate(1000);
+        Collection<File> parquetParts = FileUtils.listFiles(new File("output_parquet/contributions"), new String[] { "parquet" }, true);
+
+        TestRuns.deleteOutput();
+
+        DataGenerator both = new DataGenerator(42L);
+        both.setFormats(SinkProviders.resolve("csv,parquet"));
+        both.getPartitionScheme().setPartSize(15000L);
+        both.generate(1000);
+
+        assertTrue(parquetParts.size() < csvParts);
+        assertEquals(csvParts, FileUtils.listFiles(new File("output_parquet/contributions"), new String[] { "parquet" }, true).size());
+
+        for (File part: parquetParts)
+        {
+            assertTrue(part.getName(), part.length() <= 15000L * 3 / 2);
+        }
+    }
+
+    @Test
+    public void formatsAreCheckedWhenSelected()
+    {
+        DataGenerator generator = new DataGenerator(42L);
+        List<SinkProvider> unavailable = Collections.singletonList(new CsvSinkProvider()
+        {
+            @Override
+            public void checkAvailable()
+            {
+                throw new IllegalArgumentException("unavailable");
+            }
+        });
+
+        try
+        {
+            generator.setFormats(unavailable);
+            fail("An unavailable format was accepted");
+        }
+        catch (IllegalArgumentException e)
+        {
+            assertEquals("unavailable", e.getMessage());
+        }
+
+        assertEquals(SinkProviders.defaults().size(), generator.getFormats().size());
+
+        generator.setFormats(SinkProviders.resolve("arrow,arrow_stream"));
+    }
+
+    @Test
+    public void compressedCsvMatchesCsv() throws Exception
+    {
+        DataGenerator generator = new DataGenerator(42L);
+        generator.setFormats(SinkProviders.resolve("csv,compressed_csv"));
+        generator.generate(200);
+
+        assertFalse(new File("output_parquet").exists());
+        assertGzipMatches(CUSTOMERS, new File("output_compressed/customers/customers.csv.gz"));
+
+        for (String path: readFiles().keySet())
+        {
+            assertGzipMatches(new File(CONTRIBUTIONS, path), new File("output_compressed/contributions", path + ".gz"));
+        }
+    }
+
+    private static void assertGzipMatches(File expected, File compressed) throws IOException
+    {
+        try (InputStream input = new GZIPInputStream(new FileInputStream(compressed)))
+        {
+            assertEquals(FileUtils.readFileToString(expected, StandardCharsets.UTF_8),
+                    IOUtils.toString(input, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Strips the contribution id from each row
+     */
+    private static List<String> withoutIds(List<String> rows)
+    {
+        List<String> stripped = new ArrayList<>();
+
+        for (String row: rows)
+        {
+            stripped.add(row.substring(row.indexOf(',') + 1));
+        }
+
+        return stripped;
+    }
+
+    /**
+     * Reads every contribution CSV keyed by its path relative to the output directory
+     */
+    private static Map<String, String> readFiles() throws IOException
+    {
+        Map<String, String> files = new TreeMap<>();
+
+        for (File file: FileUtils.listFiles(CONTRIBUTIONS, new String[] { "csv" }, true))
+        {
+            files.put(CONTRIBUTIONS.toURI().relativize(file.toURI()).getPath(),
+                    FileUtils.readFileToString(file, StandardCharsets.UTF_8));
+        }
+
+        return files;
+    }
+
+    /**
+     * Reads the contribution rows of every partition in partition order, without headers
+     */
+    private static List<String> readRows() throws IOException
+    {
+        List<String> rows = new ArrayList<>();
+        Collection<String> files = readFiles().values();
+
+        for (String file: files)
+        {
+            String[] lines = file.split("\r\n");
+
+            for (int i = 1; i < lines.length; i++)
+            {
+                rows.add(lines[i]);
+            }
+        }
+
+        return rows;
+    }
+}
@@ -0,0 +1,165 @@
+package com.aws.datagen;
+
+import com.aws.datagen.sink.SinkContext;
+import com.aws.datagen.sink.SinkProviders;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DatasetVerifierTest
+{
+    private static final File CONTRIBUTIONS = new File("output_csv/contributions");
+
+    @Before
+    public void setUp() throws IOException
+    {
+        TestRuns.prepare();
+        TestRuns.deleteOutput();
+    }
+
+    @Test
+    public void verifiesACleanRunInEveryFormat() throws Exception
+    {
+        DataGenerator generator = new DataGenerator(42L);
+        generator.setFormats(SinkProviders.defaults());
+        generator.generate(200);
+
+        DatasetVerifier verifier = newVerifier();
+
+        assertTrue(verifier.getProblems().toString(), verifier.verify());
+        assertEquals(200L, verifier.getCustomerRows());
+        assertEquals(countCsvRows(), verifier.getContributionRows());
+        assertEquals(3, verifier.getFormats().size());
+    }
+
+    @Test
+    public void readsAmountsWrittenInScientificNotation() throws Exception
+    {
+        DataGenerator generator = new DataGenerator(42L);
+        generator.setFormats(SinkProviders.resolve("csv,parquet"));
+        generator.setModelParameter("male-salary", 2.0e9);
+        generator.setModelParameter("female-salary", 2.0e9);
+        generator.generate(50);
+
+        assertTrue(FileUtils.readFileToString(listCsvFiles().get(listCsvFiles().size() - 1), StandardCharsets.UTF_8).contains("E"));
+
+        DatasetVerifier verifier = newVerifier();
+
+        assertTrue(verifier.getProblems().toString(), verifier.verify());
+    }
+
+    @Test
+    public void reportsFormatsThatDisagree() throws Exception
+    {
+        DataGenerator generator = new DataGenerator(42L);
+        generator.setFormats(SinkProviders.resolve("csv,parquet"));
+        generator.generate(200);
+
+        File file = listCsvFiles().get(0);
+        List<String> lines = FileUtils.readLines(file, StandardCharsets.UTF_8);
+        String[] fields = lines.get(1).split(",");
+        fields[3] = fields[3].equals("1.00") ? "2.00" : "1.00";
+        lines.set(1, String.join(",", fields));
+        FileUtils.writeStringToFile(file, String.join("\r\n", lines) + "\r\n", StandardCharsets.UTF_8);
+
+        DatasetVerifier verifier = newVerifier();
+
+        assertFalse(verifier.verify());
+        assertTrue(verifier.getProblems().toString(), verifier.getProblems().get(0).contains(file.getName().replace(".csv", "") + " holds"));
+    }
+
+    @Test
+    public void reportsMissingContributionIds() throws Exception
+    {
+        DataGenerator generator = new DataGenerator(42L);
+        generator.setFormats(SinkProviders.resolve("csv"));
+        generator.generate(200);
+
+        List<File> files = listCsvFiles();
+        assertTrue(files.get(files.size() / 2).delete());
+
+        DatasetVerifier verifier = newVerifier();
+
+        assertFalse(verifier.verify());
+        assertTrue(verifier.getProblems().toString(), contains(verifier.getProblems(), "are missing before"));
+        assertTrue(verifier.getProblems().toString(), contains(verifier.getProblems(), "was not found"));
+    }
+
+    @Test
+    public void reportsContributionsOutsideTheirMonth() throws Exception
+    {
+        DataGenerator generator = new DataGenerator(42L);
+        generator.setFormats(SinkProviders.resolve("csv"));
+        generator.generate(200);
+
+        File file = listCsvFiles().get(listCsvFiles().size() - 1);
+        List<String> lines = FileUtils.readLines(file, StandardCharsets.UTF_8);
+        String[] fields = lines.get(1).split(",");
+        fields[2] = "\"2099-01-01\"";
+        lines.set(1, String.join(",", fields));
+        FileUtils.writeStringToFile(file, String.join("\r\n", lines) + "\r\n", StandardCharsets.UTF_8);
+
+        DatasetVerifier verifier = newVerifier();
+
+        assertFalse(verifier.verify());
+        assertTrue(verifier.getProblems().toString(), contains(verifier.getProblems(), "1 contributions outside its partition's dates"));
+    }
+
+    @Test
+    public void reportsAnEmptyOutputRoot() throws Exception
+    {
+        DatasetVerifier verifier = newVerifier();
+
+        assertFalse(verifier.verify());
+        assertEquals(1, verifier.getProblems().size());
+    }
+
+    private static DatasetVerifier newVerifier()
+    {
+        SinkContext context = new SinkContext();
+        context.setOutputRoot(new File("."));
+        return new DatasetVerifier(context, 2);
+    }
+
+    private static boolean contains(List<String> problems, String text)
+    {
+        for (String problem: problems)
+        {
+            if (problem.contains(text))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static List<File> listCsvFiles()
+    {
+        List<File> files = new ArrayList<>(FileUtils.listFiles(CONTRIBUTIONS, new String[] { "csv" }, true));
+        files.sort(null);
+        return files;
+    }
+
+    private static long countCsvRows() throws IOException
+    {
+        long rows = 0L;
+
+        for (File file: listCsvFiles())
+        {
+            rows += FileUtils.readLines(file, StandardCharsets.UTF_8).size() - 1;
+        }
+
+        return rows;
+    }
+}
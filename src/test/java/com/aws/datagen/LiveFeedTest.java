@@ -0,0 +1,157 @@
+package com.aws.datagen;
+
+import com.aws.datagen.feed.FeedStats;
+import com.aws.datagen.sink.ContributionBatch;
+import com.aws.datagen.sink.Sink;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LiveFeedTest
+{
+    @Before
+    public void setUp() throws IOException
+    {
+        TestRuns.prepare();
+    }
+
+    @Test
+    public void emitsExactlyMaxRowsWithContiguousIds() throws Exception
+    {
+        LiveFeed feed = new LiveFeed(new DataGenerator(42L), 200);
+        feed.setRate(0.0);
+        feed.setBatchSize(64);
+        feed.setMaxRows(1000L);
+        feed.setFirstContributionId(500L);
+
+        RecordingSink sink = new RecordingSink();
+        FeedStats stats = feed.run(sink);
+
+        assertEquals(1000L, stats.getRows());
+        assertEquals(1000, sink.contributionIds.size());
+        assertTrue(sink.closed);
+
+        // one batch is refilled, and the last is cut short to meet the row limit
+        assertEquals(1, sink.batches.size());
+        assertEquals(16, sink.batchSizes.size());
+        assertEquals(40, (int) sink.batchSizes.get(15));
+
+        int startEpochDay = (int) feed.getStartDate().toEpochDay();
+        int lastEpochDay = startEpochDay;
+
+        for (int i = 0; i < sink.contributionIds.size(); i++)
+        {
+            assertEquals(500L + i, (long) sink.contributionIds.get(i));
+            assertTrue(sink.epochDays.get(i) >= lastEpochDay);
+            assertTrue(sink.amountCents.get(i) > 0L);
+            lastEpochDay = sink.epochDays.get(i);
+        }
+    }
+
+    @Test
+    public void continuesAfterTheBatchData() throws Exception
+    {
+        DataGenerator generator = new DataGenerator(42L);
+        generator.setYears(2010, 2012);
+
+        LiveFeed feed = new LiveFeed(generator, 50);
+        feed.setRate(0.0);
+        feed.setMaxRows(100L);
+
+        RecordingSink sink = new RecordingSink();
+        feed.run(sink);
+
+        assertEquals(LocalDate.of(2013, 1, 1), feed.getStartDate());
+        assertEquals((int) LocalDate.of(2013, 1, 1).toEpochDay(), (int) sink.epochDays.get(0));
+    }
+
+    @Test
+    public void stopsAfterTheTimeLimit() throws Exception
+    {
+        LiveFeed feed = new LiveFeed(new DataGenerator(42L), 50);
+        feed.setRate(2000.0);
+        feed.setMaxSeconds(1L);
+
+        long startNanos = System.nanoTime();
+        FeedStats stats = feed.run(new RecordingSink());
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1000000L;
+
+        assertTrue("Took " + elapsedMillis + "ms", elapsedMillis >= 1000L && elapsedMillis < 5000L);
+        assertTrue("Emitted " + stats.getRows(), stats.getRows() > 1000L && stats.getRows() <= 2500L);
+    }
+
+    @Test
+    public void emitsThePartialBatchWhenStopped() throws Exception
+    {
+        LiveFeed feed = new LiveFeed(new DataGenerator(42L), 1);
+        feed.setRate(0.0);
+        feed.setBatchSize(1000000);
+
+        Thread stopper = new Thread(() ->
+        {
+            try
+            {
+                Thread.sleep(200L);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+
+            feed.stop();
+        });
+        stopper.start();
+
+        RecordingSink sink = new RecordingSink();
+        FeedStats stats = feed.run(sink);
+        stopper.join();
+
+        assertTrue(sink.contributionIds.size() > 0);
+        assertTrue(sink.contributionIds.size() % 1000000 != 0);
+        assertEquals(stats.getRows(), sink.contributionIds.size());
+        assertEquals(sink.contributionIds.size() - 1L, (long) sink.contributionIds.get(sink.contributionIds.size() - 1));
+    }
+
+    /**
+     * Copies every emitted row
+     */
+    private static class RecordingSink implements Sink<ContributionBatch>
+    {
+        private final List<Long> contributionIds = new ArrayList<>();
+        private final List<Integer> epochDays = new ArrayList<>();
+        private final List<Long> amountCents = new ArrayList<>();
+        private final List<Integer> batchSizes = new ArrayList<>();
+        private final Set<ContributionBatch> batches = Collections.newSetFromMap(new IdentityHashMap<>());
+        private boolean closed = false;
+
+        @Override
+        public void write(ContributionBatch batch)
+        {
+            batches.add(batch);
+            batchSizes.add(batch.size());
+
+            for (int i = 0; i < batch.size(); i++)
+            {
+                contributionIds.add(batch.getContributionId(i));
+                epochDays.add(batch.getEpochDay(i));
+                amountCents.add(batch.getAmountCents(i));
+            }
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+        }
+    }
+}
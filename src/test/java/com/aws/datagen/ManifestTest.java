@@ -0,0 +1,142 @@
+package com.aws.datagen;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ManifestTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void settingsAndSegmentsSurviveReload() throws IOException
+    {
+        File directory = folder.newFolder("manifest");
+
+        try (Manifest manifest = Manifest.create(directory, 42L, 1000L, 100, 2010, 2012))
+        {
+            manifest.addSegment(new Manifest.Segment(2010, 2012, 0L));
+            manifest.setComplete(5000L);
+            manifest.addSegment(new Manifest.Segment(2013, 2014, 5000L));
+        }
+
+        try (Manifest manifest = Manifest.load(directory))
+        {
+            assertEquals(42L, manifest.getSeed());
+            assertEquals(1000L, manifest.getCustomers());
+            assertEquals(100, manifest.getChunkSize());
+            assertEquals(2010, manifest.getStartYear());
+            assertEquals(2012, manifest.getJoinEndYear());
+            assertEquals(2014, manifest.getEndYear());
+            assertFalse(manifest.isComplete());
+
+            List<Manifest.Segment> segments = manifest.getSegments();
+
+            assertEquals(2, segments.size());
+            assertEquals(2013, segments.get(1).getStartYear());
+            assertEquals(5000L, segments.get(1).getFirstContributionId());
+
+            manifest.setComplete(7000L);
+        }
+
+        try (Manifest manifest = Manifest.load(directory))
+        {
+            assertTrue(manifest.isComplete());
+            assertEquals(7000L, manifest.getNextContributionId());
+        }
+    }
+
+    @Test
+    public void recordsTheLayout() throws IOException
+    {
+        File directory = folder.newFolder("manifest");
+
+        try (Manifest manifest = Manifest.create(directory, 42L, 1000L, 100, 2010, 2012))
+        {
+            assertEquals("date", manifest.getLayout());
+            manifest.setLayout("customer");
+        }
+
+        try (Manifest manifest = Manifest.load(directory))
+        {
+            assertEquals("customer", manifest.getLayout());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unfinishedRunHasNoNextContributionId() throws IOException
+    {
+        try (Manifest manifest = Manifest.create(folder.newFolder("manifest"), 42L, 1000L, 100, 2010, 2012))
+        {
+            manifest.addSegment(new Manifest.Segment(2010, 2012, 0L));
+            manifest.getNextContributionId();
+        }
+    }
+
+    @Test
+    public void recordedFilesAreCompleteUntilChanged() throws IOException
+    {
+        File directory = folder.newFolder("manifest");
+        File file = folder.newFile("part.csv");
+        List<File> files = Collections.singletonList(file);
+
+        FileUtils.writeStringToFile(file, "1,2,3\r\n", StandardCharsets.UTF_8);
+
+        try (Manifest manifest = Manifest.create(directory, 42L, 1000L, 100, 2010, 2012))
+        {
+            assertFalse(manifest.isComplete("part", 1L, files));
+
+            manifest.record("part", 1L, files);
+
+            assertTrue(manifest.isComplete("part", 1L, files));
+        }
+
+        try (Manifest manifest = Manifest.load(directory))
+        {
+            assertTrue(manifest.isComplete("part", 1L, files));
+            assertFalse(manifest.isComplete("part", 2L, files));
+            assertFalse(manifest.isComplete("other", 1L, files));
+
+            FileUtils.writeStringToFile(file, "1,2,4\r\n", StandardCharsets.UTF_8);
+            assertFalse(manifest.isComplete("part", 1L, files));
+
+            assertTrue(file.delete());
+            assertFalse(manifest.isComplete("part", 1L, files));
+        }
+    }
+
+    @Test
+    public void ignoresRecordCutShortByACrash() throws IOException
+    {
+        File directory = folder.newFolder("manifest");
+        File file = folder.newFile("part.csv");
+        List<File> files = Collections.singletonList(file);
+
+        FileUtils.writeStringToFile(file, "1,2,3\r\n", StandardCharsets.UTF_8);
+
+        try (Manifest manifest = Manifest.create(directory, 42L, 1000L, 100, 2010, 2012))
+        {
+            manifest.record("part", 1L, files);
+        }
+
+        FileUtils.writeStringToFile(new File(directory, "files.csv"), "next,4,", StandardCharsets.UTF_8, true);
+
+        try (Manifest manifest = Manifest.load(directory))
+        {
+            assertTrue(manifest.isComplete("part", 1L, files));
+            assertFalse(manifest.isComplete("next", 4L, files));
+        }
+    }
+}
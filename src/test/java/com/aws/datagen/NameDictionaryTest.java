@@ -0,0 +1,46 @@
+package com.aws.datagen;
+
+import com.aws.datagen.model.Name;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class NameDictionaryTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void capitalisesAndEncodesNamesOnce() throws IOException
+    {
+        File names = folder.newFile("names.txt");
+        FileUtils.writeStringToFile(names, "SMITH\nO'BRIEN\nMARY ANN\nZO\u00cb\n", StandardCharsets.UTF_8);
+
+        NameDictionary dictionary = NameDictionary.load(names.getPath());
+
+        assertEquals(4, dictionary.size());
+        assertEquals("Smith", dictionary.get(0).getText());
+        assertEquals("O'brien", dictionary.get(1).getText());
+        assertEquals("Mary Ann", dictionary.get(2).getText());
+        assertEquals("Zo\u00eb", dictionary.get(3).getText());
+        assertSame(dictionary, NameDictionary.load(names.getPath()));
+    }
+
+    @Test
+    public void namesCarryTheirEncodedForms()
+    {
+        Name name = new Name("O\"Brien \u00c5");
+
+        assertEquals("O\"Brien \u00c5", name.getUtf8().toString());
+        assertArrayEquals("\"O\"\"Brien \u00c5\"".getBytes(StandardCharsets.UTF_8), name.getQuotedCsv());
+    }
+}
@@ -0,0 +1,146 @@
+package com.aws.datagen;
+
+import com.aws.datagen.sink.Sink;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class PartSinkTest
+{
+    @Test
+    public void startsAFileForEachKey() throws Exception
+    {
+        RecordingPartSink sink = new RecordingPartSink(0L);
+        sink.write(rows(1, 1, 2));
+        sink.write(rows(2, 3));
+        sink.close();
+
+        Map<String, List<Integer>> expected = new LinkedHashMap<>();
+        expected.put("1-0", Arrays.asList(1, 1));
+        expected.put("2-0", Arrays.asList(2, 2));
+        expected.put("3-0", Collections.singletonList(3));
+
+        assertEquals(expected, sink.files);
+        assertEquals(3, sink.getFiles());
+    }
+
+    @Test
+    public void splitsFilesAtThePartSize() throws Exception
+    {
+        // Each row of key k is k bytes long and every file starts with a 2 byte header
+        RecordingPartSink sink = new RecordingPartSink(8L);
+        sink.write(rows(3, 3, 3, 3, 3));
+        sink.write(rows(9, 1));
+        sink.close();
+
+        Map<String, List<Integer>> expected = new LinkedHashMap<>();
+        expected.put("3-0", Arrays.asList(3, 3));
+        expected.put("3-1", Arrays.asList(3, 3));
+        expected.put("3-2", Collections.singletonList(3));
+        expected.put("9-0", Collections.singletonList(9));
+        expected.put("1-0", Collections.singletonList(1));
+
+        assertEquals(expected, sink.files);
+    }
+
+    @Test
+    public void rejectsRowsForAFinishedFile() throws Exception
+    {
+        RecordingPartSink sink = new RecordingPartSink(0L);
+        sink.write(rows(1, 2));
+
+        try
+        {
+            sink.write(rows(1));
+            fail("Rows for a finished file were accepted");
+        }
+        catch (IllegalStateException e)
+        {
+            assertEquals("Rows for 1-0 arrived after the file was finished", e.getMessage());
+        }
+    }
+
+    private static List<Integer> rows(Integer... keys)
+    {
+        return Arrays.asList(keys);
+    }
+
+    /**
+     * Writes batches of file keys to lists named after their file, each row as long as its key
+     */
+    private static class RecordingPartSink extends PartSink<List<Integer>>
+    {
+        final Map<String, List<Integer>> files = new LinkedHashMap<>();
+
+        RecordingPartSink(long partSize)
+        {
+            super(partSize, 2L, null);
+        }
+
+        @Override
+        protected int size(List<Integer> batch)
+        {
+            return batch.size();
+        }
+
+        @Override
+        protected int getFileKey(List<Integer> batch, int row)
+        {
+            return batch.get(row);
+        }
+
+        @Override
+        protected long getRowLength(List<Integer> batch, int row)
+        {
+            return batch.get(row);
+        }
+
+        @Override
+        protected List<Integer> slice(List<Integer> batch, int from, int to)
+        {
+            return batch.subList(from, to);
+        }
+
+        @Override
+        protected String getEntry(int fileKey, int part)
+        {
+            return fileKey + "-" + part;
+        }
+
+        @Override
+        protected List<File> getFiles(int fileKey, int part)
+        {
+            return Collections.emptyList();
+        }
+
+        @Override
+        protected Sink<List<Integer>> open(int fileKey, int part)
+        {
+            List<Integer> rows = new ArrayList<>();
+            files.put(getEntry(fileKey, part), rows);
+
+            return new Sink<List<Integer>>()
+            {
+                @Override
+                public void write(List<Integer> batch)
+                {
+                    rows.addAll(batch);
+                }
+
+                @Override
+                public void close()
+                {
+                }
+            };
+        }
+    }
+}
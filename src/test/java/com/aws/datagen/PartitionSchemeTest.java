@@ -0,0 +1,136 @@
+package com.aws.datagen;
+
+import com.aws.datagen.model.Customer;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PartitionSchemeTest
+{
+    @Test
+    public void defaultSchemeIsYearAndMonth()
+    {
+        PartitionScheme scheme = new PartitionScheme();
+
+        assertEquals(PartitionScheme.DEFAULT_KEYS, scheme.getKeys());
+        assertFalse(scheme.isSplit());
+        assertEquals("contributionYear=2005/contributionMonth=2005-03", scheme.getPartitionPath(YearMonth.of(2005, 3), 14, 7));
+    }
+
+    @Test
+    public void writesKeysInAFixedOrder()
+    {
+        PartitionScheme scheme = new PartitionScheme();
+        scheme.setKeys(" Bucket,day,year,MONTH ");
+
+        assertEquals("year,month,day,bucket", scheme.getKeys());
+        assertTrue(scheme.isSplit());
+        assertEquals("contributionYear=2005/contributionMonth=2005-03/contributionDate=2005-03-14/customerBucket=07",
+                scheme.getPartitionPath(YearMonth.of(2005, 3), 14, 7));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownKeys()
+    {
+        new PartitionScheme().setKeys("year,hour");
+    }
+
+    @Test
+    public void bucketsHashCustomerIdsLikeHive()
+    {
+        PartitionScheme scheme = new PartitionScheme();
+        scheme.setBuckets(16);
+
+        assertEquals(0, scheme.getBucket(0L));
+        assertEquals(5, scheme.getBucket(21L));
+        assertEquals(1, scheme.getBucket(1L << 32));
+
+        for (long customerId = 0L; customerId < 1000L; customerId++)
+        {
+            assertEquals(Long.hashCode(customerId) % 16, scheme.getBucket(customerId));
+        }
+    }
+
+    @Test
+    public void padsBucketsToTheWidthOfTheLastBucket()
+    {
+        PartitionScheme scheme = new PartitionScheme();
+        scheme.setKeys("bucket");
+
+        scheme.setBuckets(100);
+        assertEquals("customerBucket=07", scheme.getPartitionPath(YearMonth.of(2005, 3), 1, 7));
+
+        scheme.setBuckets(101);
+        assertEquals("customerBucket=007", scheme.getPartitionPath(YearMonth.of(2005, 3), 1, 7));
+        assertEquals("customerBucket=100", scheme.getPartitionPath(YearMonth.of(2005, 3), 1, 100));
+
+        scheme.setBuckets(1);
+        assertEquals("customerBucket=00", scheme.getPartitionPath(YearMonth.of(2005, 3), 1, 0));
+    }
+
+    @Test
+    public void fileKeysMapBackToTheirPartition()
+    {
+        PartitionScheme scheme = new PartitionScheme();
+        scheme.setKeys("month,day,bucket");
+        scheme.setBuckets(8);
+
+        int fileKey = scheme.getFileKey(13L, 31);
+
+        assertEquals("contributionMonth=2012-01/contributionDate=2012-01-31/customerBucket=05",
+                scheme.getPartitionPath(YearMonth.of(2012, 1), fileKey));
+        assertEquals(scheme.getFileKey(21L, 31), fileKey);
+    }
+
+    @Test
+    public void parsesPartitionPathsIntoDateBoundsAndBucket()
+    {
+        long[] bounds = new long[3];
+
+        PartitionScheme.parsePartitionPath("contributionYear=2012/contributionMonth=2012-02", bounds);
+        assertArrayEquals(new long[] { LocalDate.of(2012, 2, 1).toEpochDay(), LocalDate.of(2012, 2, 29).toEpochDay(), -1L }, bounds);
+
+        PartitionScheme.parsePartitionPath("contributionDate=2012-02-14/customerBucket=03", bounds);
+        assertArrayEquals(new long[] { LocalDate.of(2012, 2, 14).toEpochDay(), LocalDate.of(2012, 2, 14).toEpochDay(), 3L }, bounds);
+
+        PartitionScheme.parsePartitionPath("", bounds);
+        assertArrayEquals(new long[] { Long.MIN_VALUE, Long.MAX_VALUE, -1L }, bounds);
+    }
+
+    @Test
+    public void groupsCustomersByFileKeepingTheirOrder()
+    {
+        CustomerTable customers = new CustomerTable(0L, 6);
+        int[] payDays = { 14, 1, 14, 1, 28, 14 };
+
+        for (int i = 0; i < payDays.length; i++)
+        {
+            Customer customer = new Customer(i);
+            customer.setJoinDate(Date.from(LocalDate.of(2010, 1, payDays[i]).atStartOfDay(ZoneId.systemDefault()).toInstant()));
+            customers.add(customer);
+        }
+
+        PartitionScheme scheme = new PartitionScheme();
+        int[][] order = { { 5, 4, 3, 2, 1, 0 } };
+
+        assertArrayEquals(order, scheme.groupByFile(customers, order));
+
+        scheme.setKeys("year,month,day");
+
+        assertArrayEquals(new int[][] { { 3, 1, 5, 2, 0, 4 } }, scheme.groupByFile(customers, order));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativePartSizes()
+    {
+        new PartitionScheme().setPartSize(-1L);
+    }
+}
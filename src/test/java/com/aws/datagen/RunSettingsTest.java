@@ -0,0 +1,127 @@
+package com.aws.datagen;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class RunSettingsTest
+{
+    private static final File FILE = new File("run.yaml");
+
+    @Test
+    public void readsNestedMappings()
+    {
+        Properties properties = read(
+                "seed: 42",
+                "parquet:",
+                "  compression: zstd",
+                "  dictionary:",
+                "    enabled: true",
+                "customers: 1000");
+
+        assertEquals("42", properties.getProperty("seed"));
+        assertEquals("zstd", properties.getProperty("parquet.compression"));
+        assertEquals("true", properties.getProperty("parquet.dictionary.enabled"));
+        assertEquals("1000", properties.getProperty("customers"));
+        assertEquals(4, properties.size());
+    }
+
+    @Test
+    public void readsInlineLists()
+    {
+        assertEquals("csv,parquet", read("formats: [csv, \"parquet\", ]").getProperty("formats"));
+        assertEquals("", read("formats: []").getProperty("formats"));
+    }
+
+    @Test
+    public void readsIndentedBlockLists()
+    {
+        Properties properties = read(
+                "formats:",
+                "  - csv",
+                "  - 'parquet'",
+                "seed: 1");
+
+        assertEquals("csv,parquet", properties.getProperty("formats"));
+        assertEquals("1", properties.getProperty("seed"));
+    }
+
+    @Test
+    public void stripsCommentsAndQuotes()
+    {
+        Properties properties = read(
+                "---",
+                "# a comment",
+                "name: \"a # b\"  # trailing",
+                "tag: c#d",
+                "",
+                "quoted: 'x: y'");
+
+        assertEquals("a # b", properties.getProperty("name"));
+        assertEquals("c#d", properties.getProperty("tag"));
+        assertEquals("x: y", properties.getProperty("quoted"));
+        assertNull(properties.getProperty("# a comment"));
+    }
+
+    @Test
+    public void rejectsTabs()
+    {
+        assertRejected("parquet:", "\tcompression: zstd");
+    }
+
+    @Test
+    public void rejectsListItemsOutsideAList()
+    {
+        assertRejected("- csv");
+        assertRejected("seed: 1", "- csv");
+        assertRejected("parquet:", "  compression: zstd", "- csv");
+    }
+
+    @Test
+    public void rejectsLinesWithoutAKey()
+    {
+        assertRejected("seed 42");
+        assertRejected("seed:42");
+    }
+
+    @Test
+    public void readsBlockListsAtTheKeyIndent()
+    {
+        Properties properties = read(
+                "formats:",
+                "- csv",
+                "- parquet",
+                "generator:",
+                "  formats:",
+                "  - orc",
+                "  seed: 5");
+
+        assertEquals("csv,parquet", properties.getProperty("formats"));
+        assertEquals("orc", properties.getProperty("generator.formats"));
+        assertEquals("5", properties.getProperty("generator.seed"));
+    }
+
+    private static Properties read(String... lines)
+    {
+        return RunSettings.readYaml(Arrays.asList(lines), FILE);
+    }
+
+    private static void assertRejected(String... lines)
+    {
+        try
+        {
+            read(lines);
+            fail("Expected " + Arrays.toString(lines) + " to be rejected");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.aws.datagen;
+
+import com.aws.datagen.model.LogicalValues;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SkewModelTest
+{
+    @Test
+    public void defaultModelDrawsNothingExtra()
+    {
+        SkewModel model = new SkewModel();
+        SplittableRandom random = new SplittableRandom(7L);
+        SplittableRandom expected = new SplittableRandom(7L);
+        Date joinDate = LogicalValues.toDate((int) LocalDate.of(2001, 3, 9).toEpochDay());
+
+        assertEquals(expected.nextLong(0L, 1001L), model.drawJoinDay(random, 1000L));
+        assertSame(joinDate, model.drawBurst(random, joinDate));
+        assertEquals(1, model.drawActivity(random));
+        assertEquals(expected.nextLong(), random.nextLong());
+    }
+
+    @Test
+    public void activityStaysInRangeAndFavoursLowCounts()
+    {
+        SkewModel model = new SkewModel();
+        model.setMaxActivity(10);
+        model.setActivitySkew(1.5);
+
+        SplittableRandom random = new SplittableRandom(1L);
+        int[] counts = new int[11];
+
+        for (int i = 0; i < 10000; i++)
+        {
+            int activity = model.drawActivity(random);
+
+            assertTrue(String.valueOf(activity), activity >= 1 && activity <= 10);
+            counts[activity]++;
+        }
+
+        assertTrue(counts[1] > counts[2]);
+        assertTrue(counts[2] > counts[10]);
+        assertTrue(counts[10] > 0);
+    }
+
+    @Test
+    public void memberGrowthMovesJoinsLater()
+    {
+        SkewModel model = new SkewModel();
+        model.setMemberGrowth(0.5);
+
+        SplittableRandom random = new SplittableRandom(1L);
+        long maxDays = 3652L;
+        int late = 0;
+
+        for (int i = 0; i < 10000; i++)
+        {
+            long day = model.drawJoinDay(random, maxDays);
+
+            assertTrue(day >= 0L && day <= maxDays);
+
+            if (day > maxDays / 2L)
+            {
+                late++;
+            }
+        }
+
+        assertTrue(String.valueOf(late), late > 7000);
+    }
+
+    @Test
+    public void burstsMoveJoinsToTheFirstOrFifteenth()
+    {
+        SkewModel model = new SkewModel();
+        model.setBurstFraction(1.0);
+
+        SplittableRandom random = new SplittableRandom(1L);
+        LocalDate joinDate = LocalDate.of(2001, 3, 9);
+
+        for (int i = 0; i < 100; i++)
+        {
+            LocalDate moved = LocalDate.ofEpochDay(LogicalValues.toEpochDay(
+                    model.drawBurst(random, LogicalValues.toDate((int) joinDate.toEpochDay()))));
+
+            assertEquals(joinDate.withDayOfMonth(1).getMonth(), moved.getMonth());
+            assertTrue(moved.toString(), moved.getDayOfMonth() == 1 || moved.getDayOfMonth() == 15);
+        }
+    }
+
+    @Test
+    public void splitSharesAddUpToTheAmount()
+    {
+        long[] amounts = { 0L, 1L, 99L, 100L, 123457L, -1L, -123457L };
+
+        for (long cents: amounts)
+        {
+            for (int activity = 1; activity <= 7; activity++)
+            {
+                long total = 0L;
+                long lowest = Long.MAX_VALUE;
+                long highest = Long.MIN_VALUE;
+
+                for (int part = 0; part < activity; part++)
+                {
+                    long share = SkewModel.splitCents(cents, activity, part);
+                    total += share;
+                    lowest = Math.min(lowest, share);
+                    highest = Math.max(highest, share);
+                }
+
+                assertEquals(cents, total);
+                assertTrue(highest - lowest <= 1L);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsActivityAboveTheLimit()
+    {
+        new SkewModel().setMaxActivity(SkewModel.MAX_ACTIVITY_LIMIT + 1);
+    }
+}
@@ -0,0 +1,44 @@
+package com.aws.datagen;
+
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Prepares the working directory tests run in: the name lists are copied in from the project and
+ * any output left by an earlier run is removed
+ */
+final class TestRuns
+{
+    private static final String[] OUTPUT_DIRECTORIES = { "output_csv", "output_compressed", "output_parquet", "output_orc", "output_arrow",
+            "output_arrow_stream", "output_manifest", "output_metrics" };
+
+    private TestRuns()
+    {
+    }
+
+    /**
+     * Copies the name lists into the working directory if they are not already there
+     */
+    static void prepare() throws IOException
+    {
+        File data = new File("data");
+
+        if (!data.isDirectory())
+        {
+            FileUtils.copyDirectory(new File(System.getProperty("project.basedir", "."), "data"), data);
+        }
+    }
+
+    /**
+     * Deletes the output of earlier runs from the working directory
+     */
+    static void deleteOutput() throws IOException
+    {
+        for (String directory: OUTPUT_DIRECTORIES)
+        {
+            FileUtils.deleteDirectory(new File(directory));
+        }
+    }
+}
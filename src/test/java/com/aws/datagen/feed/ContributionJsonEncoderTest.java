@@ -0,0 +1,50 @@
+package com.aws.datagen.feed;
+
+import com.aws.datagen.sink.ContributionBatch;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+
+public class ContributionJsonEncoderTest
+{
+    @Test
+    public void encodesOneObjectPerLine()
+    {
+        ContributionBatch batch = new ContributionBatch(4);
+        batch.add(0L, 7L, (int) LocalDate.of(2020, 2, 29).toEpochDay(), 12345L);
+        batch.add(1L, 8L, (int) LocalDate.of(2020, 2, 29).toEpochDay(), 5L);
+        batch.add(2L, 9L, (int) LocalDate.of(2020, 3, 1).toEpochDay(), -110L);
+        batch.add(Long.MAX_VALUE, 10L, (int) LocalDate.of(1969, 12, 31).toEpochDay(), 0L);
+
+        ContributionJsonEncoder encoder = new ContributionJsonEncoder();
+        int length = encoder.encode(batch);
+
+        assertEquals("{\"ContributionId\":0,\"CustomerId\":7,\"ContributionDate\":\"2020-02-29\",\"Amount\":123.45}\n"
+                + "{\"ContributionId\":1,\"CustomerId\":8,\"ContributionDate\":\"2020-02-29\",\"Amount\":0.05}\n"
+                + "{\"ContributionId\":2,\"CustomerId\":9,\"ContributionDate\":\"2020-03-01\",\"Amount\":-1.10}\n"
+                + "{\"ContributionId\":9223372036854775807,\"CustomerId\":10,\"ContributionDate\":\"1969-12-31\",\"Amount\":0.00}\n",
+                new String(encoder.getBuffer(), 0, length, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void growsForLargeBatches()
+    {
+        ContributionBatch batch = new ContributionBatch(2000);
+
+        for (int i = 0; i < 2000; i++)
+        {
+            batch.add(Long.MAX_VALUE - i, Long.MAX_VALUE, 0, Long.MAX_VALUE);
+        }
+
+        ContributionJsonEncoder encoder = new ContributionJsonEncoder();
+        int length = encoder.encode(batch);
+        String[] lines = new String(encoder.getBuffer(), 0, length, StandardCharsets.US_ASCII).split("\n");
+
+        assertEquals(2000, lines.length);
+        assertEquals("{\"ContributionId\":9223372036854775807,\"CustomerId\":9223372036854775807,"
+                + "\"ContributionDate\":\"1970-01-01\",\"Amount\":92233720368547758.07}", lines[0]);
+    }
+}
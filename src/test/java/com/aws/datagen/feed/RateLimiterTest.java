@@ -0,0 +1,46 @@
+package com.aws.datagen.feed;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RateLimiterTest
+{
+    @Test
+    public void releasesRowsOnSchedule()
+    {
+        long startNanos = System.nanoTime();
+        RateLimiter limiter = new RateLimiter(1000.0);
+
+        long firstDue = limiter.acquire(50);
+
+        for (int i = 2; i <= 4; i++)
+        {
+            long due = limiter.acquire(50);
+
+            assertEquals(firstDue + (i - 1) * 50000000L, due, 1000.0);
+            assertTrue(System.nanoTime() >= due);
+        }
+
+        assertTrue(System.nanoTime() - startNanos >= 200000000L);
+    }
+
+    @Test
+    public void catchesUpWithoutWaitingWhenBehind() throws InterruptedException
+    {
+        RateLimiter limiter = new RateLimiter(1000.0);
+        Thread.sleep(300L);
+
+        long startNanos = System.nanoTime();
+        limiter.acquire(200);
+
+        assertTrue(System.nanoTime() - startNanos < 50000000L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveRates()
+    {
+        new RateLimiter(0.0);
+    }
+}
@@ -0,0 +1,82 @@
+package com.aws.datagen.feed;
+
+import com.aws.datagen.sink.ContributionBatch;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+public class StreamSinkTest
+{
+    @Test
+    public void flushesEveryBatchWithoutAnInterval() throws IOException
+    {
+        CountingStream output = new CountingStream();
+
+        try (StreamSink sink = new StreamSink(output, 0L))
+        {
+            for (int i = 0; i < 5; i++)
+            {
+                sink.write(batch(i));
+                assertEquals(i + 1, output.flushes);
+                assertEquals(encode(i + 1), output.toString("US-ASCII"));
+            }
+        }
+    }
+
+    @Test
+    public void holdsBatchesUntilTheIntervalPasses() throws IOException
+    {
+        CountingStream output = new CountingStream();
+
+        try (StreamSink sink = new StreamSink(output, 3600000L))
+        {
+            for (int i = 0; i < 5; i++)
+            {
+                sink.write(batch(i));
+            }
+
+            assertEquals(0, output.flushes);
+            assertEquals(0, output.size());
+        }
+
+        assertEquals(encode(5), output.toString("US-ASCII"));
+    }
+
+    private static ContributionBatch batch(int index)
+    {
+        ContributionBatch batch = new ContributionBatch(1);
+        batch.add(index, index, 0, index);
+        return batch;
+    }
+
+    /**
+     * The NDJSON of the first count batches
+     */
+    private static String encode(int count)
+    {
+        StringBuilder json = new StringBuilder();
+        ContributionJsonEncoder encoder = new ContributionJsonEncoder();
+
+        for (int i = 0; i < count; i++)
+        {
+            json.append(new String(encoder.getBuffer(), 0, encoder.encode(batch(i)), StandardCharsets.US_ASCII));
+        }
+
+        return json.toString();
+    }
+
+    private static class CountingStream extends ByteArrayOutputStream
+    {
+        private int flushes = 0;
+
+        @Override
+        public void flush()
+        {
+            flushes++;
+        }
+    }
+}
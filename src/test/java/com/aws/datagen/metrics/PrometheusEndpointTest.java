@@ -0,0 +1,70 @@
+package com.aws.datagen.metrics;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PrometheusEndpointTest
+{
+    @Test
+    public void formatsCountersAsPrometheusText()
+    {
+        RunMetrics metrics = new RunMetrics();
+        metrics.addContributionRows(1500L);
+        metrics.addCustomerRows(100L);
+        metrics.addSkippedRows(20L);
+        metrics.getBytesCounter("csv").add(4096L);
+        metrics.getBytesCounter("parquet").add(512L);
+        metrics.addTime(RunMetrics.Stage.COMPRESSION, 1500000000L);
+
+        String text = PrometheusEndpoint.format(metrics);
+
+        assertContains(text, "# HELP datagen_rows_total Rows generated\n# TYPE datagen_rows_total counter\n"
+                + "datagen_rows_total{table=\"contributions\"} 1500\n"
+                + "datagen_rows_total{table=\"customers\"} 100\n");
+        assertContains(text, "datagen_skipped_rows_total 20\n");
+        assertContains(text, "datagen_written_bytes_total{format=\"csv\"} 4096\n"
+                + "datagen_written_bytes_total{format=\"parquet\"} 512\n");
+        assertContains(text, "datagen_stage_seconds_total{stage=\"generation\"} 0.000000\n");
+        assertContains(text, "datagen_stage_seconds_total{stage=\"compression\"} 1.500000\n");
+        assertContains(text, "# TYPE datagen_eta_seconds gauge\ndatagen_eta_seconds -1.000000\n");
+
+        for (String line: text.split("\n"))
+        {
+            assertTrue(line, line.startsWith("# HELP datagen_") || line.startsWith("# TYPE datagen_")
+                    || line.matches("datagen_[a-z_]+(\\{[a-z]+=\"[a-z_]+\"\\})? -?[0-9.]+"));
+        }
+    }
+
+    @Test
+    public void servesMetricsOnLoopback() throws IOException
+    {
+        RunMetrics metrics = new RunMetrics();
+        metrics.addContributionRows(42L);
+
+        try (PrometheusEndpoint endpoint = new PrometheusEndpoint(metrics, 0))
+        {
+            HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + endpoint.getPort() + "/metrics").openConnection();
+
+            try (InputStream input = connection.getInputStream())
+            {
+                assertEquals(200, connection.getResponseCode());
+                assertTrue(connection.getContentType().startsWith("text/plain; version=0.0.4"));
+                assertContains(IOUtils.toString(input, StandardCharsets.UTF_8), "datagen_rows_total{table=\"contributions\"} 42\n");
+            }
+        }
+    }
+
+    private static void assertContains(String text, String expected)
+    {
+        assertTrue("Missing:\n" + expected + "\nin:\n" + text, text.contains(expected));
+    }
+}
@@ -0,0 +1,54 @@
+package com.aws.datagen.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class RunMetricsTest
+{
+    @Test
+    public void progressFollowsChunksAndRows()
+    {
+        RunMetrics metrics = new RunMetrics();
+        metrics.startRun(400L);
+
+        assertEquals(0.0, metrics.getProgress(), 0.0);
+        assertEquals(-1.0, metrics.getEtaSeconds(), 0.0);
+
+        metrics.startChunk(0L, 200L);
+        metrics.addExpectedRows(1000L);
+        metrics.addContributionRows(500L);
+
+        assertEquals(0.25, metrics.getProgress(), 1e-9);
+
+        metrics.addSkippedRows(500L);
+
+        assertEquals(0.5, metrics.getProgress(), 1e-9);
+
+        metrics.startChunk(200L, 200L);
+        metrics.addExpectedRows(2000L);
+        metrics.addContributionRows(1000L);
+
+        assertEquals(0.75, metrics.getProgress(), 1e-9);
+        assertEquals(metrics.getElapsedSeconds() / 3.0, metrics.getEtaSeconds(), 0.1);
+
+        metrics.finishRun();
+
+        assertEquals(1.0, metrics.getProgress(), 0.0);
+        assertEquals(0.0, metrics.getEtaSeconds(), 0.0);
+    }
+
+    @Test
+    public void sumsTimeAndBytes()
+    {
+        RunMetrics metrics = new RunMetrics();
+        metrics.addTime(RunMetrics.Stage.IO, 250000000L);
+        metrics.addTime(RunMetrics.Stage.IO, 750000000L);
+        metrics.getBytesCounter("csv").add(10L);
+        metrics.getBytesCounter("csv").add(5L);
+
+        assertEquals(1.0, metrics.getStageSeconds().get("io"), 1e-9);
+        assertEquals(0.0, metrics.getStageSeconds().get("sink_wait"), 0.0);
+        assertEquals(15L, (long) metrics.getBytesWritten().get("csv"));
+    }
+}
@@ -0,0 +1,93 @@
+package com.aws.datagen.model;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class LogicalValuesTest
+{
+    @Test
+    public void amountsRoundTripThroughFixedBytes()
+    {
+        long[] amounts = {0L, 1L, -1L, 255L, 256L, -256L, 12345678L, -12345678L, 99999999999L, -99999999999L};
+        LogicalValues.Amount amount = new LogicalValues.Amount();
+
+        for (long cents: amounts)
+        {
+            amount.setCents(cents);
+
+            assertEquals(LogicalValues.AMOUNT_BYTES, amount.bytes().length);
+            assertEquals(cents, LogicalValues.readCents(amount));
+            assertEquals(cents, LogicalValues.readCents(ByteBuffer.wrap(amount.bytes())));
+            assertEquals(BigDecimal.valueOf(cents, 2), new BigDecimal(new BigInteger(amount.bytes()), 2));
+        }
+    }
+
+    @Test
+    public void totalsHoldAmountsBeyondTwelveDigits()
+    {
+        long[] totals = {0L, -1L, 99999999999L + 1L, 999999999999999999L, -999999999999999999L};
+        LogicalValues.Amount total = LogicalValues.Amount.total();
+
+        for (long cents: totals)
+        {
+            total.setCents(cents);
+
+            assertEquals(LogicalValues.TOTAL_BYTES, total.bytes().length);
+            assertEquals(LogicalValues.totalSchema(), total.getSchema());
+            assertEquals(cents, LogicalValues.readCents(total));
+        }
+    }
+
+    @Test
+    public void rejectsAmountsBeyondTheirPrecision()
+    {
+        assertRejected(new LogicalValues.Amount(), 999999999999L, "decimal(12,2)");
+        assertRejected(LogicalValues.Amount.total(), 999999999999999999L, "decimal(18,2)");
+    }
+
+    private static void assertRejected(LogicalValues.Amount amount, long maxCents, String type)
+    {
+        amount.setCents(maxCents);
+        amount.setCents(-maxCents);
+
+        for (long cents: new long[] { maxCents + 1L, -maxCents - 1L, Long.MAX_VALUE, Long.MIN_VALUE })
+        {
+            try
+            {
+                amount.setCents(cents);
+                fail("Accepted " + cents + " cents as " + type);
+            }
+            catch (IllegalArgumentException e)
+            {
+                assertEquals("Amount must fit " + type + ": " + cents + " cents", e.getMessage());
+            }
+        }
+
+        assertEquals(-maxCents, LogicalValues.readCents(amount));
+    }
+
+    @Test
+    public void readsVersionOneAmounts()
+    {
+        assertEquals(1234L, LogicalValues.readCents(12.34));
+        assertEquals(-5L, LogicalValues.readCents(-0.05));
+        assertEquals(1230L, LogicalValues.readCents(new BigDecimal("12.3")));
+    }
+
+    @Test
+    public void readsDatesAsEpochDaysOrStrings()
+    {
+        int epochDay = (int) LocalDate.of(2012, 2, 29).toEpochDay();
+
+        assertEquals(epochDay, LogicalValues.readEpochDay(epochDay));
+        assertEquals(epochDay, LogicalValues.readEpochDay("2012-02-29"));
+        assertEquals(epochDay, LogicalValues.toEpochDay(LogicalValues.toDate(epochDay)));
+    }
+}
@@ -0,0 +1,249 @@
+package com.aws.datagen.sink;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AsyncSinkTest
+{
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(2);
+
+    @Test
+    public void writesBatchesInOrderThenCloses() throws IOException
+    {
+        RecordingSink delegate = new RecordingSink(-1);
+
+        try (AsyncSink<Integer> sink = new AsyncSink<>(delegate, 2, EXECUTOR, "test-writer"))
+        {
+            for (int i = 0; i < 1000; i++)
+            {
+                sink.write(i);
+            }
+        }
+
+        assertEquals(1000, delegate.batches.size());
+
+        for (int i = 0; i < 1000; i++)
+        {
+            assertEquals(i, (int) delegate.batches.get(i));
+        }
+
+        assertTrue(delegate.closed);
+    }
+
+    @Test
+    public void rethrowsWriterFailures() throws IOException
+    {
+        RecordingSink delegate = new RecordingSink(3);
+        try (AsyncSink<Integer> sink = new AsyncSink<>(delegate, 1, EXECUTOR, "test-writer"))
+        {
+            for (int i = 0; i < 1000; i++)
+            {
+                sink.write(i);
+            }
+
+            fail("Expected the writer failure");
+        }
+        catch (IOException e)
+        {
+            assertSame(RecordingSink.FAILURE, e.getCause());
+        }
+
+        assertTrue(delegate.closed);
+    }
+
+    @Test
+    public void releasesRecyclableBatchesOnceWritten() throws IOException
+    {
+        ContributionBatchPool pool = new ContributionBatchPool(4);
+        List<Integer> sizes = Collections.synchronizedList(new ArrayList<>());
+
+        Sink<ContributionBatch> delegate = new Sink<ContributionBatch>()
+        {
+            @Override
+            public void write(ContributionBatch batch)
+            {
+                sizes.add(batch.size());
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        };
+
+        try (AsyncSink<ContributionBatch> first = new AsyncSink<>(delegate, 2, EXECUTOR, "test-writer-1");
+             AsyncSink<ContributionBatch> second = new AsyncSink<>(delegate, 2, EXECUTOR, "test-writer-2"))
+        {
+            for (int i = 0; i < 100; i++)
+            {
+                ContributionBatch batch = pool.acquire();
+                batch.add(i, i, i, i);
+                batch.add(i, i, i, i);
+
+                first.write(batch);
+                second.write(batch);
+                batch.release();
+            }
+        }
+
+        assertEquals(200, sizes.size());
+
+        for (int size: sizes)
+        {
+            assertEquals(2, size);
+        }
+
+        // Two queues of two, a batch being written by each writer and the one being filled
+        assertTrue(pool.getFreeBatches() >= 1 && pool.getFreeBatches() <= 7);
+    }
+
+    @Test
+    public void manySinksShareOneWriterThread() throws IOException
+    {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        List<RecordingSink> delegates = new ArrayList<>();
+        List<AsyncSink<Integer>> sinks = new ArrayList<>();
+
+        try
+        {
+            for (int i = 0; i < 20; i++)
+            {
+                delegates.add(new RecordingSink(-1));
+                sinks.add(new AsyncSink<>(delegates.get(i), 2, executor, "test-writer-" + i));
+            }
+
+            for (int batch = 0; batch < 100; batch++)
+            {
+                for (AsyncSink<Integer> sink: sinks)
+                {
+                    sink.write(batch);
+                }
+            }
+
+            for (AsyncSink<Integer> sink: sinks)
+            {
+                sink.close();
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        for (RecordingSink delegate: delegates)
+        {
+            assertEquals(100, delegate.batches.size());
+            assertTrue(delegate.closed);
+        }
+    }
+
+    @Test
+    public void interruptedCloseWaitsForTheWriter() throws Exception
+    {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean closedWhileWriting = new AtomicBoolean(false);
+        AtomicBoolean writeFinished = new AtomicBoolean(false);
+
+        Sink<Integer> delegate = new Sink<Integer>()
+        {
+            @Override
+            public void write(Integer batch) throws IOException
+            {
+                writing.countDown();
+
+                try
+                {
+                    release.await();
+                }
+                catch (InterruptedException e)
+                {
+                    throw new InterruptedIOException();
+                }
+
+                writeFinished.set(true);
+            }
+
+            @Override
+            public void close()
+            {
+                closedWhileWriting.set(!writeFinished.get());
+            }
+        };
+
+        AsyncSink<Integer> sink = new AsyncSink<>(delegate, 1, EXECUTOR, "test-writer");
+        sink.write(1);
+        writing.await();
+
+        Thread.currentThread().interrupt();
+        Thread releaser = new Thread(() ->
+        {
+            try
+            {
+                Thread.sleep(200L);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+
+            release.countDown();
+        });
+        releaser.start();
+
+        sink.close();
+
+        assertTrue(Thread.interrupted());
+        assertTrue(writeFinished.get());
+        assertFalse(closedWhileWriting.get());
+    }
+
+    /**
+     * Records every batch, failing on the batch with the given value
+     */
+    private static class RecordingSink implements Sink<Integer>
+    {
+        private static final IOException FAILURE = new IOException("Failed to write");
+
+        private final List<Integer> batches = Collections.synchronizedList(new ArrayList<>());
+        private final int failOn;
+        private volatile boolean closed = false;
+
+        RecordingSink(int failOn)
+        {
+            this.failOn = failOn;
+        }
+
+        @Override
+        public void write(Integer batch) throws IOException
+        {
+            if (batch == failOn)
+            {
+                throw FAILURE;
+            }
+
+            batches.add(batch);
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+        }
+    }
+}
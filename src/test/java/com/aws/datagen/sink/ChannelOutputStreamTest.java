@@ -0,0 +1,95 @@
+package com.aws.datagen.sink;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ChannelOutputStreamTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void writesEveryByteAcrossBufferBoundaries() throws IOException
+    {
+        File file = folder.newFile("out.csv");
+        SplittableRandom random = new SplittableRandom(5L);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+
+        try (ChannelOutputStream output = new ChannelOutputStream(file))
+        {
+            for (int i = 0; i < 200; i++)
+            {
+                byte[] bytes = new byte[random.nextInt(i % 50 == 0 ? 3 * ChannelOutputStream.BUFFER_SIZE : 20000)];
+                random.nextBytes(bytes);
+
+                if (i % 7 == 0)
+                {
+                    for (byte b: bytes)
+                    {
+                        output.write(b);
+                    }
+                }
+                else
+                {
+                    output.write(bytes, 0, bytes.length);
+                }
+
+                expected.write(bytes);
+
+                if (i % 30 == 0)
+                {
+                    output.flush();
+                }
+            }
+        }
+
+        assertArrayEquals(expected.toByteArray(), FileUtils.readFileToByteArray(file));
+    }
+
+    @Test
+    public void truncatesAndReusesBuffers() throws IOException
+    {
+        File file = folder.newFile("out.csv");
+        FileUtils.writeStringToFile(file, "an older and longer file", "US-ASCII");
+
+        for (int i = 0; i < 3; i++)
+        {
+            ChannelOutputStream output = new ChannelOutputStream(file);
+            output.write(new byte[] { 'a', 'b', (byte) ('0' + i) });
+            output.close();
+            output.close();
+
+            assertArrayEquals(new byte[] { 'a', 'b', (byte) ('0' + i) }, FileUtils.readFileToByteArray(file));
+        }
+    }
+
+    @Test
+    public void poolsAtMostTheCappedNumberOfBuffers() throws IOException
+    {
+        List<ChannelOutputStream> outputs = new ArrayList<>();
+
+        for (int i = 0; i < ChannelOutputStream.MAX_POOLED_BUFFERS * 2; i++)
+        {
+            outputs.add(new ChannelOutputStream(folder.newFile("out" + i + ".csv")));
+        }
+
+        for (ChannelOutputStream output: outputs)
+        {
+            output.close();
+        }
+
+        assertEquals(ChannelOutputStream.MAX_POOLED_BUFFERS, ChannelOutputStream.getPooledBufferCount());
+    }
+}
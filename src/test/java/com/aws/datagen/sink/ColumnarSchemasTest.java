@@ -0,0 +1,62 @@
+package com.aws.datagen.sink;
+
+import com.aws.datagen.model.Contribution;
+import com.aws.datagen.model.Customer;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.orc.TypeDescription;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class ColumnarSchemasTest
+{
+    @Test
+    public void arrowSchemaFollowsTheAvroSchema()
+    {
+        Schema schema = ColumnarSchemas.toArrow(Contribution.SCHEMA);
+        List<Field> fields = schema.getFields();
+
+        assertEquals(Arrays.asList("ContributionId", "CustomerId", "Amount", "ContributionDate"), names(fields));
+        assertEquals(new ArrowType.Int(64, true), fields.get(0).getType());
+        assertEquals(new ArrowType.Decimal(12, 2, 128), fields.get(2).getType());
+        assertEquals(new ArrowType.Date(DateUnit.DAY), fields.get(3).getType());
+
+        for (Field field: fields)
+        {
+            assertFalse(field.getName(), field.isNullable());
+        }
+
+        assertEquals(ArrowType.Utf8.INSTANCE, ColumnarSchemas.toArrow(Customer.SCHEMA).getFields().get(1).getType());
+    }
+
+    @Test
+    public void orcSchemaFollowsTheAvroSchema()
+    {
+        assertEquals("struct<ContributionId:bigint,CustomerId:bigint,Amount:decimal(12,2),ContributionDate:date>",
+                ColumnarSchemas.toOrc(Contribution.SCHEMA).toString());
+
+        TypeDescription customer = ColumnarSchemas.toOrc(Customer.SCHEMA);
+
+        assertEquals(Arrays.asList("CustomerId", "Title", "FirstName", "LastName", "Gender", "JoinDate"), customer.getFieldNames());
+        assertEquals(TypeDescription.Category.DATE, customer.getChildren().get(5).getCategory());
+    }
+
+    private static List<String> names(List<Field> fields)
+    {
+        String[] names = new String[fields.size()];
+
+        for (int i = 0; i < names.length; i++)
+        {
+            names[i] = fields.get(i).getName();
+        }
+
+        return Arrays.asList(names);
+    }
+}
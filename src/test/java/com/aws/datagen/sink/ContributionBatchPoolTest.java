@@ -0,0 +1,43 @@
+package com.aws.datagen.sink;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class ContributionBatchPoolTest
+{
+    @Test
+    public void reusesABatchOnceEveryReferenceIsReleased()
+    {
+        ContributionBatchPool pool = new ContributionBatchPool(4);
+        ContributionBatch batch = pool.acquire();
+        batch.add(1L, 2L, 3, 4L);
+        batch.retain();
+
+        batch.release();
+        assertEquals(0, pool.getFreeBatches());
+        assertNotSame(batch, pool.acquire());
+
+        batch.release();
+        assertEquals(1, pool.getFreeBatches());
+
+        ContributionBatch reused = pool.acquire();
+        assertSame(batch, reused);
+        assertEquals(0, reused.size());
+
+        reused.release();
+        assertSame(batch, pool.acquire());
+    }
+
+    @Test
+    public void unpooledBatchesAreNotReused()
+    {
+        ContributionBatch batch = new ContributionBatch(4);
+        batch.add(1L, 2L, 3, 4L);
+        batch.release();
+
+        assertEquals(1, batch.size());
+    }
+}
@@ -0,0 +1,91 @@
+package com.aws.datagen.sink;
+
+import com.aws.datagen.metrics.RunMetrics;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.QuoteMode;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+
+public class ContributionBatchTest
+{
+    @Test
+    public void csvBytesMatchCsvPrinter() throws IOException
+    {
+        assertCsvMatches(new SplittableRandom(1L), 8192, 1L << 20);
+    }
+
+    @Test
+    public void longRowsMatchCsvPrinter() throws IOException
+    {
+        assertCsvMatches(new SplittableRandom(2L), 1000, Long.MAX_VALUE);
+    }
+
+    @Test
+    public void datesOutsideTheQuotedTableMatchCsvPrinter() throws IOException
+    {
+        assertCsvMatches(new SplittableRandom(3L), 1000, 1L << 20, LocalDate.of(1969, 12, 1));
+        assertCsvMatches(new SplittableRandom(4L), 1000, 1L << 20, LocalDate.of(2099, 12, 1));
+    }
+
+    @Test
+    public void emptyBatchWritesNoRows() throws IOException
+    {
+        assertEquals("", writeCsv(new ContributionBatch(16)));
+    }
+
+    private static void assertCsvMatches(SplittableRandom random, int rows, long maxValue) throws IOException
+    {
+        assertCsvMatches(random, rows, maxValue, LocalDate.of(2010, 1, 1));
+    }
+
+    private static void assertCsvMatches(SplittableRandom random, int rows, long maxValue, LocalDate start) throws IOException
+    {
+        ContributionBatch batch = new ContributionBatch(rows);
+        StringWriter expected = new StringWriter();
+        int epochDay = (int) start.toEpochDay();
+
+        try (CSVPrinter printer = new CSVPrinter(expected, CSVFormat.EXCEL.withQuote('"').withQuoteMode(QuoteMode.NON_NUMERIC)))
+        {
+            while (!batch.isFull())
+            {
+                long contributionId = random.nextLong(maxValue);
+                long customerId = random.nextLong(maxValue);
+                long cents = random.nextLong(100000000L);
+
+                if (random.nextInt(10) == 0)
+                {
+                    epochDay++;
+                }
+
+                batch.add(contributionId, customerId, epochDay, cents);
+                printer.printRecord(contributionId, customerId, LocalDate.ofEpochDay(epochDay).toString(), cents / 100.0);
+            }
+        }
+
+        assertEquals(expected.toString(), writeCsv(batch));
+    }
+
+    /**
+     * Writes a batch through a CSV sink, without its header
+     */
+    private static String writeCsv(ContributionBatch batch) throws IOException
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try (CsvSink<ContributionBatch> sink = new CsvSink<>(output, new byte[0], new RunMetrics()))
+        {
+            sink.write(batch);
+        }
+
+        return new String(output.toByteArray(), StandardCharsets.US_ASCII);
+    }
+}
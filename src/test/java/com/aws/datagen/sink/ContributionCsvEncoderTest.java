@@ -0,0 +1,108 @@
+package com.aws.datagen.sink;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.QuoteMode;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+
+public class ContributionCsvEncoderTest
+{
+    private static final CSVFormat FORMAT = CSVFormat.EXCEL.withQuote('"').withQuoteMode(QuoteMode.NON_NUMERIC)
+            .withHeader("ContributionId", "CustomerId", "ContributionDate", "Amount");
+
+    @Test
+    public void headerMatchesCsvPrinter() throws IOException
+    {
+        StringWriter writer = new StringWriter();
+        new CSVPrinter(writer, FORMAT).flush();
+
+        assertEquals(writer.toString(), ContributionCsvEncoder.HEADER);
+    }
+
+    @Test
+    public void edgeAmountsMatchCsvPrinter() throws IOException
+    {
+        long[] amounts = {0L, 1L, 5L, 10L, 50L, 99L, 100L, 101L, 110L, 12345L, -1L, -10L, -12345L, 999999999L};
+
+        for (long cents: amounts)
+        {
+            assertRowMatches(0L, 0L, LocalDate.of(2020, 2, 29), cents);
+        }
+    }
+
+    @Test
+    public void scientificAmountsMatchCsvPrinter() throws IOException
+    {
+        long[] amounts = {999999999L, 1000000000L, 1000000001L, 1234567891L, 1000000010L, -1000000000L, -98765432109L,
+                123456789012345678L, Long.MAX_VALUE, Long.MIN_VALUE + 1L};
+
+        for (long cents: amounts)
+        {
+            assertRowMatches(Long.MIN_VALUE, Long.MAX_VALUE, LocalDate.of(2020, 2, 29), cents);
+        }
+
+        SplittableRandom random = new SplittableRandom(3L);
+
+        for (int i = 0; i < 10000; i++)
+        {
+            assertRowMatches(i, i, LocalDate.of(2020, 1, 1), random.nextLong(1000000000L, Long.MAX_VALUE) * (i % 2 == 0 ? 1L : -1L));
+        }
+    }
+
+    @Test
+    public void randomRowsMatchCsvPrinter() throws IOException
+    {
+        SplittableRandom random = new SplittableRandom(42L);
+
+        for (int i = 0; i < 100000; i++)
+        {
+            long contributionId = i % 10 == 0 ? random.nextLong() : random.nextLong(1L << 40);
+            long customerId = random.nextLong(100000000L);
+            LocalDate date = LocalDate.ofEpochDay(random.nextInt(-1000, 40000));
+            long cents = random.nextLong(-1000000L, 1000000000L);
+
+            assertRowMatches(contributionId, customerId, date, cents);
+        }
+    }
+
+    @Test
+    public void rowLengthMatchesEncoding()
+    {
+        SplittableRandom random = new SplittableRandom(7L);
+        ContributionCsvEncoder encoder = new ContributionCsvEncoder();
+        byte[] date = ContributionCsvEncoder.quote("2021-06-15");
+
+        for (int i = 0; i < 10000; i++)
+        {
+            long contributionId = random.nextLong();
+            long customerId = random.nextLong();
+            long cents = i % 2 == 0 ? random.nextLong(-1000000000L, 1000000000L) : random.nextLong();
+
+            assertEquals(encoder.encode(contributionId, customerId, date, cents),
+                    ContributionCsvEncoder.getRowLength(contributionId, customerId, cents));
+        }
+    }
+
+    private static void assertRowMatches(long contributionId, long customerId, LocalDate date, long cents) throws IOException
+    {
+        StringWriter expected = new StringWriter();
+
+        try (CSVPrinter printer = new CSVPrinter(expected, CSVFormat.EXCEL.withQuote('"').withQuoteMode(QuoteMode.NON_NUMERIC)))
+        {
+            printer.printRecord(contributionId, customerId, date.toString(), cents / 100.0);
+        }
+
+        ContributionCsvEncoder encoder = new ContributionCsvEncoder();
+        int length = encoder.encode(contributionId, customerId, ContributionCsvEncoder.quote(date.toString()), cents);
+
+        assertEquals(expected.toString(), new String(encoder.getBuffer(), 0, length, StandardCharsets.US_ASCII));
+    }
+}
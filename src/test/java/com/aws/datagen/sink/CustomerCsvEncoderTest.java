@@ -0,0 +1,87 @@
+package com.aws.datagen.sink;
+
+import com.aws.datagen.model.Customer;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.QuoteMode;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CustomerCsvEncoderTest
+{
+    private static final CSVFormat FORMAT = CSVFormat.EXCEL.withQuote('"').withQuoteMode(QuoteMode.NON_NUMERIC);
+
+    @Test
+    public void headerMatchesCsvPrinter() throws IOException
+    {
+        StringWriter writer = new StringWriter();
+        new CSVPrinter(writer, FORMAT.withHeader("CustomerId", "Title", "First", "Last", "Gender", "JoinDate")).flush();
+
+        assertEquals(writer.toString(), CustomerCsvEncoder.HEADER);
+    }
+
+    @Test
+    public void plainCustomerMatchesCsvPrinter() throws IOException
+    {
+        assertRowMatches(customer(1L, "Mr", "John", "Smith", true, LocalDate.of(2012, 1, 1)));
+        assertRowMatches(customer(2L, "Dr", "Jane", "Doe", false, LocalDate.of(2019, 12, 31)));
+    }
+
+    @Test
+    public void quotesAndUnicodeMatchCsvPrinter() throws IOException
+    {
+        assertRowMatches(customer(5L, "M\"s", "Zo\u00eb", "O\"Brien, Jr", false, LocalDate.of(2001, 2, 3)));
+        assertRowMatches(customer(6L, "Se\u00f1or", "Jos\u00e9", "\u00c5ngstr\u00f6m", true, LocalDate.of(1999, 9, 9)));
+    }
+
+    @Test
+    public void extremeDatesMatchCsvPrinter() throws IOException
+    {
+        assertRowMatches(customer(7L, "Mr", "A", "B", true, LocalDate.of(1, 1, 1)));
+        assertRowMatches(customer(Long.MAX_VALUE, "Mr", "A", "B", true, LocalDate.of(9999, 12, 31)));
+        assertRowMatches(customer(-1L, "Mr", "A", "B", true, LocalDate.of(10000, 1, 1)));
+    }
+
+    @Test
+    public void missingValuesMatchCsvPrinter() throws IOException
+    {
+        assertRowMatches(customer(3L, null, "Alex", "Jones", false, LocalDate.of(2015, 6, 1)));
+        assertRowMatches(customer(4L, null, null, null, true, LocalDate.of(2015, 6, 1)));
+    }
+
+    private static Customer customer(long customerId, String title, String first, String last, boolean male, LocalDate joinDate)
+    {
+        Customer customer = new Customer(customerId);
+        customer.setTitle(title);
+        customer.setFirstName(first);
+        customer.setLastName(last);
+        customer.setMale(male);
+        customer.setJoinEpochDay((int) joinDate.toEpochDay());
+
+        return customer;
+    }
+
+    private static void assertRowMatches(Customer customer) throws IOException
+    {
+        StringWriter writer = new StringWriter();
+
+        try (CSVPrinter printer = new CSVPrinter(writer, FORMAT))
+        {
+            printer.printRecord(customer.getCustomerId(), customer.getTitle(), customer.getFirstName(),
+                    customer.getLastName(), customer.getGenderString(), LocalDate.ofEpochDay(customer.getJoinEpochDay()).toString());
+        }
+
+        byte[] target = new byte[CustomerCsvEncoder.getMaxLength(customer) + 10];
+        int length = CustomerCsvEncoder.encode(customer, target, 10);
+
+        assertTrue(length - 10 <= CustomerCsvEncoder.getMaxLength(customer));
+        assertEquals(writer.toString(), new String(target, 10, length - 10, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,166 @@
+package com.aws.datagen.sink;
+
+import com.aws.datagen.metrics.RunMetrics;
+import org.apache.commons.io.IOUtils;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelGzipOutputStreamTest
+{
+    private static ExecutorService executor;
+
+    @BeforeClass
+    public static void startExecutor()
+    {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterClass
+    public static void stopExecutor()
+    {
+        executor.shutdown();
+    }
+
+    @Test
+    public void emptyStreamRoundTrips() throws IOException
+    {
+        assertRoundTrip(new byte[0], 6, 1024, 1, 4);
+    }
+
+    @Test
+    public void textRoundTripsAcrossManyBlocks() throws IOException
+    {
+        StringBuilder text = new StringBuilder();
+
+        for (int i = 0; i < 50000; i++)
+        {
+            text.append(i).append(",\"2020-01-01\",").append(i * 7 % 1000).append(".5\r\n");
+        }
+
+        byte[] data = text.toString().getBytes(StandardCharsets.US_ASCII);
+
+        assertRoundTrip(data, 6, 4096, 1, 4);
+        assertRoundTrip(data, 1, 64 * 1024, 777, 2);
+        assertRoundTrip(data, 9, data.length, 100000, 1);
+    }
+
+    @Test
+    public void randomBytesRoundTripAtEveryLevel() throws IOException
+    {
+        byte[] data = new byte[300000];
+        new SplittableRandom(11L).nextBytes(data);
+
+        for (int level = 1; level <= 9; level++)
+        {
+            assertRoundTrip(data, level, 10000, 4096, 3);
+        }
+    }
+
+    @Test
+    public void singleByteWritesRoundTrip() throws IOException
+    {
+        byte[] data = new byte[5000];
+
+        for (int i = 0; i < data.length; i++)
+        {
+            data[i] = (byte) (i % 13);
+        }
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+        try (ParallelGzipOutputStream output = new ParallelGzipOutputStream(compressed, executor, 6, 1000, 2))
+        {
+            for (byte b: data)
+            {
+                output.write(b);
+            }
+        }
+
+        assertArrayEquals(data, gunzip(compressed.toByteArray()));
+    }
+
+    @Test
+    public void finishingAMemberIsTimedAsCompression() throws IOException
+    {
+        byte[] data = "a small member that deflates in one call".getBytes(StandardCharsets.US_ASCII);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+
+        try (GZIPOutputStream gzip = new GZIPOutputStream(expected))
+        {
+            gzip.write(data);
+        }
+
+        CountingMetrics metrics = new CountingMetrics();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        GZIPOutputStream gzip = new ParallelGzipOutputStream.LevelGZIPOutputStream(compressed, Deflater.DEFAULT_COMPRESSION, metrics);
+        gzip.write(data);
+        int written = metrics.compressionTimings;
+        gzip.close();
+
+        assertTrue(metrics.compressionTimings > written);
+        assertArrayEquals(expected.toByteArray(), compressed.toByteArray());
+    }
+
+    /**
+     * Counts how often compression time is added
+     */
+    private static class CountingMetrics extends RunMetrics
+    {
+        private int compressionTimings = 0;
+
+        @Override
+        public void addTime(Stage stage, long nanos)
+        {
+            if (stage == Stage.COMPRESSION)
+            {
+                compressionTimings++;
+            }
+
+            super.addTime(stage, nanos);
+        }
+    }
+
+    private static void assertRoundTrip(byte[] data, int level, int blockSize, int writeSize, int maxBlocksInFlight) throws IOException
+    {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+        try (ParallelGzipOutputStream output = new ParallelGzipOutputStream(compressed, executor, level, blockSize, maxBlocksInFlight))
+        {
+            for (int offset = 0; offset < data.length; offset += writeSize)
+            {
+                output.write(data, offset, Math.min(writeSize, data.length - offset));
+
+                if (offset % (writeSize * 50) == 0)
+                {
+                    output.flush();
+                }
+            }
+        }
+
+        assertArrayEquals(data, gunzip(compressed.toByteArray()));
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException
+    {
+        try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed)))
+        {
+            return IOUtils.toByteArray(input);
+        }
+    }
+}
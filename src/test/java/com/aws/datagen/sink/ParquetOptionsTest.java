@@ -0,0 +1,98 @@
+package com.aws.datagen.sink;
+
+import org.apache.parquet.column.ParquetProperties;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ParquetOptionsTest
+{
+    @Test
+    public void setsOptionsByName()
+    {
+        ParquetOptions options = new ParquetOptions();
+        options.set("codec", "gzip");
+        options.set("row-group-size", "1048576");
+        options.set("page-size", "65536");
+        options.set("dictionary-page-size", "32768");
+        options.set("dictionary", "false");
+        options.set("writer-version", "V2");
+
+        assertEquals(CompressionCodecName.GZIP, options.getCodec());
+        assertEquals(1048576, options.getRowGroupSize());
+        assertEquals(65536, options.getPageSize());
+        assertEquals(32768, options.getDictionaryPageSize());
+        assertFalse(options.getDictionaryEncoding());
+        assertEquals(ParquetProperties.WriterVersion.PARQUET_2_0, options.getWriterVersion());
+        assertEquals(".gz.parquet", options.getFileExtension());
+    }
+
+    @Test
+    public void copiesAreIndependent()
+    {
+        ParquetOptions options = new ParquetOptions();
+        ParquetOptions copy = options.copy();
+        copy.set("codec", "uncompressed");
+
+        assertEquals(CompressionCodecName.SNAPPY, options.getCodec());
+        assertEquals(".snappy.parquet", options.getFileExtension());
+        assertEquals(".parquet", copy.getFileExtension());
+    }
+
+    @Test
+    public void unqualifiedKeysApplyToBothTables()
+    {
+        SinkContext context = new SinkContext();
+        context.setParquetOption("codec", "gzip");
+        context.setParquetOption("customers.dictionary", "false");
+
+        assertEquals(CompressionCodecName.GZIP, context.getParquetOptions(SinkContext.CONTRIBUTIONS).getCodec());
+        assertEquals(CompressionCodecName.GZIP, context.getParquetOptions(SinkContext.CUSTOMERS).getCodec());
+        assertTrue(context.getParquetOptions(SinkContext.CONTRIBUTIONS).getDictionaryEncoding());
+        assertFalse(context.getParquetOptions(SinkContext.CUSTOMERS).getDictionaryEncoding());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownOptions()
+    {
+        new ParquetOptions().set("bloom-filter", "true");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownTables()
+    {
+        new SinkContext().setParquetOption("orders.codec", "gzip");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsCodecsMissingFromTheClasspath()
+    {
+        new ParquetOptions().set("codec", "zstd");
+    }
+
+    @Test
+    public void rejectsSizesBelowOneByte()
+    {
+        ParquetOptions options = new ParquetOptions();
+
+        for (String option: new String[] { "row-group-size", "page-size", "dictionary-page-size" })
+        {
+            for (String size: new String[] { "0", "-1" })
+            {
+                try
+                {
+                    options.set(option, size);
+                    fail("Accepted " + option + " " + size);
+                }
+                catch (IllegalArgumentException e)
+                {
+                    assertEquals("Parquet " + option + " must be at least 1 byte: " + size, e.getMessage());
+                }
+            }
+        }
+    }
+}
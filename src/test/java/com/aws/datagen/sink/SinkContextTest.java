@@ -0,0 +1,44 @@
+package com.aws.datagen.sink;
+
+import org.junit.Test;
+
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class SinkContextTest
+{
+    @Test
+    public void acceptsGzipLevelsOneToNine()
+    {
+        SinkContext context = new SinkContext();
+
+        assertEquals(6, context.getGzipLevel());
+
+        for (int level = 1; level <= 9; level++)
+        {
+            context.setGzipLevel(level);
+            assertEquals(level, context.getGzipLevel());
+        }
+    }
+
+    @Test
+    public void rejectsOtherGzipLevels()
+    {
+        SinkContext context = new SinkContext();
+
+        for (int level: new int[] { Deflater.DEFAULT_COMPRESSION, Deflater.NO_COMPRESSION, 10 })
+        {
+            try
+            {
+                context.setGzipLevel(level);
+                fail("Accepted gzip level " + level);
+            }
+            catch (IllegalArgumentException e)
+            {
+                assertEquals("Gzip level must be between 1 and 9: " + level, e.getMessage());
+            }
+        }
+    }
+}
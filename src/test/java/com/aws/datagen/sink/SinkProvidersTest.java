@@ -0,0 +1,53 @@
+package com.aws.datagen.sink;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SinkProvidersTest
+{
+    @Test
+    public void resolvesNamesInOrderWithoutDuplicates()
+    {
+        assertEquals(Arrays.asList("parquet", "csv"), names(SinkProviders.resolve(" Parquet,csv,,PARQUET ")));
+        assertEquals(Arrays.asList("csv", "compressed_csv", "parquet"), names(SinkProviders.defaults()));
+    }
+
+    @Test
+    public void listsBuiltInProvidersFirst()
+    {
+        List<String> available = new ArrayList<>(SinkProviders.available().keySet());
+
+        assertTrue(available.size() >= 6);
+        assertEquals(Arrays.asList("csv", "compressed_csv", "parquet", "orc", "arrow", "arrow_stream"), available.subList(0, 6));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownFormats()
+    {
+        SinkProviders.resolve("csv,json");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyFormats()
+    {
+        SinkProviders.resolve(" , ");
+    }
+
+    private static List<String> names(List<SinkProvider> providers)
+    {
+        List<String> names = new ArrayList<>();
+
+        for (SinkProvider provider: providers)
+        {
+            names.add(provider.getName().toLowerCase());
+        }
+
+        return names;
+    }
+}
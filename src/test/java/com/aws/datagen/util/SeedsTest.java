@@ -0,0 +1,41 @@
+package com.aws.datagen.util;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class SeedsTest
+{
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    @Test
+    public void mixesAsSplitMix64()
+    {
+        for (long seed: new long[] { 0L, 42L, -1L, Long.MIN_VALUE })
+        {
+            for (long key = -2L; key < 5L; key++)
+            {
+                assertEquals(new SplittableRandom(seed + GOLDEN_GAMMA * key).nextLong(), Seeds.mix(seed, key));
+            }
+        }
+    }
+
+    @Test
+    public void derivesDistinctSeedsForEachKey()
+    {
+        Set<Long> seeds = new HashSet<>();
+
+        for (long key = 0L; key < 100000L; key++)
+        {
+            seeds.add(Seeds.mix(42L, key));
+        }
+
+        assertEquals(100000, seeds.size());
+        assertNotEquals(Seeds.mix(42L, 0L), Seeds.mix(43L, 0L));
+    }
+}